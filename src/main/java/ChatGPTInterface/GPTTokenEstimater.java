@@ -20,13 +20,48 @@
 package ChatGPTInterface;
 
 /**
+ * Estimates the number of tokens text will take up in a GPT request. Errs on
+ * the high side, so that requests planned with it stay within limits: runs of
+ * ASCII letters and digits cost a token per four characters, each ASCII symbol
+ * costs one, and each character outside of ASCII (common in conlang text,
+ * which tokenizes poorly) costs one. Whitespace is free.
  *
  * @author draquethompson
  */
 
 public class GPTTokenEstimater {
+    // tokens added to each message by the chat format itself
+    public static final int MESSAGE_OVERHEAD = 4;
+    
     public static int estimateTokenCount(String target) {
-        // TODO: If this could be better, that would be nice.
-        return target.length()/4;
+        int count = 0;
+        int runLength = 0;
+        
+        for (int i = 0; i < target.length(); ) {
+            int codePoint = target.codePointAt(i);
+            i += Character.charCount(codePoint);
+            
+            if (codePoint < 128 && Character.isLetterOrDigit(codePoint)) {
+                runLength++;
+                continue;
+            }
+            
+            count += (runLength + 3) / 4;
+            runLength = 0;
+            
+            if (!Character.isWhitespace(codePoint)) {
+                count++;
+            }
+        }
+        
+        return count + (runLength + 3) / 4;
+    }
+    
+    /**
+     * @param message
+     * @return estimated tokens of message, including chat format overhead
+     */
+    public static int estimateTokenCount(GptMessage message) {
+        return estimateTokenCount(message.getContent()) + MESSAGE_OVERHEAD;
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ChatGPTInterface;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Plans what goes into a request so that it fits the model's context window.
+ * Required content is always included, while optional content is offered in
+ * order of importance and included only if it fits what remains. A share of
+ * the window is held back for the reply.
+ *
+ * @author Draque Thompson
+ */
+public class GptContextPlanner {
+    public static final int DEFAULT_CONTEXT_WINDOW = 4096;
+    // ordered most specific first: first match wins
+    private static final Map<String, Integer> CONTEXT_WINDOW_LOOKUP = new LinkedHashMap<>();
+    private static final int REPLY_SHARE = 4; // 1/REPLY_SHARE of window kept for reply
+    
+    private final int budget;
+    private int used = 0;
+    
+    public GptContextPlanner(String model) {
+        this(getContextWindow(model));
+    }
+    
+    /**
+     * @param contextWindow total tokens model accepts (request and reply)
+     */
+    public GptContextPlanner(int contextWindow) {
+        budget = contextWindow - contextWindow / REPLY_SHARE;
+    }
+    
+    /**
+     * @param model
+     * @return context window of model in tokens (a conservative default if
+     * model unknown)
+     */
+    public static int getContextWindow(String model) {
+        for (Entry<String, Integer> entry : CONTEXT_WINDOW_LOOKUP.entrySet()) {
+            if (model.contains(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        
+        return DEFAULT_CONTEXT_WINDOW;
+    }
+    
+    /**
+     * Counts message which must be sent regardless of budget
+     * 
+     * @param message
+     */
+    public void require(GptMessage message) {
+        used += GPTTokenEstimater.estimateTokenCount(message);
+    }
+    
+    /**
+     * Includes message if it fits within remaining budget
+     * 
+     * @param message
+     * @return true if included
+     */
+    public boolean offer(GptMessage message) {
+        return offer(GPTTokenEstimater.estimateTokenCount(message));
+    }
+    
+    /**
+     * Includes content of given size if it fits within remaining budget
+     * 
+     * @param tokens estimated size of content
+     * @return true if included
+     */
+    public boolean offer(int tokens) {
+        if (used + tokens > budget) {
+            return false;
+        }
+        
+        used += tokens;
+        return true;
+    }
+    
+    /**
+     * @return true if required content alone exceeds budget
+     */
+    public boolean isOverBudget() {
+        return used > budget;
+    }
+    
+    public int getUsedTokens() {
+        return used;
+    }
+    
+    public int getBudget() {
+        return budget;
+    }
+    
+    static {
+        CONTEXT_WINDOW_LOOKUP.put("gpt-4-1106", 128000);
+        CONTEXT_WINDOW_LOOKUP.put("gpt-4-turbo", 128000);
+        CONTEXT_WINDOW_LOOKUP.put("32k", 32768);
+        CONTEXT_WINDOW_LOOKUP.put("gpt-3.5-turbo-1106", 16385);
+        CONTEXT_WINDOW_LOOKUP.put("16k", 16384);
+        CONTEXT_WINDOW_LOOKUP.put("gpt-4", 8192);
+        CONTEXT_WINDOW_LOOKUP.put("gpt-3.5", 4096);
+    }
+}
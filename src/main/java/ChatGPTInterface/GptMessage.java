@@ -36,6 +36,14 @@ public class GptMessage {
         content = _content;
     }
     
+    public Role getRole() {
+        return role;
+    }
+    
+    public String getContent() {
+        return content;
+    }
+    
     @Override
     public String toString() {
         return jsonMessage().toString();
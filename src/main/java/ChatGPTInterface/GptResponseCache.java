@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ChatGPTInterface;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import org.darisadesigns.polyglotlina.Desktop.PolyGlot;
+
+/**
+ * Cache of GPT responses, keyed by a hash of the exact request sent (which
+ * covers model and all messages), so identical requests are answered without
+ * going to the server. Entries expire after a set time, the oldest are dropped
+ * past a maximum count, and the cache is saved to disk on each change.
+ *
+ * @author Draque Thompson
+ */
+public class GptResponseCache {
+    public static final Duration DEFAULT_TIME_TO_LIVE = Duration.ofDays(7);
+    public static final int MAX_ENTRIES = 500;
+    private static final String CREATED = "created";
+    private static final String RESPONSE = "response";
+    
+    private final Path file;
+    private final long timeToLive;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    // insertion ordered: oldest first
+    private final Map<String, CachedResponse> entries = new LinkedHashMap<>();
+    
+    /**
+     * @param _file file cache is saved to (loaded from if it exists)
+     * @param _timeToLive time after which entries expire
+     */
+    public GptResponseCache(Path _file, Duration _timeToLive) {
+        file = _file;
+        timeToLive = _timeToLive.toMillis();
+        load();
+    }
+    
+    /**
+     * @param request body of request
+     * @return cached response, or null if none (or expired)
+     */
+    public synchronized String get(String request) {
+        String key = keyOf(request);
+        CachedResponse cached = entries.get(key);
+        
+        if (cached != null && isExpired(cached, System.currentTimeMillis())) {
+            entries.remove(key);
+            cached = null;
+        }
+        
+        return cached == null ? null : cached.response;
+    }
+    
+    /**
+     * Caches response to request and saves cache
+     * 
+     * @param request body of request
+     * @param response response to cache
+     */
+    public synchronized void put(String request, String response) {
+        String key = keyOf(request);
+        
+        entries.remove(key);
+        entries.put(key, new CachedResponse(System.currentTimeMillis(), response));
+        trim();
+        save();
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+        save();
+    }
+    
+    private boolean isExpired(CachedResponse cached, long now) {
+        return now - cached.created > timeToLive;
+    }
+    
+    /**
+     * Drops expired entries and oldest entries past maximum
+     */
+    private void trim() {
+        long now = System.currentTimeMillis();
+        Iterator<CachedResponse> it = entries.values().iterator();
+        int overCount = entries.size() - MAX_ENTRIES;
+        
+        while (it.hasNext()) {
+            CachedResponse cached = it.next();
+            
+            if (overCount > 0 || isExpired(cached, now)) {
+                it.remove();
+                overCount--;
+            }
+        }
+    }
+    
+    private void load() {
+        if (!Files.exists(file)) {
+            return;
+        }
+        
+        try {
+            JsonNode root = objectMapper.readTree(file.toFile());
+            
+            for (Iterator<Entry<String, JsonNode>> it = root.fields(); it.hasNext(); ) {
+                Entry<String, JsonNode> entry = it.next();
+                JsonNode value = entry.getValue();
+                
+                if (value.path(CREATED).isNumber() && value.path(RESPONSE).isTextual()) {
+                    entries.put(entry.getKey(), 
+                            new CachedResponse(value.get(CREATED).longValue(), value.get(RESPONSE).textValue()));
+                }
+            }
+            
+            trim();
+        } catch (IOException e) {
+            // a damaged cache is simply discarded
+            entries.clear();
+            PolyGlot.getPolyGlot().getOSHandler().getIOHandler().writeErrorLog(e, "Unable to read GPT cache.");
+        }
+    }
+    
+    /**
+     * Writes cache to a temporary file which then replaces the old, so that
+     * an interrupted save never leaves a partial cache
+     */
+    private void save() {
+        ObjectNode root = objectMapper.createObjectNode();
+        
+        for (Entry<String, CachedResponse> entry : entries.entrySet()) {
+            root.putObject(entry.getKey())
+                    .put(CREATED, entry.getValue().created)
+                    .put(RESPONSE, entry.getValue().response);
+        }
+        
+        try {
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.writeString(temp, root.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // caching is an optimization only: requests carry on without it
+            PolyGlot.getPolyGlot().getOSHandler().getIOHandler().writeErrorLog(e, "Unable to save GPT cache.");
+        }
+    }
+    
+    private static String keyOf(String request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(request.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static final class CachedResponse {
+        private final long created;
+        private final String response;
+        
+        private CachedResponse(long _created, String _response) {
+            created = _created;
+            response = _response;
+        }
+    }
+}
@@ -24,24 +24,29 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
-import java.net.URL;
+import java.net.ConnectException;
+import java.net.URI;
 import java.net.UnknownHostException;
-import java.nio.charset.StandardCharsets;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.darisadesigns.polyglotlina.CustomControls.GrammarSectionNode;
-import org.darisadesigns.polyglotlina.Desktop.PolyGlot;
 import org.darisadesigns.polyglotlina.DictCore;
+import org.darisadesigns.polyglotlina.PGTUtil;
 import org.darisadesigns.polyglotlina.ManagersCollections.WordClassCollection;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
 import org.darisadesigns.polyglotlina.Nodes.WordClass;
@@ -49,23 +54,53 @@ import org.darisadesigns.polyglotlina.Nodes.WordClassValue;
 import org.darisadesigns.polyglotlina.WebInterface;
 
 /**
+ * Client for the GPT chat completion API. All instances share one HTTP client,
+ * so connections to the server are kept open and reused between requests.
  *
  * @author draquethompson
  */
 public class PChatGptInterface {
     public final static String DEFAULT_GPT_MODEL = "gpt-3.5-turbo-16k";
-    public final static Map<String, URL> COMPLETION_ADDRESS_LOOKUP;
+    public final static URI DEFAULT_API_ROOT = URI.create("https://api.openai.com/v1/");
+    public final static Map<String, String> COMPLETION_PATH_LOOKUP = Map.of(
+            "gpt", "chat/completions",
+            "get_models", "models"
+    );
     private final static int MAX_RELATED_HITS = 3;
+    private final static int MAX_DICTIONARY_MESSAGE_TOKENS = 2000;
+    private final static String STREAM_DATA_PREFIX = "data:";
+    private final static String STREAM_DONE = "[DONE]";
+    private final static HttpClient HTTP_CLIENT = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(20))
+            .build();
+    private final static ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     public final String apiToken;
     private final DictCore core;
-    private HttpURLConnection con;
+    private final URI apiRoot;
+    private final GptResponseCache cache;
     private final List<GptMessage> messages;
     private final GptMessage SYSTEM_TRANSLATE_MESSAGE;
 
     public PChatGptInterface(DictCore _core, String _apiToken) {
+        this(_core, _apiToken, DEFAULT_API_ROOT, new GptResponseCache(
+                _core.getConfigDirectory().resolve(PGTUtil.GPT_CACHE_FILE), 
+                GptResponseCache.DEFAULT_TIME_TO_LIVE));
+    }
+
+    /**
+     * @param _core
+     * @param _apiToken
+     * @param _apiRoot root address of API (alternate servers, such as local
+     * test servers, may be given here)
+     * @param _cache cache responses are served from when identical requests
+     * are repeated
+     */
+    public PChatGptInterface(DictCore _core, String _apiToken, URI _apiRoot, GptResponseCache _cache) {
         core = _core;
         apiToken = _apiToken;
+        apiRoot = _apiRoot;
+        cache = _cache;
         messages = new ArrayList<>();
         SYSTEM_TRANSLATE_MESSAGE = new GptMessage(
                 Role.SYSTEM, "You are a translator who will learn the language "
@@ -75,46 +110,41 @@ public class PChatGptInterface {
     }
     
     public boolean isModelSupported(String model) {
-        return getUrl(model) != null;
+        return getUri(model) != null;
     }
     
     /**
-     * Fetches appropriate URL for given model
+     * Fetches appropriate address for given model
      * @param model
-     * @return 
+     * @return address, or null if model not supported
      */
-    private HttpURLConnection getUrlConnection(String model) throws IOException {
-        var url = getUrl(model);
-        
-        if (url != null) {
-            return (HttpURLConnection)url.openConnection();
-        }
-        
-        return null;
-    }
-    
-    private URL getUrl(String model) {
-        for (Entry<String, URL> entry : COMPLETION_ADDRESS_LOOKUP.entrySet()) {
+    private URI getUri(String model) {
+        for (Entry<String, String> entry : COMPLETION_PATH_LOOKUP.entrySet()) {
             if (model.contains(entry.getKey())) {
-                return entry.getValue();
+                return apiRoot.resolve(entry.getValue());
             }
         }
         
         return null;
     }
 
-    private void setupConnection(String model) throws IOException {
-        con = getUrlConnection(model);
-        con.setRequestProperty("Content-Type", "application/json");
-        con.setRequestProperty("Authorization", "Bearer " + apiToken);
-
-        con.setDoOutput(true);
+    private HttpRequest buildRequest(String requestData, String gptModel) throws GPTException {
+        URI uri = getUri(gptModel);
+        
+        if (uri == null) {
+            throw new GPTException("Unsupported GPT model: " + gptModel);
+        }
+        
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .header("Authorization", "Bearer " + apiToken)
+                .POST(HttpRequest.BodyPublishers.ofString(requestData))
+                .build();
     }
 
-    private static String buildRequestData(List<GptMessage> messages, String gptModel) {
-        ObjectMapper objectMapper = new ObjectMapper();
-        ObjectNode jsonObject = objectMapper.createObjectNode();
-        ArrayNode jsonMessages = objectMapper.createArrayNode();
+    private static String buildRequestData(List<GptMessage> messages, String gptModel, boolean stream) {
+        ObjectNode jsonObject = OBJECT_MAPPER.createObjectNode();
+        ArrayNode jsonMessages = OBJECT_MAPPER.createArrayNode();
         
         jsonObject.put("model", gptModel);
 
@@ -123,8 +153,12 @@ public class PChatGptInterface {
         }
 
         jsonObject.set("messages", jsonMessages);
-        String ret = jsonObject.toString();
-        return ret;
+        
+        if (stream) {
+            jsonObject.put("stream", true);
+        }
+        
+        return jsonObject.toString();
     }
 
     /**
@@ -158,10 +192,12 @@ public class PChatGptInterface {
      */
     public String getIdempotentResponse(String messageString, String gptModel) throws IOException, GPTException {
         messages.add(new GptMessage(Role.USER, messageString));
-        String response = pullResponse(gptModel);
-        messages.remove(messages.size() - 1);
-
-        return response;
+        
+        try {
+            return pullResponse(gptModel);
+        } finally {
+            messages.remove(messages.size() - 1);
+        }
     }
 
     /**
@@ -170,34 +206,169 @@ public class PChatGptInterface {
      *
      * @return
      * @throws IOException
-     * @throws com.mycompany.chatgpttest.ChatGPTBetterTest.GPTException
+     * @throws ChatGPTInterface.GPTException
      */
     private String pullResponse(String gptModel) throws IOException, GPTException {
-        return pullResponse(messages, gptModel);
+        return await(pullResponseAsync(new ArrayList<>(messages), gptModel));
+    }
+
+    /**
+     * Sends messages without waiting on the reply
+     *
+     * @param targetMessages messages to send (must not be changed until
+     * complete)
+     * @param gptModel
+     * @return raw JSON of reply
+     */
+    private CompletableFuture<String> pullResponseAsync(List<GptMessage> targetMessages, String gptModel) {
+        String requestData = buildRequestData(targetMessages, gptModel, false);
+        String cached = cache.get(requestData);
+        HttpRequest request;
+        
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        try {
+            request = buildRequest(requestData, gptModel);
+        } catch (GPTException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply((response) -> {
+                    checkResponse(response.statusCode(), response.body());
+                    cache.put(requestData, response.body());
+                    return response.body();
+                });
+    }
+
+    /**
+     * Sends messages, asking for the reply to be streamed back as it is
+     * written.
+     *
+     * @param targetMessages messages to send (must not be changed until
+     * complete)
+     * @param gptModel
+     * @param onPartial called with the reply so far each time more of it
+     * arrives (called from a background thread)
+     * @return full content of reply
+     */
+    private CompletableFuture<String> streamResponseAsync(List<GptMessage> targetMessages, String gptModel, Consumer<String> onPartial) {
+        String requestData = buildRequestData(targetMessages, gptModel, true);
+        String cached = cache.get(requestData);
+        HttpRequest request;
+        
+        if (cached != null) {
+            onPartial.accept(cached);
+            return CompletableFuture.completedFuture(cached);
+        }
+        
+        try {
+            request = buildRequest(requestData, gptModel);
+        } catch (GPTException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        
+        return HTTP_CLIENT.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .thenApply((response) -> {
+                    try (Stream<String> lines = response.body()) {
+                        if (response.statusCode() >= 400) {
+                            checkResponse(response.statusCode(), lines.collect(Collectors.joining("\n")));
+                        }
+                        
+                        StringBuilder content = new StringBuilder();
+                        
+                        // a reply cut off before its end, or with no content, is not kept
+                        if (readStream(lines.iterator(), content, onPartial) && !content.isEmpty()) {
+                            cache.put(requestData, content.toString());
+                        }
+                        
+                        return content.toString();
+                    }
+                });
     }
 
-    private String pullResponse(List<GptMessage> targetMessages, String gptModel) throws IOException, GPTException {
-        setupConnection(gptModel);
-        try (OutputStream os = con.getOutputStream()) {
-            os.write(buildRequestData(targetMessages, gptModel).getBytes(StandardCharsets.UTF_8));
-            os.flush();
-
-            String responseMessage = con.getResponseMessage();
-            handleErrorResponse(con.getResponseCode(), responseMessage);
-
-            StringBuilder response = new StringBuilder();
-            try (BufferedReader in = new BufferedReader(
-                    new InputStreamReader(con.getInputStream()))) {
-                String inputLine;
-                while ((inputLine = in.readLine()) != null) {
-                    response.append(inputLine);
+    /**
+     * Reads server sent events from a streamed reply, gathering the content of
+     * each.
+     * 
+     * @return true if the reply ran to its end marker, false if it was cut off
+     */
+    private static boolean readStream(Iterator<String> lines, StringBuilder content, Consumer<String> onPartial) {
+        while (lines.hasNext()) {
+            String line = lines.next();
+            
+            if (!line.startsWith(STREAM_DATA_PREFIX)) {
+                continue;
+            }
+            
+            String data = line.substring(STREAM_DATA_PREFIX.length()).trim();
+            
+            if (data.equals(STREAM_DONE)) {
+                return true;
+            }
+            
+            try {
+                JsonNode delta = OBJECT_MAPPER.readTree(data).path("choices").path(0).path("delta").path("content");
+                
+                if (delta.isTextual() && !delta.textValue().isEmpty()) {
+                    content.append(delta.textValue());
+                    onPartial.accept(content.toString());
                 }
+            } catch (IOException e) {
+                throw new CompletionException(new GPTException(e));
             }
+        }
+        
+        return false;
+    }
 
-            return response.toString();
+    /**
+     * Throws an error from within a pending request if the response is a
+     * failure.
+     */
+    private void checkResponse(int response, String body) {
+        try {
+            handleErrorResponse(response, getErrorMessage(body));
+        } catch (GPTException e) {
+            throw new CompletionException(e);
         }
-        finally {
-            con.disconnect();
+    }
+
+    /**
+     * Gets the error message from a failure response, if it contains one
+     */
+    private static String getErrorMessage(String body) {
+        try {
+            JsonNode message = OBJECT_MAPPER.readTree(body).path("error").path("message");
+            
+            if (message.isTextual()) {
+                return message.textValue();
+            }
+        } catch (IOException e) {
+            // not JSON: report body as is
+        }
+        
+        return body;
+    }
+
+    /**
+     * Waits on a pending request, unwrapping any error it failed with
+     */
+    private static <T> T await(CompletableFuture<T> pending) throws IOException, GPTException {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            
+            if (cause instanceof GPTException gptException) {
+                throw gptException;
+            } else if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            
+            throw e;
         }
     }
 
@@ -224,69 +395,175 @@ public class PChatGptInterface {
             case 500 -> {
                 throw new GPTException("GPT Server Error: " + responseMessage);
             }
+            default -> {
+                if (response >= 400) {
+                    throw new GPTException("Unexpected server response (" + response + "): " + responseMessage);
+                }
+            }
         }
     }
 
     public String getTranslate(String phrase, List<GrammarSectionNode> grammarSections, String gptModel) throws IOException, GPTException {
-        phrase = phrase.trim();
-        messages.clear();
-        messages.add(SYSTEM_TRANSLATE_MESSAGE);
-
-        buildLimitedDictionary(phrase);
-        parseGrammar(grammarSections);
-
-        messages.add(new GptMessage(
-                Role.USER, "Please ignore word class unless it is relevant to grammar rules.")
-        );
-        messages.add(new GptMessage(
-                Role.USER, "Please start and end " + core.getPropertiesManager().getLangName() + " text with square brackets.")
-        );
-        messages.add(new GptMessage(Role.USER, "Please respect conjugation and declension rules."));
-        String jsonString = getIdempotentResponse(
-                "Translate the following to "
-                + core.getPropertiesManager().getLangName()
-                + " and show your work {" + phrase + "}",
-                gptModel);
-
-        ReplyMessage reply = new ReplyMessage(jsonString);
-        return reply.getContent();
+        return await(getTranslateAsync(phrase, grammarSections, gptModel, (partial) -> {}));
     }
 
     /**
-     * Builds a limited dictionary based on phrase passed in
+     * Translates a phrase without blocking. The base forms of the phrase's
+     * words are requested first, then the translation is streamed back.
+     * Dictionary entries and grammar sections are trimmed to what fits the
+     * model's context window.
      *
-     * @param words
+     * @param phrase phrase to translate
+     * @param grammarSections grammar sections to send along with phrase
+     * @param gptModel
+     * @param onPartial called with translation so far each time more of it
+     * arrives (called from a background thread)
+     * @return full translation, or failure with IOException or GPTException
      */
-    private void buildLimitedDictionary(String phrase) throws IOException, GPTException {
-        messages.add(new GptMessage(Role.USER, "Following are dictionary entries for "
-                + core.getPropertiesManager().getLangName() + "."));
-
-        String[] targetWords = this.baseDictForms(phrase);
+    public CompletableFuture<String> getTranslateAsync(String phrase, List<GrammarSectionNode> grammarSections, 
+            String gptModel, Consumer<String> onPartial) {
+        String trimmedPhrase = phrase.trim();
+        List<GptMessage> grammarMessages = parseGrammar(grammarSections);
+
+        return baseDictFormsAsync(trimmedPhrase).thenCompose((targetWords) -> {
+            String langName = core.getPropertiesManager().getLangName();
+            GptContextPlanner planner = new GptContextPlanner(gptModel);
+            GptMessage dictionaryIntro = new GptMessage(Role.USER, "Following are dictionary entries for " + langName + ".");
+            List<GptMessage> instructions = List.of(
+                    new GptMessage(Role.USER, "Please ignore word class unless it is relevant to grammar rules."),
+                    new GptMessage(Role.USER, "Please start and end " + langName + " text with square brackets."),
+                    new GptMessage(Role.USER, "Please respect conjugation and declension rules."),
+                    new GptMessage(Role.USER, "Translate the following to " + langName 
+                            + " and show your work {" + trimmedPhrase + "}")
+            );
+            
+            planner.require(SYSTEM_TRANSLATE_MESSAGE);
+            planner.require(dictionaryIntro);
+            instructions.forEach(planner::require);
+            
+            if (planner.isOverBudget()) {
+                return CompletableFuture.failedFuture(new GPTException(
+                        "Text too long to translate with " + gptModel + ". Please shorten it or select a larger model."));
+            }
+            
+            List<GptMessage> request = new ArrayList<>();
+            List<GptMessage> plannedGrammar = new ArrayList<>();
+            List<String> plannedEntries = planContext(targetWords, grammarMessages, planner, plannedGrammar);
+            
+            request.add(SYSTEM_TRANSLATE_MESSAGE);
+            request.add(dictionaryIntro);
+            request.addAll(packDictionaryEntries(plannedEntries));
+            request.addAll(plannedGrammar);
+            request.addAll(instructions);
+            
+            return streamResponseAsync(request, gptModel, onPartial);
+        });
+    }
 
+    /**
+     * Picks the dictionary entries and grammar sections to send, highest
+     * ranked first, skipping any that no longer fit the planner's budget. The
+     * best match for each word ranks highest, then the grammar sections in
+     * the order given, then the remaining matches.
+     *
+     * @param targetWords base forms of words to translate
+     * @param grammarMessages selected grammar sections
+     * @param planner planner already holding required messages
+     * @param plannedGrammar populated with grammar messages which fit
+     * @return dictionary entries which fit, each word only once
+     */
+    private List<String> planContext(String[] targetWords, List<GptMessage> grammarMessages, 
+            GptContextPlanner planner, List<GptMessage> plannedGrammar) {
+        List<ConWord[]> matches = new ArrayList<>();
+        Set<ConWord> considered = new HashSet<>();
+        List<String> ret = new ArrayList<>();
+        
         for (String word : targetWords) {
-            ConWord[] likelyWords = this.likelyWords(word);
-
-            for (ConWord conWord : likelyWords) {
-                messages.add(new GptMessage(Role.USER, formatWordDefinition(conWord)));
+            matches.add(this.likelyWords(word));
+        }
+        
+        for (ConWord[] wordMatches : matches) {
+            if (wordMatches.length > 0) {
+                offerEntry(wordMatches[0], considered, planner, ret);
+            }
+        }
+        
+        for (GptMessage grammar : grammarMessages) {
+            if (planner.offer(grammar)) {
+                plannedGrammar.add(grammar);
+            }
+        }
+        
+        for (ConWord[] wordMatches : matches) {
+            for (int i = 1; i < wordMatches.length; i++) {
+                offerEntry(wordMatches[i], considered, planner, ret);
+            }
+        }
+        
+        return ret;
+    }
+    
+    private void offerEntry(ConWord word, Set<ConWord> considered, GptContextPlanner planner, List<String> entries) {
+        if (considered.add(word)) {
+            String entry = formatWordDefinition(word);
+            
+            // separator between packed entries costs about one token
+            if (planner.offer(GPTTokenEstimater.estimateTokenCount(entry) + 1)) {
+                entries.add(entry);
             }
         }
     }
 
-    private void parseGrammar(List<GrammarSectionNode> grammarSections) {
-        if (grammarSections.isEmpty()) {
-            return;
+    /**
+     * Packs dictionary entries into as few messages as the per message
+     * token budget allows.
+     *
+     * @param entries formatted entries
+     */
+    private List<GptMessage> packDictionaryEntries(List<String> entries) {
+        List<GptMessage> ret = new ArrayList<>();
+        StringBuilder packed = new StringBuilder();
+        int packedTokens = 0;
+        
+        for (String entry : entries) {
+            int entryTokens = GPTTokenEstimater.estimateTokenCount(entry);
+            
+            if (packed.length() > 0 && packedTokens + entryTokens > MAX_DICTIONARY_MESSAGE_TOKENS) {
+                ret.add(new GptMessage(Role.USER, packed.toString()));
+                packed.setLength(0);
+                packedTokens = 0;
+            }
+            
+            if (packed.length() > 0) {
+                packed.append("\n\n");
+            }
+            
+            packed.append(entry);
+            packedTokens += entryTokens;
         }
+        
+        if (packed.length() > 0) {
+            ret.add(new GptMessage(Role.USER, packed.toString()));
+        }
+        
+        return ret;
+    }
+
+    private List<GptMessage> parseGrammar(List<GrammarSectionNode> grammarSections) {
+        List<GptMessage> ret = new ArrayList<>();
 
         for (GrammarSectionNode section : grammarSections) {
             String sectionText = WebInterface.getTextFromHtml(section.getSectionText());
-            messages.add(new GptMessage(Role.USER, cleanGpt(sectionText)));
+            ret.add(new GptMessage(Role.USER, cleanGpt(sectionText)));
         }
+        
+        return ret;
     }
 
     private String formatWordDefinition(ConWord word) {
         String langName = core.getPropertiesManager().getLangName();
         String classes = getCommaDelimittedWordClasses(word);
-        String definition = cleanGpt(WebInterface.getTextFromHtml(word.getDefinition()));
+        String definition = cleanGpt(word.getPlainDefinition());
         String partOfSpeech = cleanGpt(word.getWordTypeDisplay());
         String synonym = cleanGpt(word.getLocalWord());
         
@@ -335,9 +612,8 @@ public class PChatGptInterface {
         return value.replace("\n", " ").replace(":", " ").replace("\r", " ");
     }
 
-    private String[] baseDictForms(String test) throws IOException, GPTException {
+    private CompletableFuture<String[]> baseDictFormsAsync(String test) {
         List<GptMessage> request = new ArrayList<>();
-        List<String> words = new ArrayList<>();
 
         String instruction = "Please take all the words in messages I send to you after this message and "
                 + "return their most basic dictionary forms (singular, non-conjugated). Please return "
@@ -349,19 +625,27 @@ public class PChatGptInterface {
         request.add(new GptMessage(Role.USER, test));
 
         // There is no reason to waste tokens on a simple result: just use GPT-3.5 for this
-        String responseJson = this.pullResponse(request, DEFAULT_GPT_MODEL).replace("'", "").replace("[", "").replace("]", "");
-        ReplyMessage reply = new ReplyMessage(responseJson);
+        return this.pullResponseAsync(request, DEFAULT_GPT_MODEL).thenApply((response) -> {
+            List<String> words = new ArrayList<>();
+            String responseJson = response.replace("'", "").replace("[", "").replace("]", "");
+            
+            try {
+                ReplyMessage reply = new ReplyMessage(responseJson);
 
-        for (String word : reply.getContent().split(",")) {
-            words.add(word.trim());
-        }
-        
-        // This is cheating, but it increases accuracy significantly
-        if (!words.contains("to be")) {
-            words.add("to be");
-        }
+                for (String word : reply.getContent().split(",")) {
+                    words.add(word.trim());
+                }
+            } catch (GPTException e) {
+                throw new CompletionException(e);
+            }
+
+            // This is cheating, but it increases accuracy significantly
+            if (!words.contains("to be")) {
+                words.add("to be");
+            }
 
-        return words.toArray(String[]::new);
+            return words.toArray(String[]::new);
+        });
     }
 
     /**
@@ -371,85 +655,30 @@ public class PChatGptInterface {
      * @return
      */
     private ConWord[] likelyWords(String target) {
-        List<WeightedWord> hits = new ArrayList<>();
-
-        for (ConWord conWord : core.getWordCollection().getWordNodes()) {
-            WeightedWord weightedWord = new WeightedWord(conWord);
-
-            // highest value put on direct synonyms
-            for (String word : conWord.getLocalWord().split(",")) {
-                word = word.trim();
-
-                if (word.isBlank()) {
-                    continue;
-                }
-
-                if (target.equals(word)) {
-                    weightedWord.weight += 10;
-                    break;
-                }
-            }
-
-            // if no direct hit, search for partial synonym match
-            if (weightedWord.weight == 0 && conWord.getLocalWord().contains(target)) {
-                weightedWord.weight += 5;
-            }
-
-            int defHits = countStringOccurrences(conWord.getDefinition(), target);
-            defHits = defHits > 5 ? 5 : defHits;
-
-            weightedWord.weight += defHits;
-
-            if (weightedWord.weight > 0) {
-                hits.add(weightedWord);
-            }
-        }
-
-        Collections.sort(hits);
-
-        // prevent ret length from exceeding max
-        int retLength = hits.size() > MAX_RELATED_HITS ? MAX_RELATED_HITS : hits.size();
-
-        ConWord[] returnHits = new ConWord[retLength];
-
-        for (int i = 0; i < retLength; i++) {
-            returnHits[i] = hits.get(i).word;
-        }
-
-        return returnHits;
+        return core.getWordCollection().getLikelyWords(target, MAX_RELATED_HITS).toArray(ConWord[]::new);
     }
 
     
     public JsonNode getGptModels() throws GPTException, UnknownHostException {
-        ObjectMapper objectMapper = new ObjectMapper();
-        HttpURLConnection modelCon = null;
+        HttpRequest request = HttpRequest.newBuilder(getUri("get_models"))
+                .header("Authorization", "Bearer " + apiToken)
+                .GET()
+                .build();
 
         try {
-            URL url = getUrl("get_models");
-            modelCon = (HttpURLConnection) url.openConnection();
-            modelCon.setRequestMethod("GET");
-            modelCon.setRequestProperty("Authorization", "Bearer " + apiToken);
-
-            this.handleErrorResponse(modelCon.getResponseCode(), "");
-
-            StringBuilder response;
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(modelCon.getInputStream()))) {
-                String line;
-                response = new StringBuilder();
-                while ((line = reader.readLine()) != null) {
-                    response.append(line);
-                }
-            }
-
-            return objectMapper.readTree(response.toString());
-        } catch (UnknownHostException e) {
-            throw e;
+            HttpResponse<String> response = HTTP_CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+            this.handleErrorResponse(response.statusCode(), getErrorMessage(response.body()));
+
+            return OBJECT_MAPPER.readTree(response.body());
+        } catch (ConnectException e) {
+            UnknownHostException unknownHost = new UnknownHostException(apiRoot.getHost());
+            unknownHost.initCause(e);
+            throw unknownHost;
         } catch (IOException e) {
             throw new GPTException(e);
-        } finally {
-            if (modelCon != null) {
-                modelCon.disconnect();
-            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GPTException(e);
         }
     }
 
@@ -477,32 +706,4 @@ public class PChatGptInterface {
         }
         return count;
     }
-
-    private class WeightedWord implements Comparable<WeightedWord> {
-
-        public ConWord word;
-        public int weight;
-
-        WeightedWord(ConWord _word) {
-            word = _word;
-        }
-
-        @Override
-        public int compareTo(WeightedWord comp) {
-            return Integer.compare(comp.weight, this.weight);
-        }
-    }
-    
-    static {
-        COMPLETION_ADDRESS_LOOKUP = new HashMap<>();
-        
-        try {
-            COMPLETION_ADDRESS_LOOKUP.put("gpt", new URL("https://api.openai.com/v1/chat/completions"));
-            COMPLETION_ADDRESS_LOOKUP.put("get_models", new URL("https://api.openai.com/v1/models"));
-        }
-        catch (MalformedURLException e) {
-            PolyGlot.getPolyGlot().getOSHandler().getInfoBox().error("PolyGlot Error", "Malformed URL: Unable to initialize GPT window.");
-            PolyGlot.getPolyGlot().getOSHandler().getIOHandler().writeErrorLog(e);
-        }
-    }
 }
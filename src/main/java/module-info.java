@@ -8,6 +8,7 @@ module org.darisadesigns.polyglotlina.polyglot {
     requires javafx.web;
     requires java.desktop;
     requires java.logging;
+    requires java.net.http;
     requires java.xml;
     requires jdk.charsets;
     requires jdk.httpserver;
@@ -0,0 +1,275 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.CustomControls;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Alphabet compiled into a trie, allowing words to be split into their
+ * (potentially multi-character) letters in a single left to right pass.
+ * Where letters overlap, tokenize takes the longest letter matching, while
+ * covers and findUncovered consider every possible split. These last two
+ * skip spaces, which never form part of a letter.
+ * 
+ * @author Draque Thompson
+ */
+public final class AlphabetTrie {
+    private final TrieNode root = new TrieNode();
+    private final int size;
+    
+    /**
+     * @param alphabet letters in alphabetical order. Letter indices correspond to positions here.
+     */
+    public AlphabetTrie(String[] alphabet) {
+        size = alphabet.length;
+        
+        for (int i = 0; i < alphabet.length; i++) {
+            String letter = alphabet[i];
+            
+            if (letter == null || letter.isEmpty()) {
+                continue;
+            }
+            
+            TrieNode curNode = root;
+            
+            for (char c : letter.toCharArray()) {
+                curNode = curNode.children.computeIfAbsent(c, k -> new TrieNode());
+            }
+            
+            // earliest position wins for duplicate letters
+            if (curNode.letter == -1) {
+                curNode.letter = i;
+            }
+        }
+    }
+    
+    /**
+     * @return number of letters in alphabet
+     */
+    public int size() {
+        return size;
+    }
+    
+    /**
+     * Splits value into the indices of its letters. Each character not
+     * covered by the alphabet yields -1 and is otherwise skipped.
+     * 
+     * @param value value to split
+     * @return letter indices in order of appearance
+     */
+    public int[] tokenize(String value) {
+        int[] ret = new int[value.length()];
+        int count = 0;
+        int pos = 0;
+        
+        while (pos < value.length()) {
+            TrieNode curNode = root;
+            int letter = -1;
+            int letterEnd = pos + 1;
+            
+            for (int i = pos; i < value.length(); i++) {
+                curNode = curNode.children.get(value.charAt(i));
+                
+                if (curNode == null) {
+                    break;
+                } else if (curNode.letter != -1) {
+                    letter = curNode.letter;
+                    letterEnd = i + 1;
+                }
+            }
+            
+            ret[count++] = letter;
+            pos = letterEnd;
+        }
+        
+        return count == ret.length ? ret : Arrays.copyOf(ret, count);
+    }
+    
+    /**
+     * Tests whether value can be split entirely into letters of the alphabet
+     * (spaces aside). Runs in time linear to value's length multiplied by
+     * that of the longest letter.
+     * 
+     * @param value value to test
+     * @return true if every character of value belongs to some letter
+     */
+    public boolean covers(String value) {
+        boolean[] reachable = new boolean[value.length() + 1];
+        reachable[0] = true;
+        
+        for (int pos = 0; pos < value.length(); pos++) {
+            if (!reachable[pos]) {
+                continue;
+            }
+            
+            if (value.charAt(pos) == ' ') {
+                reachable[pos + 1] = true;
+                continue;
+            }
+            
+            TrieNode curNode = root;
+            
+            for (int i = pos; i < value.length() && value.charAt(i) != ' '; i++) {
+                curNode = curNode.children.get(value.charAt(i));
+                
+                if (curNode == null) {
+                    break;
+                } else if (curNode.letter != -1) {
+                    reachable[i + 1] = true;
+                }
+            }
+        }
+        
+        return reachable[value.length()];
+    }
+    
+    /**
+     * Finds the parts of value not covered by the alphabet. Value is split so
+     * as to leave as few characters uncovered as possible, and adjacent
+     * uncovered characters are reported as a single span. Runs in time linear
+     * to value's length multiplied by that of the longest letter.
+     * 
+     * @param value value to test
+     * @return uncovered spans in order of appearance (empty if covered)
+     */
+    public List<Span> findUncovered(String value) {
+        int length = value.length();
+        // fewest uncovered characters up to each position, and how it was reached
+        int[] cost = new int[length + 1];
+        int[] from = new int[length + 1];
+        boolean[] uncovered = new boolean[length + 1];
+        
+        Arrays.fill(cost, Integer.MAX_VALUE);
+        cost[0] = 0;
+        
+        for (int pos = 0; pos < length; pos++) {
+            if (cost[pos] == Integer.MAX_VALUE) {
+                continue;
+            }
+            
+            if (value.charAt(pos) == ' ') {
+                relax(cost, from, uncovered, pos, pos + 1, 0);
+                continue;
+            }
+            
+            TrieNode curNode = root;
+            
+            for (int i = pos; i < length && value.charAt(i) != ' '; i++) {
+                curNode = curNode.children.get(value.charAt(i));
+                
+                if (curNode == null) {
+                    break;
+                } else if (curNode.letter != -1) {
+                    relax(cost, from, uncovered, pos, i + 1, 0);
+                }
+            }
+            
+            // surrogate pairs are skipped whole
+            int skip = Character.charCount(value.codePointAt(pos));
+            relax(cost, from, uncovered, pos, pos + skip, skip);
+        }
+        
+        List<Span> ret = new ArrayList<>();
+        int spanEnd = -1;
+        
+        for (int pos = length; pos > 0; pos = from[pos]) {
+            if (!uncovered[pos]) {
+                continue;
+            }
+            
+            // extend span found directly after this one
+            if (!ret.isEmpty() && ret.get(ret.size() - 1).start == pos) {
+                spanEnd = ret.get(ret.size() - 1).end;
+                ret.remove(ret.size() - 1);
+            } else {
+                spanEnd = pos;
+            }
+            
+            ret.add(new Span(from[pos], spanEnd));
+        }
+        
+        Collections.reverse(ret);
+        
+        return ret;
+    }
+    
+    private static void relax(int[] cost, int[] from, boolean[] uncovered, int pos, int next, int added) {
+        if (cost[pos] + added < cost[next]) {
+            cost[next] = cost[pos] + added;
+            from[next] = pos;
+            uncovered[next] = added > 0;
+        }
+    }
+    
+    /**
+     * Run of characters within a value, from start (inclusive) to end
+     * (exclusive)
+     */
+    public static final class Span {
+        private final int start;
+        private final int end;
+        
+        public Span(int _start, int _end) {
+            start = _start;
+            end = _end;
+        }
+        
+        public int getStart() {
+            return start;
+        }
+        
+        public int getEnd() {
+            return end;
+        }
+        
+        /**
+         * @param value value span was found in
+         * @return text of span
+         */
+        public String getText(String value) {
+            return value.substring(start, end);
+        }
+        
+        @Override
+        public boolean equals(Object comp) {
+            return comp instanceof Span && ((Span) comp).start == start && ((Span) comp).end == end;
+        }
+        
+        @Override
+        public int hashCode() {
+            return 31 * start + end;
+        }
+        
+        @Override
+        public String toString() {
+            return "[" + start + ", " + end + ")";
+        }
+    }
+    
+    private static final class TrieNode {
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private int letter = -1;
+    }
+}
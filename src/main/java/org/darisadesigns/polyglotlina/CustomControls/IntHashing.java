@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.CustomControls;
+
+/**
+ * Hashing arithmetic shared by the open-addressed int collections. Tables are
+ * powers of two in size, probed linearly, and kept no more than three
+ * quarters full.
+ * 
+ * @author Draque Thompson
+ */
+final class IntHashing {
+    private IntHashing() {}
+    
+    /**
+     * Spreads high key bits down as HashMap does. Iteration follows slot order,
+     * which collisions and removals rearrange, so callers needing a particular
+     * order must sort for it.
+     */
+    static int slot(int key, int mask) {
+        return (key ^ (key >>> 16)) & mask;
+    }
+    
+    static int capacityFor(int expectedSize, int minCapacity) {
+        int ret = minCapacity;
+        
+        while (ret * 3 / 4 < expectedSize) {
+            ret *= 2;
+        }
+        
+        return ret;
+    }
+    
+    static boolean isOverloaded(int size, int mask) {
+        return size > (mask + 1) * 3 / 4;
+    }
+    
+    /**
+     * Tests whether the entry at cur, which hashes to ideal, may be moved back
+     * to gap without becoming unreachable (gap lying cyclically in [ideal, cur))
+     */
+    static boolean canFill(int gap, int cur, int ideal, int mask) {
+        return ((cur - ideal) & mask) >= ((cur - gap) & mask);
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.CustomControls;
+
+import java.util.Arrays;
+
+/**
+ * Map from int keys to int values, stored in open-addressed arrays so that
+ * neither is boxed.
+ * 
+ * @author Draque Thompson
+ */
+public final class IntIntMap {
+    private static final int MIN_CAPACITY = 16;
+    private int[] keys;
+    private int[] values;
+    private boolean[] used;
+    private int size = 0;
+    private int mask;
+    
+    public IntIntMap() {
+        this(MIN_CAPACITY);
+    }
+    
+    /**
+     * @param expectedSize number of entries the map may hold before resizing
+     */
+    public IntIntMap(int expectedSize) {
+        allocate(IntHashing.capacityFor(expectedSize, MIN_CAPACITY));
+    }
+    
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+    }
+    
+    private int find(int key) {
+        for (int slot = IntHashing.slot(key, mask); used[slot]; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        
+        return -1;
+    }
+    
+    /**
+     * @param key key to look up
+     * @param defaultValue value to return if key absent
+     * @return value stored under key, or default
+     */
+    public int get(int key, int defaultValue) {
+        int slot = find(key);
+        
+        return slot == -1 ? defaultValue : values[slot];
+    }
+    
+    public boolean containsKey(int key) {
+        return find(key) != -1;
+    }
+    
+    public void put(int key, int value) {
+        int slot = IntHashing.slot(key, mask);
+        
+        while (used[slot]) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+            
+            slot = (slot + 1) & mask;
+        }
+        
+        keys[slot] = key;
+        values[slot] = value;
+        used[slot] = true;
+        size++;
+        
+        if (IntHashing.isOverloaded(size, mask)) {
+            resize();
+        }
+    }
+    
+    /**
+     * @param key key of entry to remove
+     * @return true if an entry was removed
+     */
+    public boolean remove(int key) {
+        int slot = find(key);
+        
+        if (slot == -1) {
+            return false;
+        }
+        
+        int gap = slot;
+        for (int cur = (slot + 1) & mask; used[cur]; cur = (cur + 1) & mask) {
+            if (IntHashing.canFill(gap, cur, IntHashing.slot(keys[cur], mask), mask)) {
+                keys[gap] = keys[cur];
+                values[gap] = values[cur];
+                gap = cur;
+            }
+        }
+        
+        used[gap] = false;
+        size--;
+        
+        return true;
+    }
+    
+    private void resize() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        boolean[] oldUsed = used;
+        
+        allocate(keys.length * 2);
+        
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldUsed[i]) {
+                int slot = IntHashing.slot(oldKeys[i], mask);
+                
+                while (used[slot]) {
+                    slot = (slot + 1) & mask;
+                }
+                
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+                used[slot] = true;
+            }
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+    
+    /**
+     * @return copy of all keys, in iteration order
+     */
+    public int[] keys() {
+        int[] ret = new int[size];
+        int count = 0;
+        
+        for (int i = 0; i < used.length; i++) {
+            if (used[i]) {
+                ret[count++] = keys[i];
+            }
+        }
+        
+        return ret;
+    }
+}
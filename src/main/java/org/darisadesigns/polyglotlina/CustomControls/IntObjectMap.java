@@ -0,0 +1,298 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.CustomControls;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Map from int keys to object values, stored in open-addressed arrays so that
+ * keys are never boxed and no entry objects are created. Null values are not
+ * permitted. Iteration order is unspecified, and the map must not be changed
+ * while it is iterated (take a copy of keys() to remove as you go).
+ * 
+ * @author Draque Thompson
+ * @param <V> type of value
+ */
+public final class IntObjectMap<V> {
+    private static final int MIN_CAPACITY = 16;
+    private int[] keys;
+    private Object[] values; // null marks an empty slot
+    private int size = 0;
+    private int mask;
+    private Collection<V> valuesView = null;
+    
+    public IntObjectMap() {
+        this(MIN_CAPACITY);
+    }
+    
+    /**
+     * @param expectedSize number of entries the map may hold before resizing
+     */
+    public IntObjectMap(int expectedSize) {
+        allocate(IntHashing.capacityFor(expectedSize, MIN_CAPACITY));
+    }
+    
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new Object[capacity];
+        mask = capacity - 1;
+    }
+    
+    private int find(int key) {
+        for (int slot = IntHashing.slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return slot;
+            }
+        }
+        
+        return -1;
+    }
+    
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int slot = find(key);
+        
+        return slot == -1 ? null : (V) values[slot];
+    }
+    
+    public boolean containsKey(int key) {
+        return find(key) != -1;
+    }
+    
+    /**
+     * @param key key to store value under
+     * @param value value to store (non-null)
+     * @return value previously stored under key, null if none
+     */
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        Objects.requireNonNull(value);
+        int slot = IntHashing.slot(key, mask);
+        
+        while (values[slot] != null) {
+            if (keys[slot] == key) {
+                V ret = (V) values[slot];
+                values[slot] = value;
+                return ret;
+            }
+            
+            slot = (slot + 1) & mask;
+        }
+        
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        
+        if (IntHashing.isOverloaded(size, mask)) {
+            resize();
+        }
+        
+        return null;
+    }
+    
+    /**
+     * @param key key of entry to remove
+     * @return value removed, null if none
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int slot = find(key);
+        
+        if (slot == -1) {
+            return null;
+        }
+        
+        V ret = (V) values[slot];
+        
+        // shift following entries of the probe run back, rather than leaving markers
+        int gap = slot;
+        for (int cur = (slot + 1) & mask; values[cur] != null; cur = (cur + 1) & mask) {
+            if (IntHashing.canFill(gap, cur, IntHashing.slot(keys[cur], mask), mask)) {
+                keys[gap] = keys[cur];
+                values[gap] = values[cur];
+                gap = cur;
+            }
+        }
+        
+        values[gap] = null;
+        size--;
+        
+        return ret;
+    }
+    
+    private void resize() {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        
+        allocate(keys.length * 2);
+        
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldValues[i] != null) {
+                int slot = IntHashing.slot(oldKeys[i], mask);
+                
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    public void clear() {
+        Arrays.fill(values, null);
+        size = 0;
+    }
+    
+    /**
+     * @return copy of all keys, in iteration order
+     */
+    public int[] keys() {
+        int[] ret = new int[size];
+        int count = 0;
+        
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                ret[count++] = keys[i];
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Calls consumer with each entry, without allocating
+     * 
+     * @param consumer called with each key and value
+     */
+    @SuppressWarnings("unchecked")
+    public void forEach(IntObjectConsumer<? super V> consumer) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                consumer.accept(keys[i], (V) values[i]);
+            }
+        }
+    }
+    
+    /**
+     * @return live view of map's values (removal through it is not supported)
+     */
+    public Collection<V> values() {
+        if (valuesView == null) {
+            valuesView = new AbstractCollection<>() {
+                @Override
+                public Iterator<V> iterator() {
+                    return new ValueIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        
+        return valuesView;
+    }
+    
+    private final class ValueIterator implements Iterator<V> {
+        private int next = advance(0);
+        
+        private int advance(int from) {
+            int ret = from;
+            
+            while (ret < values.length && values[ret] == null) {
+                ret++;
+            }
+            
+            return ret;
+        }
+        
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            V ret = (V) values[next];
+            next = advance(next + 1);
+            
+            return ret;
+        }
+    }
+    
+    @Override
+    public boolean equals(Object comp) {
+        boolean ret = false;
+        
+        if (this == comp) {
+            ret = true;
+        } else if (comp instanceof IntObjectMap) {
+            IntObjectMap<?> compMap = (IntObjectMap<?>) comp;
+            ret = size == compMap.size;
+            
+            for (int i = 0; ret && i < values.length; i++) {
+                if (values[i] != null) {
+                    ret = values[i].equals(compMap.get(keys[i]));
+                }
+            }
+        }
+        
+        return ret;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                hash += keys[i] ^ values[i].hashCode();
+            }
+        }
+        
+        return hash;
+    }
+    
+    @FunctionalInterface
+    public interface IntObjectConsumer<V> {
+        void accept(int key, V value);
+    }
+}
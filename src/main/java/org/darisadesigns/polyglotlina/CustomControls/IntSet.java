@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.CustomControls;
+
+import java.util.Arrays;
+
+/**
+ * Set of ints which remembers the order values were added in. Values are kept
+ * in a plain array; once the set grows past a handful of values, an
+ * open-addressed index of positions is built to keep lookups constant time.
+ * 
+ * @author Draque Thompson
+ */
+public final class IntSet {
+    private static final int LINEAR_LIMIT = 16; // largest size searched without index
+    private int[] elements = new int[4];
+    private int size = 0;
+    private IntIntMap positions = null;
+    
+    /**
+     * @param value value to add
+     * @return true if value was not already present
+     */
+    public boolean add(int value) {
+        if (contains(value)) {
+            return false;
+        }
+        
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        
+        elements[size] = value;
+        
+        if (positions != null) {
+            positions.put(value, size);
+        }
+        
+        size++;
+        
+        return true;
+    }
+    
+    /**
+     * Removes value, keeping the order of the rest
+     * 
+     * @param value value to remove
+     * @return true if value was present
+     */
+    public boolean remove(int value) {
+        int position = indexOf(value);
+        
+        if (position == -1) {
+            return false;
+        }
+        
+        System.arraycopy(elements, position + 1, elements, position, size - position - 1);
+        size--;
+        positions = null; // positions after removal have shifted: rebuilt as needed
+        
+        return true;
+    }
+    
+    /**
+     * Removes value by moving the last value into its place. Cheaper than
+     * remove, and keeps the index of positions, for sets whose order does not
+     * matter.
+     * 
+     * @param value value to remove
+     * @return true if value was present
+     */
+    public boolean removeUnordered(int value) {
+        int position = indexOf(value);
+        
+        if (position == -1) {
+            return false;
+        }
+        
+        size--;
+        
+        if (positions != null) {
+            positions.remove(value);
+        }
+        
+        if (position != size) {
+            elements[position] = elements[size];
+            
+            if (positions != null) {
+                positions.put(elements[position], position);
+            }
+        }
+        
+        return true;
+    }
+    
+    public boolean contains(int value) {
+        return indexOf(value) != -1;
+    }
+    
+    private int indexOf(int value) {
+        if (size <= LINEAR_LIMIT) {
+            for (int i = 0; i < size; i++) {
+                if (elements[i] == value) {
+                    return i;
+                }
+            }
+            
+            return -1;
+        }
+        
+        if (positions == null) {
+            positions = new IntIntMap(size);
+            
+            for (int i = 0; i < size; i++) {
+                positions.put(elements[i], i);
+            }
+        }
+        
+        return positions.get(value, -1);
+    }
+    
+    /**
+     * @param index position of value in order added
+     * @return value at position
+     */
+    public int get(int index) {
+        if (index >= size) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        
+        return elements[index];
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    /**
+     * @return copy of values in order added
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(elements, size);
+    }
+    
+    /**
+     * @return copy of values in order added, boxed
+     */
+    public Integer[] toIntegerArray() {
+        Integer[] ret = new Integer[size];
+        
+        for (int i = 0; i < size; i++) {
+            ret[i] = elements[i];
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Sets are equal if they hold the same values, regardless of order
+     */
+    @Override
+    public boolean equals(Object comp) {
+        boolean ret = false;
+        
+        if (this == comp) {
+            ret = true;
+        } else if (comp instanceof IntSet) {
+            IntSet compSet = (IntSet) comp;
+            ret = size == compSet.size;
+            
+            for (int i = 0; ret && i < size; i++) {
+                ret = compSet.contains(elements[i]);
+            }
+        }
+        
+        return ret;
+    }
+
+    @Override
+    public int hashCode() {
+        int hash = 0;
+        
+        for (int i = 0; i < size; i++) {
+            hash += elements[i];
+        }
+        
+        return hash;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.CustomControls;
+
+/**
+ * Map from int keys to sets of ints, for one-to-many relationships between
+ * IDs. Sets are created as values are added under a key, and keys whose sets
+ * are emptied are dropped.
+ * 
+ * @author Draque Thompson
+ */
+public final class IntSetMap {
+    private static final IntSet EMPTY = new IntSet();
+    private final IntObjectMap<IntSet> delegate = new IntObjectMap<>();
+    
+    /**
+     * @param key key to add value under
+     * @param value value to add
+     * @return true if value was not already present under key
+     */
+    public boolean add(int key, int value) {
+        IntSet set = delegate.get(key);
+        
+        if (set == null) {
+            set = new IntSet();
+            delegate.put(key, set);
+        }
+        
+        return set.add(value);
+    }
+    
+    /**
+     * @param key key to remove value from
+     * @param value value to remove
+     * @return true if value was present under key
+     */
+    public boolean remove(int key, int value) {
+        IntSet set = delegate.get(key);
+        boolean ret = set != null && set.remove(value);
+        
+        if (ret && set.isEmpty()) {
+            delegate.remove(key);
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Removes key and all values under it
+     * 
+     * @param key key to remove
+     */
+    public void removeKey(int key) {
+        delegate.remove(key);
+    }
+    
+    public boolean contains(int key, int value) {
+        IntSet set = delegate.get(key);
+        
+        return set != null && set.contains(value);
+    }
+    
+    public boolean containsKey(int key) {
+        return delegate.containsKey(key);
+    }
+    
+    /**
+     * @param key key to get values of
+     * @return values under key (empty if none). Not to be modified.
+     */
+    public IntSet get(int key) {
+        IntSet ret = delegate.get(key);
+        
+        return ret == null ? EMPTY : ret;
+    }
+    
+    /**
+     * @return copy of all keys with at least one value
+     */
+    public int[] keys() {
+        return delegate.keys();
+    }
+    
+    public int size() {
+        return delegate.size();
+    }
+    
+    public boolean isEmpty() {
+        return delegate.isEmpty();
+    }
+    
+    public void clear() {
+        delegate.clear();
+    }
+    
+    /**
+     * Calls consumer with each key and its values, without allocating
+     * 
+     * @param consumer called with each key and its values
+     */
+    public void forEach(IntObjectMap.IntObjectConsumer<IntSet> consumer) {
+        delegate.forEach(consumer);
+    }
+    
+    @Override
+    public boolean equals(Object comp) {
+        return this == comp 
+                || (comp instanceof IntSetMap && delegate.equals(((IntSetMap) comp).delegate));
+    }
+
+    @Override
+    public int hashCode() {
+        return delegate.hashCode();
+    }
+}
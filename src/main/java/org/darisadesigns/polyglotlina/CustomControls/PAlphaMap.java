@@ -35,6 +35,7 @@ import java.util.Set;
 public class PAlphaMap<K, V> {
     private boolean missingChars = false;
     private int longestEntry = 0;
+    private int version = 0;
     private final HashMap<K, V> delegate = new HashMap<>();
     
     /**
@@ -50,6 +51,7 @@ public class PAlphaMap<K, V> {
             longestEntry = keyLen;
         }
         
+        version++;
         return delegate.put(key, orderVal);
     }
     
@@ -70,9 +72,19 @@ public class PAlphaMap<K, V> {
     }
     
     public void clear() {
+        version++;
         delegate.clear();
     }
     
+    /**
+     * Gets a count which changes whenever the alphabet's contents change,
+     * allowing orderings built from it to be recognized as stale
+     * @return current version
+     */
+    public int getVersion() {
+        return version;
+    }
+    
     public boolean isMissingChars() {
         return missingChars;
     }
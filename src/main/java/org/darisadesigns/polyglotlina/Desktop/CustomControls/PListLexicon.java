@@ -20,7 +20,9 @@
 package org.darisadesigns.polyglotlina.Desktop.CustomControls;
 
 
+import java.awt.Component;
 import java.awt.Font;
+import javax.swing.ListCellRenderer;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection.ConWordDisplay;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
@@ -33,6 +35,29 @@ public class PListLexicon extends PList<ConWordDisplay> {
     public PListLexicon(Font font, DictCore core) {
         super(font, core);
         this.setCellRenderer(new PListLexiconCellRenderer(core));
+        this.setFixedCellSize();
+    }
+    
+    @Override
+    public void setFont(Font font) {
+        super.setFont(font);
+        this.setFixedCellSize();
+    }
+    
+    /**
+     * All rows share one font, so rows are given a fixed height and span the
+     * list's width. This spares the list from measuring every word in the
+     * lexicon each time its contents change.
+     */
+    @SuppressWarnings("unchecked")
+    private void setFixedCellSize() {
+        ListCellRenderer renderer = this.getCellRenderer();
+        
+        if (renderer != null) {
+            Component sample = renderer.getListCellRendererComponent(this, "Xg", 0, false, false);
+            this.setFixedCellHeight(sample.getPreferredSize().height);
+            this.setFixedCellWidth(0);
+        }
     }
     
     public Font conFontToolTip() {
@@ -41,13 +66,27 @@ public class PListLexicon extends PList<ConWordDisplay> {
     
     @Override
     public void setSelectedValue(Object value, boolean shouldScroll) {
-        Object passThrough = value;
+        ConWord word = null;
         
-        if (value instanceof ConWord && this.getModel() instanceof PListModelLexicon) {
-            passThrough = ((PListModelLexicon)this.getModel()).getDisplayFromWord((ConWord)value);
-            passThrough = passThrough == null ? value : passThrough;
+        if (value instanceof ConWord conWord) {
+            word = conWord;
+        } else if (value instanceof ConWordDisplay display) {
+            word = display.getConWord();
         }
         
-        super.setSelectedValue(passThrough, shouldScroll);
+        // look up index directly rather than testing every row
+        if (word != null && this.getModel() instanceof PListModelLexicon model) {
+            int index = model.indexOf(word);
+            
+            this.setSelectedIndex(index);
+            
+            if (index != -1 && shouldScroll) {
+                this.ensureIndexIsVisible(index);
+            }
+            
+            this.repaint();
+        } else {
+            super.setSelectedValue(value, shouldScroll);
+        }
     }
 }
@@ -19,23 +19,138 @@
  */
 package org.darisadesigns.polyglotlina.Desktop.CustomControls;
 
+import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection.ConWordDisplay;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import javax.swing.DefaultListModel;
+import java.util.Set;
+import javax.swing.AbstractListModel;
 
 /**
- *
+ * List model of lexicon words. Display wrappers are only created for rows
+ * actually requested (typically those scrolled into view), and replacing the
+ * word list fires events only for the span of rows which changed.
+ * 
  * @author draque
  */
-public class PListModelLexicon extends DefaultListModel<ConWordDisplay> {
+public class PListModelLexicon extends AbstractListModel<ConWordDisplay> {
+    private final DictCore core;
+    private List<ConWord> words = new ArrayList<>();
     private final Map<Integer, ConWordDisplay> wordToDisplay = new HashMap<>();
+    private Map<Integer, Integer> wordToIndex = null;
+    
+    public PListModelLexicon(DictCore _core) {
+        core = _core;
+    }
+    
+    @Override
+    public int getSize() {
+        return words.size();
+    }
     
     @Override
-    public void addElement(ConWordDisplay element) {
-        wordToDisplay.put(element.getConWord().getId(), element);
-        super.addElement(element);
+    public ConWordDisplay getElementAt(int index) {
+        return getDisplay(words.get(index));
+    }
+    
+    /**
+     * Replaces the words listed. Words at the start and end of the list which
+     * are unchanged are left alone, so single inserts, deletes and edits only
+     * notify listeners of the rows actually affected.
+     * 
+     * @param _words new words in display order
+     */
+    public void setWords(List<ConWord> _words) {
+        List<ConWord> oldWords = words;
+        int oldSize = oldWords.size();
+        int newSize = _words.size();
+        int shorter = Math.min(oldSize, newSize);
+        int prefix = 0;
+        int suffix = 0;
+        
+        while (prefix < shorter && oldWords.get(prefix) == _words.get(prefix)) {
+            prefix++;
+        }
+        
+        while (suffix < shorter - prefix 
+                && oldWords.get(oldSize - 1 - suffix) == _words.get(newSize - 1 - suffix)) {
+            suffix++;
+        }
+        
+        words = new ArrayList<>(_words);
+        wordToIndex = null;
+        
+        int oldEnd = oldSize - suffix;
+        int newEnd = newSize - suffix;
+        int changedEnd = Math.min(oldEnd, newEnd);
+        
+        pruneDisplays(oldWords.subList(prefix, oldEnd), _words.subList(prefix, newEnd));
+        
+        if (changedEnd > prefix) {
+            fireContentsChanged(this, prefix, changedEnd - 1);
+        }
+        
+        if (oldEnd > newEnd) {
+            fireIntervalRemoved(this, changedEnd, oldEnd - 1);
+        } else if (newEnd > oldEnd) {
+            fireIntervalAdded(this, changedEnd, newEnd - 1);
+        }
+    }
+    
+    /**
+     * Drops wrappers of words no longer listed. Only the changed span of rows
+     * is examined: words outside it are listed both before and after.
+     * 
+     * @param oldSpan changed rows of the previous list
+     * @param newSpan changed rows of the new list
+     */
+    private void pruneDisplays(List<ConWord> oldSpan, List<ConWord> newSpan) {
+        if (wordToDisplay.isEmpty() || oldSpan.isEmpty()) {
+            return;
+        }
+        
+        Set<Integer> listed = new HashSet<>();
+        
+        for (ConWord word : newSpan) {
+            listed.add(word.getId());
+        }
+        
+        for (ConWord word : oldSpan) {
+            if (!listed.contains(word.getId())) {
+                wordToDisplay.remove(word.getId());
+            }
+        }
+    }
+    
+    /**
+     * @return number of display wrappers currently held
+     */
+    int getDisplayCount() {
+        return wordToDisplay.size();
+    }
+    
+    /**
+     * Gets index of word in list
+     * 
+     * @param conWord word to find
+     * @return index of word, -1 if not listed
+     */
+    public int indexOf(ConWord conWord) {
+        if (wordToIndex == null) {
+            wordToIndex = new HashMap<>();
+            
+            for (int i = 0; i < words.size(); i++) {
+                wordToIndex.put(words.get(i).getId(), i);
+            }
+        }
+        
+        Integer ret = wordToIndex.get(conWord.getId());
+        
+        return ret == null ? -1 : ret;
     }
     
     /**
@@ -45,10 +160,24 @@ public class PListModelLexicon extends DefaultListModel<ConWordDisplay> {
      * @return 
      */
     public ConWordDisplay getDisplayFromWord(ConWord conWord) {
-        ConWordDisplay ret = null;
+        int index = indexOf(conWord);
+        
+        return index == -1 ? null : getElementAt(index);
+    }
+    
+    /**
+     * Gets display wrapper of word, creating it on first request. Wrappers
+     * are reused so that the same row yields the same value while listed.
+     * 
+     * @param conWord word to get wrapper of
+     * @return display wrapper
+     */
+    private ConWordDisplay getDisplay(ConWord conWord) {
+        ConWordDisplay ret = wordToDisplay.get(conWord.getId());
         
-        if (wordToDisplay.containsKey(conWord.getId())) {
-            ret = wordToDisplay.get(conWord.getId());
+        if (ret == null || ret.getConWord() != conWord) {
+            ret = new ConWordDisplay(conWord, core);
+            wordToDisplay.put(conWord.getId(), ret);
         }
         
         return ret;
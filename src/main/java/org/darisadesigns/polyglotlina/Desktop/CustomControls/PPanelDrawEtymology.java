@@ -23,7 +23,6 @@ import org.darisadesigns.polyglotlina.Desktop.DesktopIOHandler;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
 import org.darisadesigns.polyglotlina.RectangularCoordinateMap;
-import org.darisadesigns.polyglotlina.WebInterface;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.FontMetrics;
@@ -74,9 +73,9 @@ public final class PPanelDrawEtymology extends JPanel {
         
         if (tipWord != null) {
             if (tipWord instanceof EtyExternalParent) {
-                ret = WebInterface.getTextFromHtml(tipWord.getDefinition());
+                ret = tipWord.getPlainDefinition();
             } else {
-                ret = WebInterface.getTextFromHtml(tipWord.getDefinition());
+                ret = tipWord.getPlainDefinition();
                 ret = ret.trim().isEmpty() ? tipWord.getLocalWord() : ret;
                 
                 // include POS if available
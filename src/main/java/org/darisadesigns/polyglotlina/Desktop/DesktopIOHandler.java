@@ -105,6 +105,7 @@ import org.xml.sax.SAXException;
 public final class DesktopIOHandler implements IOHandler {
 
     private static DesktopIOHandler ioHandler;
+    private static final int MAX_REPAIRS_SHOWN = 20; // repairs listed in the recovery dialog (all are logged)
 
     /**
      * Opens and returns image from URL given (can be file path)
@@ -129,9 +130,7 @@ public final class DesktopIOHandler implements IOHandler {
      */
     @Override
     public File createTmpFileWithContents(String contents, String extension) throws IOException {
-        File ret = File.createTempFile("POLYGLOT", extension,
-            PGTUtil.getTempDirectory().toFile());
-        ret.deleteOnExit();
+        File ret = createTmpFile(extension);
 
         try (Writer out = new BufferedWriter(new OutputStreamWriter(
                 new FileOutputStream(ret), StandardCharsets.UTF_8))) {
@@ -139,6 +138,13 @@ public final class DesktopIOHandler implements IOHandler {
             out.flush();
         }
 
+        return ret;
+    }
+
+    @Override
+    public File createTmpFile(String extension) throws IOException {
+        File ret = File.createTempFile("POLYGLOT", extension,
+            PGTUtil.getTempDirectory().toFile());
         ret.deleteOnExit();
 
         return ret;
@@ -266,13 +272,45 @@ public final class DesktopIOHandler implements IOHandler {
         // try to recover from incomplete XML documents
         if (!fileComplete && fileName.equals(org.darisadesigns.polyglotlina.Desktop.PGTUtil.LANG_FILE_NAME)) {
             fileContents = new String(fileBytes, StandardCharsets.UTF_8);
-            var fixedContents = new XMLRecoveryTool(fileContents).recoverXml();
+            var recovery = new XMLRecoveryTool(fileContents);
+            var fixedContents = recovery.recoverXml();
+            reportXmlRepairs(recovery);
             fileBytes = fixedContents.getBytes(StandardCharsets.UTF_8);
         }
 
         return fileBytes;
     }
 
+    /**
+     * Records repairs made to damaged XML in the error log and tells the user
+     * what was changed. Kept apart from load warnings, which are treated as
+     * errors by readFile.
+     *
+     * @param recovery recovery tool after recoverXml has run
+     */
+    private void reportXmlRepairs(XMLRecoveryTool recovery) {
+        var repairs = recovery.getRepairs();
+        
+        if (repairs.isEmpty()) {
+            return;
+        }
+        
+        String repairList = String.join("\n", repairs);
+        writeErrorLog(new Exception("Damaged language XML repaired"), 
+                "Repairs made to language XML\n" + repairList);
+        
+        if (repairs.size() > MAX_REPAIRS_SHOWN) {
+            repairList = String.join("\n", repairs.subList(0, MAX_REPAIRS_SHOWN))
+                    + "\n...and " + (repairs.size() - MAX_REPAIRS_SHOWN) + " more (see error log)";
+        }
+        
+        // an info box cannot be built without a display, as under test
+        if (!PGTUtil.isUITestingMode() && !PGTUtil.isInJUnitTest()) {
+            new DesktopInfoBox().info("File Recovered", "The language file was damaged and has been repaired. "
+                    + "Please check the affected values and save.\n\n" + repairList);
+        }
+    }
+
     /**
      * Opens an image via GUI and returns as buffered image Returns null if user
      * cancels.
@@ -1773,6 +1811,8 @@ public final class DesktopIOHandler implements IOHandler {
             if (parser.getError() != null) {
                 throw new IOException(parser.getError());
             }
+            
+            reportXmlRepairs(recovery);
         } else if (parseException != null) {
             warningAndErrors[1] += "Unrecoverable error encountered while reading file: "
                     + parseException.getLocalizedMessage() + "\n";
@@ -80,10 +80,8 @@ public class DesktopOSHandler extends OSHandler {
     }
     
     @Override
-    public void openLanguageReport(String reportContents) {
+    public void openLanguageReport(File report) {
         try {
-            File report = ioHandler.createTmpFileWithContents(reportContents, ".html");
-
             if (Desktop.isDesktopSupported() && Desktop.getDesktop().isSupported(Desktop.Action.BROWSE)) {
                 Desktop.getDesktop().browse(report.toURI());
             } else if (PGTUtil.IS_LINUX) {
@@ -96,47 +96,16 @@ public class DesktopPFontHandler extends org.darisadesigns.polyglotlina.PFontHan
     }
 
     /**
-     * gets the file of the current conlang font from the user's system
+     * gets the file of the current conlang font from the user's system. Font
+     * folders are scanned once and indexed (see FontIndex) rather than walked
+     * on every lookup.
      *
      * @param fontFamily the font to find a file for
      * @return the font's file if found, null otherwise
      * @throws java.lang.Exception for unrecognized OS
      */
     public static File getFontFile(String fontFamily) throws Exception {
-        File ret = null;
-
-        if (System.getProperty("os.name").startsWith("Mac")) {
-            ret = getFontFromLocation(fontFamily, "/Library/Fonts/");
-
-            if (ret == null) {
-                ret = getFontFromLocation(fontFamily, "/System/Library/Fonts/");
-            }
-
-            if (ret == null) {
-                ret = getFontFromLocation(fontFamily,
-                        System.getProperty("user.home") + "/Library/Fonts/");
-            }
-        } else if (System.getProperty("os.name").startsWith("Win")) {
-            var fontFiles = searchForFonts(new File(System.getenv("windir") + "/WinSxS"));
-            
-            for (var fontFile : fontFiles) {
-                var test = loadFont(fontFile.getAbsolutePath(), fontFamily);
-                
-                if (test!= null) {
-                    ret = test;
-                    break;
-                }
-            }
-        } else if (System.getProperty("os.name").indexOf("nix") > 0
-                || System.getProperty("os.name").indexOf("bunt") > 0
-                || System.getProperty("os.name").indexOf("fed") > 0
-                || System.getProperty("os.name").indexOf("nux") > 0) {
-            ret = getFontFromLocations(fontFamily, "/usr/share/fonts", "/usr/local/share", "~/.fonts");
-        } else {
-            throw new Exception("Unknown OS; unable to retrieve font.");
-        }
-
-        return ret;
+        return FontIndex.getSystemIndex().getFontFile(fontFamily);
     }
     
     /**
@@ -433,7 +402,8 @@ public class DesktopPFontHandler extends org.darisadesigns.polyglotlina.PFontHan
     }
     
     /**
-     * Tests whether given string can have every character represented as a glyph for the given font
+     * Tests whether given string can have every character represented as a glyph for the given font.
+     * Tested by code point against the font's cached coverage (see FontCoverage).
      * @param value string to test
      * @param conFont true if using the conlang font, false if using the local language font
      * @param core
@@ -441,17 +411,11 @@ public class DesktopPFontHandler extends org.darisadesigns.polyglotlina.PFontHan
      */
     @Override
     public boolean canStringBeRendered(String value, boolean conFont, DictCore core) {
-        Font font = conFont ?
-                ((DesktopPropertiesManager)core.getPropertiesManager()).getFontCon() :
-                ((DesktopPropertiesManager)core.getPropertiesManager()).getFontLocal();
-        
-        for (int i = 0; i < value.length(); i++) {
-            if (!font.canDisplay(value.charAt(i))) {
-                return false;
-            }
-        }
+        FontCoverage coverage = conFont ?
+                ((DesktopPropertiesManager)core.getPropertiesManager()).getFontConCoverage() :
+                ((DesktopPropertiesManager)core.getPropertiesManager()).getFontLocalCoverage();
         
-        return true;
+        return coverage.canDisplay(value);
     }
 
     /**
@@ -31,6 +31,9 @@ import org.darisadesigns.polyglotlina.ManagersCollections.PropertiesManager;
 public class DesktopPropertiesManager extends PropertiesManager {
     private Font conFont = null;
     private Font localFont = PGTUtil.CHARIS_UNICODE;
+    // glyph coverage built on first use, dropped whenever a new font is loaded
+    private volatile FontCoverage conFontCoverage = null;
+    private volatile FontCoverage localFontCoverage = null;
     
     public DesktopPropertiesManager() {
         super();
@@ -66,6 +69,7 @@ public class DesktopPropertiesManager extends PropertiesManager {
         }
         
         localFont = _localFont; 
+        localFontCoverage = null;
         localFontSize = size;
         core.getOSHandler().getPFontHandler().updateLocalFont(core);
     }
@@ -136,6 +140,7 @@ public class DesktopPropertiesManager extends PropertiesManager {
         }
 
         conFont = fontCon == null ? PGTUtil.CHARIS_UNICODE : fontCon;
+        conFontCoverage = null;
     }
     
     public void setFontFromFile(String fontPath) throws IOException, FontFormatException {
@@ -172,6 +177,7 @@ public class DesktopPropertiesManager extends PropertiesManager {
             
             // load font from binary location (superior due to ligature support from binaries)
             conFont = DesktopPFontHandler.getFontFromFile(fontFile.getCanonicalPath());
+            conFontCoverage = null;
         }
         
         return cachedConFont != null;
@@ -236,6 +242,40 @@ public class DesktopPropertiesManager extends PropertiesManager {
                 retFont.deriveFont(conFontStyle, (float)conFontSize);
     }
     
+    /**
+     * Gets glyph coverage of language's font, built on first call after each
+     * font load
+     *
+     * @return coverage of conlang font
+     */
+    public FontCoverage getFontConCoverage() {
+        FontCoverage ret = conFontCoverage;
+        
+        if (ret == null) {
+            ret = new FontCoverage(getFontCon());
+            conFontCoverage = ret;
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Gets glyph coverage of local font, built on first call after each font
+     * load
+     *
+     * @return coverage of local font
+     */
+    public FontCoverage getFontLocalCoverage() {
+        FontCoverage ret = localFontCoverage;
+        
+        if (ret == null) {
+            ret = new FontCoverage(getFontLocal());
+            localFontCoverage = ret;
+        }
+        
+        return ret;
+    }
+    
     /**
      * @param _fontStyle the fontStyle to set
      */
@@ -320,12 +360,14 @@ public class DesktopPropertiesManager extends PropertiesManager {
             if (updatedConFont != null) {
                 conFont = DesktopPFontHandler.getFontFromFile(updatedConFont.getAbsolutePath());
                 conFont = conFont.deriveFont(conFontStyle, (float)conFontSize);
+                conFontCoverage = null;
                 cachedConFont = core.getOSHandler().getIOHandler().getByteArrayFromFile(updatedConFont);
             }
             
             if (updatedLocalFont != null) {
                 localFont = DesktopPFontHandler.getFontFromFile(updatedLocalFont.getAbsolutePath());
                 localFont = localFont.deriveFont((float)localFontSize);
+                localFontCoverage = null;
                 cachedLocalFont = core.getOSHandler().getIOHandler().getByteArrayFromFile(updatedLocalFont);
             }
         } catch (Exception e) {
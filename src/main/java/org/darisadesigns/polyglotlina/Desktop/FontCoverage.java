@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.Desktop;
+
+import java.awt.Font;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bitmap of the code points a font has glyphs for, so that whole strings can
+ * be checked without asking the font about each character. Each Unicode plane
+ * is filled in from the font on first lookup of a code point within it, so
+ * only the BMP and any supplementary planes actually used are ever built.
+ *
+ * @author Draque Thompson
+ */
+public final class FontCoverage {
+    private static final int PLANE_SIZE = 0x10000;
+    private static final int PLANE_COUNT = (Character.MAX_CODE_POINT + 1) / PLANE_SIZE;
+
+    private final Font font;
+    private final AtomicReferenceArray<BitSet> planes = new AtomicReferenceArray<>(PLANE_COUNT);
+
+    /**
+     * @param _font font to map (size and style do not affect coverage)
+     */
+    public FontCoverage(Font _font) {
+        font = _font;
+    }
+
+    /**
+     * @param codePoint code point to test
+     * @return true if font has a glyph for code point
+     */
+    public boolean canDisplay(int codePoint) {
+        if (codePoint < 0 || codePoint > Character.MAX_CODE_POINT) {
+            return false;
+        }
+
+        return getPlane(codePoint / PLANE_SIZE).get(codePoint % PLANE_SIZE);
+    }
+
+    /**
+     * Tests by code point, so characters outside the BMP are tested as a
+     * whole rather than as two surrogates
+     *
+     * @param value string to test
+     * @return true if font has a glyph for every code point in value
+     */
+    public boolean canDisplay(String value) {
+        for (int i = 0; i < value.length(); ) {
+            int codePoint = value.codePointAt(i);
+
+            if (!canDisplay(codePoint)) {
+                return false;
+            }
+
+            i += Character.charCount(codePoint);
+        }
+
+        return true;
+    }
+
+    private BitSet getPlane(int plane) {
+        BitSet ret = planes.get(plane);
+
+        if (ret == null) {
+            ret = new BitSet(PLANE_SIZE);
+            int base = plane * PLANE_SIZE;
+
+            for (int i = 0; i < PLANE_SIZE; i++) {
+                if (font.canDisplay(base + i)) {
+                    ret.set(i);
+                }
+            }
+
+            // a plane built twice by racing threads is identical either way
+            if (!planes.compareAndSet(plane, null, ret)) {
+                ret = planes.get(plane);
+            }
+        }
+
+        return ret;
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.Desktop;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.awt.Font;
+import java.awt.FontFormatException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Predicate;
+
+/**
+ * Index of the fonts installed in a set of font directories, from family name
+ * to font file. Built by a single parallel scan of every font file, which is
+ * saved to disk along with the modification time of each directory scanned.
+ * Later sessions reuse the saved index so long as no directory has changed
+ * since, checking only directory times rather than reading any font.
+ *
+ * Where a family is installed more than once, the most recently modified file
+ * is used.
+ *
+ * @author Draque Thompson
+ */
+public class FontIndex {
+    public static final int MAX_FONT_FILES = 20000;
+    private static final int FILES_PER_TASK = 32;
+    private static final String ROOTS = "roots";
+    private static final String DIRECTORIES = "directories";
+    private static final String FONTS = "fonts";
+    private static final String FAMILY = "family";
+    private static final String STYLE = "style";
+    private static final String PATH = "path";
+    private static final String MODIFIED = "modified";
+    private static FontIndex systemIndex = null;
+
+    private final Path cacheFile;
+    private final List<Path> roots;
+    private final Predicate<File> descend;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, Long> directoryTimes = new LinkedHashMap<>();
+    private final List<IndexedFont> fonts = new ArrayList<>();
+    private final Map<String, IndexedFont> families = new HashMap<>();
+    private boolean validated = false;
+
+    /**
+     * @param _cacheFile file index is saved to (loaded from if it exists)
+     * @param _roots font directories to index, including subdirectories
+     */
+    public FontIndex(Path _cacheFile, List<Path> _roots) {
+        this(_cacheFile, _roots, (File dir) -> true);
+    }
+
+    /**
+     * @param _cacheFile file index is saved to (loaded from if it exists)
+     * @param _roots font directories to index
+     * @param _descend test of which subdirectories to index
+     */
+    FontIndex(Path _cacheFile, List<Path> _roots, Predicate<File> _descend) {
+        cacheFile = _cacheFile;
+        roots = new ArrayList<>(_roots);
+        descend = _descend;
+    }
+
+    /**
+     * Gets index of the OS's font folders, shared by all lookups this session
+     *
+     * @return system font index
+     * @throws java.lang.Exception for unrecognized OS
+     */
+    public static synchronized FontIndex getSystemIndex() throws Exception {
+        if (systemIndex == null) {
+            Path cache = PGTUtil.getConfigDirectory().resolve(PGTUtil.FONT_INDEX_FILE);
+            String home = System.getProperty("user.home");
+            String os = System.getProperty("os.name");
+
+            if (os.startsWith("Mac")) {
+                systemIndex = new FontIndex(cache, List.of(Path.of("/Library/Fonts/"),
+                        Path.of("/System/Library/Fonts/"),
+                        Path.of(home, "Library", "Fonts")));
+            } else if (os.startsWith("Win")) {
+                // only font folders of the side by side store hold fonts
+                systemIndex = new FontIndex(cache, List.of(Path.of(System.getenv("windir"), "WinSxS")),
+                        (File dir) -> dir.getName().toLowerCase().contains("font"));
+            } else if (os.indexOf("nix") > 0
+                    || os.indexOf("bunt") > 0
+                    || os.indexOf("fed") > 0
+                    || os.indexOf("nux") > 0) {
+                systemIndex = new FontIndex(cache, List.of(Path.of("/usr/share/fonts"),
+                        Path.of("/usr/local/share"),
+                        Path.of(home, ".fonts")));
+            } else {
+                throw new Exception("Unknown OS; unable to retrieve font.");
+            }
+        }
+
+        return systemIndex;
+    }
+
+    /**
+     * Finds the file of a font family. On first lookup the saved index is
+     * loaded and checked against the font directories, rescanning them only if
+     * changed. A file found to have since been removed also causes a rescan.
+     *
+     * @param fontFamily family to find a file for
+     * @return font's file if found, null otherwise
+     * @throws java.lang.InterruptedException if scan interrupted
+     */
+    public synchronized File getFontFile(String fontFamily) throws InterruptedException {
+        if (!validated) {
+            validate();
+        }
+
+        IndexedFont font = families.get(fontFamily);
+
+        if (font != null && !font.file.exists()) {
+            rescan();
+            font = families.get(fontFamily);
+        }
+
+        return font == null ? null : font.file;
+    }
+
+    /**
+     * Gets every font file indexed, in scan order
+     *
+     * @return indexed fonts
+     * @throws java.lang.InterruptedException if scan interrupted
+     */
+    public synchronized List<IndexedFont> getFonts() throws InterruptedException {
+        if (!validated) {
+            validate();
+        }
+
+        return Collections.unmodifiableList(new ArrayList<>(fonts));
+    }
+
+    /**
+     * Rescans all font directories regardless of the saved index
+     *
+     * @throws java.lang.InterruptedException if scan interrupted
+     */
+    public synchronized void rescan() throws InterruptedException {
+        List<File> fontFiles = new ArrayList<>();
+        Map<String, Long> scannedTimes = new LinkedHashMap<>();
+
+        for (Path root : roots) {
+            listFontFiles(root.toFile(), fontFiles, scannedTimes);
+        }
+
+        List<Callable<List<IndexedFont>>> tasks = new ArrayList<>();
+
+        for (int start = 0; start < fontFiles.size(); start += FILES_PER_TASK) {
+            List<File> taskFiles = fontFiles.subList(start, Math.min(fontFiles.size(), start + FILES_PER_TASK));
+
+            tasks.add(() -> {
+                List<IndexedFont> ret = new ArrayList<>();
+
+                for (File file : taskFiles) {
+                    IndexedFont font = readFont(file);
+
+                    if (font != null) {
+                        ret.add(font);
+                    }
+                }
+
+                return ret;
+            });
+        }
+
+        List<IndexedFont> scanned = new ArrayList<>();
+
+        try {
+            for (Future<List<IndexedFont>> task : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                scanned.addAll(task.get());
+            }
+        } catch (ExecutionException e) {
+            // readFont handles its own errors, so anything here is unexpected
+            throw new IllegalStateException(e.getCause());
+        }
+
+        directoryTimes.clear();
+        directoryTimes.putAll(scannedTimes);
+        setFonts(scanned);
+        validated = true;
+        save();
+    }
+
+    /**
+     * Loads the saved index, rescanning if it is missing, was built from other
+     * directories or any directory has since been modified
+     */
+    private void validate() throws InterruptedException {
+        if (load() && directoriesUnchanged()) {
+            validated = true;
+        } else {
+            rescan();
+        }
+    }
+
+    private boolean directoriesUnchanged() {
+        for (Entry<String, Long> entry : directoryTimes.entrySet()) {
+            File dir = new File(entry.getKey());
+
+            if (!dir.isDirectory() || dir.lastModified() != entry.getValue()) {
+                return false;
+            }
+        }
+
+        // roots which did not exist when scanned must still not exist
+        for (Path root : roots) {
+            if (root.toFile().isDirectory() && !directoryTimes.containsKey(root.toFile().getAbsolutePath())) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Collects font files beneath a directory, recording the modification time
+     * of each directory visited. Stops collecting at MAX_FONT_FILES.
+     */
+    private void listFontFiles(File dir, List<File> fontFiles, Map<String, Long> scannedTimes) {
+        File[] children = dir.listFiles();
+
+        if (children == null || scannedTimes.containsKey(dir.getAbsolutePath())) {
+            return;
+        }
+
+        scannedTimes.put(dir.getAbsolutePath(), dir.lastModified());
+
+        for (File child : children) {
+            if (child.isDirectory()) {
+                if (descend.test(child)) {
+                    listFontFiles(child, fontFiles, scannedTimes);
+                }
+            } else if (isFontFile(child) && fontFiles.size() < MAX_FONT_FILES) {
+                fontFiles.add(child);
+            }
+        }
+    }
+
+    private static boolean isFontFile(File file) {
+        String name = file.getName().toLowerCase();
+
+        return name.endsWith(".ttf")
+                || name.endsWith(".otf")
+                || name.endsWith(".ttc")
+                || name.endsWith(".dfont");
+    }
+
+    /**
+     * @param file font file
+     * @return index entry for file, null if unreadable
+     */
+    private static IndexedFont readFont(File file) {
+        IndexedFont ret = null;
+
+        try {
+            Font font = Font.createFont(Font.TRUETYPE_FONT, file);
+            String family = font.getFamily();
+            String style = font.getFontName();
+
+            style = style.startsWith(family) ? style.substring(family.length()).trim() : style;
+            ret = new IndexedFont(family, style.isEmpty() ? "Regular" : style, file, file.lastModified());
+        } catch (FontFormatException e) {
+            // Java does not recognize some Mac style ttf fonts: these are skipped as before
+        } catch (IOException e) {
+            DesktopIOHandler.getInstance().writeErrorLog(e, file.getPath());
+        }
+
+        return ret;
+    }
+
+    private void setFonts(List<IndexedFont> _fonts) {
+        fonts.clear();
+        families.clear();
+        fonts.addAll(_fonts);
+
+        for (IndexedFont font : fonts) {
+            families.merge(font.family, font, (a, b) -> b.modified > a.modified ? b : a);
+        }
+    }
+
+    /**
+     * @return true if a saved index for these roots was loaded
+     */
+    private boolean load() {
+        if (!Files.exists(cacheFile)) {
+            return false;
+        }
+
+        try {
+            JsonNode root = objectMapper.readTree(cacheFile.toFile());
+            List<String> savedRoots = new ArrayList<>();
+            List<String> curRoots = new ArrayList<>();
+
+            root.path(ROOTS).forEach(node -> savedRoots.add(node.asText()));
+            roots.forEach(path -> curRoots.add(path.toFile().getAbsolutePath()));
+
+            if (!savedRoots.equals(curRoots)) {
+                return false;
+            }
+
+            Map<String, Long> savedTimes = new LinkedHashMap<>();
+            List<IndexedFont> savedFonts = new ArrayList<>();
+
+            for (Iterator<Entry<String, JsonNode>> it = root.path(DIRECTORIES).fields(); it.hasNext(); ) {
+                Entry<String, JsonNode> entry = it.next();
+                savedTimes.put(entry.getKey(), entry.getValue().longValue());
+            }
+
+            for (JsonNode node : root.path(FONTS)) {
+                savedFonts.add(new IndexedFont(node.path(FAMILY).asText(),
+                        node.path(STYLE).asText(),
+                        new File(node.path(PATH).asText()),
+                        node.path(MODIFIED).asLong()));
+            }
+
+            directoryTimes.clear();
+            directoryTimes.putAll(savedTimes);
+            setFonts(savedFonts);
+
+            return true;
+        } catch (IOException e) {
+            // a damaged index is simply rebuilt
+            DesktopIOHandler.getInstance().writeErrorLog(e, "Unable to read font index.");
+            return false;
+        }
+    }
+
+    /**
+     * Writes index to a temporary file which then replaces the old, so that an
+     * interrupted save never leaves a partial index
+     */
+    private void save() {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode rootNode = root.putArray(ROOTS);
+        ObjectNode directoryNode = root.putObject(DIRECTORIES);
+        ArrayNode fontNode = root.putArray(FONTS);
+
+        roots.forEach(path -> rootNode.add(path.toFile().getAbsolutePath()));
+        directoryTimes.forEach((dir, time) -> directoryNode.put(dir, time));
+
+        for (IndexedFont font : fonts) {
+            fontNode.addObject()
+                    .put(FAMILY, font.family)
+                    .put(STYLE, font.style)
+                    .put(PATH, font.file.getAbsolutePath())
+                    .put(MODIFIED, font.modified);
+        }
+
+        try {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+            Path temp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            Files.writeString(temp, root.toString(), StandardCharsets.UTF_8);
+            Files.move(temp, cacheFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            // the index is an optimization only: it is rebuilt next session
+            DesktopIOHandler.getInstance().writeErrorLog(e, "Unable to save font index.");
+        }
+    }
+
+    /**
+     * Family, style and location of a single font file
+     */
+    public static final class IndexedFont {
+        private final String family;
+        private final String style;
+        private final File file;
+        private final long modified;
+
+        private IndexedFont(String _family, String _style, File _file, long _modified) {
+            family = _family;
+            style = _style;
+            file = _file;
+            modified = _modified;
+        }
+
+        public String getFamily() {
+            return family;
+        }
+
+        public String getStyle() {
+            return style;
+        }
+
+        public File getFile() {
+            return file;
+        }
+    }
+}
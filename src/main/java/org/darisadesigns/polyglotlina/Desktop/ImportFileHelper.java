@@ -27,12 +27,13 @@ import org.darisadesigns.polyglotlina.Nodes.WordClass;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.Reader;
+import java.nio.charset.CharacterCodingException;
 import java.nio.charset.Charset;
-import java.nio.charset.MalformedInputException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import org.apache.commons.csv.CSVFormat;
@@ -43,6 +44,8 @@ import org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection;
 
 public class ImportFileHelper {
 
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
     private final DictCore core;
     private String iConWord;
     private String iLocalWord;
@@ -55,6 +58,8 @@ public class ImportFileHelper {
     private boolean bCreateTypes;
     private String quoteChar;
     private DuplicateOption dupOpt;
+    private int rowsImported = 0;
+    private long importNanos = 0;
 
     public ImportFileHelper(DictCore _core) {
         core = _core;
@@ -117,281 +122,301 @@ public class ImportFileHelper {
             _format = _format.withQuote(quoteChar.charAt(0));
         }
 
+        long startTime = System.nanoTime();
         Map<String, List<ConWord>> valueMap = core.getWordCollection().getValueMapping();
-        List<List<String>> rows = getRows(inputFile, _format);
         ConWordCollection wordCollection = core.getWordCollection();
-
-        if (bFirstLineLabels) {
-            rows.remove(0);
-        }
-
-        for (List<String> row : rows) {
-            List<String> columnList;
-            ConWord newWord = new ConWord();
-
-            // add conword
-            columnList = Arrays.asList(iConWord.split(","));
-            for (String entry : columnList) {
-                if (entry == null || entry.isEmpty()) {
-                    continue;
-                }
-
-                Integer cellNum = cellNumCheckGet(entry);
-
-                // fail silently for files that truncate empty trailing fields
-                if (cellNum >= row.size()) {
-                    continue;
-                }
-
-                if (newWord.getValue().trim().isEmpty()) {
-                    newWord.setValue(row.get(cellNum).trim());
-                } else {
-                    newWord.setValue(newWord.getValue() + ", " + row.get(cellNum).trim());
-                }
-            }
-
-            // if conword is blank, continue. Bare minimum for imported word is a conword value.
-            if (newWord.getValue().trim().isEmpty()) {
-                continue;
-            }
-
-            // add definition
-            columnList = Arrays.asList(iDefinition.split(","));
-            for (String entry : columnList) {
-                if (entry == null || entry.isEmpty()) {
-                    continue;
-                }
-
-                Integer cellNum = cellNumCheckGet(entry);
-
-                // fail silently for files that truncate empty trailing fields
-                if (cellNum >= row.size()) {
-                    continue;
-                }
-
-                if (newWord.getDefinition().trim().isEmpty()) {
-                    newWord.setDefinition(row.get(cellNum).trim());
-                } else {
-                    newWord.setDefinition(newWord.getDefinition() + "\n\n" + row.get(cellNum).trim());
-                }
-            }
-
-            // add classes
-            columnList = Arrays.asList(iClass.split(","));
-            for (String entry : columnList) {
-                if (entry == null || entry.isEmpty()) {
+        Charset charset = getFileCharset(inputFile);
+        int[] conWordCols = getColumnNumbers(iConWord);
+        int[] localWordCols = getColumnNumbers(iLocalWord);
+        int[] typeCols = getColumnNumbers(iType);
+        int[] classCols = getColumnNumbers(iClass);
+        int[] definitionCols = getColumnNumbers(iDefinition);
+        int[] pronunciationCols = getColumnNumbers(iPronunciation);
+        Map<String, TypeNode> typeLookup = buildTypeLookup();
+        Map<String, WordClass> classLookup = buildClassLookup();
+        Map<Integer, Map<String, WordClassValue>> classValueLookup = new HashMap<>();
+        List<ConWord> batch = new ArrayList<>();
+        boolean skipLabels = bFirstLineLabels;
+        
+        rowsImported = 0;
+
+        // rows are pulled from the parser one at a time so that the file is never held in memory
+        try (Reader reader = Files.newBufferedReader(Paths.get(inputFile), charset);
+                CSVParser csvParser = new CSVParser(reader, _format)) {
+            for (CSVRecord row : csvParser) {
+                if (skipLabels) {
+                    skipLabels = false;
                     continue;
                 }
+                
+                ConWord newWord = new ConWord();
 
-                Integer cellNum = cellNumCheckGet(entry);
+                // add conword
+                newWord.setValue(joinCells(row, conWordCols, ", "));
 
-                // fail silently for files that truncate empty trailing fields
-                if (cellNum >= row.size()) {
+                // if conword is blank, continue. Bare minimum for imported word is a conword value.
+                if (newWord.getValue().isEmpty()) {
                     continue;
                 }
 
-                String className = "CLASS" + cellNum; // guarantee unique name for user to rename later (based on column)
-                WordClass wordProp = null;
+                // add definition
+                newWord.setDefinition(joinCells(row, definitionCols, "\n\n"));
 
-                // find class
-                for (WordClass findProp : core.getWordClassCollection().getAllWordClasses()) {
-                    if (findProp.getValue().equals(className)) {
-                        wordProp = findProp;
-                        break;
+                // add classes
+                for (int cellNum : classCols) {
+                    // fail silently for files that truncate empty trailing fields
+                    if (cellNum >= row.size()) {
+                        continue;
                     }
-                }
-
-                // create class if doesn't yet exist
-                if (wordProp == null) {
-                    wordProp = new WordClass();
-                    wordProp.setValue(className);
-                    int propId = core.getWordClassCollection().addNode(wordProp);
-                    wordProp = (WordClass) core.getWordClassCollection().getNodeById(propId);
-                }
-
-                // find class value
-                WordClassValue wordVal = null;
-                for (WordClassValue findVal : wordProp.getValues()) {
-                    if (findVal.getValue().equals(row.get(cellNum).trim())) {
-                        wordVal = findVal;
-                        break;
+                    
+                    String className = "CLASS" + cellNum; // guarantee unique name for user to rename later (based on column)
+                    String cellValue = getCell(row, cellNum);
+                    WordClass wordProp = classLookup.get(className);
+
+                    // create class if doesn't yet exist
+                    if (wordProp == null) {
+                        wordProp = new WordClass();
+                        wordProp.setValue(className);
+                        int propId = core.getWordClassCollection().addNode(wordProp);
+                        wordProp = (WordClass) core.getWordClassCollection().getNodeById(propId);
+                        classLookup.put(className, wordProp);
                     }
-                }
-
-                // create class value if doesn't exist yet
-                if (wordVal == null) {
-                    wordVal = new WordClassValue();
-                    wordVal.setValue(row.get(cellNum).trim());
-                    wordVal = wordProp.addValue(row.get(cellNum).trim());
-                }
-
-                // add class value to word
-                newWord.setClassValue(wordProp.getId(), wordVal.getId());
-            }
-
-            // add local word
-            columnList = Arrays.asList(iLocalWord.split(","));
-            for (String entry : columnList) {
-                if (entry == null || entry.isEmpty()) {
-                    continue;
-                }
-
-                Integer cellNum = cellNumCheckGet(entry);
-
-                // fail silently for files that truncate empty trailing fields
-                if (cellNum >= row.size()) {
-                    continue;
-                }
 
-                if (newWord.getLocalWord().trim().isEmpty()) {
-                    newWord.setLocalWord(row.get(cellNum).trim());
-                } else {
-                    newWord.setLocalWord(newWord.getLocalWord() + ", " + row.get(cellNum).trim());
-                }
-            }
+                    Map<String, WordClassValue> valueLookup = classValueLookup.get(wordProp.getId());
+                    
+                    if (valueLookup == null) {
+                        valueLookup = new HashMap<>();
+                        for (WordClassValue findVal : wordProp.getValues()) {
+                            valueLookup.putIfAbsent(findVal.getValue(), findVal);
+                        }
+                        classValueLookup.put(wordProp.getId(), valueLookup);
+                    }
+                    
+                    // create class value if doesn't exist yet
+                    WordClassValue wordVal = valueLookup.get(cellValue);
+                    if (wordVal == null) {
+                        wordVal = wordProp.addValue(cellValue);
+                        valueLookup.put(cellValue, wordVal);
+                    }
 
-            // add pronunciation
-            columnList = Arrays.asList(iPronunciation.split(","));
-            for (String entry : columnList) {
-                if (entry == null || entry.isEmpty()) {
-                    continue;
+                    // add class value to word
+                    newWord.setClassValue(wordProp.getId(), wordVal.getId());
                 }
 
-                Integer cellNum = cellNumCheckGet(entry);
+                // add local word
+                newWord.setLocalWord(joinCells(row, localWordCols, ", "));
 
-                // fail silently for files that truncate empty trailing fields
-                if (cellNum >= row.size()) {
-                    continue;
-                }
+                // add pronunciation
+                newWord.setPronunciation(joinCells(row, pronunciationCols, ", "));
 
-                if (newWord.getPronunciation().trim().isEmpty()) {
-                    newWord.setPronunciation(row.get(cellNum).trim());
-                } else {
-                    newWord.setPronunciation(newWord.getPronunciation() + ", " + row.get(cellNum).trim());
+                // add type
+                String typeName = joinCells(row, typeCols, ", ");
+                if (!typeName.isEmpty()) {
+                    TypeNode type = typeLookup.get(typeName);
+                    
+                    if (type == null) {
+                        type = core.getTypes().findOrCreate(typeName);
+                        typeLookup.put(typeName, type);
+                    }
+                    
+                    newWord.setWordTypeId(type.getId());
                 }
-            }
 
-            // add type
-            columnList = Arrays.asList(iType.split(","));
-            for (String entry : columnList) {
-                if (entry == null || entry.isEmpty()) {
-                    continue;
+                // add type to list of potential types if applicable and user
+                // specified
+                if (bCreateTypes && newWord.getWordTypeId() != 0
+                        && !core.getTypes().nodeExists(newWord.getWordTypeId())) {
+                    core.getTypes().clear();
+                    TypeNode newType = core.getTypes().getBufferType();
+                    newType.setValue(typeName);
+                    core.getTypes().insert();
                 }
 
-                Integer cellNum = cellNumCheckGet(entry);
+                switch (dupOpt) {
+                    case IMPORT_ALL:
+                        batch.add(newWord);
+                        break;
+                    case IGNORE_DUPES:
+                        // only write if does not already exist
+                        if (!valueMap.containsKey(newWord.getValue())) {
+                            batch.add(newWord);
+                        }
+                        break;
+                    case OVERWRITE_DUPES:
+                        // remove all values that this word would duplicate then write
+                        if (valueMap.containsKey(newWord.getValue())) {
+                            for (ConWord oldWord : valueMap.remove(newWord.getValue())) {
+                                wordCollection.deleteNodeById(oldWord.getId());
+                            }
+                        }
 
-                // fail silently for files that truncate empty trailing fields
-                if (cellNum >= row.size()) {
-                    continue;
+                        batch.add(newWord);
+                        break;
+                    default:
+                    // do nothing
                 }
-
-                if (newWord.getWordTypeId() == 0) {
-                    newWord.setWordTypeId(core.getTypes().findOrCreate(row.get(cellNum).trim()).getId());
-                } else {
-                    newWord.setWordTypeId(core.getTypes().findOrCreate(newWord.getWordTypeDisplay() + ", " + row.get(cellNum).trim()).getId());
+                
+                rowsImported++;
+                
+                if (batch.size() >= IMPORT_BATCH_SIZE) {
+                    wordCollection.addWords(batch);
+                    batch.clear();
                 }
             }
-
-            // add type to list of potential types if applicable and user
-            // specified
-            if (bCreateTypes && newWord.getWordTypeId() != 0
-                    && !core.getTypes().nodeExists(newWord.getWordTypeId())) {
-                core.getTypes().clear();
-                TypeNode newType = core.getTypes().getBufferType();
-                newType.setValue(newWord.getWordTypeDisplay());
-                core.getTypes().insert();
-            }
-
-            switch (dupOpt) {
-                case IMPORT_ALL:
-                    wordCollection.addWord(newWord);
-                    break;
-                case IGNORE_DUPES:
-                    // only write if does not already exist
-                    if (!valueMap.containsKey(newWord.getValue())) {
-                        wordCollection.addWord(newWord);
-                    }
-                    break;
-                case OVERWRITE_DUPES:
-                    // remove all values that this word would duplicate then write
-                    if (valueMap.containsKey(newWord.getValue())) {
-                        for (ConWord oldWord : valueMap.get(newWord.getValue())) {
-                            wordCollection.deleteNodeById(oldWord.getId());
-                        }
-                    }
-
-                    wordCollection.addWord(newWord);
-                    break;
-                default:
-                // do nothing
+        }
+        
+        wordCollection.addWords(batch);
+        importNanos = System.nanoTime() - startTime;
+    }
+    
+    /**
+     * Number of data rows read from the file by the last import
+     * (excludes label row and rows with no conword value)
+     * @return row count
+     */
+    public int getRowsImported() {
+        return rowsImported;
+    }
+    
+    /**
+     * Throughput of the last import
+     * @return rows per second, or 0 if nothing has been imported
+     */
+    public double getRowsPerSecond() {
+        return importNanos == 0 ? 0 : rowsImported / (importNanos / 1_000_000_000.0);
+    }
+    
+    /**
+     * Builds lookup of all parts of speech that a findOrCreate by name would match
+     * @return map of part of speech name to node
+     */
+    private Map<String, TypeNode> buildTypeLookup() {
+        Map<String, TypeNode> ret = new HashMap<>();
+        
+        for (TypeNode type : core.getTypes().getNodes()) {
+            if (type.getGloss().isEmpty()) {
+                ret.putIfAbsent(type.getValue(), type);
             }
         }
+        
+        return ret;
     }
-
+    
     /**
-     * Collects all rows from given CSV file and returns string input values
-     *
-     * @param inputFile path of file to read
-     * @return List of rows
-     * @throws FileNotFoundException if CSV does not exist
-     * @throws IOException if read error
+     * Builds lookup of word classes by name. Where names are duplicated, the
+     * first class found wins.
+     * @return map of class name to class
      */
-    private List<List<String>> getRows(String inputFile, CSVFormat format) throws FileNotFoundException, IOException, MalformedInputException {
-        IllegalStateException lastException;
-
-        try {
-            return this.getRowsWithEncoding(inputFile, format, Charset.defaultCharset());
-        } catch (IllegalStateException e) {
-            lastException = e;
-            for (Charset charset : Charset.availableCharsets().values()) {
-                try {
-                    return this.getRowsWithEncoding(inputFile, format, charset);
-                } catch (IllegalStateException ex) {
-                    lastException = ex;
-                }
+    private Map<String, WordClass> buildClassLookup() {
+        Map<String, WordClass> ret = new HashMap<>();
+        
+        for (WordClass wordClass : core.getWordClassCollection().getAllWordClasses()) {
+            ret.putIfAbsent(wordClass.getValue(), wordClass);
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Parses user column specification (comma delimited numbers or letters)
+     * @param columns column specification
+     * @return column numbers in order
+     * @throws Exception on illegal column value
+     */
+    private int[] getColumnNumbers(String columns) throws Exception {
+        List<Integer> ret = new ArrayList<>();
+        
+        for (String entry : columns.split(",")) {
+            if (!entry.isEmpty()) {
+                ret.add(cellNumCheckGet(entry));
             }
         }
-
-        core.getOSHandler().getIOHandler().writeErrorLog(lastException);
-        throw lastException;
+        
+        return ret.stream().mapToInt(Integer::intValue).toArray();
     }
-
-    private List<List<String>> getRowsWithEncoding(String inputFile,
-            CSVFormat format,
-            Charset charSet) throws FileNotFoundException, IOException, MalformedInputException {
-        List<List<String>> ret = new ArrayList<>();
+    
+    /**
+     * Joins trimmed cell values of a row, skipping columns beyond the end of
+     * the row. Blank cells are kept when joining, matching the values users
+     * have always seen from imports.
+     * @param row row to read from
+     * @param columns columns to join
+     * @param delimiter delimiter between values
+     * @return joined value
+     */
+    private static String joinCells(CSVRecord row, int[] columns, String delimiter) {
+        String ret = "";
         
-        try ( Reader reader = Files.newBufferedReader(Paths.get(inputFile), charSet);
-                CSVParser csvParser = new CSVParser(reader, format)) {
-            for (CSVRecord csvRecord : csvParser) {
-                List<String> row = new ArrayList<>();
-
-                for (int i = 0; i < csvRecord.size(); i++) {
-                    row.add(csvRecord.get(i));
-                }
-
-                ret.add(deNullRow(row));
+        for (int cellNum : columns) {
+            // fail silently for files that truncate empty trailing fields
+            if (cellNum >= row.size()) {
+                continue;
+            }
+            
+            String cell = getCell(row, cellNum);
+            
+            if (ret.isEmpty()) {
+                ret = cell;
+            } else {
+                ret = ret + delimiter + cell;
             }
         }
         
         return ret;
     }
+    
+    /**
+     * Gets trimmed cell value, with empty strings rather than nulls
+     */
+    private static String getCell(CSVRecord row, int cellNum) {
+        String ret = row.get(cellNum);
+        return ret == null ? "" : ret.trim();
+    }
 
     /**
-     * Returns new list with empty strings rather than null values where
-     * appropriate
+     * Finds the encoding a CSV file may be read in, trying the system default
+     * first. Only a small buffer is read at any time.
      *
-     * @param row input list (with potentially null values)
-     * @return list guaranteed to contain no nulls
+     * @param inputFile path of file to read
+     * @return charset which decodes the whole file cleanly
+     * @throws FileNotFoundException if CSV does not exist
+     * @throws IOException if read error or no encoding fits
      */
-    private List<String> deNullRow(List<String> row) {
-        List<String> ret = new ArrayList<>();
-
-        for (String cell : row) {
-            ret.add(cell == null ? "" : cell);
+    private Charset getFileCharset(String inputFile) throws FileNotFoundException, IOException {
+        Path path = Paths.get(inputFile);
+        
+        if (!Files.exists(path)) {
+            throw new FileNotFoundException("File not found: " + inputFile);
+        }
+        
+        if (decodesCleanly(path, Charset.defaultCharset())) {
+            return Charset.defaultCharset();
+        }
+        
+        for (Charset charset : Charset.availableCharsets().values()) {
+            if (decodesCleanly(path, charset)) {
+                return charset;
+            }
         }
 
-        return ret;
+        IOException ex = new IOException("Unable to determine character encoding of: " + inputFile);
+        core.getOSHandler().getIOHandler().writeErrorLog(ex);
+        throw ex;
+    }
+    
+    private static boolean decodesCleanly(Path path, Charset charset) throws IOException {
+        char[] buffer = new char[8192];
+        
+        try (Reader reader = Files.newBufferedReader(path, charset)) {
+            while (reader.read(buffer) != -1) {
+                // reading only to test decoding
+            }
+        } catch (CharacterCodingException | UnsupportedOperationException e) {
+            // planned failure: not an encoding that fits this file
+            return false;
+        }
+        
+        return true;
     }
 
     private Integer cellNumCheckGet(String entry) throws Exception {
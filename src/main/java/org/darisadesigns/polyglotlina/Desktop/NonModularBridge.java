@@ -27,7 +27,16 @@ import java.io.PrintStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.TransformerException;
 import org.darisadesigns.polyglotlina.Desktop.CustomControls.DesktopInfoBox;
@@ -48,7 +57,7 @@ public final class NonModularBridge {
      * @return
      * @throws java.io.IOException
      */
-    public static File getNonModularBridgeLocation() throws IOException {
+    public static synchronized File getNonModularBridgeLocation() throws IOException {
         if (nonModularBridgeLocation == null || !nonModularBridgeLocation.exists()) {
             nonModularBridgeLocation = NonModularBridge.getNewNonModularBridgeLocation();
         }
@@ -62,7 +71,16 @@ public final class NonModularBridge {
         return new File(tmpDirectory + File.separator + PGTUtil.JAVA_JAR_FOLDER + File.separator + PGTUtil.JAVA_JAR);
     }
 
-    public static void exportPdf(String target,
+    /**
+     * Prints the language to a PDF via the non modular bridge. Everything the
+     * bridge needs (the bridge jar itself, a temp copy of the language and
+     * both fonts) is independent, so it is prepared concurrently before the
+     * bridge is run.
+     * 
+     * @return elapsed milliseconds per export stage, in stage order
+     * @throws IOException on failure of any stage
+     */
+    public static Map<String, Long> exportPdf(String target,
             String coverImage,
             String foreward,
             boolean printConLocal,
@@ -79,37 +97,36 @@ public final class NonModularBridge {
             String chapterOrder,
             DictCore core) throws IOException {
         
-        File bridge = NonModularBridge.getNonModularBridgeLocation();
-        File tmpLangFile = createTmpLangFile(core);
-        File tmpConFontFile = File.createTempFile("PolyGlotConFont", ".ttf",
-            PGTUtil.getTempDirectory().toFile());
-        File tmpLocalFontFile = File.createTempFile("PolyGlotLocalFont", ".ttf",
-            PGTUtil.getTempDirectory().toFile());
-        tmpConFontFile.deleteOnExit();
-        tmpLocalFontFile.deleteOnExit();
-        
-        String tmpConFontFileLocation = tmpConFontFile.getCanonicalPath();
-        String tmpLocalFontFileLocation = tmpLocalFontFile.getCanonicalPath();
-        
-        try {
-            DesktopIOHandler.getInstance().exportConFont(tmpConFontFileLocation, core.getCurFileName());
-        } catch (IOException e) {
-            tmpConFontFileLocation = "";
-        }
+        Map<String, Long> timings = new LinkedHashMap<>();
+        ExportStage<File> bridgeStage = new ExportStage<>("Bridge extraction", 
+                NonModularBridge::getNonModularBridgeLocation);
+        ExportStage<File> langStage = new ExportStage<>("Language file", 
+                () -> createTmpLangFile(core));
+        ExportStage<String> conFontStage = new ExportStage<>("Conlang font", 
+                () -> createTmpFontFile(core, "PolyGlotConFont", PGTUtil.CON_FONT_FILE_NAME));
+        ExportStage<String> localFontStage = new ExportStage<>("Local font", 
+                () -> createTmpFontFile(core, "PolyGlotLocalFont", PGTUtil.LOCAL_FONT_FILE_NAME));
+        List<ExportStage<?>> stages = List.of(bridgeStage, langStage, conFontStage, localFontStage);
+        ExecutorService stagePool = Executors.newFixedThreadPool(stages.size());
         
         try {
-            DesktopIOHandler.getInstance().exportLocalFont(tmpLocalFontFileLocation, core.getCurFileName());
-        } catch (IOException e) {
-            tmpLocalFontFileLocation = "";
-        }
-        
-        if (tmpConFontFile.length() == 500) {
-            tmpConFontFileLocation = "";
+            for (ExportStage<?> stage : stages) {
+                stage.submit(stagePool);
+            }
+            
+            for (ExportStage<?> stage : stages) {
+                stage.await();
+                timings.put(stage.name, stage.elapsedMillis);
+            }
+        } finally {
+            stagePool.shutdownNow();
         }
         
-        if (tmpLocalFontFile.length() < 500) {
-            tmpLocalFontFileLocation = "";
-        }
+        File bridge = bridgeStage.result;
+        File tmpLangFile = langStage.result;
+        String tmpConFontFileLocation = conFontStage.result;
+        String tmpLocalFontFileLocation = localFontStage.result;
+        long renderStart = System.nanoTime();
         
         String[] command = {
             getJavaExecutablePath(),
@@ -138,6 +155,7 @@ public final class NonModularBridge {
         };
         
         String[] results = DesktopIOHandler.getInstance().runAtConsole(command, true);
+        timings.put("PDF render", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - renderStart));
         
         Set<String> warnings = new HashSet<>();
         
@@ -168,6 +186,32 @@ public final class NonModularBridge {
             DesktopIOHandler.getInstance().writeErrorLog(new Exception(), resultsString);
             throw new IOException("Unable to print to PDF for unknown reasons. Please contact developer with details:\n" + resultsString);
         }
+        
+        return timings;
+    }
+    
+    /**
+     * Exports a font from the current language file to a temp file
+     * 
+     * @param core dictionary core
+     * @param prefix temp file prefix
+     * @param fontFileName name of font entry within language file
+     * @return path to temp font, or empty string if no usable font exists
+     * @throws IOException if temp file cannot be created
+     */
+    private static String createTmpFontFile(DictCore core, String prefix, String fontFileName) throws IOException {
+        File tmpFontFile = File.createTempFile(prefix, ".ttf",
+            PGTUtil.getTempDirectory().toFile());
+        tmpFontFile.deleteOnExit();
+        
+        try {
+            DesktopIOHandler.getInstance().exportFont(tmpFontFile.getCanonicalPath(), 
+                    core.getCurFileName(), fontFileName);
+        } catch (IOException e) {
+            return "";
+        }
+        
+        return tmpFontFile.length() < 500 ? "" : tmpFontFile.getCanonicalPath();
     }
 
     /**
@@ -242,6 +286,47 @@ public final class NonModularBridge {
         }
     }
 
+    /**
+     * A single timed step of an export which may run alongside others
+     * @param <T> type of value produced by the step
+     */
+    private static class ExportStage<T> {
+        private final String name;
+        private final Callable<T> work;
+        private Future<T> future;
+        private T result;
+        private long elapsedMillis;
+        
+        public ExportStage(String _name, Callable<T> _work) {
+            name = _name;
+            work = _work;
+        }
+        
+        public void submit(ExecutorService pool) {
+            future = pool.submit(() -> {
+                long start = System.nanoTime();
+                T ret = work.call();
+                elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                return ret;
+            });
+        }
+        
+        public void await() throws IOException {
+            try {
+                result = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Export interrupted during: " + name, e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException ioException) {
+                    throw ioException;
+                }
+                throw new IOException("Export failed during: " + name, cause);
+            }
+        }
+    }
+
     public static class OutputInterceptor extends PrintStream {
         //private String intercepted = "";
 
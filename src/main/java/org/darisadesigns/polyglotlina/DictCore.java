@@ -20,9 +20,12 @@
 package org.darisadesigns.polyglotlina;
 
 import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -312,7 +315,8 @@ public class DictCore {
 
     /**
      * Builds a report on the conlang. Potentially very computationally
-     * expensive.
+     * expensive. The report is written straight to a temporary file, which is
+     * then opened.
      *
      * @param progress
      */
@@ -320,10 +324,20 @@ public class DictCore {
         final DictCore core = this;
 
         new Thread(() -> {
-            String reportContents = PLanguageStats.buildWordReport(core, progress);
-
-            if (!core.getPGTUtil().isBlank(reportContents)) {
-                core.getOSHandler().openLanguageReport(reportContents);
+            try {
+                File report = core.getOSHandler().getIOHandler().createTmpFile(".html");
+                boolean written;
+
+                try (Writer out = Files.newBufferedWriter(report.toPath(), StandardCharsets.UTF_8)) {
+                    written = PLanguageStats.writeWordReport(core, progress, out);
+                }
+
+                if (written) {
+                    core.getOSHandler().openLanguageReport(report);
+                }
+            } catch (IOException e) {
+                core.getOSHandler().getIOHandler().writeErrorLog(e);
+                core.getOSHandler().getInfoBox().error("Language Stat Error", "Unable to generate language statistics: " + e.getLocalizedMessage());
             }
         }).start();
     }
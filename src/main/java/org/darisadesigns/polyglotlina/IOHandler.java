@@ -51,6 +51,17 @@ public interface IOHandler {
      */
     File createTmpFileWithContents(String contents, String extension) throws IOException;
 
+    /**
+     * Creates and returns an empty temporary file. File will be deleted on
+     * exit of PolyGlot.
+     *
+     * @param extension extension name for tmp file (defaults to tmp if none
+     * given)
+     * @return Empty temporary file
+     * @throws IOException on creation error
+     */
+    File createTmpFile(String extension) throws IOException;
+
     File createTmpFileFromImageBytes(byte[] imageBytes, String fileName) throws IOException;
 
     File createFileWithContents(String path, String contents) throws IOException;
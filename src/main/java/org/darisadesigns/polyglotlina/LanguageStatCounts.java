@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import org.darisadesigns.polyglotlina.CustomControls.AlphabetTrie;
+import org.darisadesigns.polyglotlina.ManagersCollections.PronunciationMgr;
+import org.darisadesigns.polyglotlina.Nodes.ConWord;
+import org.darisadesigns.polyglotlina.Nodes.PronunciationNode;
+
+/**
+ * Counts of letters, letter combinations, phonemes and parts of speech across
+ * a set of words. Letters and phonemes are counted in arrays indexed by their
+ * position in the alphabet/pronunciation list. Counts gathered separately
+ * (on separate threads, for instance) may be merged, and words may be removed
+ * again once counted.
+ * 
+ * @author Draque Thompson
+ */
+public final class LanguageStatCounts {
+    private final AlphabetTrie alphabet;
+    private final Map<String, Integer> phonemeIndex;
+    private final PronunciationMgr pronunciationMgr;
+    private final int alphabetSize;
+    private final int phonemeSize;
+    private final int[] wordStart;
+    private final int[] letterCount;
+    private final int[] letterComboCount;
+    private final int[] phonemeCount;
+    private final int[] phonemeComboCount;
+    private final Map<Integer, Integer> typeCount = new HashMap<>();
+    private int wordCount = 0;
+    
+    /**
+     * Creates empty counts for the language's current alphabet and
+     * pronunciations. Phonemes are not counted if pronunciation recursion is
+     * in use.
+     * 
+     * @param core core of language to count
+     */
+    public LanguageStatCounts(DictCore core) {
+        this(new AlphabetTrie(core.getPropertiesManager().getOrderedAlphaList()), 
+                buildPhonemeIndex(core.getPronunciationMgr()), 
+                core.getPronunciationMgr().isRecurse() ? null : core.getPronunciationMgr());
+    }
+    
+    private LanguageStatCounts(AlphabetTrie _alphabet, Map<String, Integer> _phonemeIndex, PronunciationMgr _pronunciationMgr) {
+        alphabet = _alphabet;
+        phonemeIndex = _phonemeIndex;
+        pronunciationMgr = _pronunciationMgr;
+        alphabetSize = alphabet.size();
+        phonemeSize = phonemeIndex.size();
+        wordStart = new int[alphabetSize];
+        letterCount = new int[alphabetSize];
+        letterComboCount = new int[alphabetSize * alphabetSize];
+        phonemeCount = new int[phonemeSize];
+        phonemeComboCount = new int[phonemeSize * phonemeSize];
+    }
+    
+    /**
+     * Creates empty counts sharing this one's alphabet and pronunciations
+     * 
+     * @return empty counts
+     */
+    public LanguageStatCounts emptyCopy() {
+        return new LanguageStatCounts(alphabet, phonemeIndex, pronunciationMgr);
+    }
+    
+    /**
+     * Creates counts identical to these, independent of further changes
+     * 
+     * @return copy of counts
+     */
+    public LanguageStatCounts copy() {
+        LanguageStatCounts ret = emptyCopy();
+        
+        ret.merge(this);
+        
+        return ret;
+    }
+    
+    private static Map<String, Integer> buildPhonemeIndex(PronunciationMgr pronunciationMgr) {
+        Map<String, Integer> ret = new HashMap<>();
+        
+        for (PronunciationNode curNode : pronunciationMgr.getPronunciations()) {
+            ret.putIfAbsent(curNode.getPronunciation(), ret.size());
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Counts a word's letters, letter combinations, phonemes and part of speech
+     * 
+     * @param word word to count
+     */
+    public void addWord(ConWord word) {
+        addWord(word.getValue(), word.getWordTypeId());
+    }
+    
+    /**
+     * Counts a word's letters, letter combinations, phonemes and part of speech
+     * 
+     * @param value value of word to count
+     * @param typeId part of speech ID of word to count
+     */
+    public void addWord(String value, int typeId) {
+        countWord(value, typeId, 1);
+    }
+    
+    /**
+     * Removes a previously counted word's contribution. Value and part of
+     * speech must be those the word had when it was counted.
+     * 
+     * @param value value of word as counted
+     * @param typeId part of speech ID of word as counted
+     */
+    public void removeWord(String value, int typeId) {
+        countWord(value, typeId, -1);
+    }
+    
+    private void countWord(String value, int typeId, int delta) {
+        int[] letters = alphabet.tokenize(value);
+        
+        if (letters.length > 0 && letters[0] != -1) {
+            wordStart[letters[0]] += delta;
+        }
+        
+        for (int i = 0; i < letters.length; i++) {
+            if (letters[i] == -1) {
+                continue;
+            }
+            
+            letterCount[letters[i]] += delta;
+            
+            if (i > 0 && letters[i - 1] != -1) {
+                letterComboCount[letters[i - 1] * alphabetSize + letters[i]] += delta;
+            }
+        }
+        
+        if (pronunciationMgr != null) {
+            countPhonemes(value, delta);
+        }
+        
+        // merging to zero removes the entry, so absent types are never reported
+        typeCount.merge(typeId, delta, (count, change) -> count + change == 0 ? null : count + change);
+        wordCount += delta;
+    }
+    
+    private void countPhonemes(String value, int delta) {
+        PronunciationNode[] phonArray;
+        
+        try {
+            phonArray = pronunciationMgr.getPronunciationElements(value);
+        } catch (Exception e) {
+            // do nothing. This is just a report, users will be made aware
+            // of illegal pronunciation values elsewhere
+            phonArray = new PronunciationNode[0];
+        }
+        
+        int prevPhoneme = -1;
+        
+        for (PronunciationNode curNode : phonArray) {
+            Integer phoneme = phonemeIndex.get(curNode.getPronunciation());
+            
+            if (phoneme != null) {
+                phonemeCount[phoneme] += delta;
+                
+                if (prevPhoneme != -1) {
+                    phonemeComboCount[prevPhoneme * phonemeSize + phoneme] += delta;
+                }
+            }
+            
+            prevPhoneme = phoneme == null ? -1 : phoneme;
+        }
+    }
+    
+    /**
+     * Adds counts from another set of counts sharing the same alphabet and
+     * pronunciations
+     * 
+     * @param other counts to add
+     */
+    public void merge(LanguageStatCounts other) {
+        addAll(wordStart, other.wordStart);
+        addAll(letterCount, other.letterCount);
+        addAll(letterComboCount, other.letterComboCount);
+        addAll(phonemeCount, other.phonemeCount);
+        addAll(phonemeComboCount, other.phonemeComboCount);
+        other.typeCount.forEach((type, count) -> typeCount.merge(type, count, Integer::sum));
+        wordCount += other.wordCount;
+    }
+    
+    private static void addAll(int[] target, int[] source) {
+        for (int i = 0; i < target.length; i++) {
+            target[i] += source[i];
+        }
+    }
+    
+    public int getWordCount() {
+        return wordCount;
+    }
+    
+    /**
+     * @param letter index of letter in alphabet
+     * @return number of words starting with letter
+     */
+    public int getWordStartCount(int letter) {
+        return wordStart[letter];
+    }
+    
+    /**
+     * @param letter index of letter in alphabet
+     * @return number of times letter appears across all words
+     */
+    public int getLetterCount(int letter) {
+        return letterCount[letter];
+    }
+    
+    /**
+     * @param first index of first letter in alphabet
+     * @param second index of following letter in alphabet
+     * @return number of times first letter is immediately followed by second
+     */
+    public int getLetterComboCount(int first, int second) {
+        return letterComboCount[first * alphabetSize + second];
+    }
+    
+    /**
+     * @return highest count of any letter combination (1 at minimum)
+     */
+    public int getHighestLetterComboCount() {
+        return getHighest(letterComboCount);
+    }
+    
+    /**
+     * @param phoneme pronunciation of phoneme
+     * @return number of times phoneme appears across all words
+     */
+    public int getPhonemeCount(String phoneme) {
+        Integer index = phonemeIndex.get(phoneme);
+        
+        return index == null ? 0 : phonemeCount[index];
+    }
+    
+    /**
+     * @param first pronunciation of first phoneme
+     * @param second pronunciation of following phoneme
+     * @return number of times first phoneme is immediately followed by second
+     */
+    public int getPhonemeComboCount(String first, String second) {
+        Integer firstIndex = phonemeIndex.get(first);
+        Integer secondIndex = phonemeIndex.get(second);
+        
+        return firstIndex == null || secondIndex == null ? 0 
+                : phonemeComboCount[firstIndex * phonemeSize + secondIndex];
+    }
+    
+    /**
+     * @return highest count of any phoneme combination (1 at minimum)
+     */
+    public int getHighestPhonemeComboCount() {
+        return getHighest(phonemeComboCount);
+    }
+    
+    /**
+     * @return count of words per part of speech ID
+     */
+    public Map<Integer, Integer> getTypeCounts() {
+        return Collections.unmodifiableMap(typeCount);
+    }
+    
+    private static int getHighest(int[] counts) {
+        int ret = 1;
+        
+        for (int count : counts) {
+            ret = Math.max(ret, count);
+        }
+        
+        return ret;
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection;
+import org.darisadesigns.polyglotlina.ManagersCollections.PronunciationMgr;
+import org.darisadesigns.polyglotlina.ManagersCollections.PropertiesManager;
+import org.darisadesigns.polyglotlina.Nodes.ConWord;
+import org.darisadesigns.polyglotlina.Nodes.PronunciationNode;
+
+/**
+ * Keeps language statistics current as the lexicon changes. All words are
+ * counted once, when statistics are first requested. After that, only words
+ * inserted, modified or removed since the last request are recounted. Changes
+ * to the alphabet or pronunciation rules alter how every word is counted, and
+ * so bring about a full recount. Changes are not tracked until statistics are
+ * first requested.
+ * 
+ * @author Draque Thompson
+ */
+public final class LanguageStatsTracker {
+    private final DictCore core;
+    private final Set<Integer> changedIds = ConcurrentHashMap.newKeySet();
+    private final Map<Integer, CountedWord> countedWords = new HashMap<>();
+    private volatile boolean tracking = false;
+    private LanguageStatCounts counts = null;
+    private List<Object> countedRules = null;
+    
+    public LanguageStatsTracker(DictCore _core) {
+        core = _core;
+    }
+    
+    /**
+     * Records that a word has been inserted, modified or removed, to be
+     * recounted on next request. Does not block.
+     * 
+     * @param id ID of changed word
+     */
+    public void wordChanged(Integer id) {
+        if (tracking) {
+            changedIds.add(id);
+        }
+    }
+    
+    /**
+     * Records a batch of changed words, as wordChanged does for one
+     * 
+     * @param ids IDs of changed words
+     */
+    public void wordsChanged(Collection<Integer> ids) {
+        if (tracking) {
+            changedIds.addAll(ids);
+        }
+    }
+    
+    /**
+     * Gets the number of words which must be counted to bring statistics up
+     * to date (each of which will be reported as counted on next request)
+     * 
+     * @return number of words to count
+     */
+    public synchronized int getPendingCount() {
+        if (counts == null || !getCountingRules().equals(countedRules)) {
+            return core.getWordCollection().getWordCount();
+        }
+        
+        return changedIds.size();
+    }
+    
+    /**
+     * Gets current statistics for the lexicon
+     * 
+     * @return copy of current counts
+     */
+    public LanguageStatCounts getCounts() {
+        return getCounts((value) -> {});
+    }
+    
+    /**
+     * Gets current statistics for the lexicon
+     * 
+     * @param onCounted called with the value of each word counted (or
+     * uncounted, if removed) to bring statistics up to date (may be called
+     * from any thread)
+     * @return copy of current counts
+     */
+    public synchronized LanguageStatCounts getCounts(Consumer<String> onCounted) {
+        List<Object> rules = getCountingRules();
+        
+        if (counts == null || !rules.equals(countedRules)) {
+            recountAll(rules, onCounted);
+        } else {
+            recountChanged(onCounted);
+        }
+        
+        return counts.copy();
+    }
+    
+    /**
+     * Counts all words in a single pass, spread across available processors.
+     * Words are captured before counting so that later removals subtract
+     * exactly what was added.
+     */
+    private void recountAll(List<Object> rules, Consumer<String> onCounted) {
+        // changes made from here on are picked up by the next request
+        tracking = true;
+        changedIds.clear();
+        countedWords.clear();
+        
+        for (ConWord word : new ArrayList<>(core.getWordCollection().getAllValues())) {
+            countedWords.put(word.getId(), new CountedWord(word));
+        }
+        
+        LanguageStatCounts template = new LanguageStatCounts(core);
+        
+        counts = countedWords.values().parallelStream().collect(template::emptyCopy, 
+                (LanguageStatCounts accumulator, CountedWord curWord) -> {
+                    accumulator.addWord(curWord.value, curWord.typeId);
+                    onCounted.accept(curWord.value);
+                }, 
+                LanguageStatCounts::merge);
+        countedRules = rules;
+    }
+    
+    private void recountChanged(Consumer<String> onCounted) {
+        ConWordCollection words = core.getWordCollection();
+        Iterator<Integer> changed = changedIds.iterator();
+        
+        while (changed.hasNext()) {
+            Integer id = changed.next();
+            changed.remove();
+            
+            CountedWord oldWord = countedWords.remove(id);
+            CountedWord newWord = words.exists(id) ? new CountedWord(words.getNodeById(id)) : null;
+            
+            if (oldWord != null) {
+                counts.removeWord(oldWord.value, oldWord.typeId);
+            }
+            
+            if (newWord != null) {
+                counts.addWord(newWord.value, newWord.typeId);
+                countedWords.put(id, newWord);
+            }
+            
+            onCounted.accept(newWord != null ? newWord.value : oldWord != null ? oldWord.value : "");
+        }
+    }
+    
+    /**
+     * Everything outside of the words themselves which affects how they are
+     * counted. Counts are rebuilt whenever this differs from when they were
+     * last built.
+     */
+    private List<Object> getCountingRules() {
+        PropertiesManager propMan = core.getPropertiesManager();
+        PronunciationMgr procMan = core.getPronunciationMgr();
+        List<String> pronunciations = new ArrayList<>();
+        
+        for (PronunciationNode curNode : procMan.getPronunciations()) {
+            pronunciations.add(curNode.getValue());
+            pronunciations.add(curNode.getPronunciation());
+        }
+        
+        return Arrays.asList(Arrays.asList(propMan.getOrderedAlphaList()), 
+                procMan.isRecurse(), 
+                propMan.isIgnoreCase(), 
+                propMan.isDisableProcRegex(), 
+                pronunciations);
+    }
+    
+    /**
+     * Word values as they were when counted
+     */
+    private static final class CountedWord {
+        private final String value;
+        private final int typeId;
+        
+        private CountedWord(ConWord word) {
+            value = word.getValue();
+            typeId = word.getWordTypeId();
+        }
+    }
+}
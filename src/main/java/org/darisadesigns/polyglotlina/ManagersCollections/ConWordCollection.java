@@ -25,16 +25,25 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import org.darisadesigns.polyglotlina.CustomControls.PAlphaMap;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.FormattedTextHelper;
+import org.darisadesigns.polyglotlina.LanguageStatCounts;
+import org.darisadesigns.polyglotlina.LanguageStatsTracker;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
 import org.darisadesigns.polyglotlina.Nodes.ConjugationNode;
 import org.darisadesigns.polyglotlina.Nodes.ConjugationPair;
@@ -56,14 +65,28 @@ import org.w3c.dom.Element;
 public class ConWordCollection extends DictionaryCollection<ConWord> {
 
     private static final String SPLIT_CHAR = ",";
+    private static final int FILTER_PUBLISH_INTERVAL = 1000; // words tested between publishing partial filter results
+    private static final int EVOLVE_CHUNK_SIZE = 2000; // words evolved per parallel task
     private final DictCore core;
     private boolean orderByLocal = false;
+    
+    // lexicon in alphabetical order, maintained between calls rather than re-sorted on each
+    private List<ConWord> sortedWords = null;
+    private int sortedAlphaVersion;
+    private boolean sortedMissingChars;
+    private PAlphaMap<String, Integer> sortedAlphaOrder;
+    private int fullSortCount = 0;
+    
+    private final LanguageStatsTracker statsTracker;
+    private final LocalWordIndex localWordIndex;
 
     public ConWordCollection(DictCore _core) {
         super(new ConWord());
 
         bufferNode.setCore(_core);
         core = _core;
+        statsTracker = new LanguageStatsTracker(_core);
+        localWordIndex = new LocalWordIndex(this);
     }
 
     /**
@@ -85,6 +108,9 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
         bufferNode.setParent(this);
         bufferNode.setCore(core);
         ret = super.insert(_id, bufferNode);
+        addSorted(bufferNode);
+        statsTracker.wordChanged(ret);
+        localWordIndex.wordChanged(ret);
 
         bufferNode = new ConWord();
         bufferNode.setCore(core);
@@ -409,8 +435,28 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
 
     @Override
     public void modifyNode(Integer _id, ConWord _modNode) throws Exception {
+        ConWord oldWord = nodeMap.get(_id);
+        
         _modNode.setCore(core);
         super.modifyNode(_id, _modNode);
+        removeSorted(oldWord);
+        addSorted(_modNode);
+        statsTracker.wordChanged(_id);
+        localWordIndex.wordChanged(_id);
+        logoWordValueChanged(_modNode);
+    }
+    
+    @Override
+    protected void removeNode(Integer _id) {
+        ConWord word = nodeMap.get(_id);
+        
+        super.removeNode(_id);
+        
+        if (word != null) {
+            removeSorted(word);
+            statsTracker.wordChanged(_id);
+            localWordIndex.wordChanged(_id);
+        }
     }
 
     /**
@@ -426,7 +472,12 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
     protected Integer insert(Integer _id, ConWord _buffer) throws Exception {
         _buffer.setCore(core);
         _buffer.setParent(this);
-        return super.insert(_id, _buffer);
+        Integer ret = super.insert(_id, _buffer);
+        addSorted(_buffer);
+        statsTracker.wordChanged(ret);
+        localWordIndex.wordChanged(ret);
+        
+        return ret;
     }
 
     /**
@@ -440,18 +491,11 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
         List<ConWord> localEquals = new ArrayList<>();
         List<ConWord> localContains = new ArrayList<>();
         List<RankedObject<ConWord>> definitionContains = new ArrayList<>();
-        Iterator<Entry<Integer, ConWord>> allWords = nodeMap.entrySet().iterator();
 
         // on empty, return empty array
         if (!_match.isEmpty()) {
-            Entry<Integer, ConWord> curEntry;
-            ConWord curWord;
-
             // cycles through all words, searching for matches
-            while (allWords.hasNext()) {
-                curEntry = allWords.next();
-                curWord = curEntry.getValue();
-
+            for (ConWord curWord : nodeMap.values()) {
                 String word = curWord.getValue();
                 String compare = _match;
                 String definition = curWord.getDefinition();
@@ -510,50 +554,133 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
             ReplaceOptions instanceOption, 
             String regex, 
             String replacement) throws Exception {
+        return evolveLexicon(_filter, percent, instanceOption, regex, replacement, false);
+    }
+    
+    /**
+     * Evolves the lexicon as above, or with dryRun set, reports the changes
+     * that would be made without modifying any word. The transform is compiled
+     * once, and new values are worked out in parallel chunks before any word
+     * is updated.
+     * 
+     * @param _filter filter conword used for filtering effects
+     * @param percent the chance that any given word will be evolved
+     * @param instanceOption
+     * @param regex the regex to apply a transformation
+     * @param replacement the replacement text
+     * @param dryRun if true, only report changes (conjugated forms untouched)
+     * @return before/after values of changed words, and any errors
+     * @throws java.lang.Exception on filter error
+     */
+    public EvolutionPair[] evolveLexicon(ConWord _filter, 
+            int percent, 
+            ReplaceOptions instanceOption, 
+            String regex, 
+            String replacement,
+            boolean dryRun) throws Exception {
         Random rand = new Random();
+        List<ConWord> selected = new ArrayList<>();
         List<EvolutionPair> ret = new ArrayList<>();
+        RegexTools.CompiledReplace transform = null;
+        String compileError = null;
         
         for (ConWord word : filteredList(_filter)) {
             if (rand.nextInt(99) < percent) {
-                String originalValue = word.getValue();
-                
-                try {
-                    word.evolveWord(regex, replacement, instanceOption);
-                    core.getConjugationManager().evolveConjugatedWordForms(word.getId(), regex, replacement, instanceOption);
-                    
-                    String newValue = word.getValue();
-                    
-                    if (core.getPGTUtil().isBlank(newValue)) {
-                        throw new Exception("Evolved word form is blank.");
-                    }
-                    
-                    if (originalValue.equals(newValue)) {
-                        // no need to record if no change made
-                        continue;
-                    }
-                    
-                    ret.add(new EvolutionPair(originalValue, 
-                            newValue, 
-                            EvolutionType.word, 
-                            "", 
-                            ""
-                    ));
-                } catch (Exception e) {
-                    // revert on error
-                    String errorValue = word.getValue();
-                    word.setValue(originalValue);
-                    ret.add(new EvolutionPair(originalValue, 
-                            errorValue, 
-                            EvolutionType.word, 
-                            e.getLocalizedMessage(), 
-                            ""
-                    ));
-                }
+                selected.add(word);
+            }
+        }
+        
+        try {
+            transform = RegexTools.compileReplace(regex, replacement, instanceOption);
+        } catch (Exception e) {
+            compileError = e.getLocalizedMessage();
+        }
+        
+        String[] newValues = new String[selected.size()];
+        String[] errors = new String[selected.size()];
+        
+        if (transform != null) {
+            evolveValues(selected, transform, newValues, errors);
+        } else {
+            Arrays.fill(errors, compileError);
+        }
+        
+        for (int i = 0; i < selected.size(); i++) {
+            ConWord word = selected.get(i);
+            String originalValue = word.getValue();
+            String newValue = newValues[i];
+            
+            if (errors[i] != null) {
+                ret.add(new EvolutionPair(originalValue, originalValue, EvolutionType.word, errors[i], ""));
+                continue;
+            }
+            
+            if (!dryRun) {
+                core.getConjugationManager().evolveConjugatedWordForms(word.getId(), transform);
+            }
+            
+            if (core.getPGTUtil().isBlank(newValue)) {
+                // blank values are never kept
+                ret.add(new EvolutionPair(originalValue, newValue, EvolutionType.word, "Evolved word form is blank.", ""));
+                continue;
+            }
+            
+            if (originalValue.equals(newValue)) {
+                // no need to record if no change made
+                continue;
             }
+            
+            if (!dryRun) {
+                word.setValue(newValue);
+            }
+            
+            ret.add(new EvolutionPair(originalValue, 
+                    newValue, 
+                    EvolutionType.word, 
+                    "", 
+                    ""
+            ));
         }
         
         return ret.toArray(EvolutionPair[]::new);
     }
+    
+    /**
+     * Works out evolved values of words in parallel chunks without modifying
+     * them
+     * 
+     * @param words words to evolve
+     * @param transform compiled transform
+     * @param newValues populated with each word's evolved value
+     * @param errors populated with the error evolving each word, if any
+     */
+    private static void evolveValues(List<ConWord> words, 
+            RegexTools.CompiledReplace transform, 
+            String[] newValues, 
+            String[] errors) throws Exception {
+        List<Callable<Void>> chunks = new ArrayList<>();
+        
+        for (int start = 0; start < words.size(); start += EVOLVE_CHUNK_SIZE) {
+            int from = start;
+            int to = Math.min(words.size(), start + EVOLVE_CHUNK_SIZE);
+            
+            chunks.add(() -> {
+                for (int i = from; i < to; i++) {
+                    try {
+                        newValues[i] = transform.apply(words.get(i).getValue());
+                    } catch (Exception e) {
+                        errors[i] = e.getLocalizedMessage();
+                    }
+                }
+                
+                return null;
+            });
+        }
+        
+        for (Future<Void> chunk : ForkJoinPool.commonPool().invokeAll(chunks)) {
+            chunk.get();
+        }
+    }
 
     /**
      * Uses conword passed as parameter to filter on the entire dictionary of
@@ -567,12 +694,40 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
      * @throws Exception on filtering error
      */
     public ConWord[] filteredList(ConWord _filter) throws Exception {
-        ConWordCollection retValues = new ConWordCollection(core);
-        retValues.setAlphaOrder(alphaOrder);
-
-        Iterator<Entry<Integer, ConWord>> filterList = nodeMap.entrySet().iterator();
-        Entry<Integer, ConWord> curEntry;
-        ConWord curWord;
+        return filteredList(_filter, null);
+    }
+    
+    /**
+     * Filters as above. Words are tested in alphabetical order, so matches
+     * are found already sorted and partial results may be shown while a long
+     * filter is still running. Filtering stops early if the calling thread is
+     * interrupted.
+     *
+     * @param _filter A conword object containing filter values
+     * @param _partialResults if not null, periodically receives the matches found so far
+     * @return an list of conwords which match the given search
+     * @throws InterruptedException if the filtering thread is interrupted
+     * @throws Exception on filtering error
+     */
+    public ConWord[] filteredList(ConWord _filter, Consumer<ConWord[]> _partialResults) throws Exception {
+        return filteredList(_filter, getWordNodesList(), _partialResults);
+    }
+    
+    /**
+     * Filters as above, over a given list of words rather than the live
+     * lexicon. Lets a caller filter off the thread the lexicon is modified on,
+     * using a snapshot taken from that thread.
+     *
+     * @param _filter A conword object containing filter values
+     * @param filterList words to filter, in alphabetical order
+     * @param _partialResults if not null, periodically receives the matches found so far
+     * @return an list of conwords which match the given search
+     * @throws InterruptedException if the filtering thread is interrupted
+     * @throws Exception on filtering error
+     */
+    public ConWord[] filteredList(ConWord _filter, List<ConWord> filterList, Consumer<ConWord[]> _partialResults) throws Exception {
+        List<ConWord> retValues = new ArrayList<>();
+        int published = 0;
         // definition search should always ignore case
         _filter.setDefinition(_filter.getDefinition().toLowerCase());
 
@@ -584,12 +739,21 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
             _filter.setPronunciation(_filter.getPronunciation().toLowerCase());
         }
 
-        while (filterList.hasNext()) {
-            curEntry = filterList.next();
-            curWord = curEntry.getValue();
+        for (int i = 0; i < filterList.size(); i++) {
+            ConWord curWord = filterList.get(i);
+            
+            if (i % FILTER_PUBLISH_INTERVAL == 0) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedException("Filtering cancelled.");
+                }
+                
+                if (_partialResults != null && retValues.size() > published) {
+                    published = retValues.size();
+                    _partialResults.accept(retValues.toArray(ConWord[]::new));
+                }
+            }
+            
             try {
-                // definition should always ignore case
-                String definition = FormattedTextHelper.getTextBody(curWord.getDefinition()).toLowerCase();
                 int type = curWord.getWordTypeId();
                 String local;
                 String proc;
@@ -606,6 +770,8 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
                 // each filter test split up to minimize compares                
                 // definition
                 if (!_filter.getDefinition().trim().isEmpty()) {
+                    // definition should always ignore case
+                    String definition = FormattedTextHelper.getTextBody(curWord.getDefinition()).toLowerCase();
                     boolean cont = true;
 
                     for (String def1 : _filter.getDefinition().split(SPLIT_CHAR)) {
@@ -680,15 +846,14 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
                     }
                 }
 
-                retValues.setBufferWord(curWord);
-                retValues.insert(curWord.getId());
+                retValues.add(curWord);
             } catch (Exception e) {
                 // IOHandler.writeErrorLog(e);
                 throw new Exception("FILTERING ERROR: " + e.getMessage(), e);
             }
         }
 
-        return retValues.getWordNodes();
+        return retValues.toArray(ConWord[]::new);
     }
 
     /**
@@ -777,12 +942,224 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
      *
      * @return List of ConWords
      */
-    public List<ConWord> getWordNodesList() {
-        List<ConWord> retList = new ArrayList<>(nodeMap.values());
-
-        this.safeSort(retList);
-
-        return retList;
+    public synchronized List<ConWord> getWordNodesList() {
+        return new ArrayList<>(getSortedWords());
+    }
+    
+    /**
+     * Gets the maintained alphabetical ordering of the lexicon, sorting it
+     * anew only if it was discarded or the alphabet has changed since
+     *
+     * @return sorted words (not to be modified by callers)
+     */
+    private synchronized List<ConWord> getSortedWords() {
+        if (!isSortedCurrent()) {
+            List<ConWord> sorted = new ArrayList<>(nodeMap.values());
+
+            this.safeSort(sorted);
+            fullSortCount++;
+            sortedWords = sorted;
+            sortedAlphaOrder = alphaOrder;
+            sortedAlphaVersion = alphaOrder.getVersion();
+            sortedMissingChars = alphaOrder.isMissingChars();
+        }
+        
+        return sortedWords;
+    }
+    
+    /**
+     * Tests whether the maintained ordering exists and was built against the
+     * current alphabet in its current sorting mode
+     *
+     * @return true if sorted words may be used as they are
+     */
+    private boolean isSortedCurrent() {
+        return sortedWords != null
+                && sortedAlphaOrder == alphaOrder
+                && sortedAlphaVersion == alphaOrder.getVersion()
+                && sortedMissingChars == alphaOrder.isMissingChars();
+    }
+    
+    /**
+     * Places a newly added word in the maintained ordering, after any words
+     * it sorts equal to (as a stable sort would)
+     *
+     * @param word word to place
+     */
+    private synchronized void addSorted(ConWord word) {
+        if (!isSortedCurrent()) {
+            sortedWords = null;
+            return;
+        }
+        
+        int low = 0;
+        int high = sortedWords.size();
+        
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            
+            if (sortedWords.get(mid).compareTo(word) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        
+        sortedWords.add(low, word);
+    }
+    
+    /**
+     * Places a batch of newly added words in the maintained ordering by
+     * sorting the batch and merging it in, after any words each sorts equal to
+     *
+     * @param words words to place
+     */
+    private synchronized void mergeSorted(List<ConWord> words) {
+        if (words.isEmpty() || !isSortedCurrent()) {
+            return;
+        }
+        
+        List<ConWord> batch = new ArrayList<>(words);
+        this.safeSort(batch);
+        
+        // sorting may have found the alphabet incomplete, changing the ordering
+        if (!isSortedCurrent()) {
+            sortedWords = null;
+            return;
+        }
+        
+        List<ConWord> merged = new ArrayList<>(sortedWords.size() + batch.size());
+        int i = 0;
+        
+        for (ConWord word : batch) {
+            while (i < sortedWords.size() && sortedWords.get(i).compareTo(word) <= 0) {
+                merged.add(sortedWords.get(i++));
+            }
+            
+            merged.add(word);
+        }
+        
+        merged.addAll(sortedWords.subList(i, sortedWords.size()));
+        sortedWords = merged;
+    }
+    
+    /**
+     * @return number of times the lexicon has been sorted in full (so tests
+     * can confirm edits are placed without re-sorting)
+     */
+    synchronized int getFullSortCount() {
+        return fullSortCount;
+    }
+    
+    /**
+     * Removes a word from the maintained ordering
+     *
+     * @param word word to remove
+     */
+    private synchronized void removeSorted(ConWord word) {
+        if (sortedWords == null) {
+            return;
+        }
+        
+        for (int i = 0; i < sortedWords.size(); i++) {
+            if (sortedWords.get(i) == word) {
+                sortedWords.remove(i);
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Called when the value of a word is changed in place. Only that word is
+     * moved within the maintained ordering: it is found by identity, as its
+     * sort key has already changed, then placed again.
+     *
+     * @param word changed word (changes to words not in lexicon are ignored)
+     */
+    public synchronized void wordValueChanged(ConWord word) {
+        if (nodeMap.get(word.getId()) == word) {
+            try {
+                removeSorted(word);
+                addSorted(word);
+            } catch (Exception e) {
+                // value no longer sorts against the alphabet; re-sort safely when next requested
+                sortedWords = null;
+            }
+            
+            statsTracker.wordChanged(word.getId());
+            logoWordValueChanged(word);
+        }
+    }
+    
+    private void logoWordValueChanged(ConWord word) {
+        if (core.getLogoCollection() != null) {
+            core.getLogoCollection().wordValueChanged(word);
+        }
+    }
+    
+    /**
+     * Called when the part of speech of a word is changed in place
+     *
+     * @param word changed word (changes to words not in lexicon are ignored)
+     */
+    public void wordTypeChanged(ConWord word) {
+        if (nodeMap.get(word.getId()) == word) {
+            statsTracker.wordChanged(word.getId());
+        }
+    }
+    
+    /**
+     * Called when the local word or definition of a word is changed in place
+     *
+     * @param word changed word (changes to words not in lexicon are ignored)
+     */
+    public void wordTextChanged(ConWord word) {
+        if (nodeMap.get(word.getId()) == word) {
+            localWordIndex.wordChanged(word.getId());
+        }
+    }
+    
+    /**
+     * Finds the words most likely to relate to a given local word or phrase,
+     * by way of their local words and definitions. Searches an index which is
+     * maintained as words change, so cost does not grow with the lexicon.
+     *
+     * @param target local word or phrase
+     * @param maxHits maximum number of words to return
+     * @return matching words, most likely first
+     */
+    public List<ConWord> getLikelyWords(String target, int maxHits) {
+        return localWordIndex.search(target, maxHits);
+    }
+    
+    /**
+     * Gets letter, letter combination, phoneme and part of speech statistics
+     * for the lexicon. These are maintained as words change, so after the
+     * first call only words changed since the last are recounted.
+     *
+     * @return current language statistics
+     */
+    public LanguageStatCounts getLanguageStats() {
+        return statsTracker.getCounts();
+    }
+    
+    /**
+     * Gets language statistics for the lexicon
+     *
+     * @param onCounted called with the value of each word (re)counted to bring
+     * statistics up to date (may be called from any thread)
+     * @return current language statistics
+     */
+    public LanguageStatCounts getLanguageStats(Consumer<String> onCounted) {
+        return statsTracker.getCounts(onCounted);
+    }
+    
+    /**
+     * @return number of words to be counted on next request for language
+     * statistics
+     */
+    public int getLanguageStatsPendingCount() {
+        return statsTracker.getPendingCount();
     }
 
     /**
@@ -854,6 +1231,33 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
         return ret;
     }
 
+    /**
+     * Inserts a batch of new words into the dictionary. Unlike addWord, the
+     * passed words are inserted as they are rather than copied, so they must
+     * not already belong to a collection. All words are appended first, then
+     * the batch is sorted and merged into the maintained ordering once.
+     *
+     * @param _addWords words to be inserted
+     * @throws Exception on insert failure
+     */
+    public void addWords(Collection<ConWord> _addWords) throws Exception {
+        List<ConWord> added = new ArrayList<>(_addWords.size());
+        List<Integer> addedIds = new ArrayList<>(_addWords.size());
+        
+        try {
+            for (ConWord addWord : _addWords) {
+                addWord.setCore(core);
+                addedIds.add(appendNode(addWord));
+                added.add(addWord);
+            }
+        } finally {
+            // words appended before any failure are still in the lexicon
+            mergeSorted(added);
+            statsTracker.wordsChanged(addedIds);
+            localWordIndex.wordsChanged(addedIds);
+        }
+    }
+
     /**
      * Formats in HTML to a plain font to avoid conlang font
      *
@@ -989,6 +1393,28 @@ public class ConWordCollection extends DictionaryCollection<ConWord> {
         return ret.toArray(ConWordDisplay[]::new);
     }
     
+    /**
+     * Puts words in the order the lexicon is displayed in, without creating
+     * display wrappers. Words given in alphabetical order are left as they are
+     * unless the lexicon is displayed by local word.
+     * @param wordList words in alphabetical order
+     * @return words in display order
+     */
+    public List<ConWord> toDisplayOrder(ConWord[] wordList) {
+        List<ConWord> ret = new ArrayList<>(Arrays.asList(wordList));
+        
+        // matches ordering of ConWordDisplay
+        if (core.getPropertiesManager().isUseLocalWordLex()) {
+            if (core.getPropertiesManager().isIgnoreCase()) {
+                ret.sort(Comparator.comparing((ConWord word) -> word.getLocalWord().toLowerCase()));
+            } else {
+                ret.sort(Comparator.comparing(ConWord::getLocalWord));
+            }
+        }
+        
+        return ret;
+    }
+    
     /**
      * Safely sorts a list of the collection display. Workaround for typical safe-sort on super
      * (Accounts for possible failure due to incomplete/incoherent alphabet written by user)
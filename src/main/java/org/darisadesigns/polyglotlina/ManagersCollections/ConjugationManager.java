@@ -21,6 +21,7 @@ package org.darisadesigns.polyglotlina.ManagersCollections;
 
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
 import org.darisadesigns.polyglotlina.Nodes.ConjugationDimension;
+import org.darisadesigns.polyglotlina.CustomControls.IntObjectMap;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.Nodes.ConjugationGenRule;
 import org.darisadesigns.polyglotlina.Nodes.ConjugationGenTransform;
@@ -35,9 +36,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
-import java.util.Set;
 import org.darisadesigns.polyglotlina.Nodes.EvolutionPair;
 import org.darisadesigns.polyglotlina.Nodes.EvolutionPair.EvolutionType;
 import org.darisadesigns.polyglotlina.RegexTools;
@@ -60,10 +59,10 @@ public class ConjugationManager {
     private ConjugationGenRule ruleBuffer = new ConjugationGenRule();
     
     // Integer is ID of related word, list is list of declension nodes
-    private final Map<Integer, List<ConjugationNode>> dList = new HashMap<>();
+    private final IntObjectMap<List<ConjugationNode>> dList = new IntObjectMap<>();
 
     // Integer is ID of related PoS, list is list of declensions for this PoS
-    private final Map<Integer, List<ConjugationNode>> dTemplates = new HashMap<>();
+    private final IntObjectMap<List<ConjugationNode>> dTemplates = new IntObjectMap<>();
 
     // If specific combined declensions require additional settings in the future,
     // change the boolean here to an object which will store them
@@ -86,12 +85,27 @@ public class ConjugationManager {
             String regex, 
             String replacement, 
             RegexTools.ReplaceOptions instanceOption) {
+        try {
+            return evolveConjugatedWordForms(wordId, RegexTools.compileReplace(regex, replacement, instanceOption));
+        } catch (Exception e) {
+            // no form can be evolved by a transform that does not compile
+            return new EvolutionPair[0];
+        }
+    }
+    
+    /**
+     * Applies a precompiled evolution transform to all recorded forms of a given word
+     * @param wordId
+     * @param transform
+     * @return  
+     */
+    public EvolutionPair[] evolveConjugatedWordForms(int wordId, RegexTools.CompiledReplace transform) {
         List<EvolutionPair> ret = new ArrayList<>();
         if (dList.containsKey(wordId)) {
             for (ConjugationNode curNode : dList.get(wordId)) {
                 String startValue = curNode.getValue();
                 try {
-                    curNode.evolveConjugatedNode(regex, replacement, instanceOption);
+                    curNode.evolveConjugatedNode(transform);
                     
                     // only report error if prior value did not start out as blank
                     
@@ -485,27 +499,50 @@ public class ConjugationManager {
      * @throws java.lang.Exception on bad regex
      */
     public String declineWord(ConWord word, String combinedId) throws Exception {
+        return declineWord(word, combinedId, true);
+    }
+    
+    /**
+     * Generates a word form as above. If debug output is not recorded, words
+     * of different parts of speech may be declined from several threads at
+     * once (words of the same part of speech share rules, which are not
+     * thread safe).
+     *
+     * @param word to transform
+     * @param combinedId combined ID of word form to create
+     * @param recordDebug whether to record debug output for getDecGenDebug
+     * @return new word value if exists, empty string otherwise
+     * @throws java.lang.Exception on bad regex
+     */
+    public String declineWord(ConWord word, String combinedId, boolean recordDebug) throws Exception {
         ConjugationGenRule[] rules = getConjugationRules(word);
-        decGenDebug.clear();
-        decGenDebug.add("APPLIED RULES BREAKDOWN:\n");
         String ret = word.getValue();
+        
+        // debug text is only built when recorded
+        if (recordDebug) {
+            decGenDebug.clear();
+            decGenDebug.add("APPLIED RULES BREAKDOWN:\n");
+        }
 
         for (ConjugationGenRule curRule : rules) {
             boolean ruleAppliesCombId = curRule.getCombinationId().equals(combinedId);
             boolean ruleAppliesToWord = curRule.doesRuleApplyToWord(word);
             
-            String debugString = "--------------------------------------\n";
-            
             // skip all entries not applicable to this particular combined word ID
             if (!ruleAppliesCombId) {
                 continue;
-            } else if (!ruleAppliesToWord) {
-                debugString += curRule.getDebugString();
-                decGenDebug.add(debugString);
-                continue;
             }
             
-            debugString += curRule.getDebugString();
+            String debugString = recordDebug 
+                    ? "--------------------------------------\n" + curRule.getDebugString() : null;
+            
+            if (!ruleAppliesToWord) {
+                if (recordDebug) {
+                    decGenDebug.add(debugString);
+                }
+                
+                continue;
+            }
 
             ConjugationGenTransform[] transforms = curRule.getTransforms();
 
@@ -513,11 +550,14 @@ public class ConjugationManager {
                 try {
                     String orig = ret;
                     ret = ret.replaceAll(curTrans.regex, curTrans.replaceText);
-                    debugString += "    -------------------------\n"
-                            + "    Transformation:\n"
-                            + "        Regex: \"" + curTrans.regex + "\"\n"
-                            + "        Text: \"" + curTrans.replaceText + "\"\n" 
-                            + "        Effect: " + orig + " -> " + ret + "\n";
+                    
+                    if (recordDebug) {
+                        debugString += "    -------------------------\n"
+                                + "    Transformation:\n"
+                                + "        Regex: \"" + curTrans.regex + "\"\n"
+                                + "        Text: \"" + curTrans.replaceText + "\"\n" 
+                                + "        Effect: " + orig + " -> " + ret + "\n";
+                    }
                 } catch (Exception e) {
                     throw new Exception("Unable to create declension/conjugation "
                             + "due to malformed regex (modify in Parts of Speech->Autogeneration): "
@@ -525,7 +565,9 @@ public class ConjugationManager {
                 }
             }
             
-            decGenDebug.add(debugString);
+            if (recordDebug) {
+                decGenDebug.add(debugString);
+            }
         }
 
         // if rules are empty, no transformation took place: return blank string
@@ -548,7 +590,6 @@ public class ConjugationManager {
      * @param typeId ID of type to deprecate declensions for
      */
     public void deprecateAllConjugations(Integer typeId) {
-        Iterator<Entry<Integer, List<ConjugationNode>>> decIt = dList.entrySet().iterator();
         
         // rename rules first for easier organization
         Map<String, ConjugationPair> mappedConjugations = new HashMap<>();
@@ -564,23 +605,14 @@ public class ConjugationManager {
         }
 
         // after renaming, mark deprecations
-        while (decIt.hasNext()) {
-            Entry<Integer, List<ConjugationNode>> curEntry = decIt.next();
-            List<ConjugationNode> curList = curEntry.getValue();
-
+        dList.forEach((wordId, curList) -> {
             // only run for declensions of words with particular type
-            if (!core.getWordCollection().getNodeById(curEntry.getKey()).getWordTypeId().equals(typeId)) {
-                continue;
-            }
-
-            Iterator<ConjugationNode> nodeIt = curList.iterator();
-
-            while (nodeIt.hasNext()) {
-                ConjugationNode curNode = nodeIt.next();
-
-                curNode.setCombinedDimId("D" + curNode.getCombinedDimId());
+            if (core.getWordCollection().getNodeById(wordId).getWordTypeId().equals(typeId)) {
+                for (ConjugationNode curNode : curList) {
+                    curNode.setCombinedDimId("D" + curNode.getCombinedDimId());
+                }
             }
-        }
+        });
     }
 
     /**
@@ -890,7 +922,7 @@ public class ConjugationManager {
         bufferRelId = -1;
     }
 
-    private ConjugationNode addConjugation(Integer typeId, String declension, Map<Integer, List<ConjugationNode>> idToDecNodes) {
+    private ConjugationNode addConjugation(Integer typeId, String declension, IntObjectMap<List<ConjugationNode>> idToDecNodes) {
         List<ConjugationNode> wordList;
 
         topId++;
@@ -919,7 +951,7 @@ public class ConjugationManager {
      * @param list list to add node to (word list or type list)
      * @return declension node created
      */
-    private ConjugationNode addConjugation(Integer relId, Integer declensionId, ConjugationNode declension, Map<Integer, List<ConjugationNode>> list) {
+    private ConjugationNode addConjugation(Integer relId, Integer declensionId, ConjugationNode declension, IntObjectMap<List<ConjugationNode>> list) {
         List<ConjugationNode> wordList;
 
         if (declensionId == -1) {
@@ -999,7 +1031,7 @@ public class ConjugationManager {
         return ret.trim();
     }
 
-    public void deleteConjugation(Integer typeId, Integer declensionId, Map<Integer, List<ConjugationNode>> list) {
+    public void deleteConjugation(Integer typeId, Integer declensionId, IntObjectMap<List<ConjugationNode>> list) {
         if (list.containsKey(typeId)) {
             List<ConjugationNode> copyTo = new ArrayList<>();
             Iterator<ConjugationNode> copyFrom = list.get(typeId).iterator();
@@ -1026,7 +1058,7 @@ public class ConjugationManager {
     private void updateConjugation(Integer typeId,
             Integer declensionId,
             ConjugationNode declension,
-            Map<Integer, List<ConjugationNode>> list) {
+            IntObjectMap<List<ConjugationNode>> list) {
         if (list.containsKey(typeId)) {
             List<ConjugationNode> copyTo = new ArrayList<>();
             Iterator<ConjugationNode> copyFrom = list.get(typeId).iterator();
@@ -1054,7 +1086,7 @@ public class ConjugationManager {
      *
      * @param wordId ID of word to clear of all declensions
      */
-    private void clearAllConjugations(Integer wordId, Map list) {
+    private void clearAllConjugations(Integer wordId, IntObjectMap<List<ConjugationNode>> list) {
         list.remove(wordId);
     }
 
@@ -1068,7 +1100,7 @@ public class ConjugationManager {
      * @return
      */
     private List<ConjugationNode> getDimensionalConjugationList(Integer relatedId,
-            Map<Integer, List<ConjugationNode>> valueMap) {
+            IntObjectMap<List<ConjugationNode>> valueMap) {
         List<ConjugationNode> ret = new ArrayList<>();
 
         if (valueMap.containsKey(relatedId)) {
@@ -1110,7 +1142,7 @@ public class ConjugationManager {
      * @return
      */
     private List<ConjugationNode> getSingletonConjugationList(Integer relatedId,
-            Map<Integer, List<ConjugationNode>> list) {
+            IntObjectMap<List<ConjugationNode>> list) {
         List<ConjugationNode> ret = new ArrayList<>();
 
         if (list.containsKey(relatedId)) {
@@ -1135,7 +1167,7 @@ public class ConjugationManager {
      * @param list list of relations to search through
      * @return
      */
-    private List<ConjugationNode> getFullConjugationList(Integer relatedId, Map<Integer, List<ConjugationNode>> list) {
+    private List<ConjugationNode> getFullConjugationList(Integer relatedId, IntObjectMap<List<ConjugationNode>> list) {
         List<ConjugationNode> ret = new ArrayList<>();
 
         if (list.containsKey(relatedId)) {
@@ -1191,7 +1223,6 @@ public class ConjugationManager {
      * @param rootElement root element of document
      */
     public void writeXML(Document doc, Element rootElement) {
-        Set<Entry<Integer, List<ConjugationNode>>> declensionSet;
         Element declensionCollection = doc.createElement(PGTUtil.DECLENSION_COLLECTION_XID);
         rootElement.appendChild(declensionCollection);
         
@@ -1199,24 +1230,18 @@ public class ConjugationManager {
         this.smoothRules();
 
         // record declension templates
-        declensionSet = dTemplates.entrySet();
-        for (Entry<Integer, List<ConjugationNode>> e : declensionSet) {
-            final Integer relatedId = e.getKey();
-
-            e.getValue().forEach((curNode) -> {
+        dTemplates.forEach((relatedId, nodes) -> {
+            nodes.forEach((curNode) -> {
                 curNode.writeXMLTemplate(doc, declensionCollection, relatedId);
             });
-        }
+        });
 
         // record word declensions
-        declensionSet = dList.entrySet();
-        for (Entry<Integer, List<ConjugationNode>> e : declensionSet) {
-            final Integer relatedId = e.getKey();
-
-            e.getValue().forEach((curNode) -> {
+        dList.forEach((relatedId, nodes) -> {
+            nodes.forEach((curNode) -> {
                 curNode.writeXMLWordConjugation(doc, declensionCollection, relatedId);
             });
-        }
+        });
 
         // record declension autogeneration rules
         generationRules.values().forEach((rules) -> {
@@ -20,16 +20,21 @@
 
 package org.darisadesigns.polyglotlina.ManagersCollections;
 
+import org.darisadesigns.polyglotlina.CustomControls.IntIntMap;
+import org.darisadesigns.polyglotlina.CustomControls.IntObjectMap;
 import org.darisadesigns.polyglotlina.CustomControls.PAlphaMap;
 import org.darisadesigns.polyglotlina.Nodes.DictNode;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
+import java.util.Set;
 
 /**
  *
@@ -39,8 +44,13 @@ import java.util.Random;
 public abstract class DictionaryCollection<N extends DictNode> {
 
     protected PAlphaMap<String, Integer> alphaOrder = new PAlphaMap<>();
-    protected final Map<Integer, N> nodeMap = new HashMap<>();
+    protected final IntObjectMap<N> nodeMap = new IntObjectMap<>();
     protected N bufferNode;
+    
+    // dense copy of nodeMap's keys, kept so random selection needn't walk the map
+    private int[] nodeIds = new int[16];
+    private int nodeIdCount = 0;
+    private final IntIntMap nodeIdPositions = new IntIntMap();
 
     private int highestNodeId = 1;
 
@@ -78,7 +88,7 @@ public abstract class DictionaryCollection<N extends DictNode> {
      * @throws Exception Throws exception when ID matches no node in collection
      */
     public void modifyNode(Integer _id, N _modNode) throws Exception {
-        if (!nodeMap.containsKey(_id)) {
+        if (!exists(_id)) {
             throw new Exception("No node with id: " + _id
                     + "; cannot modify value.");
         }
@@ -101,7 +111,7 @@ public abstract class DictionaryCollection<N extends DictNode> {
      * @return true if exists, false otherwise
      */
     public boolean exists(Integer objectId) {
-        return nodeMap.containsKey(objectId);
+        return objectId != null && nodeMap.containsKey(objectId);
     }
     
     /**
@@ -112,7 +122,7 @@ public abstract class DictionaryCollection<N extends DictNode> {
     public N getNodeById(Integer _id) {
         N ret;
 
-        if (nodeMap.containsKey(_id)) {
+        if (exists(_id)) {
             ret = nodeMap.get(_id);
         } else {
             ret = this.notFoundNode();
@@ -126,12 +136,33 @@ public abstract class DictionaryCollection<N extends DictNode> {
      * @throws Exception if no ID exists as listed
      */
     public void deleteNodeById(Integer _id) throws Exception {
-        if (!nodeMap.containsKey(_id)) {
+        if (!exists(_id)) {
             throw new Exception("Word with ID: " + _id
                     + " not found.");
         }
 
-        nodeMap.remove(_id);
+        removeNode(_id);
+    }
+    
+    /**
+     * Removes node from collection if it exists
+     * @param _id ID of node to remove
+     */
+    protected void removeNode(Integer _id) {
+        if (_id == null || nodeMap.remove(_id) == null) {
+            return;
+        }
+        
+        // swap last id into the removed slot
+        int position = nodeIdPositions.get(_id, -1);
+        nodeIdPositions.remove(_id);
+        nodeIdCount--;
+        
+        if (position != nodeIdCount) {
+            int movedId = nodeIds[nodeIdCount];
+            nodeIds[position] = movedId;
+            nodeIdPositions.put(movedId, position);
+        }
     }
 
     public void setAlphaOrder(PAlphaMap<String, Integer> _alphaOrder) {
@@ -163,6 +194,20 @@ public abstract class DictionaryCollection<N extends DictNode> {
         return this.insert(highestNodeId, _buffer);
     }
 
+    /**
+     * Inserts buffer node with next logical ID, without any additional work
+     * subclasses do on insert. For bulk inserts which bring that work up to
+     * date once afterward.
+     * @param _buffer buffer to insert
+     * @return ID of inserted buffer
+     * @throws Exception if unable to insert node to nodemap
+     */
+    protected final Integer appendNode(N _buffer) throws Exception {
+        highestNodeId++;
+
+        return insertNode(highestNodeId, _buffer);
+    }
+
     /**
      * Inserts given buffer node to nodemap
      * @param _id ID to apply to buffer
@@ -171,14 +216,18 @@ public abstract class DictionaryCollection<N extends DictNode> {
      * @throws Exception if unable to insert
      */
     protected Integer insert(Integer _id, N _buffer) throws Exception {
+        return insertNode(_id, _buffer);
+    }
+
+    private Integer insertNode(Integer _id, N _buffer) throws Exception {
         DictNode myBuffer = _buffer;
 
-        if (nodeMap.containsKey(_id)) {
+        if (_id == null) {
+            throw new Exception("ID cannot be null.");
+        } else if (nodeMap.containsKey(_id)) {
             throw new Exception("Duplicate ID " + _id + " for collection object: " + myBuffer.getValue());
         } else if (_id < 1) {
             throw new Exception("Collection node ID may never be zero or less.");
-        } else if (_id == null) {
-            throw new Exception("ID cannot be null.");
         }
 
         // sets highest word ID, if current id is higher
@@ -187,6 +236,13 @@ public abstract class DictionaryCollection<N extends DictNode> {
         myBuffer.setParent(this);
 
         nodeMap.put(_id, _buffer);
+        
+        if (nodeIdCount == nodeIds.length) {
+            nodeIds = Arrays.copyOf(nodeIds, nodeIdCount * 2);
+        }
+        nodeIds[nodeIdCount] = _id;
+        nodeIdPositions.put(_id, nodeIdCount);
+        nodeIdCount++;
 
         return _id;
     }
@@ -202,32 +258,58 @@ public abstract class DictionaryCollection<N extends DictNode> {
     }
     
     /**
-     * Returns randomly selected nodes from the collection, excluding a selected value
+     * Returns randomly selected nodes from the collection, excluding a selected value.
+     * Cost is proportional to the number of nodes selected and excluded, not
+     * to the size of the collection.
      * @param numRandom number of nodes to select
      * @param exclusions IDs of elements to exclude
      * @return Either the number of nodes requested, or the total number in the collection (if not enough)
      */
     public List<N> getRandomNodes(int numRandom, Integer... exclusions) {
         List<N> ret = new ArrayList<>();
-        List<N> allValues = new ArrayList<>(nodeMap.values());
-        
+        List<Integer> excludedPositions = new ArrayList<>();
+        Random rand = new Random(System.nanoTime());
         
         for (Integer exclude : exclusions) {
-            if (nodeMap.containsKey(exclude)) {
-                allValues.remove(nodeMap.get(exclude));
+            int position = exclude == null ? -1 : nodeIdPositions.get(exclude, -1);
+            
+            if (position != -1 && !excludedPositions.contains(position)) {
+                excludedPositions.add(position);
             }
         }
         
-        // randomize order...
-        Collections.shuffle(allValues, new Random(System.nanoTime()));
+        Collections.sort(excludedPositions);
         
         // can't return more than exist in the collection
-        numRandom = Math.min(numRandom, allValues.size());
-        // select from list to return
-        for (int i = 0; i < numRandom; i++) {
-            ret.add(allValues.get(i));
+        int available = nodeIdCount - excludedPositions.size();
+        numRandom = Math.min(numRandom, available);
+        
+        // Floyd's algorithm: numRandom distinct ranks among the non-excluded positions
+        Set<Integer> ranks = new HashSet<>();
+        for (int j = available - numRandom; j < available; j++) {
+            int rank = rand.nextInt(j + 1);
+            
+            if (!ranks.add(rank)) {
+                ranks.add(j);
+            }
         }
         
+        for (int rank : ranks) {
+            int position = rank;
+            
+            // step past excluded positions to find where this rank falls
+            for (int excluded : excludedPositions) {
+                if (excluded <= position) {
+                    position++;
+                }
+            }
+            
+            ret.add(nodeMap.get(nodeIds[position]));
+        }
+        
+        // Floyd's selection is uniform, but its order is not
+        Collections.shuffle(ret, rand);
+        
         return ret;
     }
     
@@ -0,0 +1,332 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.ManagersCollections;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Directed graph of parent->child etymological relationships between words.
+ * Words are given dense integer indices on first appearance, and edges are
+ * kept as arrays of those indices. Ancestors of each word are cached as bit
+ * sets on request, and kept current as relations are added, or discarded for
+ * only the affected words as relations are removed.
+ * 
+ * @author Draque Thompson
+ */
+public final class EtymologyGraph {
+    private final Map<Integer, Integer> indexOfWord = new HashMap<>();
+    private int[] wordIds = new int[16];
+    private int[][] children = new int[16][];
+    private int[] childCount = new int[16];
+    private int[][] parents = new int[16][];
+    private int[] parentCount = new int[16];
+    private BitSet[] ancestors = new BitSet[16];
+    private int size = 0;
+    
+    /**
+     * Adds a parent->child relationship if not already present. Relations
+     * creating loops are accepted.
+     * 
+     * @param parentId ID of parent word
+     * @param childId ID of child word
+     */
+    public void addRelation(int parentId, int childId) {
+        int parent = indexOf(parentId);
+        int child = indexOf(childId);
+        
+        if (contains(children[parent], childCount[parent], child)) {
+            return;
+        }
+        
+        // every word at or below the child gains the parent and its ancestors
+        if (isCachedAtOrBelow(child)) {
+            BitSet gained = (BitSet) getAncestors(parent).clone();
+            gained.set(parent);
+
+            for (int i = 0; i < size; i++) {
+                if (isCachedAtOrBelow(i, child)) {
+                    ancestors[i].or(gained);
+                }
+            }
+        }
+        
+        children[parent] = append(children[parent], childCount[parent]++, child);
+        parents[child] = append(parents[child], parentCount[child]++, parent);
+    }
+    
+    /**
+     * Removes a parent->child relationship if present
+     * 
+     * @param parentId ID of parent word
+     * @param childId ID of child word
+     */
+    public void delRelation(int parentId, int childId) {
+        Integer parent = indexOfWord.get(parentId);
+        Integer child = indexOfWord.get(childId);
+        
+        if (parent == null || child == null 
+                || !remove(children[parent], childCount[parent], child)) {
+            return;
+        }
+        
+        childCount[parent]--;
+        remove(parents[child], parentCount[child], parent);
+        parentCount[child]--;
+        
+        // ancestry at or below the child may have been lost; recalculated on request
+        for (int i = 0; i < size; i++) {
+            if (i != child && isCachedAtOrBelow(i, child)) {
+                ancestors[i] = null;
+            }
+        }
+        
+        ancestors[child] = null;
+    }
+    
+    /**
+     * @return true if ancestors are cached for any word at or below the given
+     */
+    private boolean isCachedAtOrBelow(int word) {
+        for (int i = 0; i < size; i++) {
+            if (isCachedAtOrBelow(i, word)) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * @return true if ancestors of test are cached, and test is word or one of
+     * its descendants
+     */
+    private boolean isCachedAtOrBelow(int test, int word) {
+        return ancestors[test] != null && (test == word || ancestors[test].get(word));
+    }
+    
+    /**
+     * Removes all words and relations
+     */
+    public void clear() {
+        indexOfWord.clear();
+        Arrays.fill(children, 0, size, null);
+        Arrays.fill(childCount, 0, size, 0);
+        Arrays.fill(parents, 0, size, null);
+        Arrays.fill(parentCount, 0, size, 0);
+        Arrays.fill(ancestors, 0, size, null);
+        size = 0;
+    }
+    
+    /**
+     * Tests whether one word appears anywhere in the etymology of another
+     * 
+     * @param descendantId ID of word whose etymology to check
+     * @param ancestorId ID of word to look for
+     * @return true if ancestor is a parent of descendant, or a parent of one of
+     * its parents, and so on
+     */
+    public boolean hasAncestor(int descendantId, int ancestorId) {
+        Integer descendant = indexOfWord.get(descendantId);
+        Integer ancestor = indexOfWord.get(ancestorId);
+        
+        return descendant != null && ancestor != null 
+                && getAncestors(descendant).get(ancestor);
+    }
+    
+    /**
+     * Finds all words which appear in their own etymology, with a single pass
+     * of Tarjan's strongly connected components algorithm. Any component of
+     * more than one word (or a word which is its own parent) is a loop.
+     * 
+     * @return IDs of all words caught in loops
+     */
+    public Set<Integer> getWordsInLoops() {
+        Set<Integer> ret = new HashSet<>();
+        int[] order = new int[size];
+        int[] lowLink = new int[size];
+        boolean[] onStack = new boolean[size];
+        int[] stack = new int[size];
+        int stackSize = 0;
+        int[] callStack = new int[size];
+        int[] nextChild = new int[size];
+        int visited = 0;
+        
+        Arrays.fill(order, -1);
+        
+        for (int root = 0; root < size; root++) {
+            if (order[root] != -1) {
+                continue;
+            }
+            
+            int depth = 0;
+            callStack[depth] = root;
+            order[root] = lowLink[root] = visited++;
+            stack[stackSize++] = root;
+            onStack[root] = true;
+            
+            while (depth >= 0) {
+                int cur = callStack[depth];
+                
+                if (nextChild[cur] < childCount[cur]) {
+                    int child = children[cur][nextChild[cur]++];
+                    
+                    if (order[child] == -1) {
+                        order[child] = lowLink[child] = visited++;
+                        stack[stackSize++] = child;
+                        onStack[child] = true;
+                        callStack[++depth] = child;
+                    } else if (onStack[child]) {
+                        lowLink[cur] = Math.min(lowLink[cur], order[child]);
+                    }
+                    
+                    continue;
+                }
+                
+                if (lowLink[cur] == order[cur]) {
+                    int componentStart = stackSize;
+                    
+                    do {
+                        onStack[stack[--componentStart]] = false;
+                    } while (stack[componentStart] != cur);
+                    
+                    if (stackSize - componentStart > 1 
+                            || contains(children[cur], childCount[cur], cur)) {
+                        for (int i = componentStart; i < stackSize; i++) {
+                            ret.add(wordIds[stack[i]]);
+                        }
+                    }
+                    
+                    stackSize = componentStart;
+                }
+                
+                if (--depth >= 0) {
+                    int parent = callStack[depth];
+                    lowLink[parent] = Math.min(lowLink[parent], lowLink[cur]);
+                }
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Gets ancestors of a word, calculating and caching them if not yet known.
+     * Ancestors already cached for words along the way are used as found.
+     */
+    private BitSet getAncestors(int word) {
+        if (ancestors[word] != null) {
+            return ancestors[word];
+        }
+        
+        BitSet ret = new BitSet(size);
+        BitSet expanded = new BitSet(size);
+        int[] pending = new int[size];
+        int pendingSize = 0;
+        
+        pending[pendingSize++] = word;
+        expanded.set(word);
+        
+        while (pendingSize > 0) {
+            int cur = pending[--pendingSize];
+            
+            for (int i = 0; i < parentCount[cur]; i++) {
+                int parent = parents[cur][i];
+                ret.set(parent);
+                
+                if (ancestors[parent] != null) {
+                    ret.or(ancestors[parent]);
+                } else if (!expanded.get(parent)) {
+                    expanded.set(parent);
+                    pending[pendingSize++] = parent;
+                }
+            }
+        }
+        
+        ancestors[word] = ret;
+        
+        return ret;
+    }
+    
+    private int indexOf(int wordId) {
+        Integer ret = indexOfWord.get(wordId);
+        
+        if (ret == null) {
+            if (size == wordIds.length) {
+                int newLength = size * 2;
+                wordIds = Arrays.copyOf(wordIds, newLength);
+                children = Arrays.copyOf(children, newLength);
+                childCount = Arrays.copyOf(childCount, newLength);
+                parents = Arrays.copyOf(parents, newLength);
+                parentCount = Arrays.copyOf(parentCount, newLength);
+                ancestors = Arrays.copyOf(ancestors, newLength);
+            }
+            
+            ret = size++;
+            wordIds[ret] = wordId;
+            indexOfWord.put(wordId, ret);
+        }
+        
+        return ret;
+    }
+    
+    private static boolean contains(int[] list, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (list[i] == value) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    private static int[] append(int[] list, int count, int value) {
+        int[] ret = list;
+        
+        if (ret == null) {
+            ret = new int[4];
+        } else if (count == ret.length) {
+            ret = Arrays.copyOf(ret, count * 2);
+        }
+        
+        ret[count] = value;
+        
+        return ret;
+    }
+    
+    /**
+     * Removes value from list by moving the last value into its place
+     * @return true if value was found
+     */
+    private static boolean remove(int[] list, int count, int value) {
+        for (int i = 0; i < count; i++) {
+            if (list[i] == value) {
+                list[i] = list[count - 1];
+                return true;
+            }
+        }
+        
+        return false;
+    }
+}
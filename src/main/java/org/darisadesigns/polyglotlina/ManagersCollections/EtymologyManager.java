@@ -19,6 +19,7 @@
  */
 package org.darisadesigns.polyglotlina.ManagersCollections;
 
+import org.darisadesigns.polyglotlina.CustomControls.IntSetMap;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
 import org.darisadesigns.polyglotlina.Nodes.EtyExternalParent;
@@ -44,10 +45,11 @@ import org.w3c.dom.Element;
  */
 public class EtymologyManager {
     private final DictCore core;
-    private final Map<Integer, Set<Integer>> parentToChild = new HashMap<>();
-    private final Map<Integer, Set<Integer>> childToParent = new HashMap<>();
+    private final IntSetMap parentToChild = new IntSetMap();
+    private final IntSetMap childToParent = new IntSetMap();
     private final Map<String, Set<Integer>> extParentToChild = new HashMap<>();
     private final Map<Integer, Map<String, EtyExternalParent>> childToExtParent = new HashMap<>();
+    private final EtymologyGraph graph = new EtymologyGraph();
     private Integer bufferParent = 0;
     private Integer bufferChild = 0;
     private EtyExternalParent bufferExtParent = new EtyExternalParent();
@@ -62,35 +64,19 @@ public class EtymologyManager {
      */
     public ConWord[] checkAllForIllegalLoops() {
         List<ConWord> ret = new ArrayList<>();
-        ConWord[] allWords = core.getWordCollection().getWordNodes();
+        Set<Integer> loopIds = graph.getWordsInLoops();
         
-        for (ConWord curWord : allWords) {
-            if (checkLoopChildren(curWord.getId(), getChildren(curWord.getId()))) {
-                ret.add(curWord);
+        if (!loopIds.isEmpty()) {
+            for (ConWord curWord : core.getWordCollection().getWordNodes()) {
+                if (loopIds.contains(curWord.getId())) {
+                    ret.add(curWord);
+                }
             }
         }
         
         return ret.toArray(new ConWord[0]);
     }
     
-    /**
-     * Recursively checks for any loops based on a top level parent
-     * @return true if illegal loop(s) present
-     */
-    private boolean checkLoopChildren(int topParentId, Integer[] childrenIds) {
-        boolean ret = false;
-        
-        for (int childId : childrenIds) {
-            if (createsLoop(topParentId, childId) 
-                    || checkLoopChildren(topParentId, getChildren(childId))) {
-                ret = true;
-                break;
-            }
-        }
-        
-        return ret;
-    }
-    
     /**
      * Adds a parent->child relationship to two words if the relationship does
      * not already exist.
@@ -125,29 +111,9 @@ public class EtymologyManager {
             }
         }
 
-        if (parentToChild.containsKey(parent)) {
-            Set<Integer> myList = parentToChild.get(parent);
-
-            if (!myList.contains(child)) {
-                myList.add(child);
-            }
-        } else {
-            Set<Integer> newList = new HashSet<>();
-            newList.add(child);
-            parentToChild.put(parent, newList);
-        }
-
-        if (childToParent.containsKey(child)) {
-            Set<Integer> myList = childToParent.get(child);
-
-            if (!myList.contains(parent)) {
-                myList.add(parent);
-            }
-        } else {
-            Set<Integer> newList = new HashSet<>();
-            newList.add(parent);
-            childToParent.put(child, newList);
-        }
+        parentToChild.add(parent, child);
+        childToParent.add(child, parent);
+        graph.addRelation(parent, child);
     }
     
     /**
@@ -158,10 +124,9 @@ public class EtymologyManager {
     public ConWord[] getAllRoots() {
         List<ConWord> ret = new ArrayList<>();
         
-        parentToChild.keySet().forEach((id) -> {
-            ConWord curParent = core.getWordCollection().getNodeById(id);
-            ret.add(curParent);
-        });
+        for (int id : parentToChild.keys()) {
+            ret.add(core.getWordCollection().getNodeById(id));
+        }
         
         ret.addAll(this.getExtParentList());
         core.getWordCollection().safeSort(ret);
@@ -174,15 +139,7 @@ public class EtymologyManager {
      * @return list of integer IDs of child words (empty array if none)
      */
     public Integer[] getChildren(Integer wordId) {
-        Set<Integer> ret;
-        
-        if (parentToChild.containsKey(wordId)) {
-            ret = parentToChild.get(wordId);
-        } else {
-            ret = new HashSet<>();
-        }
-        
-        return ret.toArray(new Integer[0]);
+        return parentToChild.get(wordId).toIntegerArray();
     }
     
     /**
@@ -202,8 +159,7 @@ public class EtymologyManager {
      * @return list of parent ids (empty if none)
      */
     public Integer[] getWordParentsIds(Integer childId) {
-        return childToParent.containsKey(childId) ? childToParent.get(childId).toArray(new Integer[0])
-                : new Integer[0];
+        return childToParent.get(childId).toIntegerArray();
     }
     
     /**
@@ -282,15 +238,9 @@ public class EtymologyManager {
      * @param childId 
      */
     public void delRelation(Integer parentId, Integer childId) {
-        if (parentToChild.containsKey(parentId)) {
-            Set<Integer> myList = parentToChild.get(parentId);
-            myList.remove(childId);
-        }
-        
-        if (childToParent.containsKey(childId)) {
-            Set<Integer> myList = childToParent.get(childId);
-            myList.remove(parentId);
-        }
+        parentToChild.remove(parentId, childId);
+        childToParent.remove(childId, parentId);
+        graph.delRelation(parentId, childId);
     }
     
     /**
@@ -301,29 +251,27 @@ public class EtymologyManager {
         cleanEtymologyMap(childToParent);
         cleanExternalEtymologyMap();
         
+        graph.clear();
+        parentToChild.forEach((parent, children) -> {
+            for (int i = 0; i < children.size(); i++) {
+                graph.addRelation(parent, children.get(i));
+            }
+        });
     }
     
-    private void cleanEtymologyMap(Map<Integer, Set<Integer>> cleanMap) {
+    private void cleanEtymologyMap(IntSetMap cleanMap) {
         ConWordCollection wordCollection = core.getWordCollection();
         
-        for (Entry<Integer, Set<Integer>> curEntry : cleanMap.entrySet()) {
-            if (!wordCollection.exists(curEntry.getKey())) {
-                cleanMap.remove(curEntry.getKey());
+        for (int key : cleanMap.keys()) {
+            if (!wordCollection.exists(key)) {
+                cleanMap.removeKey(key);
             } else {
-                Set<Integer> childIds = curEntry.getValue();
-                int childIdLength = childIds.size();
-                
-                // remove all dead children
-                for (Integer id : childIds.toArray(new Integer[0])) {
+                // remove all dead children (entry is dropped once empty)
+                for (int id : cleanMap.get(key).toArray()) {
                     if (!wordCollection.exists(id)) {
-                        childIds.remove(id);
+                        cleanMap.remove(key, id);
                     }
                 }
-                
-                // remove entry entirely if empty
-                if (childIds.isEmpty()) {
-                    cleanMap.remove(curEntry.getKey());
-                }
             }
         }
     }
@@ -359,26 +307,28 @@ public class EtymologyManager {
         Element collection = doc.createElement(PGTUtil.ETY_COLLECTION_XID);
         
         // we only need to record the relationship one way, the bidirection will be regenerated
-        for (Entry<Integer, Set<Integer>> curEntry : parentToChild.entrySet()) {
+        parentToChild.forEach((parentId, childIds) -> {
             // skip nonexistent words
-            if (!wordCollection.exists(curEntry.getKey())) {
-                continue;
+            if (!wordCollection.exists(parentId)) {
+                return;
             }
             
             Element myNode = doc.createElement(PGTUtil.ETY_INT_RELATION_NODE_XID);
-            myNode.appendChild(doc.createTextNode(curEntry.getKey().toString()));
+            myNode.appendChild(doc.createTextNode(Integer.toString(parentId)));
             
-            for (Integer curChild : curEntry.getValue()) {
+            for (int i = 0; i < childIds.size(); i++) {
+                int curChild = childIds.get(i);
+                
                 if (!wordCollection.exists(curChild)) {
                     continue;
                 }
                 
                 Element child = doc.createElement(PGTUtil.ETY_INT_CHILD_XID);
-                child.appendChild(doc.createTextNode(curChild.toString()));
+                child.appendChild(doc.createTextNode(Integer.toString(curChild)));
                 myNode.appendChild(child);
             }
             collection.appendChild(myNode);
-        }
+        });
         
         // adds a node for each word with at least one external parent
         childToExtParent.entrySet().stream().map((curEntry) -> {
@@ -413,62 +363,13 @@ public class EtymologyManager {
     
     /**
      * Tests whether adding a parent-child relationship would create an illegal
-     * looping scenario
+     * looping scenario (the child already being in the parent's etymology)
      * @param parentId parent word ID to check
      * @param childId child word ID to check
      * @return true if illegal due to loop, false otherwise
      */
     private boolean createsLoop(Integer parentId, Integer childId) {
-        return parentId.equals(childId) || createsLoopParent(parentId, childId)
-                || createsLoopChild(parentId, childId);
-    }
-    
-    /**
-     * Tests whether a child->parent addition creates an illegal loop.
-     * Recursive.
-     * @param childId bottommost child ID being checked
-     * @return true if illegal due to loop, false otherwise
-     */
-    private boolean createsLoopParent(Integer curWordId, Integer childId) {
-        boolean ret = false;
-        
-        if (childToParent.containsKey(curWordId)) {
-            for (Integer selectedParent : childToParent.get(curWordId)) {
-                ret = selectedParent.equals(childId) 
-                        || createsLoopParent(selectedParent, childId);
-                
-                // break on single loop occurrence and return
-                if (ret) {
-                    break;
-                }
-            }
-        }
-           
-        return ret;
-    }
-    
-    /**
-     * Tests whether a parent->child addition creates an illegal loop.
-     * Recursive.
-     * @param parentId topmost parent ID to check against
-     * @param curWordId ID of current word being checked against
-     * @return true if illegal due to loop, false otherwise
-     */
-    private boolean createsLoopChild(Integer parentId, Integer curWordId) {
-        boolean ret = false;
-        
-        // test base parent ID against all children of current word
-        // and of all subsequent children down the chain
-        for (Integer childId : this.getChildren(curWordId)) {
-            ret = parentId.equals(childId) && createsLoopChild(parentId, childId);
-            
-            // break on single loop occurrence and return
-            if (ret) {
-                break;
-            }
-        }
-        
-        return ret;
+        return parentId.equals(childId) || graph.hasAncestor(parentId, childId);
     }
     
     public void setBufferParent(Integer _bufferParent) {
@@ -495,24 +396,7 @@ public class EtymologyManager {
      * @return true if in etymology
      */
     public boolean childHasParent(Integer childId, Integer parId) {
-        boolean ret = false;
-        
-        if (childToParent.containsKey(childId)) {
-            Set<Integer> myList = childToParent.get(childId);
-            ret = myList.contains(parId);
-            
-            if (!ret) {
-                for (Integer newChild : myList) {
-                    ret = childHasParent(newChild, parId);
-                    
-                    if (ret) {
-                        break;
-                    }
-                }
-            }
-        }
-        
-        return ret;
+        return graph.hasAncestor(childId, parId);
     }
     
     /**
@@ -540,11 +424,10 @@ public class EtymologyManager {
     }
     
     /**
-     * removes empty lists from parent and child lists
+     * removes empty lists from external parent and child lists (internal
+     * relations drop empty entries themselves)
      */
     private void cleanParentChildLists() {
-        clearParentChildList(parentToChild);
-        clearParentChildList(childToParent);
         clearParentChildList(extParentToChild);
         clearParentChildList(childToExtParent);
     }
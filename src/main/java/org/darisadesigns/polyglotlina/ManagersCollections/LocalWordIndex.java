@@ -0,0 +1,303 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.ManagersCollections;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import org.darisadesigns.polyglotlina.CustomControls.IntIntMap;
+import org.darisadesigns.polyglotlina.CustomControls.IntObjectMap;
+import org.darisadesigns.polyglotlina.CustomControls.IntSet;
+import org.darisadesigns.polyglotlina.Nodes.ConWord;
+
+/**
+ * Inverted index from local words and definition terms to the conwords they
+ * appear in, used to find words likely to be relevant to a local word without
+ * scanning the lexicon. Built in full on first search, after which only words
+ * inserted, modified or removed since the last search are reindexed.
+ * 
+ * Matching is case insensitive. A full local synonym match is weighted
+ * highest, then every term of the target appearing in the local word, then
+ * each appearance of the target's terms in the definition (capped).
+ * 
+ * @author Draque Thompson
+ */
+public final class LocalWordIndex {
+    public static final int SYNONYM_WEIGHT = 10;
+    public static final int PARTIAL_SYNONYM_WEIGHT = 5;
+    public static final int MAX_DEFINITION_WEIGHT = 5;
+    private static final Pattern TERM_SPLIT = Pattern.compile("[^\\p{L}\\p{M}\\p{N}]+");
+    
+    private final ConWordCollection words;
+    private final Set<Integer> changedIds = ConcurrentHashMap.newKeySet();
+    private volatile boolean tracking = false;
+    private final IntObjectMap<IndexedWord> indexedWords = new IntObjectMap<>();
+    private final Map<String, IntSet> synonyms = new HashMap<>();
+    private final Map<String, IntSet> localTerms = new HashMap<>();
+    private final Map<String, IntIntMap> definitionTerms = new HashMap<>();
+    
+    public LocalWordIndex(ConWordCollection _words) {
+        words = _words;
+    }
+    
+    /**
+     * Records that a word has been inserted, modified or removed, to be
+     * reindexed on next search. Does not block.
+     * 
+     * @param id ID of changed word
+     */
+    public void wordChanged(Integer id) {
+        if (tracking) {
+            changedIds.add(id);
+        }
+    }
+    
+    /**
+     * Records a batch of changed words, as wordChanged does for one
+     * 
+     * @param ids IDs of changed words
+     */
+    public void wordsChanged(Collection<Integer> ids) {
+        if (tracking) {
+            changedIds.addAll(ids);
+        }
+    }
+    
+    /**
+     * Finds the words most likely to relate to a given local word, highest
+     * weighted first. Words of equal weight are in lexical order.
+     * 
+     * @param target local word or phrase to search for
+     * @param maxHits maximum number of words to return
+     * @return matching words
+     */
+    public synchronized List<ConWord> search(String target, int maxHits) {
+        update();
+        
+        String synonym = target.trim().toLowerCase();
+        String[] targetTerms = terms(synonym).toArray(String[]::new);
+        IntIntMap weights = new IntIntMap();
+        IntSet hits = new IntSet();
+        
+        if (synonym.isEmpty()) {
+            return new ArrayList<>();
+        }
+        
+        IntSet synonymHits = synonyms.get(synonym);
+        if (synonymHits != null) {
+            for (int i = 0; i < synonymHits.size(); i++) {
+                addWeight(weights, hits, synonymHits.get(i), SYNONYM_WEIGHT);
+            }
+        }
+        
+        // partial synonym matches must contain every term of the target
+        if (targetTerms.length > 0) {
+            IntSet candidates = localTerms.get(targetTerms[0]);
+            
+            for (int i = 0; candidates != null && i < candidates.size(); i++) {
+                int id = candidates.get(i);
+                
+                if (weights.get(id, 0) == 0 && containsAll(localTerms, targetTerms, id)) {
+                    addWeight(weights, hits, id, PARTIAL_SYNONYM_WEIGHT);
+                }
+            }
+        }
+        
+        // definition hits are the count of the least frequent target term
+        if (targetTerms.length > 0) {
+            IntIntMap candidates = definitionTerms.get(targetTerms[0]);
+            
+            for (int id : candidates == null ? new int[0] : candidates.keys()) {
+                int count = definitionCount(targetTerms, id);
+                
+                if (count > 0) {
+                    addWeight(weights, hits, id, Math.min(count, MAX_DEFINITION_WEIGHT));
+                }
+            }
+        }
+        
+        List<ConWord> ret = new ArrayList<>();
+        for (int i = 0; i < hits.size(); i++) {
+            ret.add(words.getNodeById(hits.get(i)));
+        }
+        
+        ret.sort((a, b) -> {
+            int comp = Integer.compare(weights.get(b.getId(), 0), weights.get(a.getId(), 0));
+            return comp != 0 ? comp : a.compareTo(b);
+        });
+        
+        return ret.size() > maxHits ? new ArrayList<>(ret.subList(0, maxHits)) : ret;
+    }
+    
+    private void update() {
+        if (!tracking) {
+            // changes made from here on are picked up by the next search
+            tracking = true;
+            changedIds.clear();
+            
+            for (ConWord word : new ArrayList<>(words.getAllValues())) {
+                index(word);
+            }
+            
+            return;
+        }
+        
+        Iterator<Integer> changed = changedIds.iterator();
+        
+        while (changed.hasNext()) {
+            Integer id = changed.next();
+            changed.remove();
+            
+            unindex(id);
+            
+            if (words.exists(id)) {
+                index(words.getNodeById(id));
+            }
+        }
+    }
+    
+    private void index(ConWord word) {
+        int id = word.getId();
+        IndexedWord indexed = new IndexedWord();
+        
+        for (String local : word.getLocalWord().toLowerCase().split(",")) {
+            local = local.trim();
+            
+            if (!local.isEmpty() && indexed.synonyms.add(local)) {
+                synonyms.computeIfAbsent(local, k -> new IntSet()).add(id);
+            }
+        }
+        
+        for (String term : terms(word.getLocalWord().toLowerCase())) {
+            if (indexed.localTerms.add(term)) {
+                localTerms.computeIfAbsent(term, k -> new IntSet()).add(id);
+            }
+        }
+        
+        for (String term : terms(word.getPlainDefinition().toLowerCase())) {
+            indexed.definitionTerms.add(term);
+            IntIntMap counts = definitionTerms.computeIfAbsent(term, k -> new IntIntMap());
+            counts.put(id, counts.get(id, 0) + 1);
+        }
+        
+        indexedWords.put(id, indexed);
+    }
+    
+    private void unindex(int id) {
+        IndexedWord indexed = indexedWords.remove(id);
+        
+        if (indexed == null) {
+            return;
+        }
+        
+        for (String synonym : indexed.synonyms) {
+            removePosting(synonyms, synonym, id);
+        }
+        
+        for (String term : indexed.localTerms) {
+            removePosting(localTerms, term, id);
+        }
+        
+        for (String term : indexed.definitionTerms) {
+            IntIntMap counts = definitionTerms.get(term);
+            
+            if (counts != null) {
+                counts.remove(id);
+                
+                if (counts.isEmpty()) {
+                    definitionTerms.remove(term);
+                }
+            }
+        }
+    }
+    
+    private int definitionCount(String[] targetTerms, int id) {
+        int ret = Integer.MAX_VALUE;
+        
+        for (String term : targetTerms) {
+            IntIntMap counts = definitionTerms.get(term);
+            ret = Math.min(ret, counts == null ? 0 : counts.get(id, 0));
+            
+            if (ret == 0) {
+                break;
+            }
+        }
+        
+        return ret;
+    }
+    
+    private static boolean containsAll(Map<String, IntSet> postings, String[] targetTerms, int id) {
+        for (String term : targetTerms) {
+            IntSet ids = postings.get(term);
+            
+            if (ids == null || !ids.contains(id)) {
+                return false;
+            }
+        }
+        
+        return true;
+    }
+    
+    private static void removePosting(Map<String, IntSet> postings, String key, int id) {
+        IntSet ids = postings.get(key);
+        
+        if (ids != null) {
+            // search results are sorted, so posting order does not matter
+            ids.removeUnordered(id);
+            
+            if (ids.isEmpty()) {
+                postings.remove(key);
+            }
+        }
+    }
+    
+    private static void addWeight(IntIntMap weights, IntSet hits, int id, int weight) {
+        weights.put(id, weights.get(id, 0) + weight);
+        hits.add(id);
+    }
+    
+    private static List<String> terms(String text) {
+        List<String> ret = new ArrayList<>();
+        
+        for (String term : TERM_SPLIT.split(text)) {
+            if (!term.isEmpty()) {
+                ret.add(term);
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Keys under which a word was indexed, so it can be removed exactly
+     */
+    private static final class IndexedWord {
+        private final Set<String> synonyms = new HashSet<>();
+        private final Set<String> localTerms = new HashSet<>();
+        private final Set<String> definitionTerms = new HashSet<>();
+    }
+}
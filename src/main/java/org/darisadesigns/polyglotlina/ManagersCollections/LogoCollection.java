@@ -19,18 +19,22 @@
  */
 package org.darisadesigns.polyglotlina.ManagersCollections;
 
+import org.darisadesigns.polyglotlina.CustomControls.IntSet;
+import org.darisadesigns.polyglotlina.CustomControls.IntSetMap;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.Nodes.LogoNode;
 import org.darisadesigns.polyglotlina.PGTUtil;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -41,15 +45,25 @@ import org.w3c.dom.Element;
 public class LogoCollection extends DictionaryCollection<LogoNode> {
     public final byte[] EMPTY_LOGO_NODE_IMAGE;
     
-    private final Map<Integer, ArrayList<Integer>> logoToWord;
-    private final Map<Integer, ArrayList<Integer>> wordToLogo;
+    private final IntSetMap logoToWord;
+    private final IntSetMap wordToLogo;
     private final DictCore core;
     
+    // search indexes of logograph IDs, keyed case-folded so either case setting can use them
+    private final Map<String, Set<Integer>> readingIndex = new HashMap<>();
+    private final Map<String, Set<Integer>> radicalIndex = new HashMap<>();
+    private final Map<Integer, Set<Integer>> strokeIndex = new HashMap<>();
+    private boolean indexesStale = false;
+    
+    // IDs of words with logographs, keyed case-folded by word value (maintained with relations)
+    private final Map<String, Set<Integer>> relatedWordIndex = new HashMap<>();
+    private final Map<Integer, String> relatedWordKeys = new HashMap<>();
+    
     public LogoCollection(DictCore _core) {
         super(new LogoNode(_core));
         
-        wordToLogo = new HashMap<>();
-        logoToWord = new HashMap<>();
+        wordToLogo = new IntSetMap();
+        logoToWord = new IntSetMap();
         core = _core;
         
         byte[] emptyLogoImage = new byte[0];
@@ -70,20 +84,12 @@ public class LogoCollection extends DictionaryCollection<LogoNode> {
      * @return true if added, false if existing already
      */
     public boolean addWordLogoRelation(ConWord word, LogoNode logo) {
-        if (!logoToWord.containsKey(logo.getId())) {
-            logoToWord.put(logo.getId(), new ArrayList<>());
-        }
-        
-        if(!wordToLogo.containsKey(word.getId())) {
-            wordToLogo.put(word.getId(), new ArrayList<>());
-        }
-        
-        if (wordToLogo.get(word.getId()).contains(logo.getId())) {
+        if (!wordToLogo.add(word.getId(), logo.getId())) {
             return false;
         }
         
-        logoToWord.get(logo.getId()).add(word.getId());
-        wordToLogo.get(word.getId()).add(logo.getId());
+        logoToWord.add(logo.getId(), word.getId());
+        indexRelatedWord(word);
         
         return true;
     }
@@ -94,8 +100,40 @@ public class LogoCollection extends DictionaryCollection<LogoNode> {
      * @param logo 
      */
     public void removeWordLogoRelation(ConWord word, LogoNode logo) {
-        logoToWord.get(logo.getId()).remove(word.getId());
-        wordToLogo.get(word.getId()).remove(logo.getId());
+        logoToWord.remove(logo.getId(), word.getId());
+        wordToLogo.remove(word.getId(), logo.getId());
+        
+        if (!wordToLogo.containsKey(word.getId())) {
+            String oldKey = relatedWordKeys.remove(word.getId());
+            
+            if (oldKey != null) {
+                removeFromIndex(relatedWordIndex, oldKey, word.getId());
+            }
+        }
+    }
+    
+    /**
+     * Called when the value of a word is changed, so that searches by related
+     * word find its logographs under the new value
+     * @param word changed word
+     */
+    public void wordValueChanged(ConWord word) {
+        if (relatedWordKeys.containsKey(word.getId())) {
+            indexRelatedWord(word);
+        }
+    }
+    
+    private void indexRelatedWord(ConWord word) {
+        String key = caseKey(word.getValue());
+        String oldKey = relatedWordKeys.put(word.getId(), key);
+        
+        if (!key.equals(oldKey)) {
+            if (oldKey != null) {
+                removeFromIndex(relatedWordIndex, oldKey, word.getId());
+            }
+            
+            relatedWordIndex.computeIfAbsent(key, k -> new HashSet<>()).add(word.getId());
+        }
     }
     
     /**
@@ -113,6 +151,10 @@ public class LogoCollection extends DictionaryCollection<LogoNode> {
         }
         
         super.deleteNodeById(_id);
+        
+        if (!indexesStale) {
+            unindexLogo(logo);
+        }
     }
        
     /**
@@ -128,7 +170,9 @@ public class LogoCollection extends DictionaryCollection<LogoNode> {
     }
     
     /**
-     * Returns list of logoNodes that match given filters
+     * Returns list of logoNodes that match given filters. Readings, radicals,
+     * strokes and related words are resolved through indexes, so only
+     * logographs which are already likely matches are examined.
      * @param reading reading filter (logonode contains)
      * @param relWord related word filter
      * @param radical radical filter (by name)
@@ -142,49 +186,107 @@ public class LogoCollection extends DictionaryCollection<LogoNode> {
             int strokes, 
             String notes) {
         List<LogoNode> retList = new ArrayList<>();
-        LogoNode[] logoNodes = getAllLogos();
         boolean ignoreCase = core.getPropertiesManager().isIgnoreCase();
+        String notesMatch = ignoreCase ? notes.toLowerCase() : notes;
+        Set<Integer> candidates = null; // null until some indexed filter narrows the search
+        
+        if (indexesStale) {
+            rebuildIndexes();
+        }
         
-        for (LogoNode curNode : logoNodes) {
+        if (!reading.trim().isEmpty()) {
+            candidates = narrowCandidates(candidates, readingIndex.get(caseKey(reading)));
+        }
+        
+        if (!radical.trim().isEmpty()) {
+            candidates = narrowCandidates(candidates, radicalIndex.get(caseKey(radical)));
+        }
+        
+        if (strokes != 0) {
+            candidates = narrowCandidates(candidates, strokeIndex.get(strokes));
+        }
+        
+        if (!relWord.trim().isEmpty()) {
+            candidates = narrowCandidates(candidates, getLogosRelatedToWord(relWord, ignoreCase));
+        }
+        
+        Collection<LogoNode> searchNodes = nodeMap.values();
+        
+        if (candidates != null) {
+            searchNodes = new ArrayList<>();
+            
+            for (Integer logoId : candidates) {
+                searchNodes.add(nodeMap.get(logoId));
+            }
+        }
+        
+        for (LogoNode curNode : searchNodes) {
+            // indexes are case-folded: confirm exact matches where case matters
             if (!reading.trim().isEmpty() && !curNode.containsReading(reading, ignoreCase)) {
                 continue;
             } else if (!radical.trim().isEmpty() && !curNode.containsRadicalString(radical, ignoreCase)) {
                 continue;
-            } else if (strokes != 0 && strokes != curNode.getStrokes()) {
-                continue;
-            } else if (!relWord.trim().isEmpty() && !logoRelatedToWord(curNode, relWord)) {
-                continue;
-            } else if (!notes.trim().isEmpty() &&
-                    ((ignoreCase && !curNode.getNotes().toLowerCase().contains(notes.toLowerCase())) 
-                            || !curNode.getNotes().contains(notes))) {
+            } else if (!notes.trim().isEmpty() 
+                    && !(ignoreCase ? curNode.getNotesLowerCase() : curNode.getNotes()).contains(notesMatch)) {
                 continue;                
-            }            
+            }
             
             retList.add(curNode);
         }
         
+        this.safeSort(retList);
+        
         return retList.toArray(new LogoNode[0]);
     }
     
     /**
-     * tests whether a logonode is related to a word via string search
-     * @param node logonode in question
+     * Intersects current candidates with those of another filter
+     * @param candidates current candidates (null if unfiltered so far)
+     * @param matches matches of next filter (null if none)
+     * @return narrowed candidates
+     */
+    private static Set<Integer> narrowCandidates(Set<Integer> candidates, Set<Integer> matches) {
+        Set<Integer> ret;
+        
+        if (matches == null) {
+            ret = new HashSet<>();
+        } else if (candidates == null) {
+            ret = new HashSet<>(matches);
+        } else {
+            ret = candidates;
+            ret.retainAll(matches);
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Finds logographs related to any word with the given value. Only words
+     * sharing the value's case-folded key are examined.
      * @param relWord string representation of word to be searched
-     * @return true if related, false otherwise
+     * @param ignoreCase whether to ignore case
+     * @return IDs of related logographs
      */
-    private boolean logoRelatedToWord(LogoNode node, String relWord) {
-        boolean ret = false;
-        boolean ignoreCase = core.getPropertiesManager().isIgnoreCase();
+    private Set<Integer> getLogosRelatedToWord(String relWord, boolean ignoreCase) {
+        Set<Integer> ret = new HashSet<>();
+        Set<Integer> wordIds = relatedWordIndex.get(caseKey(relWord));
         
-        if (logoToWord.containsKey(node.getId())) {
-            Iterator<Integer> it = logoToWord.get(node.getId()).iterator();
+        if (wordIds == null) {
+            return ret;
+        }
+        
+        for (Integer wordId : wordIds) {
+            // relations to deleted words are kept (and saved) as before; skip them here
+            if (!core.getWordCollection().exists(wordId)) {
+                continue;
+            }
+            
+            ConWord curWord = core.getWordCollection().getNodeById(wordId);
+            IntSet logoIds = wordToLogo.get(wordId);
             
-            while (it.hasNext()) {
-                ConWord curWord = core.getWordCollection().getNodeById(it.next());
-                if ((ignoreCase && curWord.getValue().equalsIgnoreCase(relWord))
-                        || curWord.getValue().equals(relWord)) {
-                    ret = true;
-                    break;
+            if (logoIds != null && (ignoreCase || curWord.getValue().equals(relWord))) {
+                for (int i = 0; i < logoIds.size(); i++) {
+                    ret.add(logoIds.get(i));
                 }
             }
         }
@@ -192,26 +294,100 @@ public class LogoCollection extends DictionaryCollection<LogoNode> {
         return ret;
     }
     
+    /**
+     * Folds case such that two strings share a key exactly when
+     * equalsIgnoreCase would consider them equal
+     * @param value value to fold
+     * @return case-folded key
+     */
+    private static String caseKey(String value) {
+        StringBuilder ret = new StringBuilder(value.length());
+        
+        value.codePoints().forEach(c -> ret.appendCodePoint(
+                Character.toLowerCase(Character.toUpperCase(c))));
+        
+        return ret.toString();
+    }
+    
+    /**
+     * Called when a logograph is modified in place. Indexes are rebuilt on
+     * next search rather than on every keystroke of an edit.
+     * @param logo modified logograph (edits to the buffer are ignored)
+     */
+    public void invalidateIndexes(LogoNode logo) {
+        if (nodeMap.get(logo.getId()) == logo) {
+            indexesStale = true;
+        }
+    }
+    
+    @Override
+    public void modifyNode(Integer _id, LogoNode _modNode) throws Exception {
+        super.modifyNode(_id, _modNode);
+        indexesStale = true;
+    }
+    
+    private void rebuildIndexes() {
+        readingIndex.clear();
+        radicalIndex.clear();
+        strokeIndex.clear();
+        
+        for (LogoNode logo : nodeMap.values()) {
+            indexLogo(logo);
+        }
+        
+        indexesStale = false;
+    }
+    
+    private void indexLogo(LogoNode logo) {
+        for (String reading : logo.getReadings()) {
+            readingIndex.computeIfAbsent(caseKey(reading), k -> new HashSet<>()).add(logo.getId());
+        }
+        
+        for (LogoNode radical : logo.getRadicals()) {
+            radicalIndex.computeIfAbsent(caseKey(radical.getValue()), k -> new HashSet<>()).add(logo.getId());
+        }
+        
+        strokeIndex.computeIfAbsent(logo.getStrokes(), k -> new HashSet<>()).add(logo.getId());
+    }
+    
+    private void unindexLogo(LogoNode logo) {
+        for (String reading : logo.getReadings()) {
+            removeFromIndex(readingIndex, caseKey(reading), logo.getId());
+        }
+        
+        for (LogoNode radical : logo.getRadicals()) {
+            removeFromIndex(radicalIndex, caseKey(radical.getValue()), logo.getId());
+        }
+        
+        removeFromIndex(strokeIndex, logo.getStrokes(), logo.getId());
+    }
+    
+    private static <K> void removeFromIndex(Map<K, Set<Integer>> index, K key, Integer logoId) {
+        Set<Integer> ids = index.get(key);
+        
+        if (ids != null) {
+            ids.remove(logoId);
+            
+            if (ids.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+    
     /**
      * Gets list of all logographs for given word
      * @param conWord word to search on
      * @return list of related logographs
      */
     public LogoNode[] getWordLogos(ConWord conWord) {
-        List<LogoNode> retList = new ArrayList<>();
-        List<Integer> initialList = wordToLogo.get(conWord.getId());
-        Iterator<Integer> it = null;
+        IntSet logoIds = wordToLogo.get(conWord.getId());
+        LogoNode[] ret = new LogoNode[logoIds.size()];
         
-        if (initialList != null) {
-            it = initialList.iterator();
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = nodeMap.get(logoIds.get(i));
         }
         
-        while (it != null && it.hasNext()) {
-            LogoNode curNode = nodeMap.get(it.next());
-            retList.add(curNode);
-        }
-        
-        return retList.toArray(new LogoNode[0]);
+        return ret;
     }
     
     /**
@@ -220,20 +396,14 @@ public class LogoCollection extends DictionaryCollection<LogoNode> {
      * @return list of related words
      */
     public ConWord[] getLogoWords(LogoNode logoNode) {
-        List<ConWord> retList = new ArrayList<>();
-        List<Integer>initialList = logoToWord.get(logoNode.getId());
-        Iterator<Integer> it = null;
+        IntSet wordIds = logoToWord.get(logoNode.getId());
+        ConWord[] ret = new ConWord[wordIds.size()];
         
-        if (initialList != null) {
-            it = initialList.iterator();
+        for (int i = 0; i < ret.length; i++) {
+            ret[i] = core.getWordCollection().getNodeById(wordIds.get(i));
         }
         
-        while (it != null && it.hasNext()) {
-            ConWord curNode = core.getWordCollection().getNodeById(it.next());
-            retList.add(curNode);
-        }
-        
-        return retList.toArray(new ConWord[0]);
+        return ret;
     }
     
     /**
@@ -274,27 +444,21 @@ public class LogoCollection extends DictionaryCollection<LogoNode> {
         }
         
         // write all logo->word relations to XML (reverse will be inferred on load)
-        Iterator<Entry<Integer, ArrayList<Integer>>> setIt = logoToWord.entrySet().iterator();
         Element relationsCollection = doc.createElement(PGTUtil.LOGO_RELATION_COLLECTION_XID);
         logoRoot.appendChild(relationsCollection);
-        while (setIt.hasNext()) {
-            Entry<Integer, ArrayList<Integer>> curEntry = setIt.next();
-            Iterator<Integer> relIt = curEntry.getValue().iterator();
-            String logoId = curEntry.getKey().toString();
-            String wordIds = "";
+        // only logographs with one or more relation are present
+        logoToWord.forEach((logoId, wordIds) -> {
+            StringBuilder relations = new StringBuilder(Integer.toString(logoId));
             
-            while (relIt.hasNext()) {
-                wordIds += ("," + relIt.next());
+            for (int i = 0; i < wordIds.size(); i++) {
+                relations.append(',').append(wordIds.get(i));
             }
             
-            // only add if there is one more more relation
-            if (!wordIds.isEmpty()) {
-                Element node = doc.createElement(PGTUtil.LOGO_WORD_RELATION_XID);
-                // node is encoded with the logograph ID first, followed by all related words IDs
-                node.appendChild(doc.createTextNode(logoId + wordIds));
-                relationsCollection.appendChild(node);
-            }
-        }
+            Element node = doc.createElement(PGTUtil.LOGO_WORD_RELATION_XID);
+            // node is encoded with the logograph ID first, followed by all related words IDs
+            node.appendChild(doc.createTextNode(relations.toString()));
+            relationsCollection.appendChild(node);
+        });
     }
     
     public LogoNode getBufferNode() {
@@ -312,7 +476,13 @@ public class LogoCollection extends DictionaryCollection<LogoNode> {
     
     @Override
     public Integer insert(Integer _id, LogoNode _buffer) throws Exception {
-        return super.insert(_id, _buffer);
+        Integer ret = super.insert(_id, _buffer);
+        
+        if (!indexesStale) {
+            indexLogo(_buffer);
+        }
+        
+        return ret;
     }
     
     /**
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import org.darisadesigns.polyglotlina.CustomControls.AlphabetTrie;
 import org.darisadesigns.polyglotlina.CustomControls.PAlphaMap;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
@@ -42,6 +43,8 @@ public abstract class PropertiesManager {
     protected double conFontSize = 12;
     protected double localFontSize = 12;
     private final PAlphaMap<String, Integer> alphaOrder;
+    private volatile AlphabetTrie alphabetTrie = null;
+    private volatile int alphabetTrieVersion = -1;
     private String langName = "";
     private String localLangName = "";
     private String copyrightAuthorInfo = "";
@@ -612,61 +615,55 @@ public abstract class PropertiesManager {
     /**
      * Tests whether all characters within word are covered by ordered alphabet
      * @param testString string to test
-     * @return true if string comprised of only characters defined in alphabet or if no alphabet defined
-     * order menu
+     * @return true if string comprised of only characters defined in alphabet (spaces ignored)
      */
     public boolean testStringAgainstAlphabet(String testString) {
-        int longestChar = alphaOrder.getLongestEntry();
-        boolean ret = false;
-        
-        // an empty string means having reached the end of the word without issue. Return true.
-        if (testString.isEmpty()) {
-            ret = true;
-        } else if (!alphaOrder.isEmpty()) {
-            String currentCharacter = ""; // Linguistic character (can be made up of multiple string entries)
-            
-            for (char c : testString.toCharArray()) {
-                if (c == ' ') { // spaces are skipped in all parsing
-                    continue;
-                }
-                
-                currentCharacter += c; // add current character to unmatched prior character (or set value if last character matched)
-                
-                // if current string longer than any recorded, fail
-                if (currentCharacter.length() > longestChar) {
-                    ret = false;
-                    break;
-                } else if (alphaOrder.containsKey(currentCharacter) 
-                        && testStringAgainstAlphabet(testString.substring(currentCharacter.length()))) {
-                    ret = true;
-                    break;
-                }
-            }
-        }
-        
-        return ret;
+        return testString.isEmpty() 
+                || (!alphaOrder.isEmpty() && getAlphabetTrie().covers(testString));
     }
     
     /**
      * Attempts to find characters which are present in a word but missing from the alphabet
      * @param search
-     * @return 
+     * @return each run of characters missing from the alphabet, comma separated ("???" if none)
      */
     public String findBadLetters(String search) {
-        for (int curLength = 1; curLength < search.length(); curLength++) {
-            for (int pos = 0; pos + curLength < search.length(); pos++) {
-                // remove segment to test
-                String clearedString = search.substring(0, pos)
-                        + search.substring(pos + curLength, search.length() - 1);
-                
-                // if removed segment makes the string legal, it's likely the culprit
-                if (testStringAgainstAlphabet(clearedString)) {
-                    return search.substring(pos, pos + curLength);
-                }
-            }
+        List<String> badLetters = new ArrayList<>();
+        
+        for (AlphabetTrie.Span span : findBadLetterSpans(search)) {
+            badLetters.add(span.getText(search));
+        }
+        
+        return badLetters.isEmpty() ? "???" : String.join(", ", badLetters);
+    }
+    
+    /**
+     * Finds every run of characters in a word which cannot be made from
+     * letters of the alphabet, splitting the word so as to leave as few
+     * characters unexplained as possible
+     * @param search word to check
+     * @return spans of word missing from alphabet, in order
+     */
+    public List<AlphabetTrie.Span> findBadLetterSpans(String search) {
+        return getAlphabetTrie().findUncovered(search);
+    }
+    
+    /**
+     * Gets alphabet compiled to a trie, rebuilt only when alphabet changes
+     * @return alphabet trie
+     */
+    private AlphabetTrie getAlphabetTrie() {
+        AlphabetTrie ret = alphabetTrie;
+        int version = alphaOrder.getVersion();
+        
+        if (ret == null || alphabetTrieVersion != version) {
+            // only coverage is tested, so letter order is not needed
+            ret = new AlphabetTrie(alphaOrder.keySet().toArray(String[]::new));
+            alphabetTrie = ret;
+            alphabetTrieVersion = version;
         }
         
-        return "???";
+        return ret;
     }
     
     /**
@@ -23,13 +23,18 @@ import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
 import org.darisadesigns.polyglotlina.Nodes.PEntry;
 import org.darisadesigns.polyglotlina.Nodes.WordClass;
+import org.darisadesigns.polyglotlina.Nodes.WordClassValue;
 import org.darisadesigns.polyglotlina.PGTUtil;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Objects;
 import java.util.Random;
+import java.util.Set;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -39,7 +44,9 @@ import org.w3c.dom.Element;
  */
 public class WordClassCollection extends DictionaryCollection<WordClass> {
 
-    private List<List<PEntry<Integer, Integer>>> comboCache = null;
+    private int[] comboClassIds = null;
+    private int[][] comboValueIds = null;
+    private long comboCount = 0;
     private final DictCore core;
 
     public WordClassCollection(DictCore _core) {
@@ -116,6 +123,10 @@ public class WordClassCollection extends DictionaryCollection<WordClass> {
      * Gets random assortment of word class combinations based. Number of
      * combinations limited by parameters and by number of combinations
      * available. a value can be excluded
+     * 
+     * Combinations are never materialized: each is a mixed radix index into
+     * the class value lists, so cost depends on the number requested and the
+     * number of classes rather than the number of combinations possible.
      *
      * @param numRandom number of entries to return
      * @param excludeWord word with class properties to exclude (quiz generation
@@ -124,78 +135,130 @@ public class WordClassCollection extends DictionaryCollection<WordClass> {
      */
     public List<List<PEntry<Integer, Integer>>> getRandomPropertyCombinations(int numRandom, ConWord excludeWord) {
         List<List<PEntry<Integer, Integer>>> ret = new ArrayList<>();
-        int offset = 0;
 
         // combocache should generally be pre-built before something like this is done, but cover the contingency
-        if (comboCache == null) {
+        if (comboClassIds == null) {
             buildComboCache();
         }
         
-        Collections.shuffle(comboCache, new Random(System.nanoTime()));
-
-        if (comboCache != null && !comboCache.isEmpty()) {
-            for (int i = 0; (i - offset) < numRandom && i + offset < comboCache.size(); i++) {
-                if (propCombEqual(comboCache.get(i + offset), new ArrayList<>(excludeWord.getClassValues()))) {
-                    offset++;
-                    continue;
-                }
-
-                ret.add(comboCache.get(i + offset));
+        if (comboCount == 0) {
+            return ret;
+        }
+        
+        Map<Integer, Integer> exclude = new HashMap<>();
+        for (Entry<Integer, Integer> classValue : excludeWord.getClassValues()) {
+            exclude.put(classValue.getKey(), classValue.getValue());
+        }
+        
+        long available = comboCount - (isComboInCache(exclude) ? 1 : 0);
+        int target = (int) Math.min(numRandom, available);
+        Set<Long> picked = new HashSet<>();
+        Random rand = new Random(System.nanoTime());
+        
+        while (ret.size() < target) {
+            long index = rand.nextLong(comboCount);
+            
+            if (picked.add(index) && !comboMatches(index, exclude)) {
+                ret.add(getCombo(index));
             }
         }
 
         return ret;
     }
-
-    private boolean propCombEqual(List<PEntry<Integer, Integer>> a, List<Entry<Integer, Integer>> b) {
-        boolean ret = true;
-
-        if (a.size() == b.size()) {
-            for (Entry aEntry : a) {
-                boolean aRet = false;
-
-                for (Entry bEntry : b) {
-                    if (aEntry.equals(bEntry)) {
-                        aRet = true;
-                        break;
-                    }
-                }
-
-                ret = ret && aRet;
-            }
-        } else {
-            ret = false;
+    
+    /**
+     * Decodes mixed radix index into its class/value combination
+     * @param index index of combination (0 to comboCount - 1)
+     * @return class id/value id pairs
+     */
+    private List<PEntry<Integer, Integer>> getCombo(long index) {
+        List<PEntry<Integer, Integer>> ret = new ArrayList<>();
+        
+        for (int i = comboClassIds.length - 1; i >= 0; i--) {
+            int radix = comboValueIds[i].length;
+            ret.add(0, new PEntry<>(comboClassIds[i], comboValueIds[i][(int)(index % radix)]));
+            index /= radix;
         }
-
+        
         return ret;
     }
-
+    
     /**
-     * builds cache of every word class combination
+     * Tests whether combination at index is exactly the given class values
+     * @param index index of combination
+     * @param classValues map of class id to value id
+     * @return true if identical
      */
-    public void buildComboCache() {
-        comboCache = new ArrayList<>();
-
-        if (!nodeMap.isEmpty()) {
-            buildComboCacheInternal(0, new ArrayList<>(nodeMap.values()),
-                    new ArrayList<>());
+    private boolean comboMatches(long index, Map<Integer, Integer> classValues) {
+        if (classValues.size() != comboClassIds.length) {
+            return false;
         }
+        
+        for (int i = comboClassIds.length - 1; i >= 0; i--) {
+            int radix = comboValueIds[i].length;
+            Integer value = classValues.get(comboClassIds[i]);
+            
+            if (value == null || value != comboValueIds[i][(int)(index % radix)]) {
+                return false;
+            }
+            
+            index /= radix;
+        }
+        
+        return true;
+    }
+    
+    /**
+     * Tests whether a set of class values is one of the cached combinations
+     * @param classValues map of class id to value id
+     * @return true if the combination exists
+     */
+    private boolean isComboInCache(Map<Integer, Integer> classValues) {
+        if (classValues.size() != comboClassIds.length) {
+            return false;
+        }
+        
+        for (int i = 0; i < comboClassIds.length; i++) {
+            Integer value = classValues.get(comboClassIds[i]);
+            
+            if (value == null || Arrays.stream(comboValueIds[i]).noneMatch(v -> v == value)) {
+                return false;
+            }
+        }
+        
+        return true;
     }
 
-    private void buildComboCacheInternal(int depth, List<WordClass> props, List<PEntry<Integer, Integer>> curList) {
-        WordClass curProp = props.get(depth);
-
-        curProp.getValues().forEach((curVal) -> {
-            List<PEntry<Integer, Integer>> newList = new ArrayList<>(curList);
-            newList.add(new PEntry<>(curProp.getId(), curVal.getId()));
-
-            // if at max depth, cease recursion
-            if (depth == props.size() - 1) {
-                comboCache.add(newList);
-            } else {
-                buildComboCacheInternal(depth + 1, props, newList);
+    /**
+     * builds cache of the values of every word class, from which every
+     * word class combination may be derived
+     */
+    public void buildComboCache() {
+        List<WordClass> classes = new ArrayList<>(nodeMap.values());
+        
+        comboClassIds = new int[classes.size()];
+        comboValueIds = new int[classes.size()][];
+        comboCount = classes.isEmpty() ? 0 : 1;
+        
+        for (int i = 0; i < classes.size(); i++) {
+            WordClass curClass = classes.get(i);
+            comboClassIds[i] = curClass.getId();
+            comboValueIds[i] = curClass.getValues().stream().mapToInt(WordClassValue::getId).toArray();
+            
+            try {
+                comboCount = Math.multiplyExact(comboCount, comboValueIds[i].length);
+            } catch (ArithmeticException e) {
+                // more combinations than can be indexed: sampling the first Long.MAX_VALUE is plenty
+                comboCount = Long.MAX_VALUE;
             }
-        });
+        }
+        
+        // any class without values means no combination may be made
+        for (int[] values : comboValueIds) {
+            if (values.length == 0) {
+                comboCount = 0;
+            }
+        }
     }
 
     /**
@@ -204,7 +267,9 @@ public class WordClassCollection extends DictionaryCollection<WordClass> {
      * the cache is finished with
      */
     public void clearComboCache() {
-        comboCache = null;
+        comboClassIds = null;
+        comboValueIds = null;
+        comboCount = 0;
     }
 
     /**
@@ -258,9 +323,8 @@ public class WordClassCollection extends DictionaryCollection<WordClass> {
         if (this == comp) {
             ret = true;
         } else if (comp instanceof WordClassCollection) {
-            WordClassCollection compCol = (WordClassCollection)comp;
-            ret = ((comboCache == null && compCol.comboCache == null) || comboCache.equals(compCol.comboCache));
-            ret = ret && super.equals(comp);
+            // combo cache is derived entirely from the classes themselves
+            ret = super.equals(comp);
         }
         
         return ret;
@@ -269,7 +333,7 @@ public class WordClassCollection extends DictionaryCollection<WordClass> {
     @Override
     public int hashCode() {
         int hash = 7;
-        hash = 97 * hash + Objects.hashCode(this.comboCache);
+        hash = 97 * hash + super.hashCode();
         return hash;
     }
 }
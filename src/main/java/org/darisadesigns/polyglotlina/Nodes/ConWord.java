@@ -25,6 +25,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection;
@@ -46,6 +47,7 @@ public class ConWord extends DictNode {
     private String localWord;
     private int typeId;
     protected String definition;
+    protected String plainDefinition = null;
     private String pronunciation;
     private String etymNotes;
     private boolean procOverride;
@@ -91,7 +93,15 @@ public class ConWord extends DictNode {
      * @throws java.lang.Exception
      */
     public void evolveWord(String regex, String replacement, ReplaceOptions instanceOption) throws Exception {
-        this.setValue(RegexTools.advancedReplace(this.value, regex, replacement, instanceOption));
+        evolveWord(RegexTools.compileReplace(regex, replacement, instanceOption));
+    }
+    
+    /**
+     * Applies a precompiled evolution transform to this word's value
+     * @param transform 
+     */
+    public void evolveWord(RegexTools.CompiledReplace transform) {
+        this.setValue(transform.apply(this.value));
     }
 
     /**
@@ -216,6 +226,7 @@ public class ConWord extends DictNode {
         this.setLocalWord(set.localWord);
         this.typeId = set.typeId;
         this.definition = set.definition;
+        this.plainDefinition = set.plainDefinition;
         this.pronunciation = set.pronunciation;
         this.id = set.id;
         List<Entry<Integer, Integer>> precLock = new ArrayList<>(set.getClassValues()); // avoid read/write collisions
@@ -230,6 +241,37 @@ public class ConWord extends DictNode {
         this.autoConjugationOverride = set.autoConjugationOverride;
         this.etymNotes = set.etymNotes;
         this.rulesOverride = set.rulesOverride;
+        valueChanged();
+        textChanged();
+    }
+    
+    @Override
+    public void setValue(String _value) {
+        String oldValue = value;
+        
+        super.setValue(_value);
+        
+        if (!value.equals(oldValue)) {
+            valueChanged();
+        }
+    }
+    
+    /**
+     * Lets the lexicon know this word may have moved in alphabetical order
+     */
+    private void valueChanged() {
+        if (core != null && core.getWordCollection() != null) {
+            core.getWordCollection().wordValueChanged(this);
+        }
+    }
+
+    /**
+     * Lets the lexicon know this word's local word or definition has changed
+     */
+    private void textChanged() {
+        if (core != null && core.getWordCollection() != null) {
+            core.getWordCollection().wordTextChanged(this);
+        }
     }
 
     @Override
@@ -305,7 +347,13 @@ public class ConWord extends DictNode {
     }
 
     public void setLocalWord(String _localWord) {
+        String oldLocalWord = localWord;
+        
         this.localWord = _localWord.trim();
+        
+        if (!localWord.equals(oldLocalWord)) {
+            textChanged();
+        }
     }
 
     /**
@@ -330,7 +378,13 @@ public class ConWord extends DictNode {
     }
 
     public void setWordTypeId(int _typeId) {
-        typeId = _typeId;
+        if (typeId != _typeId) {
+            typeId = _typeId;
+            
+            if (core != null && core.getWordCollection() != null) {
+                core.getWordCollection().wordTypeChanged(this);
+            }
+        }
     }
 
     public Integer getWordTypeId() {
@@ -342,7 +396,26 @@ public class ConWord extends DictNode {
     }
 
     public void setDefinition(String _definition) {
-        this.definition = _definition;
+        if (!Objects.equals(definition, _definition)) {
+            this.definition = _definition;
+            plainDefinition = null;
+            textChanged();
+        }
+    }
+    
+    /**
+     * Gets definition stripped of HTML. Cached until definition next changes.
+     * @return plain text definition
+     */
+    public String getPlainDefinition() {
+        String ret = plainDefinition;
+        
+        if (ret == null) {
+            ret = WebInterface.getTextFromHtml(definition);
+            plainDefinition = ret;
+        }
+        
+        return ret;
     }
 
     /**
@@ -511,7 +584,7 @@ public class ConWord extends DictNode {
         }
         
         if (!this.getDefinition().isEmpty()) {
-            summary += " : " + WebInterface.getTextFromHtml(this.getDefinition()).trim();
+            summary += " : " + this.getPlainDefinition().trim();
         }
         
         return summary.replaceAll("\n", " ");
@@ -525,6 +598,18 @@ public class ConWord extends DictNode {
     }
     
     public String getWordForm(String fullDecId) {
+        return getWordForm(fullDecId, true);
+    }
+    
+    /**
+     * Gets word form as above, optionally without recording declension debug
+     * output (see ConjugationManager.declineWord)
+     * 
+     * @param fullDecId
+     * @param recordDebug
+     * @return 
+     */
+    public String getWordForm(String fullDecId, boolean recordDebug) {
         String ret = "ERROR!";
         
         if (core != null) {
@@ -535,7 +620,7 @@ public class ConWord extends DictNode {
                 ret = node == null ? "" : node.getValue();
             } else {
                 try {
-                    ret = conMan.declineWord(this, fullDecId);
+                    ret = conMan.declineWord(this, fullDecId, recordDebug);
                 } catch (Exception e) {
                     core.getOSHandler().getIOHandler().writeErrorLog(e);
                 }
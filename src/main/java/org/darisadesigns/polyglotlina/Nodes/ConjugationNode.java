@@ -58,7 +58,15 @@ public class ConjugationNode extends DictNode {
      * @throws java.lang.Exception 
      */
     public void evolveConjugatedNode(String regex, String replacement, RegexTools.ReplaceOptions instanceOption) throws Exception {
-        this.value = RegexTools.advancedReplace(value, regex, replacement, instanceOption);
+        evolveConjugatedNode(RegexTools.compileReplace(regex, replacement, instanceOption));
+    }
+    
+    /**
+     * Applies a precompiled evolution transform to conjugated forms of extant words
+     * @param transform 
+     */
+    public void evolveConjugatedNode(RegexTools.CompiledReplace transform) {
+        this.value = transform.apply(value);
     }
     
     /**
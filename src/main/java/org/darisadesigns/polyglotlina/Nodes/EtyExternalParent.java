@@ -56,6 +56,7 @@ public class EtyExternalParent extends ConWord {
         if (_node instanceof EtyExternalParent) {
             EtyExternalParent node = (EtyExternalParent)_node;
             definition = node.definition;
+            plainDefinition = null;
             externalLanguage = node.externalLanguage;
             value = node.value;
         } else if (_node != null) {
@@ -19,14 +19,15 @@
  */
 package org.darisadesigns.polyglotlina.Nodes;
 
+import org.darisadesigns.polyglotlina.CustomControls.IntObjectMap;
 import org.darisadesigns.polyglotlina.DictCore;
+import org.darisadesigns.polyglotlina.ManagersCollections.LogoCollection;
 import org.darisadesigns.polyglotlina.PGTUtil;
 import org.darisadesigns.polyglotlina.WebInterface;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
@@ -38,6 +39,7 @@ public class LogoNode extends DictNode {
 
     private int strokes = 0;
     private String notes = "";
+    private String notesLowerCase = null;
     private byte[] logoBytes;
     private boolean isRadical = false;
     private String tmpRads = "";
@@ -69,6 +71,7 @@ public class LogoNode extends DictNode {
 
     public void setStrokes(int _strokes) {
         strokes = _strokes;
+        indexChanged();
     }
 
     public Integer getStrokes() {
@@ -77,15 +80,29 @@ public class LogoNode extends DictNode {
 
     public void setNotes(String _notes) {
         notes = _notes;
+        notesLowerCase = null;
     }
 
     public String getNotes() {
         return notes;
     }
+    
+    /**
+     * Gets notes in lower case. Cached until notes next change.
+     * @return lower case notes
+     */
+    public String getNotesLowerCase() {
+        if (notesLowerCase == null) {
+            notesLowerCase = notes.toLowerCase();
+        }
+        
+        return notesLowerCase;
+    }
 
     public void addRadical(LogoNode radicalId) {
         if (!radicals.contains(radicalId)) {
             radicals.add(radicalId);
+            indexChanged();
         }
     }
 
@@ -95,16 +112,37 @@ public class LogoNode extends DictNode {
 
     public void setRadicals(List<LogoNode> _radicals) {
         radicals = _radicals;
+        indexChanged();
     }
 
     public void addReading(String reading) {
         if (!readings.contains(reading)) {
             readings.add(reading);
+            indexChanged();
         }
     }
 
     public void setReadings(List<String> _readings) {
         readings = _readings;
+        indexChanged();
+    }
+    
+    @Override
+    public void setValue(String _value) {
+        super.setValue(_value);
+        
+        // radicals are searched by name
+        indexChanged();
+    }
+    
+    /**
+     * Lets the owning collection know its search indexes may no longer
+     * reflect this node
+     */
+    private void indexChanged() {
+        if (parent instanceof LogoCollection logoCollection) {
+            logoCollection.invalidateIndexes(this);
+        }
     }
 
     public String[] getReadings() {
@@ -225,7 +263,7 @@ public class LogoNode extends DictNode {
      * @param nodeMap pass nodeMap from parent collection for reference
      * @throws java.lang.Exception on load error
      */
-    public void loadRadicalRelations(Map<Integer, LogoNode> nodeMap) throws Exception {
+    public void loadRadicalRelations(IntObjectMap<LogoNode> nodeMap) throws Exception {
         if (tmpRads.isEmpty()) {
             return;
         }
@@ -263,9 +301,11 @@ public class LogoNode extends DictNode {
         readings = new ArrayList<>(setNode.readings);
         logoBytes = setNode.logoBytes;
         notes = setNode.notes;
+        notesLowerCase = null;
         value = setNode.value;
         strokes = setNode.getStrokes();
         id = setNode.getId();
+        indexChanged();
     }
 
     public void writeXML(Document doc, Element rootElement) {
@@ -19,6 +19,7 @@
  */
 package org.darisadesigns.polyglotlina;
 
+import java.io.File;
 import java.nio.file.Path;
 import java.util.List;
 import org.darisadesigns.polyglotlina.Nodes.LexiconProblemNode;
@@ -76,7 +77,7 @@ public abstract class OSHandler {
         return this.fileReadListener;
     }
     
-    public abstract void openLanguageReport(String reportContents);
+    public abstract void openLanguageReport(File report);
     
     public interface CoreUpdatedListener {
         void coreUpdated(DictCore core);
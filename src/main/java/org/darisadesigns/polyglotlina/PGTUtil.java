@@ -348,6 +348,8 @@ public class PGTUtil {
     public static final String REVERSION_BASE_FILE_NAME = "reversionXMLFile";
     public static final String ERROR_LOG_FILE = "PolyGlot_error.log";
     public static final String WEB_SERVICE_LOG_FILE = "PolyGlot_webService.log";
+    public static final String GPT_CACHE_FILE = "PolyGlot_gptCache.json";
+    public static final String FONT_INDEX_FILE = "PolyGlot_fontIndex.json";
     public static final String EMPTY_FILE = "<EMPTY>";
     public static final String TEMP_FILE = "xxTEMPPGTFILExx";
     public static final String CONLANG_FONT = "PolyGlotConlangGrammarFont";
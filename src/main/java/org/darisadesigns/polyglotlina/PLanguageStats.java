@@ -19,43 +19,38 @@
  */
 package org.darisadesigns.polyglotlina;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import static org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection.formatCon;
 import static org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection.formatPlain;
-import org.darisadesigns.polyglotlina.Nodes.ConWord;
 import org.darisadesigns.polyglotlina.Nodes.PronunciationNode;
 import org.darisadesigns.polyglotlina.Nodes.TypeNode;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 
 /**
  *
  * @author DThompson
  */
 public final class PLanguageStats {
+    // minimum time between progress updates while words are counted
+    private static final long PROGRESS_INTERVAL = TimeUnit.MILLISECONDS.toNanos(100);
     
     private final PGooglePieChart typesPie = new PGooglePieChart("Word Counts by Part of Speech");
     private final PGoogleBarChart charStatBar = new PGoogleBarChart("Character Stats");
     private final DictCore core;
     private final PLanguageStatsProgress progress;
-    private final Map<String, Integer> wordStart = new HashMap<>();
-    private final Map<String, Integer> letterCount = new HashMap<>();
-    private final Map<String, Integer> letterComboCount = new HashMap<>();
-    private final Map<Integer, Integer> typeCountByWord = new HashMap<>();
-    private final Map<String, Integer> phonemeCount = new HashMap<>();
-    private final Map<String, Integer> phonemeComboCount = new HashMap<>();
-    private final ConWord[] wordList;
     private final String[] alphabet;
-    private final String[] alphaCombinations;
+    private LanguageStatCounts counts;
     
     private PLanguageStats(DictCore _core, PLanguageStatsProgress _progress) {
         core = _core;
         progress = _progress;
-        wordList = core.getWordCollection().getWordNodes();
         alphabet = core.getPropertiesManager().getOrderedAlphaList();
-        alphaCombinations = getAllCombinations();
     } 
 
     /**
@@ -70,40 +65,51 @@ public final class PLanguageStats {
             return "";
         }
         
-        final String[] ret = new String[1]; // using array so I can set value in a thread...
-        ret[0] = "";
+        StringWriter ret = new StringWriter();
 
         try {
-            Thread thread = new Thread() {
-                @Override
-                public void run() {
-                    ret[0] = new PLanguageStats(core, _progress).buildWordReport();
-                }
-            };
-
-            thread.start();
-            thread.join();
+            new PLanguageStats(core, _progress).writeWordReport(ret);
         }
-        catch (InterruptedException e) {
+        catch (IOException e) {
             core.getOSHandler().getIOHandler().writeErrorLog(e);
             core.getOSHandler().getInfoBox().error("Language Stat Error", "Unable to generate language statistics: " + e.getLocalizedMessage());
         }
 
-        return ret[0];
+        return ret.toString();
+    }
+    
+    /**
+     * Writes report on words in ConLang to given writer. Potentially
+     * computationally expensive.
+     *
+     * @param core Core of language to analyze
+     * @param _progress
+     * @param out writer to stream report to
+     * @return false if the report could not be run (nothing is written)
+     * @throws IOException on failure to write
+     */
+    public static boolean writeWordReport(DictCore core, PLanguageStatsProgress _progress, Writer out) throws IOException {
+        if (!testCanRun(core)) {
+            return false;
+        }
+        
+        new PLanguageStats(core, _progress).writeWordReport(out);
+        
+        return true;
     }
 
-    private String buildWordReport() {
-        String ret = "<!doctype html>\n"
+    private void writeWordReport(Writer out) throws IOException {
+        out.write("<!doctype html>\n"
                 + "<html>\n<head>\n"
                 + "<meta charset=utf-8>\n"
-                + "<title>LANGUAGE STAT REPORT</title>\n";
+                + "<title>LANGUAGE STAT REPORT</title>\n");
 
         collectValuesFromWords();
 
         progress.iterateTask("Building report...");
 
         // build pie chart of type counts
-        typeCountByWord.entrySet().forEach((curEntry) -> {
+        counts.getTypeCounts().entrySet().forEach((curEntry) -> {
             TypeNode type = core.getTypes().getNodeById(curEntry.getKey());
             if (type != null) {
                 String[] label = {type.getValue()};
@@ -117,87 +123,68 @@ public final class PLanguageStats {
         charStatBar.setRightYAxisLabel("Overall Count");
         charStatBar.setLabels(new String[]{"Words Starting With", "Overall Count"});
         charStatBar.setConFontName(core.getPropertiesManager().getFontConFamily());
-        for (String character : alphabet) {
-            double starting = 0.0;
-            double count = 0.0;
-
-            if (wordStart.containsKey(character)) {
-                starting = (double) wordStart.get(character);
-            }
-
-            if (letterCount.containsKey(character)) {
-                count = (double) letterCount.get(character);
-            }
+        for (int i = 0; i < alphabet.length; i++) {
+            double starting = counts.getWordStartCount(i);
+            double count = counts.getLetterCount(i);
 
-            charStatBar.addVal(new String[]{WebInterface.encodeHTML(character)}, new Double[]{starting, count});
+            charStatBar.addVal(new String[]{WebInterface.encodeHTML(alphabet[i])}, new Double[]{starting, count});
         }
 
-        ret += "\n"
+        out.write("\n"
                 + "    <script src=\"https://www.gstatic.com/charts/loader.js\"></script>\n"
                 + "    <script>\n"
                 + "      google.charts.load('current', {'packages':['corechart']});\n"
                 + "      google.charts.load('current', {'packages':['corechart', 'bar']});\n"
                 + "      google.charts.setOnLoadCallback(" + typesPie.getFunctionName() + ");\n"
                 + "      google.charts.setOnLoadCallback(" + charStatBar.getFunctionName() + ");\n"
-                + "\n";
+                + "\n");
 
-        ret += typesPie.getBuildHTML();
-        ret += charStatBar.getBuildHTML();
+        out.write(typesPie.getBuildHTML());
+        out.write(charStatBar.getBuildHTML());
 
-        ret += "    </script>\n</head>"
+        out.write("    </script>\n</head>"
                 + "  <body style=\"font-family:" + core.getPropertiesManager().getFontLocalFamily() + "\">\n"
                 + core.getPropertiesManager().buildPropertiesReportTitle()
-                + "    <center>---LANGUAGE STAT REPORT---</center><br><br>";
+                + "    <center>---LANGUAGE STAT REPORT---</center><br><br>");
 
-        ret += formatPlain("Count of words in conlang lexicon: " + wordList.length + "<br><br>", core);
+        out.write(formatPlain("Count of words in conlang lexicon: " + counts.getWordCount() + "<br><br>", core));
 
         progress.iterateTask("Building charts...");
-        ret += typesPie.getDisplayHTML();
+        out.write(typesPie.getDisplayHTML());
 
-        ret += charStatBar.getDisplayHTML();
+        out.write(charStatBar.getDisplayHTML());
 
         // build list of conlang characters and the IPA characters they express
-        ret += "<p>" + formatPlain("List of letters to IPA sounds which they can express", core) + "<br>";
+        out.write("<p>" + formatPlain("List of letters to IPA sounds which they can express", core) + "<br>");
 
         Map<String, String[]> charsToIpa = core.getPronunciationMgr().getIpaSoundsPerCharacter();
         for (String key : charsToIpa.keySet()) {
             String sanitizedKey = WebInterface.encodeHTML(key);
-            ret += "<br>" + formatCon(sanitizedKey, core) + formatPlain(" : ", core);
+            out.write("<br>" + formatCon(sanitizedKey, core) + formatPlain(" : ", core));
 
             String[] ipaChars = charsToIpa.get(key);
             for (int i = 0; i < ipaChars.length; i += 2) {
                 String value = WebInterface.encodeHTML(ipaChars[i]);
-                ret += formatPlain(value, core) + " ";
+                out.write(formatPlain(value, core) + " ");
             }
         }
 
-        ret += "</p>";
+        out.write("</p>");
 
         progress.iterateTask("Building character combo grid...");
-        ret += buildLetterComboTable();
+        writeLetterComboTable(out);
 
         // only build phoneme table and count of not using recursion
         progress.iterateTask("Building phoneme combo grid...");
         if (!core.getPronunciationMgr().isRecurse()) {
-            ret += buildPhonemeTable();
-            ret += buildPhonemeCount();
+            writePhonemeTable(out);
+            writePhonemeCount(out);
         }
         
-        ret += "</body>\n</html>";
+        out.write("</body>\n</html>");
+        out.flush();
 
         progress.iterateTask("DONE!");
-
-        return ret;
-    }
-    
-    private String[] htmlSanitizeArray (String[] sanitize) {
-        String[] ret = new String[sanitize.length];
-        
-        for (int i = 0; i < sanitize.length; i++) {
-            ret[i] = WebInterface.encodeHTML(sanitize[i]);
-        }
-        
-        return ret;
     }
     
     private static boolean testCanRun(DictCore core) {
@@ -210,295 +197,131 @@ public final class PLanguageStats {
         return true;
     }
     
-    private String buildLetterComboTable() {
-        String ret = "";
-
-        ret += formatPlain("Heat map of letter combination frequency:<br>", core);
-        ret += "<table border=\"1\">";
-        ret += "<tr><td></td>";
+    private void writeLetterComboTable(Writer out) throws IOException {
+        out.write(formatPlain("Heat map of letter combination frequency:<br>", core));
+        out.write("<table border=\"1\">");
+        out.write("<tr><td></td>");
         for (String columnsHead : alphabet) {
             String cleanedHead = WebInterface.encodeHTML(columnsHead);
-            ret += "<td>" + formatCon(cleanedHead, core) + "</td>";
+            out.write("<td>" + formatCon(cleanedHead, core) + "</td>");
         }
 
-        int highestLetterComboCount = getHighestCount(letterComboCount);
-
-        ret += "</tr>";
-        for (String y : alphabet) {
-            String cleanedY = WebInterface.encodeHTML(y);
-            ret += "<tr><td>" + formatCon(cleanedY, core) + "</td>";
-            for (String x : alphabet) {
-                String search = x + y;
-                Integer comboValue = 0;
-
-                if (letterComboCount.containsKey(search)) {
-                    Integer tmp = letterComboCount.get(search);
-                    if (tmp != null) {
-                        comboValue = tmp;
-                    }
-                }
+        int highestLetterComboCount = counts.getHighestLetterComboCount();
 
+        out.write("</tr>");
+        for (int y = 0; y < alphabet.length; y++) {
+            String cleanedY = WebInterface.encodeHTML(alphabet[y]);
+            out.write("<tr><td>" + formatCon(cleanedY, core) + "</td>");
+            for (int x = 0; x < alphabet.length; x++) {
+                int comboValue = counts.getLetterComboCount(x, y);
                 int red = (255 / highestLetterComboCount) * comboValue;
                 int blue = 255 - red;
                 String format = "%02X"; // 2 digit hex format
-                String comboStringCleaned = WebInterface.encodeHTML(x + y);
-                ret += "<td bgcolor=\"#" + String.format(format, red)
+                String comboStringCleaned = WebInterface.encodeHTML(alphabet[x] + alphabet[y]);
+                out.write("<td bgcolor=\"#" + String.format(format, red)
                         + String.format(format, blue)
                         + String.format(format, blue) + "\">"
                         + formatCon(comboStringCleaned, core) + formatPlain(":"
-                        + comboValue, core) + "</td>";
+                        + comboValue, core) + "</td>");
 
             }
-            ret += "</tr>";
+            out.write("</tr>");
         }
-        ret += "</table>" + formatPlain("<br><br>", core);
-
-        return ret;
+        out.write("</table>" + formatPlain("<br><br>", core));
     }
 
+    /**
+     * Fetches the lexicon's maintained statistics. Only words changed since
+     * statistics were last requested are counted (all words, the first time).
+     * Words may be counted on several threads, so they are tallied without
+     * locking and progress is passed on at most once per interval.
+     */
     private void collectValuesFromWords() {
-        for (ConWord curWord : core.getWordCollection().getWordNodes()) {
-            final String curValue = curWord.getValue();
-            final int curType = curWord.getWordTypeId();
-
-            progress.iterateTask("Analyzing: " + curWord.getValue());
-
-            String startsWith = startsWith(curValue);
-
-            // either increment or create value for starting character
-            if (wordStart.containsKey(startsWith)) {
-                int newValue = wordStart.get(startsWith) + 1;
-                wordStart.remove(startsWith);
-                wordStart.put(startsWith, newValue);
-            } else {
-                wordStart.put(startsWith, 1);
-            }
-
-            // only collect phoneme combos if no pronunciation recursion.
-            if (!core.getPronunciationMgr().isRecurse()) {
-                PronunciationNode[] phonArray;
-
-                // capture and record all phonemes in word and phoneme combinations
-                try {
-                    phonArray = core.getPronunciationMgr()
-                            .getPronunciationElements(curValue);
-                }
-                catch (Exception e) {
-                    // do nothing. This is just a report, users will be made aware
-                    // of illegal pronunciation values elsewhere
-                    // IOHandler.writeErrorLog(e);
-                    phonArray = new PronunciationNode[0];
-                }
-
-                for (int i = 0; i < phonArray.length; i++) {
-                    if (phonemeCount.containsKey(phonArray[i].getPronunciation())) {
-                        int newValue = phonemeCount.get(phonArray[i].getPronunciation()) + 1;
-                        phonemeCount.remove(phonArray[i].getPronunciation());
-                        phonemeCount.put(phonArray[i].getPronunciation(), newValue);
-                    } else {
-                        phonemeCount.put(phonArray[i].getPronunciation(), 1);
-                    }
-
-                    // grab combo if there are additional phonemes, otherwise you're done
-                    if (i + 1 < phonArray.length) {
-                        String curCombo = phonArray[i].getPronunciation() + " "
-                                + phonArray[i + 1].getPronunciation();
-
-                        if (phonemeComboCount.containsKey(curCombo)) {
-                            int newValue = phonemeComboCount.get(curCombo) + 1;
-                            phonemeComboCount.remove(curCombo);
-                            phonemeComboCount.put(curCombo, newValue);
-                        } else {
-                            phonemeComboCount.put(curCombo, 1);
-                        }
-                    }
-                }
-            }
-
-            // capture all individual characters
-            addCharacterStringsToMap(letterCount, alphabet, curValue);
-
-            // capture and record all 2 character combinations in words
-            addCharacterStringsToMap(letterComboCount, alphaCombinations, curValue);
-
-            // record type count...
-            if (typeCountByWord.containsKey(curType)) {
-                int newValue = typeCountByWord.get(curType) + 1;
-                typeCountByWord.remove(curType);
-                typeCountByWord.put(curType, newValue);
-            } else {
-                typeCountByWord.put(curType, 1);
+        LongAdder counted = new LongAdder();
+        AtomicInteger reported = new AtomicInteger();
+        AtomicLong lastReport = new AtomicLong(System.nanoTime());
+        
+        counts = core.getWordCollection().getLanguageStats((value) -> {
+            counted.increment();
+            long now = System.nanoTime();
+            long last = lastReport.get();
+            
+            if (now - last >= PROGRESS_INTERVAL && lastReport.compareAndSet(last, now)) {
+                reportCounted(counted, reported, "Analyzing: " + value);
             }
+        });
+        
+        reportCounted(counted, reported, "Analyzed " + counted.intValue() + " words");
+    }
+    
+    private void reportCounted(LongAdder counted, AtomicInteger reported, String textUpdate) {
+        int total = counted.intValue();
+        int steps = total - reported.getAndAccumulate(total, Math::max);
+        
+        if (steps > 0) {
+            progress.iterateTasks(steps, textUpdate);
         }
     }
     
-    private String buildPhonemeTable() {
-        String ret = "";
+    private void writePhonemeTable(Writer out) throws IOException {
+        PronunciationNode[] pronunciations = core.getPronunciationMgr().getPronunciations();
         
-        ret += formatPlain("Heat map of phoneme combination frequency:<br>", core);
-        ret += "<table border=\"1\">";
-        ret += "<tr>" + formatPlain("<td></td>", core);
+        out.write(formatPlain("Heat map of phoneme combination frequency:<br>", core));
+        out.write("<table border=\"1\">");
+        out.write("<tr>" + formatPlain("<td></td>", core));
 
-        for (PronunciationNode curNode : core.getPronunciationMgr().getPronunciations()) {
+        for (PronunciationNode curNode : pronunciations) {
             String procCleaned = WebInterface.encodeHTML(curNode.getPronunciation());
-            ret += "<td>" + formatPlain(formatPlain(procCleaned, core), core) + "</td>";
+            out.write("<td>" + formatPlain(formatPlain(procCleaned, core), core) + "</td>");
         }
-        ret += "</tr>";
+        out.write("</tr>");
 
-        int highestPhonemeComboCount = getHighestCount(phonemeComboCount);
-        for (PronunciationNode y : core.getPronunciationMgr().getPronunciations()) {
+        int highestPhonemeComboCount = counts.getHighestPhonemeComboCount();
+        for (PronunciationNode y : pronunciations) {
             String procYCleaned = WebInterface.encodeHTML(y.getPronunciation());
-            ret += "<tr><td>" + formatPlain(procYCleaned, core) + "</td>";
-
-            for (PronunciationNode x : core.getPronunciationMgr().getPronunciations()) {
-                String search = x.getPronunciation() + " " + y.getPronunciation();
-                Integer comboValue = 0;
-                if (phonemeComboCount.containsKey(search)) {
-                    Integer tmp = phonemeComboCount.get(search);
-                    if (tmp != null) {
-                        comboValue = tmp;
-                    }
-                }
+            out.write("<tr><td>" + formatPlain(procYCleaned, core) + "</td>");
+
+            for (PronunciationNode x : pronunciations) {
+                int comboValue = counts.getPhonemeComboCount(x.getPronunciation(), y.getPronunciation());
 
                 // This is fine because these should correlate with the letter combo counts.
                 int red = (255 / highestPhonemeComboCount) * comboValue;
                 int blue = 255 - red;
                 String procComboCleaned = WebInterface.encodeHTML(x.getPronunciation() + y.getPronunciation());
-                ret += "<td bgcolor=\"#" + Integer.toHexString(red)
+                out.write("<td bgcolor=\"#" + Integer.toHexString(red)
                         + Integer.toHexString(blue) + Integer.toHexString(blue) + "\")>"
                         + formatPlain(procComboCleaned + ":"
-                                + comboValue, core) + "</td>";
+                                + comboValue, core) + "</td>");
             }
-            ret += "</tr>";
+            out.write("</tr>");
         }
-        ret += "</table>";
-        
-        return ret;
+        out.write("</table>");
     }
     
-    private String buildPhonemeCount() {
-        String ret = "";
-        
-        ret += formatPlain("<br>Breakdown of phonemes counted across all words:<br>", core);
+    private void writePhonemeCount(Writer out) throws IOException {
+        out.write(formatPlain("<br>Breakdown of phonemes counted across all words:<br>", core));
         for (PronunciationNode curNode : core.getPronunciationMgr().getPronunciations()) {
             String procCleaned = WebInterface.encodeHTML(curNode.getPronunciation());
-            ret += formatPlain(procCleaned + " : "
-                    + (phonemeCount.containsKey(curNode.getPronunciation())
-                    ? phonemeCount.get(curNode.getPronunciation()) : formatPlain("0", core)) + "<br>", core);
+            out.write(formatPlain(procCleaned + " : "
+                    + counts.getPhonemeCount(curNode.getPronunciation()) + "<br>", core));
         }
-        ret += formatPlain("<br><br>", core);
-        
-        return ret;
-    }
-
-    /**
-     * Given a word and an alphabet, find which letter (potentially
-     * multi-character) it begins with
-     *
-     * @param word
-     * @return
-     */
-    private String startsWith(String word) {
-        String ret = word.substring(0, 1);
-
-        for (String letter : alphabet) {
-            if (word.startsWith(letter)) {
-                ret = letter;
-                break;
-            }
-        }
-
-        return ret;
-    }
-
-    /**
-     * Given a word and an alphabet, find which letter (potentially
-     * multi-character) it begins with
-     *
-     * @param word
-     * @return
-     */
-    private String endsWith(String word) {
-        int length = word.length();
-        String ret = word.substring(length - 1, length);
-
-        for (String letter : alphabet) {
-            if (word.endsWith(letter)) {
-                ret = letter;
-                break;
-            }
-        }
-
-        return ret;
-    }
-
-    /**
-     * Adds all character strings found in word string to map passed in. This
-     * works via side effect because rebuilding the map every run is expensive.
-     *
-     * @param letterCombos
-     * @param combinations
-     * @param word
-     */
-    private void addCharacterStringsToMap(Map<String, Integer> letterCombos, String[] combinations, String word) {
-        String value = word;
-
-        while (!core.getPGTUtil().isBlank(value)) {
-            int startLength = value.length();
-
-            for (String combo : combinations) {
-                if (value.startsWith(combo)) {
-                    // remove found combo from string
-                    value = value.substring(combo.length());
-
-                    if (letterCombos.containsKey(combo)) {
-                        //letterCombos.replace(combo, letterCombos.get(combo) + 1);
-                        int curCount = letterCombos.get(combo);
-                        letterCombos.replace(combo, curCount + 1);
-                        continue;
-                    }
-                    letterCombos.put(combo, 1);
-                }
-            }
-
-            if (startLength == value.length()) {
-                // current character not in defined alphabet - skip
-                value = value.substring(1);
-            }
-        }
-    }
-
-    private int getHighestCount(Map<String, Integer> toCount) {
-        int ret = 1;
-
-        List<Integer> values = new ArrayList<>(toCount.values());
-
-        if (values.size() > 0) {
-            Collections.sort(values, Collections.reverseOrder());
-            ret = values.get(0);
-        }
-
-        return ret;
-    }
-
-    /**
-     * Gets every combination of characters and returns as an array
-     *
-     * @return
-     */
-    private String[] getAllCombinations() {
-        List<String> ret = new ArrayList<>();
-
-        for (String first : alphabet) {
-            for (String second : alphabet) {
-                ret.add(first + second);
-            }
-        }
-
-        return ret.toArray(new String[0]);
+        out.write(formatPlain("<br><br>", core));
     }
     
     public interface PLanguageStatsProgress {
         void iterateTask(String textUpdate);
+        
+        /**
+         * Advances several steps at once, with a single text update. May be
+         * called from any thread.
+         * 
+         * @param steps number of steps completed
+         * @param textUpdate text to display
+         */
+        default void iterateTasks(int steps, String textUpdate) {
+            for (int i = 0; i < steps; i++) {
+                iterateTask(textUpdate);
+            }
+        }
     }
 }
@@ -23,8 +23,8 @@ import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.ManagersCollections.DictionaryCollection;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Random;
 
 /**
@@ -44,7 +44,7 @@ public class Quiz extends DictionaryCollection<QuizQuestion> {
     
     public int getLength() {
         if (quizList == null) {
-            quizList = new ArrayList<>(nodeMap.values());
+            quizList = getQuestionsInOrder();
         }
         
         return quizList.size();
@@ -75,6 +75,17 @@ public class Quiz extends DictionaryCollection<QuizQuestion> {
         return questions.toArray(new QuizQuestion[0]);
     }
     
+    /**
+     * Gets list of questions in the order they were generated. Questions are
+     * numbered in that order; the node map does not keep it.
+     * @return 
+     */
+    private List<QuizQuestion> getQuestionsInOrder() {
+        List<QuizQuestion> ret = new ArrayList<>(nodeMap.values());
+        ret.sort(Comparator.comparing(QuizQuestion::getId));
+        return ret;
+    }
+    
     public int getQuizLength() {
         return nodeMap.size();
     }
@@ -112,11 +123,11 @@ public class Quiz extends DictionaryCollection<QuizQuestion> {
     }
     
     public void trimQuiz() {
-        for (Entry<Integer, QuizQuestion> o : nodeMap.entrySet().toArray(new Entry[0])) {
-            QuizQuestion question = o.getValue();
+        for (int questionId : nodeMap.keys()) {
+            QuizQuestion question = nodeMap.get(questionId);
             
             if (question.getAnswered() == QuizQuestion.Answered.Correct) {
-                nodeMap.remove(o.getKey());
+                removeNode(questionId);
             } else {
                 question.setAnswered(QuizQuestion.Answered.Unanswered);
                 question.setUserAnswer(null);
@@ -134,7 +145,7 @@ public class Quiz extends DictionaryCollection<QuizQuestion> {
      */
     public boolean hasNext() {
         if (quizList == null) {
-            quizList = new ArrayList<>(nodeMap.values());
+            quizList = getQuestionsInOrder();
         }
         
         int quizSize = quizList.size();
@@ -152,7 +163,7 @@ public class Quiz extends DictionaryCollection<QuizQuestion> {
      */
     public QuizQuestion next() throws Exception {
         if (quizList == null) {
-            quizList = new ArrayList<>(nodeMap.values());
+            quizList = getQuestionsInOrder();
         }
         
         quizPos++;
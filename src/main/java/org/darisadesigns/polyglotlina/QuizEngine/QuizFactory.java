@@ -116,15 +116,16 @@ public class QuizFactory {
         }
 
         if (filter == null) {
-            wordList = core.getWordCollection().getWordNodes();
+            // sample directly rather than shuffling the whole lexicon
+            wordList = core.getWordCollection().getRandomNodes(numQuestions).toArray(new ConWord[0]);
         } else {
             wordList = core.getWordCollection().filteredList(filter);
-        }
 
-        // shuffle by converting to list, then back...
-        List<ConWord> shuffleList = Arrays.asList(wordList);
-        Collections.shuffle(shuffleList, new Random(System.nanoTime()));
-        wordList = shuffleList.toArray(new ConWord[0]);
+            // shuffle by converting to list, then back...
+            List<ConWord> shuffleList = Arrays.asList(wordList);
+            Collections.shuffle(shuffleList, new Random(System.nanoTime()));
+            wordList = shuffleList.toArray(new ConWord[0]);
+        }
 
         // make certain the number of questions never exceeds the number of words available
         numQuestions = Math.min(wordList.length, numQuestions);
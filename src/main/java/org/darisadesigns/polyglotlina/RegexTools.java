@@ -35,58 +35,102 @@ public class RegexTools {
             String regex,
             String replacement,
             ReplaceOptions instanceOption) throws Exception {
-        String newVal = "";
-
-        if (instanceOption == ReplaceOptions.All) {
-            newVal = value.replaceAll(regex, replacement);
-        } else {
-            List<String> segments = new ArrayList<>();
-
-            if (PGTUtil.regexContainsLookaheadOrBehind(replacement)) {
+        return compileReplace(regex, replacement, instanceOption).apply(value);
+    }
+    
+    /**
+     * Compiles a replacement once, to be applied to many values as
+     * advancedReplace would
+     * 
+     * @param regex pattern to replace
+     * @param replacement replacement text
+     * @param instanceOption which matches within a value to replace
+     * @return reusable replacement
+     * @throws Exception if regex is illegal, or a lookahead/behind replacement
+     * is used with anything other than all instances
+     */
+    public static CompiledReplace compileReplace(String regex,
+            String replacement,
+            ReplaceOptions instanceOption) throws Exception {
+        return new CompiledReplace(regex, replacement, instanceOption);
+    }
+    
+    /**
+     * A pattern and replacement compiled once, along with which matches of a
+     * value (first, middle, last) are replaced. Immutable, so may be applied
+     * from several threads at once.
+     */
+    public static final class CompiledReplace {
+        private final Pattern pattern;
+        private final String replacement;
+        private final boolean all;
+        private final boolean replaceFirst;
+        private final boolean replaceMiddle;
+        private final boolean replaceLast;
+        
+        private CompiledReplace(String regex, String _replacement, ReplaceOptions instanceOption) throws Exception {
+            if (instanceOption != ReplaceOptions.All && PGTUtil.regexContainsLookaheadOrBehind(_replacement)) {
                 throw new Exception("Replacement patterns with lookahead or lookbehind patterns\nmust use \"All Instances\" option.");
             }
-
-            // break string into segments
-            Pattern p = Pattern.compile(regex);
-            Matcher m = p.matcher(value);
-
-            int lastIndexMatch = 0;
-
+            
+            pattern = Pattern.compile(regex);
+            replacement = _replacement;
+            all = instanceOption == ReplaceOptions.All;
+            replaceFirst = instanceOption == ReplaceOptions.FirstAndMiddleInstances
+                    || instanceOption == ReplaceOptions.FirstInstanceOnly;
+            replaceMiddle = instanceOption == ReplaceOptions.FirstAndMiddleInstances
+                    || instanceOption == ReplaceOptions.MiddleAndLastInsances
+                    || instanceOption == ReplaceOptions.MiddleInstancesOnly;
+            replaceLast = instanceOption == ReplaceOptions.MiddleAndLastInsances
+                    || instanceOption == ReplaceOptions.LastInsanceOnly;
+        }
+        
+        /**
+         * @param value value to transform
+         * @return value with selected matches replaced
+         */
+        public String apply(String value) {
+            if (all) {
+                return pattern.matcher(value).replaceAll(replacement);
+            }
+            
+            // find all matches first: whether one is the last is not known until then
+            List<int[]> matches = new ArrayList<>();
+            Matcher m = pattern.matcher(value);
+            
             while (m.find()) {
-                segments.add(value.substring(lastIndexMatch, m.start()));
-                segments.add(m.group());
-                lastIndexMatch = m.end();
+                matches.add(new int[]{m.start(), m.end()});
             }
-
-            // add segments past last match
-            segments.add(value.substring(lastIndexMatch));
-
-            for (int i = 0; i < segments.size(); i++) {
-                // only non transformational segments will have even indicies
-                if (i % 2 == 0) {
-                    newVal += segments.get(i);
-                    continue;
-                }
-
-                boolean isFirst = i == 1;
-                boolean isMiddle = i > 1 && i < segments.size() - 2; // -2 accounts for possibility of segment after last match
-                boolean isLast = i == segments.size() - 2;
-
-                if (isFirst && (instanceOption == ReplaceOptions.FirstAndMiddleInstances
-                        || instanceOption == ReplaceOptions.FirstInstanceOnly)
-                        || isMiddle && (instanceOption == ReplaceOptions.FirstAndMiddleInstances
-                        || instanceOption == ReplaceOptions.MiddleAndLastInsances
-                        || instanceOption == ReplaceOptions.MiddleInstancesOnly)
-                        || isLast && (instanceOption == ReplaceOptions.MiddleAndLastInsances
-                        || instanceOption == ReplaceOptions.LastInsanceOnly)) {
-                    newVal += segments.get(i).replaceAll(regex, replacement);
+            
+            if (matches.isEmpty()) {
+                return value;
+            }
+            
+            StringBuilder newVal = new StringBuilder(value.length());
+            int lastIndexMatch = 0;
+            
+            for (int i = 0; i < matches.size(); i++) {
+                int[] match = matches.get(i);
+                String segment = value.substring(match[0], match[1]);
+                boolean isFirst = i == 0;
+                boolean isLast = i == matches.size() - 1;
+                boolean isMiddle = !isFirst && !isLast;
+                
+                newVal.append(value, lastIndexMatch, match[0]);
+                
+                if (isFirst && replaceFirst || isMiddle && replaceMiddle || isLast && replaceLast) {
+                    newVal.append(pattern.matcher(segment).replaceAll(replacement));
                 } else {
-                    newVal += segments.get(i);
+                    newVal.append(segment);
                 }
+                
+                lastIndexMatch = match[1];
             }
+            
+            newVal.append(value, lastIndexMatch, value.length());
+            
+            return newVal.toString();
         }
-
-        return newVal;
     }
 
     /**
@@ -24,14 +24,16 @@ import ChatGPTInterface.GPTException;
 import ChatGPTInterface.PChatGptInterface;
 import java.awt.Component;
 import java.awt.Cursor;
-import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.regex.Pattern;
 import javax.swing.BoxLayout;
 import javax.swing.JComponent;
+import javax.swing.SwingUtilities;
 import javax.swing.text.BadLocationException;
 import javax.swing.text.MutableAttributeSet;
 import javax.swing.text.SimpleAttributeSet;
@@ -143,26 +145,53 @@ public class ScrChatGptTranslator extends PFrame {
         }
     }
     
+    /**
+     * Starts translation in the background. Partial translations are shown as
+     * they stream in, with the complete translation replacing them at the end.
+     */
     private void translateText() {
-        try {
-            var grammarSections = new ArrayList<GrammarSectionNode>();
-            
-            for (var checkBox : grammarCheckboxes) {
-                if (checkBox.isSelected()) {
-                    grammarSections.add(checkBox.getGrammarSection());
-                }
+        var grammarSections = new ArrayList<GrammarSectionNode>();
+
+        for (var checkBox : grammarCheckboxes) {
+            if (checkBox.isSelected()) {
+                grammarSections.add(checkBox.getGrammarSection());
             }
-            
-            String result = gpt.getTranslate(
-                    WebInterface.getTextFromHtml(txtFrom.getText()), 
-                    grammarSections, 
-                    cmbModelSelection.getSelectedItem().toString()
-            );
+        }
 
+        // only latest partial is shown: others arriving before it is drawn are skipped
+        var pendingPartial = new AtomicReference<String>();
+        
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        btnTranslate.setEnabled(false);
+        txtTranslated.setText("");
+        
+        gpt.getTranslateAsync(
+                WebInterface.getTextFromHtml(txtFrom.getText()), 
+                grammarSections, 
+                cmbModelSelection.getSelectedItem().toString(),
+                (partial) -> {
+                    if (pendingPartial.getAndSet(partial) == null) {
+                        SwingUtilities.invokeLater(() -> showTranslation(pendingPartial.getAndSet(null)));
+                    }
+                }
+        ).whenComplete((result, error) -> SwingUtilities.invokeLater(() -> {
+            setCursor(Cursor.getDefaultCursor());
+            btnTranslate.setEnabled(true);
+            
+            if (error == null) {
+                pendingPartial.set(null);
+                showTranslation(result);
+            } else {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                new DesktopInfoBox(this).error("Translation error", "Error: " + cause.getLocalizedMessage());
+            }
+        }));
+    }
+    
+    private void showTranslation(String text) {
+        if (text != null) {
             txtTranslated.setText("");
-            addFormattedText(result);
-        } catch (IOException | GPTException e) {
-            new DesktopInfoBox(this).error("Translation error", "Error: " + e.getLocalizedMessage());
+            addFormattedText(text);
         }
     }
     
@@ -397,14 +426,7 @@ public class ScrChatGptTranslator extends PFrame {
     }// </editor-fold>//GEN-END:initComponents
 
     private void btnTranslateActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnTranslateActionPerformed
-        try {
-            setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
-            btnTranslate.setEnabled(false);
-            translateText();
-        } finally {
-            setCursor(Cursor.getDefaultCursor());
-            btnTranslate.setEnabled(true);
-        }
+        translateText();
     }//GEN-LAST:event_btnTranslateActionPerformed
 
     private void btnSelectAllGrammarActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnSelectAllGrammarActionPerformed
@@ -128,7 +128,8 @@ public class ScrExcelImport extends PDialog {
 
             if (parent != null) {
                 parent.updateAllValues(core);
-                new DesktopInfoBox(this).info("Success!", txtFileName.getText() + " imported successfully!");
+                new DesktopInfoBox(this).info("Success!", txtFileName.getText() + " imported successfully!\n" 
+                        + reader.getRowsImported() + " rows at " + Math.round(reader.getRowsPerSecond()) + " rows/sec");
 
                 // if everything has completed without error, close the window and open Lexicon
                 dispose();
@@ -33,6 +33,7 @@ import org.darisadesigns.polyglotlina.Desktop.CustomControls.PListLexicon;
 import org.darisadesigns.polyglotlina.Desktop.CustomControls.PListModelLexicon;
 import org.darisadesigns.polyglotlina.Desktop.CustomControls.PTextField;
 import org.darisadesigns.polyglotlina.Desktop.CustomControls.PTextPane;
+import org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection;
 import org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection.ConWordDisplay;
 import org.darisadesigns.polyglotlina.Nodes.EtyExternalParent;
 import org.darisadesigns.polyglotlina.Nodes.TypeNode;
@@ -58,8 +59,15 @@ import java.awt.event.WindowListener;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import javafx.application.Platform;
 import javafx.beans.value.ObservableValue;
 import javafx.embed.swing.JFXPanel;
@@ -127,7 +135,15 @@ public final class ScrLexicon extends PFrame {
     private boolean forceUpdate = false;
     private boolean doNotSave = false;
     private boolean quickEntry = false;
-    private Thread filterThread = null;
+    private static final int FILTER_DELAY_MS = 150;
+    private final ScheduledExecutorService filterExecutor = Executors.newSingleThreadScheduledExecutor((Runnable r) -> {
+        Thread filterThread = new Thread(r, "Lexicon Filter");
+        filterThread.setDaemon(true);
+        return filterThread;
+    });
+    private final AtomicInteger filterGeneration = new AtomicInteger();
+    private int publishedGeneration = 0; // generation of filter results last shown (Swing thread only)
+    private Future<?> filterTask = null;
     private final ScrMainMenu menuParent;
     private final PTextField txtRom;
     private boolean enableProcGen = true;
@@ -164,7 +180,7 @@ public final class ScrLexicon extends PFrame {
         txtRom.setToolTipText("Romanized representation of word");
         initComponents();
 
-        lstLexicon.setModel(new PListModelLexicon());
+        lstLexicon.setModel(new PListModelLexicon(core));
 
         performLongRunningSetupTasks();
     }
@@ -254,7 +270,7 @@ public final class ScrLexicon extends PFrame {
             // ensure same value is selected post update
             ConWordDisplay selectedWord = lstLexicon.getSelectedValue();
             
-            lstLexicon.setModel(new PListModelLexicon());
+            lstLexicon.setModel(new PListModelLexicon(core));
             setDefaultValues();
             populateLexicon();
             
@@ -647,28 +663,152 @@ public final class ScrLexicon extends PFrame {
     }
 
     /**
-     * Runs filter on timed thread to avoid overabundance of filters and prevent filtering overlaps. Run this instead of
-     * filterLexicon().
+     * Runs filter on a background worker. Filters requested in quick succession are collapsed into one, and a filter
+     * still running when another is requested is cancelled. Run this instead of filterLexicon(). Must be called from
+     * the JavaFX thread, as filter values are read from the search panel.
      */
     private void runFilter() {
-        if (filterThread != null
-                && filterThread.isAlive()) {
-            filterThread.interrupt();
+        int generation = filterGeneration.incrementAndGet();
+        boolean filterBlank = isFilterBlank();
+        ConWord filter = filterBlank ? null : buildFilter();
+
+        if (filterTask != null) {
+            filterTask.cancel(true);
         }
 
-        filterThread = new Thread(() -> {
-            if (txtConWord.getText().isEmpty()
-                    && lstLexicon.getSelectedIndex() != -1) {
-                return; // prevents freezing scenario if new word made before thread continues
+        setFilterLabel(!filterBlank);
+        gridTitlePane.setExpanded(false);
+        filterTask = filterExecutor.schedule(() -> filterInBackground(generation, filter), 
+                FILTER_DELAY_MS, 
+                TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * Saves the current word and takes a snapshot of the lexicon on the Swing thread, then filters the snapshot,
+     * publishing results back to the Swing thread. Large lexicons publish partial results as they are found.
+     * 
+     * @param generation generation of filter request. Results are discarded if a newer filter has been requested.
+     * @param filter filter to apply (null to show full lexicon)
+     */
+    private void filterInBackground(int generation, ConWord filter) {
+        try {
+            ConWordCollection wordCollection = core.getWordCollection();
+            AtomicReference<List<ConWord>> snapshot = new AtomicReference<>();
+            
+            SwingUtilities.invokeAndWait(() -> {
+                // prevents freezing scenario if new word made before filter runs
+                if (!curPopulating
+                        && (!txtConWord.getText().isEmpty() || lstLexicon.getSelectedIndex() == -1)) {
+                    saveValuesTo(getCurrentWord());
+                    // the lexicon is only modified on this thread, so the snapshot is consistent
+                    snapshot.set(wordCollection.getWordNodesList());
+                }
+            });
+            
+            if (snapshot.get() == null) {
+                return;
+            }
+            
+            List<ConWord> results;
+            
+            if (filter == null) {
+                results = wordCollection.toDisplayOrder(snapshot.get().toArray(ConWord[]::new));
+            } else {
+                results = wordCollection.toDisplayOrder(wordCollection.filteredList(filter, snapshot.get(), 
+                        (ConWord[] partial) -> publishFilterResults(generation, wordCollection.toDisplayOrder(partial), false)));
+            }
+            
+            publishFilterResults(generation, results, true);
+        } catch (InterruptedException e) {
+            // superseded by a newer filter
+        } catch (Exception e) {
+            DesktopIOHandler.getInstance().writeErrorLog(e);
+            SwingUtilities.invokeLater(() -> {
+                core.getOSHandler().getInfoBox().error("Filter Error", "Unable to apply filter.\n\n" + e.getMessage());
+            });
+        }
+    }
+    
+    /**
+     * Displays filter results, provided no newer filter has been requested since they were generated. The first
+     * results of a filter select the top word; a word the user selects while more results are found stays selected.
+     * 
+     * @param generation generation of filter request results belong to
+     * @param results filtered words
+     * @param complete whether these are final results (rather than partial)
+     */
+    private void publishFilterResults(int generation, List<ConWord> results, boolean complete) {
+        SwingUtilities.invokeLater(() -> {
+            if (generation != filterGeneration.get()) {
+                return;
+            }
+            
+            ConWord selected = generation == publishedGeneration ? getCurrentWord() : null;
+            publishedGeneration = generation;
+            
+            if (selected == null) {
+                populateLexicon(results);
+                lstLexicon.setSelectedIndex(0);
+                lstLexicon.ensureIndexIsVisible(0);
+            } else {
+                // rows shift as results arrive, so edits are saved first and not saved again on reselection
+                boolean localPopulating = curPopulating;
+                saveValuesTo(selected);
+                curPopulating = true;
+                populateLexicon(results);
+                int index = Math.max(((PListModelLexicon) lstLexicon.getModel()).indexOf(selected), 0);
+                lstLexicon.setSelectedIndex(index);
+                lstLexicon.ensureIndexIsVisible(index);
+                curPopulating = localPopulating;
+            }
+            
+            if (complete) {
+                populateProperties();
             }
-            filterLexicon();
-            lstLexicon.setSelectedIndex(0);
-            lstLexicon.ensureIndexIsVisible(0);
-            populateProperties();
         });
+    }
+    
+    /**
+     * Builds filter word from values in search panel
+     * 
+     * @return filter word
+     */
+    private ConWord buildFilter() {
+        int posFilter;
 
-        Platform.runLater(filterThread);
-        gridTitlePane.setExpanded(false);
+        if (cmbTypeSrc.getValue().equals(defTypeValue)) {
+            posFilter = 0;
+        } else if (cmbTypeSrc.getValue() instanceof TypeNode typeNode){
+            posFilter = typeNode.getId();
+        } else {
+            posFilter = 0;
+        }
+        
+        ConWord filter = new ConWord();
+
+        filter.setValue(txtConSrc.getText().trim());
+        filter.setDefinition(txtDefSrc.getText().trim());
+        filter.setLocalWord(txtLocalSrc.getText().trim());
+        filter.setWordTypeId(posFilter);
+        filter.setPronunciation(txtProcSrc.getText().trim());
+        filter.setFilterEtyParent(cmbRootSrc.getValue());
+        
+        return filter;
+    }
+    
+    /**
+     * Sets search panel's title to reflect whether a filter is active
+     * 
+     * @param active whether filter is active
+     */
+    private void setFilterLabel(boolean active) {
+        if (active) {
+            gridTitlePane.setTooltip(new Tooltip(FILTER_LABEL + " ACTIVE"));
+            gridTitlePane.setTextFill(javafx.scene.paint.Color.BLUEVIOLET);
+        } else {
+            gridTitlePane.setTooltip(new Tooltip(FILTER_LABEL));
+            gridTitlePane.setTextFill(javafx.scene.paint.Color.BLACK);
+        }
     }
     
     /**
@@ -724,16 +864,6 @@ public final class ScrLexicon extends PFrame {
         if (curPopulating) {
             return;
         }
-
-        int posFilter;
-
-        if (cmbTypeSrc.getValue().equals(defTypeValue)) {
-            posFilter = 0;
-        } else if (cmbTypeSrc.getValue() instanceof TypeNode typeNode){
-            posFilter = typeNode.getId();
-        } else {
-            posFilter = 0;
-        }
         
         saveValuesTo(getCurrentWord());
 
@@ -742,8 +872,7 @@ public final class ScrLexicon extends PFrame {
             lstLexicon.setSelectedIndex(0);
             lstLexicon.ensureIndexIsVisible(0);
             
-            gridTitlePane.setTooltip(new Tooltip(FILTER_LABEL));
-            gridTitlePane.setTextFill(javafx.scene.paint.Color.BLACK);
+            setFilterLabel(false);
 
             // refresh lexicon if it was already filtered. Do nothing otherwise
             if (lstLexicon.getModel().getSize() < core.getWordCollection().getWordCount()) {
@@ -755,17 +884,9 @@ public final class ScrLexicon extends PFrame {
             }
         }
         
-        gridTitlePane.setTooltip(new Tooltip(FILTER_LABEL + " ACTIVE"));
-        gridTitlePane.setTextFill(javafx.scene.paint.Color.BLUEVIOLET);
-
-        ConWord filter = new ConWord();
+        setFilterLabel(true);
 
-        filter.setValue(txtConSrc.getText().trim());
-        filter.setDefinition(txtDefSrc.getText().trim());
-        filter.setLocalWord(txtLocalSrc.getText().trim());
-        filter.setWordTypeId(posFilter);
-        filter.setPronunciation(txtProcSrc.getText().trim());
-        filter.setFilterEtyParent(cmbRootSrc.getValue());
+        ConWord filter = buildFilter();
 
         // save word before applying filter
         ConWord curWord = getCurrentWord();
@@ -774,7 +895,7 @@ public final class ScrLexicon extends PFrame {
         }
 
         try {
-            populateLexicon(core.getWordCollection().toDisplayList(
+            populateLexicon(core.getWordCollection().toDisplayOrder(
                     core.getWordCollection().filteredList(filter)));
         } catch (Exception e) {
             DesktopIOHandler.getInstance().writeErrorLog(e);
@@ -1090,7 +1211,7 @@ public final class ScrLexicon extends PFrame {
         cmbRootSrc.setDisable(chkFindBad.isSelected());
 
         if (chkFindBad.isSelected()) {
-            populateLexicon(core.getWordCollection().toDisplayList(
+            populateLexicon(core.getWordCollection().toDisplayOrder(
                     core.getWordCollection().illegalFilter()));
         } else {
             populateLexicon();
@@ -1106,6 +1227,7 @@ public final class ScrLexicon extends PFrame {
             if (formConstructor != null && !formConstructor.isDisposed()) {
                 formConstructor.dispose();
             }
+            filterExecutor.shutdownNow();
             super.dispose();
         }
     }
@@ -1453,24 +1575,24 @@ public final class ScrLexicon extends PFrame {
      * populates lexicon list with all words from core
      */
     private void populateLexicon() {
-        populateLexicon(core.getWordCollection().getWordNodesDisplay());
+        populateLexicon(core.getWordCollection().toDisplayOrder(core.getWordCollection().getWordNodes()));
     }
 
     /**
-     * populates lexicon list with given iterator
+     * populates lexicon list with given words. Rows unchanged from the current list are left as they are.
      */
-    private void populateLexicon(ConWordDisplay[] wordList) {
+    private void populateLexicon(List<ConWord> wordList) {
         boolean localPopulating = curPopulating;
         curPopulating = true;
 
         try {
-            PListModelLexicon listModel = new PListModelLexicon();
-            
-            for (ConWordDisplay conWord : wordList) {
-                listModel.addElement(conWord);
+            if (lstLexicon.getModel() instanceof PListModelLexicon listModel) {
+                listModel.setWords(wordList);
+            } else {
+                PListModelLexicon listModel = new PListModelLexicon(core);
+                listModel.setWords(wordList);
+                lstLexicon.setModel(listModel);
             }
-
-            lstLexicon.setModel(listModel);
         } catch (Exception e) {
             DesktopIOHandler.getInstance().writeErrorLog(e);
             core.getOSHandler().getInfoBox().error("Error", "Error: " + e.getLocalizedMessage());
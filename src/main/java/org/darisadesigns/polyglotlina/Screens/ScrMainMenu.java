@@ -2284,7 +2284,7 @@ public final class ScrMainMenu extends PFrame {
                 }
 
                 try {
-                    int wordCount = core.getWordCollection().getWordCount();
+                    int wordCount = core.getWordCollection().getLanguageStatsPendingCount();
                     ScrProgressMenu progress = ScrProgressMenu.createScrProgressMenu("Generating Language Stats", wordCount + 5, true, true);
                     progress.setVisible(true);
 
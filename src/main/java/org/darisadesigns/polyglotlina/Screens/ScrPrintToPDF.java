@@ -26,6 +26,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Map;
 import javax.swing.DefaultListModel;
 import javax.swing.JCheckBox;
 import javax.swing.JFileChooser;
@@ -547,7 +548,7 @@ public class ScrPrintToPDF extends PDialog {
                 new DesktopInfoBox(this).warning("Etymology Problem", message);
             }
             
-            NonModularBridge.exportPdf(txtSavePath.getText(), 
+            Map<String, Long> timings = NonModularBridge.exportPdf(txtSavePath.getText(), 
                     txtImageLocation.getText(), 
                     ((PTextPane)txtForeword).getNakedText(), 
                     chkConLocal.isSelected(), 
@@ -565,7 +566,8 @@ public class ScrPrintToPDF extends PDialog {
                     core);
 
             if (Desktop.isDesktopSupported()) {
-                if (new DesktopInfoBox(this).yesNoCancel("Print Success", "PDF successfully printed. Open file now?") 
+                if (new DesktopInfoBox(this).yesNoCancel("Print Success", "PDF successfully printed." 
+                        + getTimingReport(timings) + " Open file now?") 
                         == JOptionPane.YES_OPTION) {
                     if (!DesktopIOHandler.getInstance().openFileNativeOS(txtSavePath.getText())) {
                         core.getOSHandler().getInfoBox().error("File Error", 
@@ -574,7 +576,7 @@ public class ScrPrintToPDF extends PDialog {
                 }
             } else {
                 core.getOSHandler().getInfoBox().info("Print Success", 
-                        "Successfully printed to " + txtSavePath.getText());
+                        "Successfully printed to " + txtSavePath.getText() + getTimingReport(timings));
             }
             
             this.dispose();
@@ -586,6 +588,25 @@ public class ScrPrintToPDF extends PDialog {
         }
     }//GEN-LAST:event_btnPrintActionPerformed
 
+    /**
+     * Builds per stage timing breakdown of a print. Only shown in dev mode.
+     * @param timings elapsed milliseconds per stage
+     * @return breakdown text, or empty string outside of dev mode
+     */
+    private String getTimingReport(Map<String, Long> timings) {
+        if (!PGTUtil.IS_DEV_MODE) {
+            return "";
+        }
+        
+        StringBuilder report = new StringBuilder("\n");
+        
+        for (Map.Entry<String, Long> timing : timings.entrySet()) {
+            report.append("\n").append(timing.getKey()).append(": ").append(timing.getValue()).append("ms");
+        }
+        
+        return report.append("\n").toString();
+    }
+
     private void btnSelectImagePathActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnSelectImagePathActionPerformed
         JFileChooser chooser = new JFileChooser();
         chooser.setDialogTitle("Select Logograph Image");
@@ -31,9 +31,9 @@ import javax.swing.SwingUtilities;
 public final class ScrProgressMenu extends javax.swing.JDialog implements PLanguageStatsProgress {
 
     private final int taskLength;
-    private int progress;
-    private String displayTextValue;
-    private boolean isDisposed;
+    private volatile int progress;
+    private volatile String displayTextValue;
+    private volatile boolean isDisposed;
     private final boolean closeOnComplete;
 
     /**
@@ -110,18 +110,28 @@ public final class ScrProgressMenu extends javax.swing.JDialog implements PLangu
     }
     
     public void iterateTask() {
-        progress++;
+        SwingUtilities.invokeLater(() -> progress++);
     }
     
     @Override
     public void iterateTask(String textUpdate) {
-        iterateTask();
-        displayTextValue += "\n" + textUpdate;
-        
+        iterateTasks(1, textUpdate);
+    }
+    
+    /**
+     * Updates are applied on the event dispatch thread, so callers on any
+     * thread are kept in order without locking
+     */
+    @Override
+    public void iterateTasks(int steps, String textUpdate) {
+        SwingUtilities.invokeLater(() -> {
+            progress += steps;
+            displayTextValue += "\n" + textUpdate;
+        });
     }
     
     public void setTaskProgress(int _progress) {
-        progress = _progress;
+        SwingUtilities.invokeLater(() -> progress = _progress);
     }
     
     public int getProgress() {
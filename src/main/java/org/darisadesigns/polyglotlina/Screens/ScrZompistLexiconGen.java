@@ -32,7 +32,10 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import javax.swing.DefaultComboBoxModel;
 import javax.swing.DefaultListModel;
 import javax.swing.JComponent;
@@ -43,6 +46,7 @@ import javax.swing.event.ChangeEvent;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
 import javax.swing.event.TableModelEvent;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import javax.swing.text.PlainDocument;
 import org.darisadesigns.polyglotlina.Desktop.CustomControls.DesktopInfoBox;
@@ -72,9 +76,14 @@ import org.darisadesigns.polyglotlina.ZompistVocabGenerator;
  * @author draque
  */
 public class ScrZompistLexiconGen extends PFrame {
+    // more rows than this make the results table unusable
+    private static final int TABLE_ROW_CAP = 100000;
+    private static final int SYLLABLE_BATCH_SIZE = 10000;
     
     private int curDefaults = 0;
     private boolean isWordImport = true;
+    // generator behind a syllable table cut short by the row cap (null if table holds every syllable)
+    private ZompistVocabGenerator cappedSyllableGenerator = null;
 
     public ScrZompistLexiconGen(DictCore _core) {
         super(_core);
@@ -97,6 +106,7 @@ public class ScrZompistLexiconGen extends PFrame {
         
         txtCategories.setFont(conFont);
         txtGenerationNum.setFont(localFont);
+        txtSeed.setFont(localFont);
         txtRewriteRules.setFont(conFont);
         txtSyllableTypes.setFont(conFont);
         txtIllegalClusters.setFont(conFont);
@@ -108,6 +118,7 @@ public class ScrZompistLexiconGen extends PFrame {
         setDropoffLabel();
         setMonosyllableLabel();
         tableValuesUpdated();
+        btnExportSyllables.setEnabled(rdoGenSyllables.isSelected());
         
         ((PlainDocument) txtGenerationNum.getDocument())
                 .setDocumentFilter(new PTextFieldFilter());
@@ -481,6 +492,8 @@ public class ScrZompistLexiconGen extends PFrame {
         sldDropoff.setEnabled(enable);
         sldMonoSyllables.setEnabled(enable);
         txtGenerationNum.setEnabled(enable);
+        txtSeed.setEnabled(enable);
+        btnExportSyllables.setEnabled(!enable);
     }
     
     private void loadSwadesh (BufferedInputStream bs) throws IOException {
@@ -519,7 +532,14 @@ public class ScrZompistLexiconGen extends PFrame {
         try {
             String[] columns = {"Generated Words"};
             var model = new DefaultTableModel(columns, 0);
-            var words = getGenerator().genWords(Integer.parseInt(txtGenerationNum.getText()));
+            var generator = getGenerator();
+            var words = generator.genWords(Integer.parseInt(txtGenerationNum.getText()));
+            showLastSeed(generator);
+            
+            if (generator.isCapReached()) {
+                new DesktopInfoBox().warning("Long Process", "Only the first " + words.length + " words were generated.\n"
+                        + "Generate and import in smaller batches for more.");
+            }
 
             for (var word : words) {
                 String[] column = {word};
@@ -555,7 +575,16 @@ public class ScrZompistLexiconGen extends PFrame {
         try {
             String[] columns = {"Generated Syllables"};
             var model = new DefaultTableModel(columns, 0);
-            var syllables = getGenerator().genAllSyllables();
+            var generator = getGenerator();
+            var syllables = generator.genAllSyllables();
+            
+            if (generator.isCapReached()) {
+                cappedSyllableGenerator = generator;
+                new DesktopInfoBox().warning("Long Process", "Only the first " + syllables.length + " values are shown.\n"
+                        + "Importing or exporting syllables will still use every value.");
+            } else {
+                cappedSyllableGenerator = null;
+            }
 
             for (var syllable : syllables) {
                 String[] column = {syllable};
@@ -590,10 +619,29 @@ public class ScrZompistLexiconGen extends PFrame {
         txtItemCount.setText(Integer.toString(tblGeneratedValues.getModel().getRowCount()));
     }
     
+    /**
+     * Shows seed of last run in the seed field's placeholder, so it can be
+     * typed back in to repeat the run
+     */
+    private void showLastSeed(ZompistVocabGenerator generator) {
+        ((PTextField)txtSeed).setDefaultValue("Seed: " + generator.getLastSeed());
+        txtSeed.repaint();
+    }
+    
     private ZompistVocabGenerator getGenerator() throws Exception {
         int monoSylVal = sldMonoSyllables.getValue() == 85 ? 0 : sldMonoSyllables.getValue();
+        String seedText = txtSeed.getText().trim();
+        Long seed = null;
+        
+        if (!seedText.isEmpty()) {
+            try {
+                seed = Long.valueOf(seedText);
+            } catch (NumberFormatException e) {
+                throw new Exception("Seed must be a whole number (or blank for a random seed).", e);
+            }
+        }
 
-        return new ZompistVocabGenerator(
+        var generator = new ZompistVocabGenerator(
                 chkSlowSyllableDropoff.isSelected(),
                 chkShowSyllables.isSelected(),
                 ((float)monoSylVal)/100, 
@@ -601,9 +649,12 @@ public class ScrZompistLexiconGen extends PFrame {
                 txtCategories.getText(),
                 txtSyllableTypes.getText(),
                 txtRewriteRules.getText(),
-                txtIllegalClusters.getText(),
-                core.getOSHandler()
+                txtIllegalClusters.getText()
         );
+        generator.setSeed(seed);
+        generator.setResultCap(TABLE_ROW_CAP);
+        
+        return generator;
     }
     
     private void populateSwadeshList() {
@@ -826,6 +877,66 @@ public class ScrZompistLexiconGen extends PFrame {
         btnHelp.setEnabled(enable);
         btnIpa.setEnabled(enable);
         btnSampleText.setEnabled(enable);
+        btnExportSyllables.setEnabled(enable && rdoGenSyllables.isSelected());
+    }
+    
+    /**
+     * Writes every syllable the current settings allow to a text file, one
+     * per line. Syllables are streamed to the file in batches rather than
+     * held, so there is no limit on how many may be written.
+     */
+    private void exportSyllables() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setDialogTitle("Export Syllables");
+        chooser.setFileFilter(new FileNameExtensionFilter("Text Files", "txt"));
+        chooser.setApproveButtonText("Save");
+        
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        String fileName = chooser.getSelectedFile().getAbsolutePath();
+        
+        if (!fileName.endsWith(".txt")) {
+            fileName += ".txt";
+        }
+        
+        File exportFile = new File(fileName);
+        
+        if (exportFile.exists() && !new DesktopInfoBox(this).actionConfirmation("Overwrite File?",
+                "File with this name and location already exists. Continue/Overwrite?")) {
+            return;
+        }
+        
+        pnlTop.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        
+        try (Writer out = Files.newBufferedWriter(exportFile.toPath(), StandardCharsets.UTF_8)) {
+            var generator = getGenerator();
+            long[] count = {0};
+            
+            generator.streamAllSyllables(SYLLABLE_BATCH_SIZE, (batch) -> {
+                try {
+                    for (String syllable : batch) {
+                        out.write(syllable);
+                        out.write(System.lineSeparator());
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                
+                count[0] += batch.size();
+            });
+            
+            new DesktopInfoBox(this).info("Export Status", "Exported " + count[0] + " syllables to " + fileName + ".");
+        } catch (UncheckedIOException e) {
+            DesktopIOHandler.getInstance().writeErrorLog(e.getCause());
+            new DesktopInfoBox(this).error("Export Error", "Unable to export syllables:\n" + e.getCause().getLocalizedMessage());
+        } catch (Exception e) {
+            DesktopIOHandler.getInstance().writeErrorLog(e);
+            new DesktopInfoBox(this).error("Export Error", "Unable to export syllables:\n" + e.getLocalizedMessage());
+        } finally {
+            pnlTop.setCursor(Cursor.getDefaultCursor());
+        }
     }
     
     private void importValues() {
@@ -877,21 +988,30 @@ public class ScrZompistLexiconGen extends PFrame {
             return;
         }
         
-        var choice = new DesktopInfoBox(this).yesNoCancel("Import Syllables?", "Import " + valueCount + " syllables into your language?\n" 
+        String countText = cappedSyllableGenerator == null ? Integer.toString(valueCount) : "all generated";
+        var choice = new DesktopInfoBox(this).yesNoCancel("Import Syllables?", "Import " + countText + " syllables into your language?\n" 
                 + "This will populate syllable composition and enable the feature when generating pronunciations.");
         
         if (choice == JOptionPane.YES_OPTION) {
             var procMan = core.getPronunciationMgr();
-            var model = tblGeneratedValues.getModel();
-            var rowCount = model.getRowCount();
 
             procMan.clearSyllables();
             procMan.setSyllableCompositionEnabled(true);
-            for (int i = 0; i < rowCount; i++) {
-                procMan.addSyllable((String)model.getValueAt(i, 0));
+            
+            if (cappedSyllableGenerator == null) {
+                var model = tblGeneratedValues.getModel();
+                
+                for (int i = 0; i < valueCount; i++) {
+                    procMan.addSyllable((String)model.getValueAt(i, 0));
+                }
+            } else {
+                // the table holds only the first values, so all are streamed straight from the generator
+                cappedSyllableGenerator.streamAllSyllables(SYLLABLE_BATCH_SIZE, (batch) -> {
+                    batch.forEach(procMan::addSyllable);
+                });
             }
 
-            new DesktopInfoBox().info("Syllable Import", "Imported " + rowCount
+            new DesktopInfoBox().info("Syllable Import", "Imported " + procMan.getSyllables().length
                     + " syllable values. Syllable composition in pronunciation generation activated.");
         }
     }
@@ -937,6 +1057,7 @@ public class ScrZompistLexiconGen extends PFrame {
         lblMonoSyllables = new PLabel();
         sldMonoSyllables = new javax.swing.JSlider();
         txtGenerationNum = new PTextField("Target", core);
+        txtSeed = new PTextField("Seed", core);
         jPanel6 = new javax.swing.JPanel();
         btnGenerate = new PButton();
         btnClear = new PButton();
@@ -944,6 +1065,7 @@ public class ScrZompistLexiconGen extends PFrame {
         btnIpa = new PButton();
         btnDefaults = new PButton();
         btnSampleText = new PButton();
+        btnExportSyllables = new PButton();
         jPanel1 = new javax.swing.JPanel();
         jScrollPane1 = new javax.swing.JScrollPane();
         txtSyllableTypes = new javax.swing.JTextArea();
@@ -1206,6 +1328,8 @@ public class ScrZompistLexiconGen extends PFrame {
 
         txtGenerationNum.setToolTipText("Target number of words to generate");
 
+        txtSeed.setToolTipText("Seed to reproduce an earlier generation (leave blank for a new random seed)");
+
         btnGenerate.setText("Generate Values");
         btnGenerate.setToolTipText("Generate values below based on your rules");
         btnGenerate.addActionListener(new java.awt.event.ActionListener() {
@@ -1249,6 +1373,14 @@ public class ScrZompistLexiconGen extends PFrame {
             }
         });
 
+        btnExportSyllables.setText("Export Syllables");
+        btnExportSyllables.setToolTipText("Write every syllable the current settings allow to a text file, however many there are");
+        btnExportSyllables.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                btnExportSyllablesActionPerformed(evt);
+            }
+        });
+
         javax.swing.GroupLayout jPanel6Layout = new javax.swing.GroupLayout(jPanel6);
         jPanel6.setLayout(jPanel6Layout);
         jPanel6Layout.setHorizontalGroup(
@@ -1265,6 +1397,8 @@ public class ScrZompistLexiconGen extends PFrame {
                 .addComponent(btnHelp)
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(btnSampleText)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(btnExportSyllables)
                 .addContainerGap(43, Short.MAX_VALUE))
         );
         jPanel6Layout.setVerticalGroup(
@@ -1277,7 +1411,8 @@ public class ScrZompistLexiconGen extends PFrame {
                     .addComponent(btnHelp)
                     .addComponent(btnIpa)
                     .addComponent(btnDefaults)
-                    .addComponent(btnSampleText))
+                    .addComponent(btnSampleText)
+                    .addComponent(btnExportSyllables))
                 .addContainerGap(javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
 
@@ -1293,6 +1428,9 @@ public class ScrZompistLexiconGen extends PFrame {
                         .addGroup(javax.swing.GroupLayout.Alignment.LEADING, jPanel2Layout.createSequentialGroup()
                             .addContainerGap()
                             .addComponent(txtGenerationNum))
+                        .addGroup(javax.swing.GroupLayout.Alignment.LEADING, jPanel2Layout.createSequentialGroup()
+                            .addContainerGap()
+                            .addComponent(txtSeed))
                         .addComponent(chkSlowSyllableDropoff)))
                 .addGap(18, 18, 18)
                 .addComponent(jPanel5, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
@@ -1310,7 +1448,9 @@ public class ScrZompistLexiconGen extends PFrame {
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                         .addComponent(chkSlowSyllableDropoff)
                         .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
-                        .addComponent(txtGenerationNum, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)))
+                        .addComponent(txtGenerationNum, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                        .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
+                        .addComponent(txtSeed, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)))
                 .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(jPanel6, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE))
         );
@@ -1497,7 +1637,9 @@ public class ScrZompistLexiconGen extends PFrame {
     private void btnSampleTextActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnSampleTextActionPerformed
         try {
             var generator = this.getGenerator();
-            new ScrSimpleTextDisplay(core, "Generated Sentences Example", generator.createText(), false)
+            var text = generator.createText();
+            showLastSeed(generator);
+            new ScrSimpleTextDisplay(core, "Generated Sentences Example", text, false)
                     .setVisible(true);
         } catch (Exception e) {
             DesktopIOHandler.getInstance().writeErrorLog(e);
@@ -1505,6 +1647,10 @@ public class ScrZompistLexiconGen extends PFrame {
         }
     }//GEN-LAST:event_btnSampleTextActionPerformed
 
+    private void btnExportSyllablesActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_btnExportSyllablesActionPerformed
+        exportSyllables();
+    }//GEN-LAST:event_btnExportSyllablesActionPerformed
+
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JButton btnAddSwadesh;
     private javax.swing.JButton btnAddWord;
@@ -1514,6 +1660,7 @@ public class ScrZompistLexiconGen extends PFrame {
     private javax.swing.JButton btnDefaults;
     private javax.swing.JButton btnDelSwadesh;
     private javax.swing.JButton btnDelWord;
+    private javax.swing.JButton btnExportSyllables;
     private javax.swing.JButton btnGenerate;
     private javax.swing.JButton btnHelp;
     private javax.swing.JButton btnImport;
@@ -1558,6 +1705,7 @@ public class ScrZompistLexiconGen extends PFrame {
     private javax.swing.JTextField txtGenerationNum;
     private javax.swing.JTextArea txtIllegalClusters;
     private javax.swing.JTextField txtItemCount;
+    private javax.swing.JTextField txtSeed;
     private javax.swing.JTextArea txtRewriteRules;
     private javax.swing.JTextArea txtSyllableTypes;
     // End of variables declaration//GEN-END:variables
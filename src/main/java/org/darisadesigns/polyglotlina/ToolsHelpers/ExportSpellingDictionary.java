@@ -19,12 +19,28 @@
  */
 package org.darisadesigns.polyglotlina.ToolsHelpers;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.ManagersCollections.ConjugationManager;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
@@ -33,9 +49,18 @@ import org.darisadesigns.polyglotlina.PGTUtil;
 
 /**
  * This class exists to export spelling dictionaries from a language.
+ * 
+ * Whole lexicon exports never hold every word form at once. Forms are
+ * generated in parallel, one task per part of speech (words of a part of
+ * speech share declension rules, so are generated on one thread). Each task
+ * writes its forms to temporary files in sorted, duplicate free runs of at
+ * most RUN_SIZE forms, and the runs are then merged straight into the
+ * output file.
  * @author draque
  */
 public class ExportSpellingDictionary {
+    private static final int RUN_SIZE = 50000; // forms sorted in memory per temporary run
+    private static final String HUNSPELL_AFFIX_CONTENTS = "SET UTF-8\n";
     private final DictCore core;
     private final ConjugationManager conjMan;
     private final Set<String> wordSet;
@@ -46,45 +71,202 @@ public class ExportSpellingDictionary {
         wordSet = new HashSet<>();
     }
     
+    /**
+     * Exports every form of every word as a plain, sorted word list (as read
+     * by MS Word and most other spellcheckers)
+     * 
+     * @param targetLocation path of file to write
+     * @throws IOException on read/write error
+     */
     public void ExportSpellingDictionary(String targetLocation) throws IOException {
-        ConWord[] words = core.getWordCollection().getWordNodes();
+        exportAllForms(targetLocation, false);
+        setDicMetadata(targetLocation);
+    }
+    
+    /**
+     * Exports every form of every word as a Hunspell dictionary: a .dic file
+     * headed by its (approximate) word count, and a matching .aff file
+     * alongside it
+     * 
+     * @param dicLocation path of .dic file to write
+     * @throws IOException on read/write error
+     */
+    public void exportHunspell(String dicLocation) throws IOException {
+        String affLocation = dicLocation.endsWith(".dic")
+                ? dicLocation.substring(0, dicLocation.length() - 4) + ".aff"
+                : dicLocation + ".aff";
         
-        populateFromWordArray(words);
-        saveToFile(targetLocation);
+        exportAllForms(dicLocation, true);
+        Files.writeString(Paths.get(affLocation), HUNSPELL_AFFIX_CONTENTS, StandardCharsets.UTF_8);
     }
     
-    private void populateFromWordArray(ConWord[] words) {
-        for (ConWord word : words) {
-            populateFromWord(word);
+    private void exportAllForms(String targetLocation, boolean hunspell) throws IOException {
+        // resolved here: the temp directory depends on the calling thread's stack
+        Path tempDirectory = Files.createDirectories(PGTUtil.getTempDirectory());
+        Map<Integer, List<ConWord>> wordsByType = new LinkedHashMap<>();
+        List<Callable<List<SortedRun>>> tasks = new ArrayList<>();
+        List<SortedRun> runs = new ArrayList<>();
+        
+        for (ConWord word : core.getWordCollection().getAllValues()) {
+            wordsByType.computeIfAbsent(word.getWordTypeId(), k -> new ArrayList<>()).add(word);
+        }
+        
+        for (Map.Entry<Integer, List<ConWord>> entry : wordsByType.entrySet()) {
+            tasks.add(() -> writeSortedRuns(entry.getKey(), entry.getValue(), tempDirectory));
+        }
+        
+        try {
+            ExecutionException failure = null;
+            
+            // collect every task's runs, even after a failure, so all are cleaned up
+            for (Future<List<SortedRun>> typeRuns : ForkJoinPool.commonPool().invokeAll(tasks)) {
+                try {
+                    runs.addAll(typeRuns.get());
+                } catch (ExecutionException e) {
+                    failure = failure == null ? e : failure;
+                }
+            }
+            
+            if (failure != null) {
+                throw failure.getCause() instanceof IOException
+                        ? (IOException)failure.getCause()
+                        : new IOException(failure.getCause());
+            }
+            
+            writeMerged(runs, targetLocation, hunspell);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Spelling dictionary export interrupted.", e);
+        } finally {
+            for (SortedRun run : runs) {
+                Files.deleteIfExists(run.file);
+            }
         }
     }
     
-    public void populateFromWord(ConWord word) {
-        wordSet.add(word.getValue());
+    /**
+     * Generates all forms of words of a single part of speech into sorted runs
+     */
+    private List<SortedRun> writeSortedRuns(int typeId, List<ConWord> words, Path tempDirectory) throws IOException {
+        List<SortedRun> ret = new ArrayList<>();
+        ConjugationPair[] pairs = getUnsuppressedPairs(typeId);
+        Set<String> run = new TreeSet<>();
         
-        addSingletonValues(word);
-        addDimensionalValues(word);  
+        try {
+            for (ConWord word : words) {
+                addForms(word, pairs, false, run);
+                
+                if (run.size() >= RUN_SIZE) {
+                    ret.add(writeRun(run, tempDirectory));
+                    run.clear();
+                }
+            }
+            
+            if (!run.isEmpty()) {
+                ret.add(writeRun(run, tempDirectory));
+            }
+        } catch (IOException e) {
+            for (SortedRun written : ret) {
+                Files.deleteIfExists(written.file);
+            }
+            
+            throw e;
+        }
+        
+        return ret;
     }
     
-    private void addDimensionalValues(ConWord word) {
-        ConjugationPair[] dimensionals = conjMan.getAllCombinedIds(word.getWordTypeId());
-        addValuesByCombId(dimensionals, word);
+    private SortedRun writeRun(Set<String> run, Path tempDirectory) throws IOException {
+        Path file = Files.createTempFile(tempDirectory, "POLYGLOT", ".forms");
+        
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String wordForm : run) {
+                out.write(wordForm);
+                out.write("\n");
+            }
+        }
+        
+        return new SortedRun(file, run.size());
     }
     
-    private void addSingletonValues(ConWord word) {
-        ConjugationPair[] singletons = core.getConjugationManager().getSingletonCombinedIds(word.getWordTypeId());
-        addValuesByCombId(singletons, word);
+    /**
+     * Merges sorted runs into the target file, dropping duplicates between runs
+     */
+    private void writeMerged(List<SortedRun> runs, String targetLocation, boolean hunspell) throws IOException {
+        PriorityQueue<RunReader> readers = new PriorityQueue<>();
+        String lastWritten = null;
+        
+        try (BufferedWriter out = Files.newBufferedWriter(Paths.get(targetLocation), StandardCharsets.UTF_8)) {
+            if (hunspell) {
+                // Hunspell only needs an approximate count, so duplicates between runs may be counted
+                out.write(Long.toString(runs.stream().mapToLong(run -> run.size).sum()));
+                out.write("\n");
+            }
+            
+            for (SortedRun run : runs) {
+                RunReader reader = new RunReader(run.file);
+                
+                if (reader.current == null) {
+                    reader.close();
+                } else {
+                    readers.add(reader);
+                }
+            }
+            
+            while (!readers.isEmpty()) {
+                RunReader reader = readers.poll();
+                String wordForm = reader.current;
+                
+                if (!wordForm.equals(lastWritten)) {
+                    out.write(hunspell ? wordForm.replace("/", "\\/") : wordForm);
+                    out.write("\n");
+                    lastWritten = wordForm;
+                }
+                
+                if (reader.advance()) {
+                    readers.add(reader);
+                } else {
+                    reader.close();
+                }
+            }
+        } finally {
+            for (RunReader reader : readers) {
+                reader.close();
+            }
+        }
     }
     
-    private void addValuesByCombId(ConjugationPair[] conjPairs, ConWord word) {
-        int typeId = word.getWordTypeId();
+    /**
+     * Combined IDs of every form (dimensional and singleton) of a part of
+     * speech, less suppressed forms
+     */
+    private ConjugationPair[] getUnsuppressedPairs(int typeId) {
+        List<ConjugationPair> ret = new ArrayList<>();
         
-        for (ConjugationPair pair : conjPairs) {
-            if (conjMan.isCombinedConjlSurpressed(pair.combinedId, typeId)) {
-                continue;
+        for (ConjugationPair pair : conjMan.getAllCombinedIds(typeId)) {
+            if (!conjMan.isCombinedConjlSurpressed(pair.combinedId, typeId)) {
+                ret.add(pair);
             }
+        }
+        
+        return ret.toArray(new ConjugationPair[0]);
+    }
+    
+    public void populateFromWord(ConWord word) {
+        addForms(word, getUnsuppressedPairs(word.getWordTypeId()), true, wordSet);
+    }
+    
+    private void addForms(ConWord word, ConjugationPair[] pairs, boolean recordDebug, Collection<String> target) {
+        if (!word.getValue().isBlank()) {
+            target.add(word.getValue());
+        }
+        
+        for (ConjugationPair pair : pairs) {
+            String wordForm = word.getWordForm(pair.combinedId, recordDebug);
             
-            wordSet.add(word.getWordForm(pair.combinedId));
+            if (!wordForm.isBlank()) {
+                target.add(wordForm);
+            }
         }
     }
     
@@ -92,14 +274,10 @@ public class ExportSpellingDictionary {
         StringBuilder sb = new StringBuilder();
         
         // ensure consistent ordering
-        List<String> wordList = new ArrayList(wordSet);
+        List<String> wordList = new ArrayList<>(wordSet);
         Collections.sort(wordList);
         
         for (String wordForm : wordList) {
-            if (wordForm.isBlank()) {
-                continue;
-            }
-            
             sb.append(wordForm);
             sb.append("\n");
         }
@@ -110,7 +288,10 @@ public class ExportSpellingDictionary {
     public void saveToFile(String targetLocation) throws IOException {
         String output = getCurrentStringValue();
         core.getOSHandler().getIOHandler().createFileWithContents(targetLocation, output);
-        
+        setDicMetadata(targetLocation);
+    }
+    
+    private void setDicMetadata(String targetLocation) {
         // set wretched metadata on OSX so that MS Word will recognize it...
         if (PGTUtil.IS_OSX) {
             try {
@@ -124,4 +305,41 @@ public class ExportSpellingDictionary {
             }
         }
     }
+    
+    private static final class SortedRun {
+        private final Path file;
+        private final int size;
+        
+        private SortedRun(Path _file, int _size) {
+            file = _file;
+            size = _size;
+        }
+    }
+    
+    /**
+     * Reads a sorted run one form at a time, ordered by its current form
+     */
+    private static final class RunReader implements Comparable<RunReader> {
+        private final BufferedReader reader;
+        private String current;
+        
+        private RunReader(Path file) throws IOException {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+            current = reader.readLine();
+        }
+        
+        private boolean advance() throws IOException {
+            current = reader.readLine();
+            return current != null;
+        }
+        
+        private void close() throws IOException {
+            reader.close();
+        }
+        
+        @Override
+        public int compareTo(RunReader other) {
+            return current.compareTo(other.current);
+        }
+    }
 }
@@ -42,6 +42,10 @@ import org.jsoup.safety.Safelist;
  * @author draque
  */
 public class WebInterface {
+    // archived images are referenced by bare ID, unarchived by file path with an ID_ prefixed name
+    private static final Pattern ARCHIVED_IMAGE = Pattern.compile("(<img src=\"[^>,_]+\">)");
+    private static final Pattern UNARCHIVED_IMAGE = Pattern.compile("(<img src=\"[^>,_]+_[^>]+\">)");
+    private static final Pattern IMAGE_NAME_SUFFIX = Pattern.compile("_.*");
 
     /**
      * Checks for updates to PolyGlot
@@ -100,7 +104,7 @@ public class WebInterface {
             text = text.substring(text.indexOf("<body>"), text.indexOf("</body>") + 7);
         }
         
-        text = text.replaceAll("<p>", "\n").replaceAll("</p>", "").replaceAll("<br>", "\n");
+        text = text.replace("<p>", "\n").replace("</p>", "").replace("<br>", "\n");
         String strWithNewLines = org.jsoup.Jsoup.clean(text, "", Safelist.none(), outputSettings);
         
         return strWithNewLines;
@@ -116,9 +120,7 @@ public class WebInterface {
      * @throws java.lang.Exception
      */
     public static String unarchiveHTML(String html, DictCore core) throws Exception {
-        // pattern for finding archived images
-        Pattern pattern = Pattern.compile("(<img src=\"[^>,_]+\">)");
-        Matcher matcher = pattern.matcher(html);
+        Matcher matcher = ARCHIVED_IMAGE.matcher(html);
 
         while (matcher.find()) {
             String regPath = matcher.group(1);
@@ -147,9 +149,7 @@ public class WebInterface {
      * @return archivable html
      */
     public static String archiveHTML(String html, DictCore core) {
-        // pattern for finding unarchived images
-        Pattern pattern = Pattern.compile("(<img src=\"[^>,_]+_[^>]+\">)");
-        Matcher matcher = pattern.matcher(html);
+        Matcher matcher = UNARCHIVED_IMAGE.matcher(html);
 
         while (matcher.find()) {
             String regPath = matcher.group(1);
@@ -157,7 +157,7 @@ public class WebInterface {
             regPath = regPath.replace("\"", "");
             regPath = regPath.replace(">", "");
             String fileName = core.getOSHandler().ioHandler.getFilenameFromPath(regPath);
-            String arcPath = fileName.replaceFirst("_.*", "");
+            String arcPath = IMAGE_NAME_SUFFIX.matcher(fileName).replaceFirst("");
             html = html.replace("file:///" + regPath, arcPath);
         }
 
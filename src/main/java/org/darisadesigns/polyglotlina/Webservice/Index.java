@@ -28,6 +28,7 @@ import static org.darisadesigns.polyglotlina.Webservice.WebService.GET_IMAGE;
 import static org.darisadesigns.polyglotlina.Webservice.WebService.GET_LOCAL_FONT;
 import static org.darisadesigns.polyglotlina.Webservice.WebService.GET_METADATA;
 import static org.darisadesigns.polyglotlina.Webservice.WebService.GET_SOUND;
+import static org.darisadesigns.polyglotlina.Webservice.WebService.GET_STATS;
 import static org.darisadesigns.polyglotlina.Webservice.WebService.GET_XML;
 import static org.darisadesigns.polyglotlina.Webservice.WebService.REFRESH;
 
@@ -64,6 +65,7 @@ public class Index {
         langOpt += "\n<b>by: " + WebInterface.getTextFromHtml(core.getPropertiesManager().getCopyrightAuthorInfo()) + "</b>";
         langOpt += "\n<ul>";
         langOpt += "\n<li><a href=\"" + GET_METADATA + "?file=" + fileName + "\">" + "Get Language Metadata (JSON)" + "</a></li>";
+        langOpt += "\n<li><a href=\"" + GET_STATS + "?file=" + fileName + "\">" + "Get Language Statistics (JSON)" + "</a></li>";
         langOpt += "\n<li><a href=\"" + GET_FULL_FILE + "?file=" + fileName + "\">" + "Get Full Language File" + "</a></li>";
         langOpt += "\n<li><a href=\"" + GET_CONLANG_FONT + "?file=" + fileName + "\">" + "Get Conlang Font" + "</a></li>";
         langOpt += "\n<li><a href=\"" + GET_LOCAL_FONT + "?file=" + fileName + "\">" + "Get Local Lang Font" + "</a></li>";
@@ -60,6 +60,7 @@ import org.darisadesigns.polyglotlina.WebInterface;
 public class WebService {
     public final static String CONTENT_TYPE = "Content-Type";
     public final static String GET_METADATA = "/metadata";
+    public final static String GET_STATS = "/stats";
     public final static String GET_XML = "/raw_xml";
     public final static String GET_FULL_FILE = "/file";
     public final static String GET_CONLANG_FONT = "/conlang_font";
@@ -219,6 +220,9 @@ public class WebService {
             case GET_METADATA -> {
                 getMetadata(exchange);
             }
+            case GET_STATS -> {
+                getStats(exchange);
+            }
             case GET_FULL_FILE -> {
                 getFullFile(exchange);
             }
@@ -352,6 +356,62 @@ public class WebService {
         }
     }
 
+    /**
+     * Returns language statistics. These are maintained by the lexicon, so
+     * only the first request for a file counts every word.
+     *
+     * @param exchange
+     * @throws PWebServerException
+     * @throws IOException 
+     */
+    private void getStats(HttpExchange exchange) throws PWebServerException, IOException {
+        var params = parseQueryParams(exchange.getRequestURI());
+        var fileName = params.getOrDefault("file", "");
+
+        if (params.size() != 1 || !pgdFiles.containsKey(fileName)) {
+            throw new PWebServerException("Bad Request");
+        }
+        
+        log("Stats for: " + fileName + " requested from: " 
+                + exchange.getRemoteAddress().getAddress().getHostAddress());
+
+        var core = pgdFiles.get(fileName);
+        var counts = core.getWordCollection().getLanguageStats();
+        var alphabet = core.getPropertiesManager().getOrderedAlphaList();
+
+        var objectMapper = new ObjectMapper();
+        var jsonObject = objectMapper.createObjectNode();
+        jsonObject.put("Word Count", counts.getWordCount());
+        
+        var letters = jsonObject.putObject("Letters");
+        for (int i = 0; i < alphabet.length; i++) {
+            var letter = letters.putObject(alphabet[i]);
+            letter.put("Starting", counts.getWordStartCount(i));
+            letter.put("Overall", counts.getLetterCount(i));
+        }
+        
+        var types = jsonObject.putObject("Parts of Speech");
+        for (var entry : counts.getTypeCounts().entrySet()) {
+            if (core.getTypes().exists(entry.getKey())) {
+                types.put(core.getTypes().getNodeById(entry.getKey()).getValue(), entry.getValue());
+            }
+        }
+        
+        if (!core.getPronunciationMgr().isRecurse()) {
+            var phonemes = jsonObject.putObject("Phonemes");
+            for (var node : core.getPronunciationMgr().getPronunciations()) {
+                phonemes.put(node.getPronunciation(), counts.getPhonemeCount(node.getPronunciation()));
+            }
+        }
+        
+        var response = jsonObject.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set(CONTENT_TYPE, getContentType("json"));
+        exchange.sendResponseHeaders(200, response.length);
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(response);
+        }
+    }
+
     private void getFont(HttpExchange exchange, boolean conFont) throws PWebServerException, IOException {
         var params = parseQueryParams(exchange.getRequestURI());
         var fileName = params.getOrDefault("file", "");
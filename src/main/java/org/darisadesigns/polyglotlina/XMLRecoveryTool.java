@@ -19,186 +19,315 @@
  */
 package org.darisadesigns.polyglotlina;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import org.xml.sax.SAXException;
 
 /**
+ * Recovers damaged XML in a single pass. The source is read as a stream of
+ * tags and text by a lenient tokenizer, with a stack of open elements.
+ * Malformed or truncated tags are dropped, and elements left unclosed are
+ * closed on the assumption that they held a simple value (closing after their
+ * text), unless they plainly contained other elements. Each repair is
+ * recorded with the line and column it was made at.
  *
  * @author draque
  */
 public class XMLRecoveryTool {
     
-    private final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-    private final DocumentBuilder builder;
-    private String source;
-    private List<String> outputList;
-    private final List<String> tokenList;
+    private static final String NAME_START = ":A-Z_a-z\\u00C0-\\u00D6\\u00D8-\\u00F6\\u00F8-\\u02FF\\u0370-\\u037D"
+            + "\\u037F-\\u1FFF\\u200C-\\u200D\\u2070-\\u218F\\u2C00-\\u2FEF\\u3001-\\uD7FF\\uF900-\\uFDCF\\uFDF0-\\uFFFD";
+    private static final String NAME = "[" + NAME_START + "][" + NAME_START + "\\-.0-9\\u00B7\\u0300-\\u036F\\u203F-\\u2040]*";
+    private static final Pattern START_TAG = Pattern.compile(
+            "<(" + NAME + ")(?:\\s+" + NAME + "\\s*=\\s*(?:\"[^\"<]*\"|'[^'<]*'))*\\s*(/?)>");
+    private static final Pattern END_TAG = Pattern.compile("</(" + NAME + ")\\s*>");
+    private static final Pattern BARE_AMPERSAND = Pattern.compile("&(?!(?:#[0-9]+|#x[0-9a-fA-F]+|" + NAME + ");)");
     
+    private String source;
+    private final List<String> repairs = new ArrayList<>();
+    private List<String> output;
+    private Map<Integer, List<String>> insertedAfter;
+    private List<OpenElement> openElements;
+    private boolean rootClosed;
+    private int line;
+    private int lineStart;
+    private int scanned;
     
     public XMLRecoveryTool(String _source) throws ParserConfigurationException {
         source = _source;
-        tokenList = new ArrayList<>();
-        builder = factory.newDocumentBuilder();
     }
     
-    public String  recoverXml() {
-        this.cleanTruncatedXml();
-        this.populateTokenList();
-        this.fixMissingTags();
-
+    public String recoverXml() {
+        source = source.trim();
+        output = new ArrayList<>();
+        insertedAfter = new HashMap<>();
+        openElements = new ArrayList<>();
+        rootClosed = false;
+        repairs.clear();
+        line = 1;
+        lineStart = 0;
+        scanned = 0;
+        
+        int pos = 0;
+        
+        while (pos < source.length()) {
+            int end = source.charAt(pos) == '<' ? findTagEnd(pos) : nextTagStart(pos);
+            
+            if (end == -1) {
+                // no end to this tag: the file was cut off
+                repair(pos, "removed truncated tag " + abbreviate(source.substring(pos)));
+                break;
+            }
+            
+            String token = source.substring(pos, end);
+            
+            if (token.startsWith("<")) {
+                readTag(token, pos);
+            } else {
+                readText(token, pos);
+            }
+            
+            pos = end;
+        }
+        
+        // close any remaining unclosed tags in stack
+        for (int i = openElements.size() - 1; i >= 0; i--) {
+            repair(source.length(), "closed unclosed element <" + openElements.get(i).name + ">");
+            output.add("</" + openElements.get(i).name + ">");
+        }
+        
+        openElements.clear();
+        source = joinOutput();
+        
         return source;
     }
     
     /**
-     * If XML ws truncated, discards unreadable portions
+     * @return repairs made by the most recent recovery, each prefixed with
+     * the line and column of the source it was made at
      */
-    private void cleanTruncatedXml() {
-        source = source.trim();
-        
-        // removes partial tags at end of XML
-        source = source.replaceAll("<[^<]*\\Z", "");
+    public List<String> getRepairs() {
+        return new ArrayList<>(repairs);
     }
     
-    private void populateTokenList() {
-        tokenList.clear();
+    /**
+     * Finds the end of the tag at pos
+     * @return index after tag, index of a following '<' if the tag is
+     * malformed, or -1 if the source ends first
+     */
+    private int findTagEnd(int pos) {
+        String terminator = ">";
         
-        String regex = "<[^<]*>|[^<]*"; // fetch encapsulated tags and data
+        if (source.startsWith("<!--", pos)) {
+            terminator = "-->";
+        } else if (source.startsWith("<![CDATA[", pos)) {
+            terminator = "]]>";
+        } else if (source.startsWith("<?", pos)) {
+            terminator = "?>";
+        }
         
-        Pattern p = Pattern.compile(regex);
-        Matcher m = p.matcher(source);
-
-        while (m.find()) {
-            var found = m.group();
+        if (!terminator.equals(">")) {
+            int end = source.indexOf(terminator, pos);
+            return end == -1 ? -1 : end + terminator.length();
+        }
+        
+        for (int i = pos + 1; i < source.length(); i++) {
+            char c = source.charAt(i);
             
-            // test all open/close tags and reject if invalid
-            if (found.startsWith("<") && !testOpenCloseTagValidity(found)) {
-                continue;
+            if (c == '>') {
+                return i + 1;
+            } else if (c == '<') {
+                return i;
             }
-            
-            tokenList.add(found);
         }
+        
+        return -1;
     }
     
-    /**
-     * Tests the validity of opening and closing tags
-     * It does this by testing an empty open/close combo with a DOM parser
-     * @param tag
-     * @return 
-     */
-    private boolean testOpenCloseTagValidity(String tag) {
-        String test;
-        
-        if (tag.startsWith("<?") && tag.endsWith("?>")) { 
-            // processing tags can be ignored as they're weird
-            return true;
-        } else if (tag.startsWith("<") && tag.endsWith("/>")) {
-            // empty tags...
-            test = tag;
+    private int nextTagStart(int pos) {
+        int end = source.indexOf('<', pos);
+        
+        return end == -1 ? source.length() : end;
+    }
+    
+    private void readTag(String tag, int pos) {
+        if (!tag.endsWith(">")) {
+            repair(pos, "dropped malformed tag " + abbreviate(tag));
+        } else if (tag.startsWith("<?") || tag.startsWith("<!")) {
+            // processing instructions, comments, CDATA and doctypes pass through
+            output.add(tag);
         } else if (tag.startsWith("</")) {
-            // pair end tags with start tags...
-            test = tag.replace("</", "<") + tag;
+            readEndTag(tag, pos);
         } else {
-            // pair start tags with end tags...
-            test = tag + tag.replaceAll("<", "</");
+            readStartTag(tag, pos);
+        }
+    }
+    
+    private void readStartTag(String tag, int pos) {
+        Matcher m = START_TAG.matcher(tag);
+        
+        if (!m.matches()) {
+            repair(pos, "dropped malformed tag " + abbreviate(tag));
+            return;
+        }
+        
+        if (rootClosed) {
+            repair(pos, "dropped element after end of document " + abbreviate(tag));
+            return;
         }
         
-        try {
-            builder.parse(new ByteArrayInputStream(test.getBytes(StandardCharsets.UTF_8)));
-        } catch (IOException | SAXException e) {
-            return false;
+        if (!openElements.isEmpty()) {
+            openElements.get(openElements.size() - 1).hasChildren = true;
         }
         
-        return true;
+        output.add(tag);
+        
+        if (m.group(2).isEmpty()) {
+            openElements.add(new OpenElement(m.group(1), output.size() - 1));
+        } else if (openElements.isEmpty()) {
+            rootClosed = true;
+        }
     }
     
-    /**
-     * Fixes errors of simple tags.  
-     * i.e. tags that only contain a value and not other tags inside it
-     */
-    private void fixMissingTags() {
-        List<String> tagStack = new ArrayList<>();
-        outputList = new ArrayList<>();
-        boolean failures = false;
-        String prevNonBlankToken;
+    private void readEndTag(String tag, int pos) {
+        Matcher m = END_TAG.matcher(tag);
         
+        if (!m.matches()) {
+            repair(pos, "dropped malformed tag " + abbreviate(tag));
+            return;
+        }
         
-        // first element is header
-        outputList.add(tokenList.get(0));
-        prevNonBlankToken = tokenList.get(1);
+        String name = m.group(1);
+        int openIndex = lastOpenIndex(name);
         
-        for (int i = 1; i < tokenList.size(); i++) {
-            String tag = tokenList.get(i);
+        if (openIndex == -1) {
+            if (openElements.isEmpty()) {
+                repair(pos, "dropped unmatched closing tag " + tag);
+            } else if (!output.isEmpty() && isValueText(output.get(output.size() - 1))) {
+                // opening tag is missing: wrap the value it closes
+                OpenElement parent = openElements.get(openElements.size() - 1);
+                
+                // the wrapped value is now a child element, not the parent's value
+                parent.hasChildren = true;
+                parent.valueWrapped = true;
+                repair(pos, "added missing opening tag <" + name + ">");
+                insertAfter(output.size() - 2, "<" + name + ">");
+                output.add(tag);
+            } else {
+                // opening tag is missing, with no content for it
+                repair(pos, "added missing opening tag <" + name + "> as empty element");
+                output.add("<" + name + "/>");
+            }
             
-            if (!tag.endsWith("/>") && tag.startsWith("<")) { // ignore empty tags and data
-                if (!tag.startsWith("</")) { // start tags
-                    tagStack.add(tag);
-                } else { // end tags
-                    String startTag = tag.replaceAll("/", "");
-                    
-                    if (!tagStack.isEmpty() && startTag.equals(tagStack.get(tagStack.size() - 1))) {
-                        // tag is closed correctly. Remove from stack
-                        tagStack.remove(tagStack.size() - 1);
-                    } else if (!tagStack.isEmpty() && !tagStack.contains(startTag)) {
-                        // Opening tag is missing
-                        failures = true;
-                        if (prevNonBlankToken.startsWith("<") && prevNonBlankToken.endsWith(">")) {
-                            // Previous token is a tag, no content for this tag (insert "<tag/>")
-                            outputList.add(new StringBuffer(startTag).insert(startTag.length() - 1, "/").toString());
-                        } else {
-                            // Insert opening tag before content
-                            outputList.add(outputList.size() - 1, startTag);
-                            // Also include closing tag
-                            outputList.add(new StringBuffer(startTag).insert(1, "/").toString());
-                        }
-                        continue;
-                    } else { // Either an opening or closing tag is missing. Mark with failures
-                        failures = true;
-
-                        if (tagStack.contains(startTag)) { // if tag stack contains related opening tag, close all tags back up to opener
-                            while (tagStack.contains(startTag)) {
-                                String closer = tagStack.get(tagStack.size() - 1);
-                                // If tag being closed is the current one insert at the end
-                                // Otherwise insert after content of the opening tag
-                                int idx = closer.equals(startTag) ? outputList.size() : outputList.lastIndexOf(closer) + 2;
-                                closer = new StringBuffer(closer).insert(1, "/").toString();
-                                outputList.add(idx, closer);
-                                tagStack.remove(tagStack.size() - 1);
-                            }
-                        } 
-                        
-                        // Tags added to output (or not) as appropriate. Skip addition below via continue.
-                        continue;
-                    }
-                }
+            return;
+        }
+        
+        // close any elements left open inside the one closed here
+        for (int i = openElements.size() - 1; i > openIndex; i--) {
+            OpenElement unclosed = openElements.remove(i);
+            int contentIndex = unclosed.outputIndex + 1;
+            String closer = "</" + unclosed.name + ">";
+            
+            repair(pos, "closed unclosed element <" + unclosed.name + ">");
+            
+            if (!unclosed.valueWrapped && contentIndex < output.size()
+                    && isValueText(output.get(contentIndex))) {
+                // simple value: close after the value
+                insertAfter(contentIndex, closer);
+            } else if (unclosed.hasChildren) {
+                output.add(closer);
+            } else {
+                insertAfter(unclosed.outputIndex, closer);
             }
-            if(!tag.isBlank()) {
-                prevNonBlankToken = tag;
+        }
+        
+        openElements.remove(openIndex);
+        output.add(tag);
+        rootClosed = openElements.isEmpty();
+    }
+    
+    private void readText(String text, int pos) {
+        if (rootClosed && !text.isBlank()) {
+            repair(pos, "dropped text after end of document");
+            return;
+        }
+        
+        Matcher m = BARE_AMPERSAND.matcher(text);
+        
+        if (m.find()) {
+            repair(pos + m.start(), "escaped bare ampersand");
+            text = m.replaceAll("&amp;");
+        }
+        
+        output.add(text);
+    }
+    
+    private int lastOpenIndex(String name) {
+        for (int i = openElements.size() - 1; i >= 0; i--) {
+            if (openElements.get(i).name.equals(name)) {
+                return i;
+            }
+        }
+        
+        return -1;
+    }
+    
+    private static boolean isValueText(String token) {
+        return !token.startsWith("<") && !token.isBlank();
+    }
+    
+    /**
+     * Inserts a value after a given output token (or at the start if -1)
+     */
+    private void insertAfter(int index, String value) {
+        insertedAfter.computeIfAbsent(index, k -> new ArrayList<>()).add(value);
+    }
+    
+    private String joinOutput() {
+        StringBuilder ret = new StringBuilder(source.length() + 64);
+        
+        for (int i = -1; i < output.size(); i++) {
+            if (i != -1) {
+                ret.append(output.get(i));
             }
             
-            outputList.add(tag);
+            for (String inserted : insertedAfter.getOrDefault(i, List.of())) {
+                ret.append(inserted);
+            }
         }
         
-        // close any remaining unclosed tags in stack
-        for (int i = tagStack.size(); i > 0; i--) {
-            String closer = tagStack.get(i - 1);
-            closer = new StringBuffer(closer).insert(1, "/").toString();
-            outputList.add(closer);
+        return ret.toString();
+    }
+    
+    private void repair(int pos, String description) {
+        // line numbers are counted forward only, so the whole source is scanned once
+        for (; scanned < pos && scanned < source.length(); scanned++) {
+            if (source.charAt(scanned) == '\n') {
+                line++;
+                lineStart = scanned + 1;
+            }
         }
-
-        source = String.join("", outputList);
-
-        if (failures) { // if fail state, repopulate tokens and rerun
-            populateTokenList();
-            fixMissingTags();
+        
+        repairs.add("Line " + line + ", column " + (pos - lineStart + 1) + ": " + description);
+    }
+    
+    private static String abbreviate(String tag) {
+        return tag.length() > 40 ? tag.substring(0, 40) + "..." : tag;
+    }
+    
+    private static final class OpenElement {
+        private final String name;
+        private final int outputIndex;
+        private boolean hasChildren = false;
+        private boolean valueWrapped = false;
+        
+        private OpenElement(String _name, int _outputIndex) {
+            name = _name;
+            outputIndex = _outputIndex;
         }
     }
 }
@@ -18,18 +18,37 @@
  */
 package org.darisadesigns.polyglotlina;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import javax.swing.JOptionPane;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Derived from the Zompist Vocab Generator.
  * Original script/algorithm c 2012 Mark Rosenfelder
+ * 
+ * Generation is split into tasks run across a ForkJoinPool. Each task draws
+ * from its own random stream, split in a fixed order from a single seed, and
+ * task results are merged (and duplicates dropped) in task order. Output
+ * therefore depends only on the seed and settings, never on the number of
+ * cores or how tasks happen to be scheduled.
  */
 public class ZompistVocabGenerator {
 
@@ -37,19 +56,23 @@ public class ZompistVocabGenerator {
     private static final int MAX_RECURSE = 30;
     private static final int SENTENCE_GEN_COUNT = 30;
     private static final String PUNCTUATION = ".?!";
+    private static final int WORDS_PER_TASK = 256;
+    public static final int DEFAULT_RESULT_CAP = 1000000;
     private final float monosyllableRarity;
     private final int dropoff;
-    private final String[] rewriteValues;
+    private final RewriteRules rewriteRules;
     private final boolean slowSyllables;
     private final Map<String, List<String>> categories;
     private final String categoryIndex;
     private final String[] userSyllables;
     private final int sylableDropoffRate;
     private final boolean syllableBreaks; // adds dot breaks between sylables  
-    private final Set<String> results = new LinkedHashSet<>();
-    private final String[] illegalClusters;
-    private final OSHandler osHandler;
-    private boolean abort = false;
+    private final IllegalClusters illegalClusters;
+    private Long seed = null;
+    private long lastSeed;
+    private int resultCap = DEFAULT_RESULT_CAP;
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private boolean capReached = false;
     
     /**
      * @param _slowSyllables Slow syllable (default = false)
@@ -63,7 +86,6 @@ public class ZompistVocabGenerator {
      * @param rawSyllables - from text box
      * @param rawRewriteValues - from text box
      * @param rawIllegalClusters -- illegal clusters to disallow from generation
-     * @param _osHandler
      * @throws java.lang.Exception on malformed input
      */
     public ZompistVocabGenerator(
@@ -74,8 +96,7 @@ public class ZompistVocabGenerator {
             String rawCategories,
             String rawSyllables,
             String rawRewriteValues,
-            String rawIllegalClusters,
-            OSHandler _osHandler) throws Exception {
+            String rawIllegalClusters) throws Exception {
         slowSyllables = _slowSyllables;
         syllableBreaks = _syllableBreaks;
         monosyllableRarity = _monosyllableRarity;
@@ -83,60 +104,217 @@ public class ZompistVocabGenerator {
         categories = parseCatrgories(rawCategories);
         categoryIndex = getCategoryIndex();
         userSyllables = rawSyllables.replaceAll(" ", "").split("\n");
-        rewriteValues = rawRewriteValues.replaceAll(" ", "").split("\n");
+        rewriteRules = RewriteRules.compile(rawRewriteValues.replaceAll(" ", ""));
         sylableDropoffRate = getSyllableDropoffRate(slowSyllables, userSyllables.length);
-        illegalClusters = getIllegalClusters(rawIllegalClusters.replace(" ", ""));
-        osHandler = _osHandler;
+        illegalClusters = IllegalClusters.compile(rawIllegalClusters.replace(" ", ""));
 
         if (categories.isEmpty() || userSyllables.length == 0) {
             throw new Exception("You must have both categories and syllables to generate text.");
         }
     }
 
-    public String[] genAllSyllables() {
-        results.clear();
-        for (String syllable : userSyllables) {
-            if (abort) {
-                return new String[0];
+    /**
+     * Sets seed generation is drawn from. The same seed and settings always
+     * give the same output.
+     * 
+     * @param _seed seed, or null to pick a new random seed for each run
+     */
+    public void setSeed(Long _seed) {
+        seed = _seed;
+    }
+    
+    /**
+     * @return seed used by the most recent run (to reproduce it later)
+     */
+    public long getLastSeed() {
+        return lastSeed;
+    }
+    
+    /**
+     * @param _resultCap maximum number of values a run may return
+     */
+    public void setResultCap(int _resultCap) {
+        resultCap = _resultCap;
+    }
+    
+    /**
+     * @return true if the most recent run stopped at the result cap
+     */
+    public boolean isCapReached() {
+        return capReached;
+    }
+    
+    /**
+     * Sets number of threads to generate with. By default the common pool is
+     * used; otherwise a pool of the given size is created once here and reused
+     * by every later run. A pool replaced here is shut down once its running
+     * tasks finish.
+     * 
+     * @param _parallelism number of threads to generate with
+     */
+    public void setParallelism(int _parallelism) {
+        int parallelism = Math.max(1, _parallelism);
+        
+        if (parallelism != pool.getParallelism()) {
+            ForkJoinPool oldPool = pool;
+            pool = parallelism == ForkJoinPool.commonPool().getParallelism() 
+                    ? ForkJoinPool.commonPool() : new ForkJoinPool(parallelism);
+            
+            if (oldPool != ForkJoinPool.commonPool()) {
+                oldPool.shutdown();
             }
+        }
+    }
+
+    /**
+     * Generates every syllable the patterns allow, up to the result cap. The
+     * cap is shared by all tasks, so no more than the cap's worth of values
+     * is ever held at once. If the cap is reached, which values fill it
+     * depends on how tasks happen to be scheduled.
+     * 
+     * @return all syllables, duplicates removed
+     * @throws java.lang.Exception 
+     */
+    public String[] genAllSyllables() throws Exception {
+        List<Callable<List<String>>> tasks = new ArrayList<>();
+        AtomicInteger budget = new AtomicInteger(resultCap);
+        
+        // patterns starting with a category split further, one task per member
+        for (String syllable : userSyllables) {
+            String theCat = syllable.isEmpty() ? "" : syllable.substring(0, 1);
             
-            genall("", syllable);
+            if (syllable.length() < 2 || categoryIndex.indexOf(theCat) == -1) {
+                tasks.add(() -> genall("", syllable, budget));
+            } else {
+                for (String member : categories.get(theCat)) {
+                    tasks.add(() -> genall(member, syllable.substring(1), budget));
+                }
+            }
+        }
+        
+        Set<String> results = new LinkedHashSet<>();
+        List<List<String>> taskResults = runTasks(tasks);
+        
+        // each task's values are released as soon as merged
+        for (int i = 0; i < taskResults.size(); i++) {
+            results.addAll(taskResults.set(i, null));
         }
+        
+        // budget drops below zero only when a task was refused a value
+        capReached = budget.get() < 0;
 
         return results.toArray(new String[0]);
     }
 
     /**
-     * Generates requested number of words
+     * Generates requested number of words (up to the result cap)
      * @param lexiconLength
      * @return 
      * @throws java.lang.Exception 
      */
     public String[] genWords(int lexiconLength) throws Exception {
-        results.clear();
-        for (int w = 0; w < lexiconLength; w++) {
-            if (abort) {
-                return new String[0];
+        SplittableRandom random = newRandom();
+        Set<String> results = new LinkedHashSet<>();
+        int target = Math.min(lexiconLength, resultCap);
+        capReached = lexiconLength > resultCap;
+        
+        int fruitlessRounds = 0;
+        
+        // words lost to duplication between tasks are made up in further rounds
+        while (results.size() < target) {
+            // at least a full task per round, so the last few words do not take a round each
+            int roundSize = Math.max(target - results.size(), WORDS_PER_TASK);
+            int found = results.size();
+            List<Callable<List<String>>> tasks = new ArrayList<>();
+            
+            for (int start = 0; start < roundSize; start += WORDS_PER_TASK) {
+                int count = Math.min(WORDS_PER_TASK, roundSize - start);
+                SplittableRandom taskRandom = random.split();
+                tasks.add(() -> genWordsTask(count, taskRandom));
+            }
+            
+            for (List<String> taskResults : runTasks(tasks)) {
+                for (String word : taskResults) {
+                    if (results.size() < target) {
+                        results.add(word);
+                    }
+                }
             }
             
-            genNewWord();
+            fruitlessRounds = results.size() == found ? fruitlessRounds + 1 : 0;
+            
+            if (fruitlessRounds > MAX_RECURSE) {
+                throw new Exception(
+                    "Illegal Clusters settings too restrictive or too few possible combinations to generate desired number of entries.\n"
+                            +"Try playing with settings to allow for more posibilities or reducing the target number.");
+            }
         }
         
         return results.toArray(new String[0]);
     }
     
+    /**
+     * Generates words for one task, distinct within the task
+     */
+    private List<String> genWordsTask(int count, SplittableRandom random) {
+        Set<String> words = new LinkedHashSet<>();
+        
+        for (int w = 0; w < count; w++) {
+            String word = genNewWord(random, words);
+            
+            if (word != null) {
+                words.add(word);
+            }
+        }
+        
+        return new ArrayList<>(words);
+    }
+    
+    /**
+     * Runs tasks across pool, returning their results in task order
+     */
+    private List<List<String>> runTasks(List<Callable<List<String>>> tasks) throws Exception {
+        List<List<String>> ret = new ArrayList<>();
+        
+        try {
+            for (Future<List<String>> future : pool.invokeAll(tasks)) {
+                ret.add(future.get());
+            }
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+        
+        return ret;
+    }
+    
+    private SplittableRandom newRandom() {
+        lastSeed = seed != null ? seed : new SplittableRandom().nextLong();
+        
+        return new SplittableRandom(lastSeed);
+    }
+    
     /**
      * Output a pseudo-text
      * @return 
      * @throws java.lang.Exception 
      */
     public String createText() throws Exception {
+        SplittableRandom random = newRandom();
+        Set<String> used = new LinkedHashSet<>();
         String text = "";
         
 	for (int sent = 0; sent < SENTENCE_GEN_COUNT; sent++) {
-            int nWord = 1 + peakedPowerLaw(15, 5, 50); 
+            int nWord = 1 + peakedPowerLaw(15, 5, 50, random); 
             for (int w = 0; w < nWord; w++) {
-                var nextWord = genNewWord();
+                var nextWord = genNewWord(random, used);
+                
+                if (nextWord == null) {
+                    throw new Exception(
+                        "Illegal Clusters settings too restrictive or too few possible combinations to generate text.\n"
+                                +"Try playing with settings to allow for more posibilities.");
+                }
+                
+                used.add(nextWord);
 
                 if (w == 0) {
                     nextWord = nextWord.substring(0, 1).toUpperCase() + nextWord.substring(1);
@@ -145,7 +323,7 @@ public class ZompistVocabGenerator {
                 text += nextWord;
                 
                 if (w == nWord - 1) {
-                    text += PUNCTUATION.charAt(powerLaw(PUNCTUATION.length(), 75)); 
+                    text += PUNCTUATION.charAt(powerLaw(PUNCTUATION.length(), 75, random)); 
                 }
                 
                 text += " ";
@@ -239,20 +417,6 @@ public class ZompistVocabGenerator {
                 + String.join(", ", constants);
     }
     
-    private String[] getIllegalClusters(String rawIllegalClusters) {
-        List<String> illegalClustersSet = new ArrayList<>();
-        
-        for (String illegal : rawIllegalClusters.split("\n")) {
-            if (illegal.isBlank() || illegalClustersSet.contains(illegal)) {
-                continue;
-            }
-            
-            illegalClustersSet.add(illegal);
-        }
-        
-        return illegalClustersSet.toArray(new String[0]);
-    }
-    
     private int getSyllableDropoffRate(boolean slowSyllables, int syllableLength) {
         int dropoffRate = 12;
         
@@ -315,17 +479,7 @@ public class ZompistVocabGenerator {
      * Apply rewrite rules on just one string
      */
     private String applyRewriteRule(String s) {
-        String newVal = s;
-        
-        for (String rwString : rewriteValues) {
-            if (rwString.length() > 1 && rwString.contains("|")) {
-                String[] parse = rwString.split("\\|");
-                String replacement = parse.length > 1 ? parse[1] : "";
-                newVal = newVal.replaceAll(parse[0], replacement);
-            }
-        }
-
-        return newVal;
+        return rewriteRules.apply(s);
     }
 
     /**
@@ -334,11 +488,12 @@ public class ZompistVocabGenerator {
      *
      * @param max
      * @param pct if this is over 100, this will run forever
+     * @param random
      * @return
      */
-    private int powerLaw(int max, int pct) {
+    private int powerLaw(int max, int pct, SplittableRandom random) {
         for (int r = 0; true; r = (r + 1) % max) {
-            int randomPercent = (int) Math.floor(Math.random() * 101);
+            int randomPercent = random.nextInt(101);
             if (randomPercent < pct) {
                 return r;
             }
@@ -350,24 +505,25 @@ public class ZompistVocabGenerator {
      * @param max
      * @param mode
      * @param pct
+     * @param random
      * @return 
      */
-    private int peakedPowerLaw(int max, int mode, int pct) {
-	if (Math.random() > 0.5) {
+    private int peakedPowerLaw(int max, int mode, int pct, SplittableRandom random) {
+	if (random.nextDouble() > 0.5) {
             // going upward from mode
-            return mode + powerLaw(max - mode, pct);
+            return mode + powerLaw(max - mode, pct, random);
 	} else {
             // going downward from mode
-            return mode - powerLaw(mode + 1, pct);
+            return mode - powerLaw(mode + 1, pct, random);
 	}
     }
 
     /**
      * Output a single syllable - this is the guts of the program
      */
-    private String createSyllable(String curVal) {
+    private String createSyllable(String curVal, SplittableRandom random) {
         // Choose the pattern
-        int r = powerLaw(userSyllables.length, sylableDropoffRate);
+        int r = powerLaw(userSyllables.length, sylableDropoffRate, random);
         String pattern = userSyllables[r];
 
         // For each letter in the pattern, find the category
@@ -384,9 +540,9 @@ public class ZompistVocabGenerator {
                 int r2;
 
                 if (dropoff == 0) {
-                    r2 = (int) (Math.random() * expansion.size());
+                    r2 = random.nextInt(expansion.size());
                 } else {
-                    r2 = powerLaw(expansion.size(), dropoff);
+                    r2 = powerLaw(expansion.size(), dropoff, random);
                 }
 
                 curVal += expansion.get(r2);
@@ -398,124 +554,404 @@ public class ZompistVocabGenerator {
 
     /**
      * Output a single word
-     * Recurses, but will give up after enough retries if illegal clusters is too restrictive
-     * @return generated value
-     * @throws Exception 
+     * Retries, but will give up after enough retries if illegal clusters is too restrictive
+     * @param random
+     * @param used values which may not be returned
+     * @return generated value, or null if no legal, unused value found
      */
-    private String genNewWord() throws Exception {
-        return genNewWordRecurse(0);
-    }
+    private String genNewWord(SplittableRandom random, Set<String> used) {
+        for (int level = 0; level <= MAX_RECURSE; level++) {
+            String curVal = "";
+            int nw = 1;
+            
+            if (monosyllableRarity > 0.0) {
+                if (random.nextDouble() > monosyllableRarity) {
+                    nw += 1 + powerLaw(4, 50, random);
+                }
+            }
 
-    private String genNewWordRecurse(int level) throws Exception {
-        String curVal = "";
-        
-        if (level > MAX_RECURSE) {
-            throw new Exception(
-                    "Illegal Clusters settings too restrictive or too few possible combinations to generate desired number of entries.\n"
-                            +"Try playing with settings to allow for more posibilities or reducing the target number.");
-        }
+            for (int w = 0; w < nw; w++) {
+                curVal = createSyllable(curVal, random);
 
-        int nw = 1;
-        if (monosyllableRarity > 0.0) {
-            if (Math.random() > monosyllableRarity) {
-                nw += 1 + powerLaw(4, 50);
+                if (syllableBreaks && w < nw - 1) {
+                    curVal += INTERPUNCT;
+                }
             }
-        }
 
-        for (int w = 0; w < nw; w++) {
-            curVal = createSyllable(curVal);
-            
-            if (syllableBreaks && w < nw - 1) {
-                curVal += INTERPUNCT;
+            curVal = applyRewriteRule(curVal);
+
+            // once value is complete, make final inspection for illegal clusters and retry if appropriate
+            if (!curVal.trim().isEmpty() && !containsIllegalCluster(curVal) && !used.contains(curVal)) {
+                return curVal;
             }
         }
         
-        curVal = applyRewriteRule(curVal);
+        return null;
+    }
+
+    /**
+     * Lists every legal syllable the syllable patterns allow, one at a time,
+     * in the same order as genAllSyllables. Values are built as they are read
+     * rather than held, so memory use is flat however many combinations there
+     * are. Values are not checked against one another: rewrite rules or
+     * overlapping patterns may produce a value more than once. Not limited by
+     * the result cap.
+     *
+     * @return iterator over all syllables
+     */
+    public Iterator<String> iterateAllSyllables() {
+        return new Iterator<>() {
+            private int patternIndex = 0;
+            private Iterator<String> current = Collections.emptyIterator();
+            
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && patternIndex < userSyllables.length) {
+                    current = new SyllableIterator("", userSyllables[patternIndex++]);
+                }
+                
+                return current.hasNext();
+            }
+            
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                
+                return current.next();
+            }
+        };
+    }
+    
+    /**
+     * Passes every legal syllable to a sink in batches, as with
+     * iterateAllSyllables, so they can be written to a file or added to the
+     * lexicon without all being held at once.
+     *
+     * @param batchSize number of values per batch (the last may be smaller)
+     * @param sink receives each batch; batches are not reused after passing
+     */
+    public void streamAllSyllables(int batchSize, Consumer<List<String>> sink) {
+        Iterator<String> syllables = iterateAllSyllables();
+        List<String> batch = new ArrayList<>(batchSize);
         
-        // once value is complete, make final inspection for illegal clusters and retry if appropriate
-        if (containsIllegalCluster(curVal) || results.contains(curVal)) {
-            genNewWordRecurse(level + 1);
-        } else {
-            this.addToResults(curVal);
+        while (syllables.hasNext()) {
+            batch.add(syllables.next());
+            
+            if (batch.size() >= batchSize) {
+                sink.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
         }
         
-        return curVal;
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+        }
     }
 
     /**
      * Generate all the syllables following a particular pattern, plus an
-     * initial. 1. Look at the first item in pattern, e.g. V 2. For each member
-     * m of that class (e.g. aeiou)… a. If it ends the pattern, just generate
-     * the word initial + m b. If not, call genall recursively with m added to
-     * the initial, and a pattern consisting of the rest of the string.
+     * initial, while budget remains. Each value takes one from the budget.
      *
      * @param initial
      * @param pattern
+     * @param budget values left to all tasks, shared between them
+     * @return results
      */
-    private void genall(String initial, String pattern) {
-        if (pattern.length() == 0 || abort) {
-            return;
+    private List<String> genall(String initial, String pattern, AtomicInteger budget) {
+        List<String> results = new ArrayList<>();
+        Iterator<String> syllables = new SyllableIterator(initial, pattern);
+        
+        while (syllables.hasNext() && budget.getAndDecrement() > 0) {
+            results.add(syllables.next());
         }
-
-        String theCat = pattern.substring(0, 1);
-        boolean lastOne = pattern.length() == 1;
-
-        // Find category
-        int ix = categoryIndex.indexOf(theCat);
-        if (ix == -1) {
-            // Not a category, just output it straight
-            if (lastOne) {
-                addToResults(applyRewriteRule(initial + theCat));
-            } else {
-                genall(initial + theCat, pattern.substring(1));
+        
+        return results;
+    }
+    
+    private boolean containsIllegalCluster(String test) {
+        return illegalClusters.matches(test);
+    }
+    
+    /**
+     * Steps through every value following a particular pattern, plus an
+     * initial, like an odometer: for each position of the pattern, every
+     * member of its category (or the character itself, if not a category),
+     * with the last position changing fastest. Only the positions that change
+     * are rewritten in a single reused builder. Rewrite rules are applied to
+     * each value, and blank or illegal results skipped.
+     */
+    private final class SyllableIterator implements Iterator<String> {
+        private final List<List<String>> positions = new ArrayList<>();
+        private final int[] memberIndices;
+        private final int[] startLengths;
+        private final StringBuilder value;
+        private boolean exhausted;
+        private String next = null;
+        
+        public SyllableIterator(String initial, String pattern) {
+            value = new StringBuilder(initial);
+            exhausted = pattern.isEmpty();
+            
+            for (int c = 0; c < pattern.length(); c++) {
+                String theCat = pattern.substring(c, c + 1);
+                List<String> members = categoryIndex.indexOf(theCat) == -1 ? List.of(theCat) : categories.get(theCat);
+                exhausted |= members.isEmpty();
+                positions.add(members);
             }
-        } else {
-            // It's a category; iterate over its members
-            List<String> members = categories.get(theCat);
-
-            for (int i = 0; i < members.size(); i++) {
-                String m = members.get(i);
-                if (lastOne) {
-                    addToResults(applyRewriteRule(initial + m));
-                } else {
-                    genall(initial + m, pattern.substring(1));
+            
+            memberIndices = new int[positions.size()];
+            startLengths = new int[positions.size()];
+            
+            if (!exhausted) {
+                startLengths[0] = value.length();
+                fillFrom(0);
+            }
+        }
+        
+        @Override
+        public boolean hasNext() {
+            while (next == null && !exhausted) {
+                String candidate = applyRewriteRule(value.toString());
+                
+                if (candidate.trim().length() != 0 && !containsIllegalCluster(candidate)) {
+                    next = candidate;
                 }
+                
+                exhausted = !advance();
+            }
+            
+            return next != null;
+        }
+        
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            String ret = next;
+            next = null;
+            
+            return ret;
+        }
+        
+        private boolean advance() {
+            for (int position = positions.size() - 1; position >= 0; position--) {
+                if (++memberIndices[position] < positions.get(position).size()) {
+                    fillFrom(position);
+                    return true;
+                }
+                
+                memberIndices[position] = 0;
+            }
+            
+            return false;
+        }
+        
+        private void fillFrom(int position) {
+            value.setLength(startLengths[position]);
+            
+            for (int i = position; i < positions.size(); i++) {
+                startLengths[i] = value.length();
+                value.append(positions.get(i).get(memberIndices[i]));
             }
         }
     }
     
-    private void addToResults(String value) {
-        int count = results.size();
+    /**
+     * Rewrite rules compiled once, in order. The most recently compiled rules
+     * are reused while the rule text is unchanged.
+     */
+    private static final class RewriteRules {
+        private static volatile RewriteRules lastCompiled = null;
+        private final String rawRules;
+        private final Pattern[] patterns;
+        private final String[] replacements;
         
-        // At key points, ask if user wishes to continue. After 10M they're on their own journey to hell.
-        if (count == 1000000
-                || count == 5000000
-                || count == 10000000) {
-            String dialog = "At " + count + " values. Continue?";
+        private RewriteRules(String _rawRules) {
+            List<Pattern> patternList = new ArrayList<>();
+            List<String> replacementList = new ArrayList<>();
             
-            if (count == 10000000) {
-                dialog += "\nSeriouslty, last warning. It'll just go until it's done after this. PolyGlot might freeze.";
+            for (String rwString : _rawRules.split("\n")) {
+                if (rwString.length() > 1 && rwString.contains("|")) {
+                    String[] parse = rwString.split("\\|");
+                    patternList.add(Pattern.compile(parse[0]));
+                    replacementList.add(parse.length > 1 ? parse[1] : "");
+                }
             }
             
-            InfoBox info = osHandler.getInfoBox();
-            if (info.yesNoCancel("Long Process", dialog)
-                    != JOptionPane.YES_OPTION) {
-                abort = true;
+            rawRules = _rawRules;
+            patterns = patternList.toArray(new Pattern[0]);
+            replacements = replacementList.toArray(new String[0]);
+        }
+        
+        public static RewriteRules compile(String rawRules) {
+            RewriteRules ret = lastCompiled;
+            
+            if (ret == null || !ret.rawRules.equals(rawRules)) {
+                ret = new RewriteRules(rawRules);
+                lastCompiled = ret;
             }
+            
+            return ret;
         }
         
-        if (value.trim().length() != 0 && !containsIllegalCluster(value)) {
-            results.add(value);
+        public String apply(String value) {
+            String ret = value;
+            
+            for (int i = 0; i < patterns.length; i++) {
+                ret = patterns[i].matcher(ret).replaceAll(replacements[i]);
+            }
+            
+            return ret;
         }
     }
     
-    private boolean containsIllegalCluster(String test) {
-        for (String illegalCluster : illegalClusters) {
-            if (test.matches(illegalCluster) || test.contains(illegalCluster)) {
-                return true;
+    /**
+     * Illegal clusters compiled once. A value is illegal if it contains any
+     * cluster literally, which is checked in a single pass with an
+     * Aho-Corasick automaton, or if the whole value matches any cluster read
+     * as a regex. Only clusters with regex syntax need the second check; they
+     * are joined into one alternation, apart from any using back references,
+     * whose group numbers joining would shift. The most recently compiled
+     * clusters are reused while the cluster text is unchanged.
+     */
+    private static final class IllegalClusters {
+        private static final Pattern REGEX_SYNTAX = Pattern.compile("[\\\\^$.|?*+()\\[\\]{}]");
+        private static final Pattern BACK_REFERENCE = Pattern.compile("\\\\(\\d|k<)");
+        private static volatile IllegalClusters lastCompiled = null;
+        private final String rawClusters;
+        private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+        private final List<Integer> failures = new ArrayList<>();
+        private final List<Boolean> terminals = new ArrayList<>();
+        private final List<Pattern> wholeMatches = new ArrayList<>();
+        
+        private IllegalClusters(String _rawClusters) {
+            List<String> joined = new ArrayList<>();
+            rawClusters = _rawClusters;
+            addState();
+            
+            for (String illegal : new LinkedHashSet<>(Arrays.asList(_rawClusters.split("\n")))) {
+                if (illegal.isBlank()) {
+                    continue;
+                }
+                
+                addLiteral(illegal);
+                
+                if (REGEX_SYNTAX.matcher(illegal).find() && isValidRegex(illegal)) {
+                    if (BACK_REFERENCE.matcher(illegal).find()) {
+                        wholeMatches.add(Pattern.compile(illegal));
+                    } else {
+                        joined.add("(?:" + illegal + ")");
+                    }
+                }
+            }
+            
+            if (!joined.isEmpty()) {
+                wholeMatches.add(0, Pattern.compile(String.join("|", joined)));
+            }
+            
+            buildFailures();
+        }
+        
+        public static IllegalClusters compile(String rawClusters) {
+            IllegalClusters ret = lastCompiled;
+            
+            if (ret == null || !ret.rawClusters.equals(rawClusters)) {
+                ret = new IllegalClusters(rawClusters);
+                lastCompiled = ret;
+            }
+            
+            return ret;
+        }
+        
+        public boolean matches(String test) {
+            int state = 0;
+            
+            for (int i = 0; i < test.length(); i++) {
+                char c = test.charAt(i);
+                
+                while (state != 0 && !transitions.get(state).containsKey(c)) {
+                    state = failures.get(state);
+                }
+                
+                state = transitions.get(state).getOrDefault(c, 0);
+                
+                if (terminals.get(state)) {
+                    return true;
+                }
             }
+            
+            for (Pattern pattern : wholeMatches) {
+                if (pattern.matcher(test).matches()) {
+                    return true;
+                }
+            }
+            
+            return false;
+        }
+        
+        private int addState() {
+            transitions.add(new HashMap<>());
+            failures.add(0);
+            terminals.add(false);
+            
+            return transitions.size() - 1;
         }
         
-        return false;
+        private void addLiteral(String literal) {
+            int state = 0;
+            
+            for (char c : literal.toCharArray()) {
+                Integer next = transitions.get(state).get(c);
+                
+                if (next == null) {
+                    next = addState();
+                    transitions.get(state).put(c, next);
+                }
+                
+                state = next;
+            }
+            
+            terminals.set(state, true);
+        }
+        
+        /**
+         * Breadth first, so the failure state of every shallower state is known
+         */
+        private void buildFailures() {
+            ArrayDeque<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+            
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                
+                for (Map.Entry<Character, Integer> entry : transitions.get(state).entrySet()) {
+                    int child = entry.getValue();
+                    int failure = failures.get(state);
+                    
+                    while (failure != 0 && !transitions.get(failure).containsKey(entry.getKey())) {
+                        failure = failures.get(failure);
+                    }
+                    
+                    Integer target = transitions.get(failure).get(entry.getKey());
+                    failure = target == null || target == child ? 0 : target;
+                    
+                    failures.set(child, failure);
+                    terminals.set(child, terminals.get(child) || terminals.get(failure));
+                    queue.add(child);
+                }
+            }
+        }
+        
+        private static boolean isValidRegex(String regex) {
+            try {
+                Pattern.compile(regex);
+                return true;
+            } catch (PatternSyntaxException e) {
+                return false;
+            }
+        }
     }
 }
@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package ChatGPTInterface;
+
+import TestResources.DummyCore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.darisadesigns.polyglotlina.DictCore;
+import org.darisadesigns.polyglotlina.Nodes.ConWord;
+import org.darisadesigns.polyglotlina.PTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests GPT client against a local stub server
+ *
+ * @author Draque Thompson
+ */
+public class PChatGptInterfaceTest extends PTest {
+    private static final String[] STREAMED = {"[zot", " bap]", " (dog house)"};
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<JsonNode> requests = Collections.synchronizedList(new ArrayList<>());
+    private final Set<Integer> clientPorts = Collections.synchronizedSet(new HashSet<>());
+    private HttpServer server;
+    private volatile boolean truncateStream = false;
+    @TempDir
+    Path cacheDirectory;
+    private DictCore core;
+    private PChatGptInterface gpt;
+    
+    @BeforeEach
+    public void setUp() throws Exception {
+        core = DummyCore.newCore();
+        
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/chat/completions", this::handleCompletion);
+        server.start();
+        
+        gpt = newInterface();
+    }
+    
+    @AfterEach
+    public void tearDown() {
+        server.stop(0);
+    }
+    
+    @Test
+    public void testTranslateStreamsAndPacksDictionary() throws Exception {
+        System.out.println("PChatGptInterfaceTest.testTranslateStreamsAndPacksDictionary");
+        
+        for (String[] entry : new String[][]{{"zot", "dog"}, {"bap", "house"}, {"kem", "dog, hound"}}) {
+            ConWord word = new ConWord();
+            word.setValue(entry[0]);
+            word.setLocalWord(entry[1]);
+            core.getWordCollection().addWord(word);
+        }
+        
+        List<String> partials = Collections.synchronizedList(new ArrayList<>());
+        String result = gpt.getTranslateAsync("The dog's house", new ArrayList<>(), 
+                PChatGptInterface.DEFAULT_GPT_MODEL, partials::add).get();
+        
+        assertEquals(String.join("", STREAMED), result);
+        assertEquals(List.of("[zot", "[zot bap]", result), partials);
+        assertEquals(2, requests.size());
+        
+        // base forms request, then streamed translation
+        assertFalse(requests.get(0).has("stream"));
+        assertTrue(requests.get(1).path("stream").asBoolean());
+        
+        // dictionary entries are packed into a single message, each word once
+        JsonNode messages = requests.get(1).get("messages");
+        int entryMessages = 0;
+        for (JsonNode message : messages) {
+            String content = message.get("content").textValue();
+            
+            if (content.contains("Word zot")) {
+                entryMessages++;
+                assertTrue(content.contains("Word bap"));
+                assertTrue(content.contains("Word kem"));
+                assertEquals(content.indexOf("Word zot"), content.lastIndexOf("Word zot"));
+            }
+        }
+        assertEquals(1, entryMessages);
+        
+        // both requests carried over one connection
+        assertEquals(1, clientPorts.size());
+    }
+    
+    @Test
+    public void testErrorResponse() {
+        System.out.println("PChatGptInterfaceTest.testErrorResponse");
+        
+        Exception e = assertThrows(GPTException.class, 
+                () -> gpt.getIdempotentResponse("unauthorized", PChatGptInterface.DEFAULT_GPT_MODEL));
+        assertTrue(e.getMessage().contains("Incorrect API key"));
+    }
+    
+    @Test
+    public void testRepeatedTranslationServedFromCache() throws Exception {
+        System.out.println("PChatGptInterfaceTest.testRepeatedTranslationServedFromCache");
+        
+        String first = gpt.getTranslate("The dog's house", new ArrayList<>(), PChatGptInterface.DEFAULT_GPT_MODEL);
+        assertEquals(2, requests.size());
+        
+        // cache is persisted: a fresh interface answers without the server
+        List<String> partials = new ArrayList<>();
+        String second = newInterface().getTranslateAsync("The dog's house", new ArrayList<>(), 
+                PChatGptInterface.DEFAULT_GPT_MODEL, partials::add).get();
+        assertEquals(first, second);
+        assertEquals(List.of(first), partials);
+        assertEquals(2, requests.size());
+        
+        gpt.getTranslate("The cat's house", new ArrayList<>(), PChatGptInterface.DEFAULT_GPT_MODEL);
+        assertEquals(4, requests.size());
+    }
+    
+    @Test
+    public void testTruncatedStreamNotCached() throws Exception {
+        System.out.println("PChatGptInterfaceTest.testTruncatedStreamNotCached");
+        
+        truncateStream = true;
+        String partial = gpt.getTranslate("The dog's house", new ArrayList<>(), PChatGptInterface.DEFAULT_GPT_MODEL);
+        assertEquals(String.join("", STREAMED), partial);
+        assertEquals(2, requests.size());
+        
+        // only the base forms reply was kept: the translation is asked for again
+        truncateStream = false;
+        gpt.getTranslate("The dog's house", new ArrayList<>(), PChatGptInterface.DEFAULT_GPT_MODEL);
+        assertEquals(3, requests.size());
+        assertTrue(requests.get(2).path("stream").asBoolean());
+        
+        // completed reply is now served from the cache
+        gpt.getTranslate("The dog's house", new ArrayList<>(), PChatGptInterface.DEFAULT_GPT_MODEL);
+        assertEquals(3, requests.size());
+    }
+    
+    @Test
+    public void testCacheExpires() {
+        System.out.println("PChatGptInterfaceTest.testCacheExpires");
+        
+        Path file = cacheDirectory.resolve("expiring.json");
+        new GptResponseCache(file, Duration.ofDays(1)).put("request", "response");
+        
+        assertEquals("response", new GptResponseCache(file, Duration.ofDays(1)).get("request"));
+        assertNull(new GptResponseCache(file, Duration.ofMillis(-1)).get("request"));
+    }
+    
+    @Test
+    public void testPlannerKeepsWithinWindow() {
+        System.out.println("PChatGptInterfaceTest.testPlannerKeepsWithinWindow");
+        
+        assertEquals(16384, GptContextPlanner.getContextWindow("gpt-3.5-turbo-16k"));
+        assertEquals(8192, GptContextPlanner.getContextWindow("gpt-4-0613"));
+        assertEquals(GptContextPlanner.DEFAULT_CONTEXT_WINDOW, GptContextPlanner.getContextWindow("unknown"));
+        
+        GptContextPlanner planner = new GptContextPlanner(400);
+        planner.require(new GptMessage(GptMessage.Role.USER, "Translate this."));
+        
+        assertTrue(planner.offer(200));
+        assertFalse(planner.offer(200)); // would exceed what is left for request
+        assertTrue(planner.offer(50)); // smaller, lower ranked content still fits
+        assertFalse(planner.isOverBudget());
+        assertTrue(planner.getUsedTokens() <= planner.getBudget());
+    }
+    
+    @Test
+    public void testTokenEstimate() {
+        System.out.println("PChatGptInterfaceTest.testTokenEstimate");
+        
+        assertEquals(0, GPTTokenEstimater.estimateTokenCount(""));
+        assertEquals(2, GPTTokenEstimater.estimateTokenCount("the dog"));
+        assertEquals(3, GPTTokenEstimater.estimateTokenCount("dog, cat"));
+        assertEquals(3, GPTTokenEstimater.estimateTokenCount("translation"));
+        assertEquals(4, GPTTokenEstimater.estimateTokenCount("ŋʷáþ"));
+    }
+    
+    private PChatGptInterface newInterface() {
+        return new PChatGptInterface(core, "test-key", 
+                URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/"),
+                new GptResponseCache(cacheDirectory.resolve("cache.json"), GptResponseCache.DEFAULT_TIME_TO_LIVE));
+    }
+    
+    private void handleCompletion(HttpExchange exchange) throws IOException {
+        JsonNode request = objectMapper.readTree(exchange.getRequestBody());
+        requests.add(request);
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        JsonNode messages = request.get("messages");
+        String last = messages.get(messages.size() - 1).get("content").textValue();
+        
+        if (last.equals("unauthorized")) {
+            respond(exchange, 401, "application/json", 
+                    "{\"error\": {\"message\": \"Incorrect API key provided\"}}");
+        } else if (request.path("stream").asBoolean()) {
+            StringBuilder events = new StringBuilder();
+            
+            for (String chunk : STREAMED) {
+                ObjectNode delta = objectMapper.createObjectNode();
+                delta.set("delta", objectMapper.createObjectNode().put("content", chunk));
+                ObjectNode event = objectMapper.createObjectNode();
+                event.set("choices", objectMapper.createArrayNode().add(delta));
+                events.append("data: ").append(event.toString()).append("\n\n");
+            }
+            
+            if (!truncateStream) {
+                events.append("data: [DONE]\n\n");
+            }
+            respond(exchange, 200, "text/event-stream", events.toString());
+        } else {
+            ObjectNode choice = objectMapper.createObjectNode();
+            choice.set("message", objectMapper.createObjectNode().put("role", "assistant").put("content", "[the, dog, house]"));
+            ObjectNode reply = objectMapper.createObjectNode();
+            reply.set("choices", objectMapper.createArrayNode().add(choice));
+            respond(exchange, 200, "application/json", reply.toString());
+        }
+    }
+    
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        
+        try (OutputStream os = exchange.getResponseBody()) {
+            os.write(bytes);
+        }
+    }
+}
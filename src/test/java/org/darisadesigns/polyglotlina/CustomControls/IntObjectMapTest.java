@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.CustomControls;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests for the primitive int keyed collections. The benchmark only runs when
+ * -Dpolyglot.benchmark=true is given.
+ * 
+ * @author Draque Thompson
+ */
+public class IntObjectMapTest {
+    
+    @Test
+    public void testMatchesHashMapUnderChurn() {
+        System.out.println("IntObjectMapTest.testMatchesHashMapUnderChurn");
+        
+        IntObjectMap<String> map = new IntObjectMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        Random random = new Random(42);
+        
+        for (int i = 0; i < 20000; i++) {
+            // narrow key range forces collisions and removals mid-chain
+            int key = random.nextInt(2000) * 64;
+            
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = Integer.toString(i);
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+        }
+        
+        assertEquals(expected.size(), map.size());
+        
+        for (int key = 0; key < 2000 * 64; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        
+        int[] seen = {0};
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key), value);
+            seen[0]++;
+        });
+        assertEquals(expected.size(), seen[0]);
+        assertEquals(expected.size(), map.values().size());
+    }
+    
+    @Test
+    public void testKeyOrderFollowsHashMap() {
+        System.out.println("IntObjectMapTest.testKeyOrderFollowsHashMap");
+        
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        Map<Integer, Integer> expected = new HashMap<>();
+        
+        for (int i = 1; i <= 500; i++) {
+            map.put(i * 7, i);
+            expected.put(i * 7, i);
+        }
+        
+        int[] keys = map.keys();
+        int i = 0;
+        
+        for (Integer key : expected.keySet()) {
+            assertEquals(key.intValue(), keys[i++]);
+        }
+    }
+    
+    @Test
+    public void testIntIntMap() {
+        System.out.println("IntObjectMapTest.testIntIntMap");
+        
+        IntIntMap map = new IntIntMap();
+        
+        for (int i = 0; i < 1000; i++) {
+            map.put(i * 16, i);
+        }
+        
+        for (int i = 0; i < 1000; i += 2) {
+            assertTrue(map.remove(i * 16));
+        }
+        
+        assertFalse(map.remove(0));
+        assertEquals(500, map.size());
+        assertEquals(-1, map.get(0, -1));
+        assertEquals(999, map.get(999 * 16, -1));
+    }
+    
+    @Test
+    public void testIntSetKeepsInsertionOrder() {
+        System.out.println("IntObjectMapTest.testIntSetKeepsInsertionOrder");
+        
+        IntSet set = new IntSet();
+        
+        // past the linear search threshold so the position index is used
+        for (int i = 40; i > 0; i--) {
+            assertTrue(set.add(i));
+        }
+        
+        assertFalse(set.add(20));
+        assertTrue(set.remove(20));
+        assertFalse(set.contains(20));
+        assertTrue(set.contains(19));
+        assertEquals(39, set.size());
+        assertEquals(21, set.get(19));
+        assertEquals(19, set.get(20));
+        assertTrue(set.add(20));
+        assertEquals(20, set.get(39));
+    }
+    
+    @Test
+    public void testIntSetRemoveUnordered() {
+        System.out.println("IntObjectMapTest.testIntSetRemoveUnordered");
+        
+        IntSet set = new IntSet();
+        
+        for (int i = 1; i <= 40; i++) {
+            set.add(i);
+        }
+        
+        // last value moves into the gap; lookups stay correct without a rebuild
+        assertTrue(set.removeUnordered(10));
+        assertFalse(set.removeUnordered(10));
+        assertEquals(40, set.get(9));
+        assertTrue(set.removeUnordered(39));
+        assertTrue(set.removeUnordered(40));
+        assertEquals(37, set.size());
+        
+        for (int i = 1; i <= 40; i++) {
+            assertEquals(i != 10 && i < 39, set.contains(i));
+        }
+        
+        assertTrue(set.add(10));
+        assertEquals(10, set.get(37));
+        assertTrue(set.contains(10));
+    }
+    
+    @Test
+    public void testIntSetMapDropsEmptyKeys() {
+        System.out.println("IntObjectMapTest.testIntSetMapDropsEmptyKeys");
+        
+        IntSetMap map = new IntSetMap();
+        map.add(1, 2);
+        map.add(1, 3);
+        map.add(4, 2);
+        
+        assertTrue(map.remove(1, 2));
+        assertTrue(map.containsKey(1));
+        assertTrue(map.remove(1, 3));
+        assertFalse(map.containsKey(1));
+        assertTrue(map.get(1).isEmpty());
+        assertEquals(1, map.size());
+        assertTrue(map.contains(4, 2));
+    }
+    
+    @Test
+    public void benchmarkAgainstHashMap() {
+        Assumptions.assumeTrue(Boolean.getBoolean("polyglot.benchmark"));
+        System.out.println("IntObjectMapTest.benchmarkAgainstHashMap");
+        
+        final int entries = 100000;
+        Object value = new Object();
+        Runtime runtime = Runtime.getRuntime();
+        
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+        Map<Integer, Object> boxed = new HashMap<>();
+        for (int i = 0; i < entries; i++) {
+            boxed.put(i * 3, value);
+        }
+        System.gc();
+        long boxedHeap = runtime.totalMemory() - runtime.freeMemory() - before;
+        
+        long start = System.nanoTime();
+        long sum = 0;
+        for (Map.Entry<Integer, Object> entry : boxed.entrySet()) {
+            sum += entry.getKey();
+        }
+        long boxedIterate = System.nanoTime() - start;
+        boxed = null;
+        
+        System.gc();
+        before = runtime.totalMemory() - runtime.freeMemory();
+        IntObjectMap<Object> primitive = new IntObjectMap<>();
+        for (int i = 0; i < entries; i++) {
+            primitive.put(i * 3, value);
+        }
+        System.gc();
+        long primitiveHeap = runtime.totalMemory() - runtime.freeMemory() - before;
+        
+        long[] primitiveSum = {0};
+        start = System.nanoTime();
+        primitive.forEach((key, val) -> primitiveSum[0] += key);
+        long primitiveIterate = System.nanoTime() - start;
+        
+        assertEquals(sum, primitiveSum[0]);
+        System.out.println("HashMap:      " + boxedHeap / 1024 + "KB, iterate " + boxedIterate / 1000 + "us");
+        System.out.println("IntObjectMap: " + primitiveHeap / 1024 + "KB, iterate " + primitiveIterate / 1000 + "us");
+    }
+}
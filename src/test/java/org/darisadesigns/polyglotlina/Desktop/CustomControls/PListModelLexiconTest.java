@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.Desktop.CustomControls;
+
+import TestResources.DummyCore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+import org.darisadesigns.polyglotlina.DictCore;
+import org.darisadesigns.polyglotlina.ManagersCollections.ConWordCollection.ConWordDisplay;
+import org.darisadesigns.polyglotlina.Nodes.ConWord;
+import org.darisadesigns.polyglotlina.PTest;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ *
+ * @author draque
+ */
+public class PListModelLexiconTest extends PTest {
+    
+    @Test
+    public void testSetWordsFiresChangedRowsOnly() {
+        System.out.println("PListModelLexiconTest.testSetWordsFiresChangedRowsOnly");
+        
+        DictCore core = DummyCore.newCore();
+        PListModelLexicon model = new PListModelLexicon(core);
+        List<String> events = new ArrayList<>();
+        ConWord[] words = new ConWord[5];
+        
+        for (int i = 0; i < words.length; i++) {
+            words[i] = new ConWord("word" + i, "");
+            words[i].setId(i + 1);
+        }
+        
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                events.add("added " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                events.add("removed " + e.getIndex0() + "-" + e.getIndex1());
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                events.add("changed " + e.getIndex0() + "-" + e.getIndex1());
+            }
+        });
+        
+        model.setWords(Arrays.asList(words[0], words[1], words[3], words[4]));
+        model.setWords(Arrays.asList(words[0], words[1], words[2], words[3], words[4]));
+        model.setWords(Arrays.asList(words[0], words[2], words[3], words[4]));
+        model.setWords(Arrays.asList(words[0], words[3], words[2], words[4]));
+        model.setWords(Arrays.asList(words[0], words[3], words[2], words[4]));
+        model.setWords(Arrays.asList(words[4]));
+        
+        assertEquals(Arrays.asList("added 0-3", 
+                "added 2-2", 
+                "removed 1-1", 
+                "changed 1-2", 
+                "removed 0-2"), events);
+        
+        assertEquals(1, model.getSize());
+        assertSame(words[4], model.getElementAt(0).getConWord());
+        assertSame(model.getElementAt(0), model.getDisplayFromWord(words[4]));
+        assertEquals(0, model.indexOf(words[4]));
+        assertEquals(-1, model.indexOf(words[0]));
+        assertNull(model.getDisplayFromWord(words[0]));
+    }
+    
+    @Test
+    public void testSetWordsDropsUnlistedDisplays() {
+        System.out.println("PListModelLexiconTest.testSetWordsDropsUnlistedDisplays");
+        
+        DictCore core = DummyCore.newCore();
+        PListModelLexicon model = new PListModelLexicon(core);
+        ConWord[] words = new ConWord[5];
+        
+        for (int i = 0; i < words.length; i++) {
+            words[i] = new ConWord("word" + i, "");
+            words[i].setId(i + 1);
+        }
+        
+        model.setWords(Arrays.asList(words));
+        
+        for (int i = 0; i < model.getSize(); i++) {
+            model.getElementAt(i);
+        }
+        
+        assertEquals(5, model.getDisplayCount());
+        ConWordDisplay kept = model.getDisplayFromWord(words[3]);
+        
+        model.setWords(Arrays.asList(words[0], words[3], words[4]));
+        assertEquals(3, model.getDisplayCount());
+        assertSame(kept, model.getDisplayFromWord(words[3]));
+        
+        model.setWords(Arrays.asList(words[3]));
+        assertEquals(1, model.getDisplayCount());
+        assertSame(kept, model.getDisplayFromWord(words[3]));
+        
+        model.setWords(new ArrayList<>());
+        assertEquals(0, model.getDisplayCount());
+    }
+}
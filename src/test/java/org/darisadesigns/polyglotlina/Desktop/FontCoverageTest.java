@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.Desktop;
+
+import TestResources.DummyCore;
+import java.awt.Font;
+import org.darisadesigns.polyglotlina.DictCore;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Benchmark only runs if -Dpolyglot.benchmark=true is given.
+ *
+ * @author Draque Thompson
+ */
+public class FontCoverageTest {
+    // mathematical bold capital M: outside the BMP, but in Charis SIL
+    private static final String SUPPLEMENTARY = new String(Character.toChars(0x1D40C));
+    private final Font font = PGTUtil.CHARIS_UNICODE;
+
+    @Test
+    public void testMatchesFont() {
+        System.out.println("FontCoverageTest.testMatchesFont");
+
+        FontCoverage coverage = new FontCoverage(font);
+
+        for (int codePoint = 0; codePoint < 0x10000; codePoint++) {
+            assertEquals(font.canDisplay(codePoint), coverage.canDisplay(codePoint), "code point " + codePoint);
+        }
+
+        for (int codePoint = 0x1D400; codePoint < 0x1D800; codePoint++) {
+            assertEquals(font.canDisplay(codePoint), coverage.canDisplay(codePoint), "code point " + codePoint);
+        }
+
+        assertFalse(coverage.canDisplay(-1));
+        assertFalse(coverage.canDisplay(Character.MAX_CODE_POINT + 1));
+    }
+
+    @Test
+    public void testSurrogatePairs() {
+        System.out.println("FontCoverageTest.testSurrogatePairs");
+
+        FontCoverage coverage = new FontCoverage(font);
+
+        assertTrue(font.canDisplay(SUPPLEMENTARY.codePointAt(0)));
+        assertTrue(coverage.canDisplay("abc" + SUPPLEMENTARY + "def"));
+        // a lone surrogate is not a displayable character
+        assertFalse(coverage.canDisplay("abc" + SUPPLEMENTARY.charAt(0)));
+        assertFalse(coverage.canDisplay("abc\u0f40"));
+        assertTrue(coverage.canDisplay(""));
+    }
+
+    @Test
+    public void testCanStringBeRenderedFollowsFontChange() {
+        System.out.println("FontCoverageTest.testCanStringBeRenderedFollowsFontChange");
+
+        DictCore core = DummyCore.newCore();
+        DesktopPropertiesManager propMan = (DesktopPropertiesManager) core.getPropertiesManager();
+        DesktopPFontHandler fontHandler = new DesktopPFontHandler();
+
+        propMan.setFontConRaw(font);
+        assertTrue(fontHandler.canStringBeRendered("a" + SUPPLEMENTARY, true, core));
+
+        propMan.setFontConRaw(new Font(Font.SERIF, Font.PLAIN, 12));
+        assertEquals(propMan.getFontCon().canDisplay(SUPPLEMENTARY.codePointAt(0)),
+                fontHandler.canStringBeRendered("a" + SUPPLEMENTARY, true, core));
+    }
+
+    @Test
+    public void benchmarkAgainstCanDisplay() {
+        Assumptions.assumeTrue(Boolean.getBoolean("polyglot.benchmark"));
+        System.out.println("FontCoverageTest.benchmarkAgainstCanDisplay");
+
+        StringBuilder builder = new StringBuilder();
+        String[] scripts = {"latin ", "\u043a\u0438\u0440\u0438\u043b\u043b\u0438\u0446\u0430 ", "\u0283\u026a\u0292\u0259\u014b ", "Ti\u1ebfng Vi\u1ec7t ", SUPPLEMENTARY};
+        for (int i = 0; i < 2000; i++) {
+            builder.append(scripts[i % scripts.length]);
+        }
+        String value = builder.toString();
+        final int rounds = 2000;
+
+        long start = System.nanoTime();
+        FontCoverage coverage = new FontCoverage(font);
+        coverage.canDisplay(value);
+        long build = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        boolean bitmap = true;
+        for (int i = 0; i < rounds; i++) {
+            bitmap &= coverage.canDisplay(value);
+        }
+        long bitmapTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        boolean direct = true;
+        for (int i = 0; i < rounds; i++) {
+            boolean round = true;
+            for (int j = 0; round && j < value.length(); ) {
+                int codePoint = value.codePointAt(j);
+                round = font.canDisplay(codePoint);
+                j += Character.charCount(codePoint);
+            }
+            direct &= round;
+        }
+        long directTime = System.nanoTime() - start;
+
+        assertTrue(bitmap);
+        assertEquals(direct, bitmap);
+        System.out.println("Coverage build: " + build / 1000 + "us");
+        System.out.println("FontCoverage:   " + bitmapTime / 1000000 + "ms for " + rounds + " x " + value.length() + " chars");
+        System.out.println("Font.canDisplay: " + directTime / 1000000 + "ms for " + rounds + " x " + value.length() + " chars");
+    }
+}
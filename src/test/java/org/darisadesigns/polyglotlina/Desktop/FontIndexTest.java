@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.Desktop;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uses a temporary directory of test fonts as a stand in for system fonts
+ *
+ * @author Draque Thompson
+ */
+public class FontIndexTest {
+    private static final String FONT_FAM = "Kukun_Linear_A";
+    private static final Path FONTS = Path.of(PGTUtil.TESTRESOURCES, "FontsAll");
+
+    @TempDir
+    Path tempDir;
+    Path fontRoot;
+    Path cacheFile;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        fontRoot = tempDir.resolve("fonts");
+        cacheFile = tempDir.resolve("index.json");
+
+        Path older = Files.createDirectories(fontRoot.resolve("older"));
+        Path newer = Files.createDirectories(fontRoot.resolve("newer"));
+
+        Files.copy(FONTS.resolve("KukunLinearA_V01.ttf"), older.resolve("KukunLinearA_V01.ttf"));
+        Files.copy(FONTS.resolve("KukunLinearA_V02.ttf"), older.resolve("KukunLinearA_V02.ttf"));
+        Files.copy(FONTS.resolve("Kukun_LinearA_V05.ttf"), newer.resolve("Kukun_LinearA_V05.ttf"));
+        Files.writeString(older.resolve("notes.txt"), "not a font");
+
+        older.resolve("KukunLinearA_V01.ttf").toFile().setLastModified(1000000L);
+        older.resolve("KukunLinearA_V02.ttf").toFile().setLastModified(2000000L);
+        newer.resolve("Kukun_LinearA_V05.ttf").toFile().setLastModified(3000000L);
+    }
+
+    @Test
+    public void testIndexFindsNewestFile() throws Exception {
+        System.out.println("FontIndexTest.testIndexFindsNewestFile");
+
+        FontIndex index = new FontIndex(cacheFile, List.of(fontRoot));
+
+        assertEquals("Kukun_LinearA_V05.ttf", index.getFontFile(FONT_FAM).getName());
+        assertNull(index.getFontFile("NOT_A_REAL_FONT"));
+        assertEquals(3, index.getFonts().size());
+        assertEquals(FONT_FAM, index.getFonts().get(0).getFamily());
+        assertFalse(index.getFonts().get(0).getStyle().isEmpty());
+        assertTrue(Files.exists(cacheFile));
+    }
+
+    @Test
+    public void testSavedIndexReusedWhileDirectoriesUnchanged() throws Exception {
+        System.out.println("FontIndexTest.testSavedIndexReusedWhileDirectoriesUnchanged");
+
+        new FontIndex(cacheFile, List.of(fontRoot)).getFontFile(FONT_FAM);
+
+        // rewriting a file in place leaves directory times untouched, so the
+        // saved index is trusted and the damaged font is never read
+        File newest = fontRoot.resolve("newer").resolve("Kukun_LinearA_V05.ttf").toFile();
+        long dirTime = newest.getParentFile().lastModified();
+        Files.writeString(newest.toPath(), "damaged");
+        newest.getParentFile().setLastModified(dirTime);
+
+        FontIndex index = new FontIndex(cacheFile, List.of(fontRoot));
+        assertEquals("Kukun_LinearA_V05.ttf", index.getFontFile(FONT_FAM).getName());
+        assertEquals(3, index.getFonts().size());
+    }
+
+    @Test
+    public void testChangedDirectoryRescanned() throws Exception {
+        System.out.println("FontIndexTest.testChangedDirectoryRescanned");
+
+        new FontIndex(cacheFile, List.of(fontRoot)).getFontFile(FONT_FAM);
+
+        Path older = fontRoot.resolve("older");
+        Files.copy(FONTS.resolve("KukunLinearA_V03.ttf"), older.resolve("KukunLinearA_V03.ttf"));
+        older.resolve("KukunLinearA_V03.ttf").toFile().setLastModified(4000000L);
+        older.toFile().setLastModified(older.toFile().lastModified() + 1000);
+
+        FontIndex index = new FontIndex(cacheFile, List.of(fontRoot));
+        assertEquals("KukunLinearA_V03.ttf", index.getFontFile(FONT_FAM).getName());
+        assertEquals(4, index.getFonts().size());
+    }
+
+    @Test
+    public void testRemovedFileRescanned() throws Exception {
+        System.out.println("FontIndexTest.testRemovedFileRescanned");
+
+        FontIndex index = new FontIndex(cacheFile, List.of(fontRoot));
+        assertEquals("Kukun_LinearA_V05.ttf", index.getFontFile(FONT_FAM).getName());
+
+        Files.delete(fontRoot.resolve("newer").resolve("Kukun_LinearA_V05.ttf"));
+
+        assertEquals("KukunLinearA_V02.ttf", index.getFontFile(FONT_FAM).getName());
+    }
+
+    @Test
+    public void testMissingRootIgnored() throws Exception {
+        System.out.println("FontIndexTest.testMissingRootIgnored");
+
+        FontIndex index = new FontIndex(cacheFile, List.of(tempDir.resolve("BIBBITYBOBBITYBOO"), fontRoot));
+
+        assertEquals("Kukun_LinearA_V05.ttf", index.getFontFile(FONT_FAM).getName());
+    }
+}
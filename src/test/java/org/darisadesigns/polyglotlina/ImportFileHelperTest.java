@@ -167,4 +167,33 @@ public class ImportFileHelperTest {
         }
     }
     
+    @Test
+    public void testImportFileRowCount() {
+        System.out.println("ImportFileHelperTest.testImportFileRowCount");
+        
+        int expectedRowCount = 4;
+        
+        ImportFileHelper helper = new ImportFileHelper(core);
+        
+        try {
+            helper.setOptions("0", 
+                    "1", 
+                    "2", 
+                    "3", 
+                    "4", 
+                    "5", 
+                    CSVFormat.DEFAULT, 
+                    true, 
+                    true, 
+                    "\"", 
+                    ImportFileHelper.DuplicateOption.IMPORT_ALL);
+            
+            helper.importFile(TEST_FILE, 0);
+            
+            assertEquals(expectedRowCount, helper.getRowsImported());
+            assertTrue(helper.getRowsPerSecond() > 0);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
 }
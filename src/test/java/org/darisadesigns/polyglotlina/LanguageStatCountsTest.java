@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina;
+
+import TestResources.DummyCore;
+import java.util.ArrayList;
+import java.util.List;
+import org.darisadesigns.polyglotlina.Nodes.ConWord;
+import org.darisadesigns.polyglotlina.Nodes.PronunciationNode;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author draque
+ */
+public class LanguageStatCountsTest extends PTest {
+    
+    @Test
+    public void testCountsAndMerge() {
+        System.out.println("LanguageStatCountsTest.testCountsAndMerge");
+        
+        DictCore core = DummyCore.newCore();
+        
+        try {
+            // alphabet positions: a=0, c=1, ch=2, h=3
+            core.getPropertiesManager().setAlphaOrder("a,c,ch,h,");
+            
+            for (String[] pair : new String[][]{{"a", "ɑ"}, {"ch", "tʃ"}, {"c", "k"}, {"h", "h"}}) {
+                PronunciationNode proc = new PronunciationNode();
+                proc.setValue(pair[0]);
+                proc.setPronunciation(pair[1]);
+                core.getPronunciationMgr().addPronunciation(proc);
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+        
+        LanguageStatCounts counts = new LanguageStatCounts(core);
+        LanguageStatCounts otherCounts = counts.emptyCopy();
+        
+        counts.addWord(new ConWord("chach", ""));
+        otherCounts.addWord(new ConWord("cah", ""));
+        otherCounts.addWord(new ConWord("hxa", ""));
+        counts.merge(otherCounts);
+        
+        assertEquals(3, counts.getWordCount());
+        assertEquals(Integer.valueOf(3), counts.getTypeCounts().get(0));
+        
+        // ch is taken whole rather than as c then h
+        assertEquals(1, counts.getWordStartCount(2));
+        assertEquals(1, counts.getWordStartCount(1));
+        assertEquals(1, counts.getWordStartCount(3));
+        assertEquals(3, counts.getLetterCount(0));
+        assertEquals(1, counts.getLetterCount(1));
+        assertEquals(2, counts.getLetterCount(2));
+        assertEquals(2, counts.getLetterCount(3));
+        
+        assertEquals(1, counts.getLetterComboCount(2, 0));
+        assertEquals(1, counts.getLetterComboCount(0, 2));
+        assertEquals(1, counts.getLetterComboCount(1, 0));
+        assertEquals(1, counts.getLetterComboCount(0, 3));
+        // letters separated by an unknown character are not a combination
+        assertEquals(0, counts.getLetterComboCount(3, 0));
+        assertEquals(1, counts.getHighestLetterComboCount());
+        
+        assertEquals(2, counts.getPhonemeCount("tʃ"));
+        assertEquals(2, counts.getPhonemeCount("ɑ"));
+        assertEquals(1, counts.getPhonemeComboCount("tʃ", "ɑ"));
+        assertEquals(1, counts.getPhonemeComboCount("k", "ɑ"));
+        assertEquals(0, counts.getPhonemeCount("x"));
+    }
+    
+    @Test
+    public void testLiveStatsFollowLexicon() {
+        System.out.println("LanguageStatCountsTest.testLiveStatsFollowLexicon");
+        
+        DictCore core = DummyCore.newCore();
+        
+        try {
+            core.getPropertiesManager().setAlphaOrder("a,c,ch,h,");
+            
+            PronunciationNode proc = new PronunciationNode();
+            proc.setValue("a");
+            proc.setPronunciation("ɑ");
+            core.getPronunciationMgr().addPronunciation(proc);
+            
+            int chachId = core.getWordCollection().addNode(newWord(core, "chach"));
+            int cahId = core.getWordCollection().addNode(newWord(core, "cah"));
+            
+            assertEquals(2, core.getWordCollection().getLanguageStatsPendingCount());
+            assertEquals(2, core.getWordCollection().getLanguageStats().getWordCount());
+            assertEquals(0, core.getWordCollection().getLanguageStatsPendingCount());
+            
+            // edits to words in place, modification, insertion and deletion
+            core.getWordCollection().getNodeById(chachId).setValue("hach");
+            core.getWordCollection().getNodeById(cahId).setWordTypeId(3);
+            core.getWordCollection().addNode(newWord(core, "ach"));
+            core.getWordCollection().modifyNode(cahId, newWord(core, "aca"));
+            core.getWordCollection().deleteNodeById(chachId);
+            
+            List<String> recounted = new ArrayList<>();
+            LanguageStatCounts live = core.getWordCollection().getLanguageStats(recounted::add);
+            
+            assertEquals(3, recounted.size());
+            assertStatsMatch(core, live);
+            assertEquals(3, live.getLetterCount(0));
+            assertEquals(0, live.getLetterCount(3));
+            assertNull(live.getTypeCounts().get(3));
+            
+            // changing pronunciation rules recounts everything
+            proc = new PronunciationNode();
+            proc.setValue("ch");
+            proc.setPronunciation("tʃ");
+            core.getPronunciationMgr().addPronunciation(proc);
+            
+            assertEquals(2, core.getWordCollection().getLanguageStatsPendingCount());
+            live = core.getWordCollection().getLanguageStats();
+            assertStatsMatch(core, live);
+            assertEquals(1, live.getPhonemeCount("tʃ"));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    private static ConWord newWord(DictCore core, String value) {
+        ConWord ret = new ConWord(value, "");
+        ret.setCore(core);
+        
+        return ret;
+    }
+    
+    private static void assertStatsMatch(DictCore core, LanguageStatCounts live) {
+        LanguageStatCounts expected = new LanguageStatCounts(core);
+        int alphabetSize = core.getPropertiesManager().getOrderedAlphaList().length;
+        
+        for (ConWord word : core.getWordCollection().getWordNodes()) {
+            expected.addWord(word);
+        }
+        
+        assertEquals(expected.getWordCount(), live.getWordCount());
+        assertEquals(expected.getTypeCounts(), live.getTypeCounts());
+        
+        for (int i = 0; i < alphabetSize; i++) {
+            assertEquals(expected.getWordStartCount(i), live.getWordStartCount(i));
+            assertEquals(expected.getLetterCount(i), live.getLetterCount(i));
+            
+            for (int j = 0; j < alphabetSize; j++) {
+                assertEquals(expected.getLetterComboCount(i, j), live.getLetterComboCount(i, j));
+            }
+        }
+        
+        for (PronunciationNode proc : core.getPronunciationMgr().getPronunciations()) {
+            assertEquals(expected.getPhonemeCount(proc.getPronunciation()), live.getPhonemeCount(proc.getPronunciation()));
+        }
+    }
+}
@@ -23,14 +23,18 @@ import TestResources.DummyCore;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.xml.parsers.ParserConfigurationException;
 import org.darisadesigns.polyglotlina.Desktop.DesktopIOHandler;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
+import org.darisadesigns.polyglotlina.Nodes.EvolutionPair;
 import org.darisadesigns.polyglotlina.PGTUtil;
 import org.darisadesigns.polyglotlina.PTest;
 import org.darisadesigns.polyglotlina.RegexTools.ReplaceOptions;
+import org.junit.jupiter.api.Assumptions;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
 
@@ -323,4 +327,339 @@ public class ConWordCollectionTest extends PTest {
         
         assertTrue(Arrays.equals(expectedVals, finalResults));
     }
+    
+    @Test
+    public void testEvolveLexiconDryRun() {
+        System.out.println("ConWordCollectionTest.testEvolveLexiconDryRun");
+        
+        DictCore core = DummyCore.newCore();
+        ConWordCollection collection = core.getWordCollection();
+        
+        try {
+            for (String value : new String[]{"abab", "bob", "kata", "a"}) {
+                ConWord newWord = new ConWord();
+                newWord.setValue(value);
+                collection.addWord(newWord);
+            }
+            
+            EvolutionPair[] preview = collection.evolveLexicon(new ConWord(), 100, ReplaceOptions.LastInsanceOnly, "a", "", true);
+            
+            // nothing changed, but the changes that would be made are reported
+            assertEquals(Arrays.asList("a", "abab", "bob", "kata"), getValues(Arrays.asList(collection.getWordNodes())));
+            assertEquals(3, preview.length);
+            
+            EvolutionPair[] applied = collection.evolveLexicon(new ConWord(), 100, ReplaceOptions.LastInsanceOnly, "a", "", false);
+            
+            assertEquals(preview.length, applied.length);
+            for (int i = 0; i < preview.length; i++) {
+                assertEquals(preview[i].start, applied[i].start);
+                assertEquals(preview[i].end, applied[i].end);
+                assertEquals(preview[i].issueDescription, applied[i].issueDescription);
+            }
+            
+            // blanked word reported as an error and left as it was
+            assertEquals("a", preview[0].start);
+            assertFalse(preview[0].issueDescription.isEmpty());
+            assertEquals(Arrays.asList("a", "abb", "bob", "kat"), getValues(Arrays.asList(collection.getWordNodes())));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void benchmarkEvolveLexicon() throws Exception {
+        Assumptions.assumeTrue(Boolean.getBoolean("polyglot.benchmark"));
+        System.out.println("ConWordCollectionTest.benchmarkEvolveLexicon");
+        
+        DictCore core = DummyCore.newCore();
+        ConWordCollection collection = core.getWordCollection();
+        String letters = "ptkbdgmnlrsaeiou";
+        
+        for (int i = 0; i < 100000; i++) {
+            StringBuilder value = new StringBuilder();
+            
+            for (int seed = i + 1; seed > 0; seed /= letters.length()) {
+                value.append(letters.charAt(seed % letters.length())).append("aeiou".charAt(seed % 5));
+            }
+            
+            ConWord newWord = new ConWord();
+            newWord.setValue(value.toString());
+            collection.addWord(newWord);
+        }
+        
+        long start = System.nanoTime();
+        EvolutionPair[] preview = collection.evolveLexicon(new ConWord(), 100, ReplaceOptions.MiddleInstancesOnly, "([aeiou])([ptk])", "$1h$2", true);
+        long previewMillis = (System.nanoTime() - start) / 1000000;
+        
+        start = System.nanoTime();
+        EvolutionPair[] applied = collection.evolveLexicon(new ConWord(), 100, ReplaceOptions.MiddleInstancesOnly, "([aeiou])([ptk])", "$1h$2", false);
+        long applyMillis = (System.nanoTime() - start) / 1000000;
+        
+        assertEquals(preview.length, applied.length);
+        System.out.println("100000 words: dry run " + previewMillis + "ms, applied " + applyMillis + "ms (" + applied.length + " changed)");
+    }
+    
+    @Test
+    public void testGetRandomNodesExclusionsAndDeletes() {
+        System.out.println("ConWordCollectionTest.testGetRandomNodesExclusionsAndDeletes");
+        
+        DictCore core = DummyCore.newCore();
+        ConWordCollection collection = core.getWordCollection();
+        List<Integer> ids = new ArrayList<>();
+        
+        try {
+            for (int i = 0; i < 20; i++) {
+                ConWord newWord = new ConWord();
+                newWord.setValue("word" + i);
+                ids.add(collection.addWord(newWord));
+            }
+            
+            for (int i = 0; i < 5; i++) {
+                collection.deleteNodeById(ids.get(i * 3));
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+        
+        Integer excludeOne = ids.get(1);
+        Integer excludeTwo = ids.get(19);
+        List<ConWord> all = collection.getRandomNodes(100, excludeOne, excludeTwo, excludeOne);
+        Set<Integer> allIds = new HashSet<>();
+        
+        for (ConWord word : all) {
+            allIds.add(word.getId());
+        }
+        
+        assertEquals(13, all.size());
+        assertEquals(13, allIds.size());
+        assertFalse(allIds.contains(excludeOne));
+        assertFalse(allIds.contains(excludeTwo));
+        
+        for (int i = 0; i < 5; i++) {
+            assertFalse(allIds.contains(ids.get(i * 3)));
+        }
+        
+        List<ConWord> three = collection.getRandomNodes(3, excludeOne);
+        
+        assertEquals(3, three.size());
+        assertEquals(3, new HashSet<>(three).size());
+        assertFalse(three.contains(collection.getNodeById(excludeOne)));
+    }
+    
+    @Test
+    public void testGetWordNodesMaintainedOrder() {
+        System.out.println("ConWordCollectionTest.testGetWordNodesMaintainedOrder");
+        
+        DictCore core = DummyCore.newCore();
+        ConWordCollection collection = core.getWordCollection();
+        
+        try {
+            core.getPropertiesManager().setAlphaOrder("c,b,a,");
+            
+            for (String value : new String[]{"ab", "ca", "b", "cc", "a"}) {
+                ConWord newWord = new ConWord();
+                newWord.setValue(value);
+                collection.addWord(newWord);
+            }
+            
+            assertEquals(Arrays.asList("cc", "ca", "b", "a", "ab"), getValues(collection.getWordNodesList()));
+            
+            // additions after ordering is established
+            ConWord added = new ConWord();
+            added.setValue("bc");
+            int addedId = collection.addWord(added);
+            assertEquals(Arrays.asList("cc", "ca", "b", "bc", "a", "ab"), getValues(collection.getWordNodesList()));
+            
+            // in place edit
+            collection.getNodeById(addedId).setValue("aa");
+            assertEquals(Arrays.asList("cc", "ca", "b", "a", "ab", "aa"), getValues(collection.getWordNodesList()));
+            
+            // replacement and deletion
+            ConWord replacement = new ConWord();
+            replacement.setCore(core);
+            replacement.setValue("cb");
+            collection.modifyNode(addedId, replacement);
+            collection.deleteNodeById(collection.getWordNodes()[0].getId());
+            assertEquals(Arrays.asList("cb", "ca", "b", "a", "ab"), getValues(collection.getWordNodesList()));
+            
+            // alphabet change
+            core.getPropertiesManager().setAlphaOrder("a,b,c,");
+            assertEquals(Arrays.asList("a", "ab", "b", "ca", "cb"), getValues(collection.getWordNodesList()));
+            
+            // callers may not disturb maintained order
+            collection.getWordNodesList().clear();
+            assertEquals(5, collection.getWordNodes().length);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testFilteredListPartialAndCancelled() {
+        System.out.println("ConWordCollectionTest.testFilteredListPartialAndCancelled");
+        
+        DictCore core = DummyCore.newCore();
+        ConWordCollection collection = core.getWordCollection();
+        List<ConWord[]> partials = new ArrayList<>();
+        
+        try {
+            for (int i = 0; i < 2500; i++) {
+                ConWord newWord = new ConWord();
+                newWord.setValue("word" + i);
+                newWord.setLocalWord(i % 2 == 0 ? "even" : "odd");
+                collection.addWord(newWord);
+            }
+            
+            ConWord filter = new ConWord();
+            filter.setLocalWord("even");
+            ConWord[] results = collection.filteredList(filter, partials::add);
+            
+            assertEquals(1250, results.length);
+            assertEquals(2, partials.size());
+            
+            // partial results are leading portions of the final, sorted results
+            for (ConWord[] partial : partials) {
+                assertTrue(partial.length < results.length);
+                assertArrayEquals(Arrays.copyOf(results, partial.length), partial);
+            }
+            
+            Thread.currentThread().interrupt();
+            assertThrows(InterruptedException.class, () -> collection.filteredList(filter));
+            assertFalse(Thread.interrupted());
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testGetLikelyWordsFollowsLexicon() {
+        System.out.println("ConWordCollectionTest.testGetLikelyWordsFollowsLexicon");
+        
+        DictCore core = DummyCore.newCore();
+        ConWordCollection collection = core.getWordCollection();
+        
+        try {
+            int[] ids = new int[4];
+            String[][] entries = {
+                {"zot", "dog, hound", ""},
+                {"bap", "dog house", "<p>Where a dog sleeps.</p>"},
+                {"kem", "cat", "Not a dog. Chases the dog, dog, dog, dog and dog."},
+                {"lun", "bird", "Flies."}
+            };
+            
+            for (int i = 0; i < entries.length; i++) {
+                ConWord newWord = new ConWord();
+                newWord.setValue(entries[i][0]);
+                newWord.setLocalWord(entries[i][1]);
+                newWord.setDefinition(entries[i][2]);
+                ids[i] = collection.addWord(newWord);
+            }
+            
+            // synonym, then partial synonym with one definition hit, then capped definition hits
+            assertEquals(Arrays.asList("zot", "bap", "kem"), getValues(collection.getLikelyWords("Dog", 3)));
+            assertEquals(Arrays.asList("zot", "bap"), getValues(collection.getLikelyWords("dog", 2)));
+            assertEquals(Arrays.asList("bap"), getValues(collection.getLikelyWords("dog house", 3)));
+            assertTrue(collection.getLikelyWords("fish", 3).isEmpty());
+            
+            // in place edits, replacement and deletion are picked up
+            collection.getNodeById(ids[3]).setLocalWord("fish");
+            collection.getNodeById(ids[0]).setDefinition("A fish.");
+            assertEquals(Arrays.asList("lun", "zot"), getValues(collection.getLikelyWords("fish", 3)));
+            
+            collection.deleteNodeById(ids[3]);
+            ConWord replacement = new ConWord();
+            replacement.setCore(core);
+            replacement.setValue("kem");
+            replacement.setLocalWord("fish");
+            collection.modifyNode(ids[2], replacement);
+            assertEquals(Arrays.asList("kem", "zot"), getValues(collection.getLikelyWords("fish", 3)));
+            assertEquals(Arrays.asList("zot", "bap"), getValues(collection.getLikelyWords("dog", 3)));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    public void testValueEditRepositionsWithoutResort() {
+        System.out.println("ConWordCollectionTest.testValueEditRepositionsWithoutResort");
+        
+        try {
+            DictCore core = DummyCore.newCore();
+            ConWordCollection collection = core.getWordCollection();
+            
+            for (String value : new String[]{"dap", "kel", "mof", "zem"}) {
+                ConWord word = new ConWord();
+                word.setValue(value);
+                collection.addWord(word);
+            }
+            
+            assertEquals(Arrays.asList("dap", "kel", "mof", "zem"), getValues(collection.getWordNodesList()));
+            int sorts = collection.getFullSortCount();
+            
+            // edited in place, as the lexicon screen does
+            ConWord edited = collection.getWordNodesList().get(0);
+            edited.setValue("nub");
+            assertEquals(Arrays.asList("kel", "mof", "nub", "zem"), getValues(collection.getWordNodesList()));
+            
+            edited.setValue("aaa");
+            collection.getWordNodesList().get(3).setValue("lap");
+            assertEquals(Arrays.asList("aaa", "kel", "lap", "mof"), getValues(collection.getWordNodesList()));
+            assertEquals(sorts, collection.getFullSortCount());
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    @Test
+    public void testAddWordsMergesBatch() {
+        System.out.println("ConWordCollectionTest.testAddWordsMergesBatch");
+        
+        try {
+            DictCore core = DummyCore.newCore();
+            ConWordCollection collection = core.getWordCollection();
+            
+            for (String value : new String[]{"dap", "mof"}) {
+                ConWord word = new ConWord();
+                word.setValue(value);
+                collection.addWord(word);
+            }
+            
+            // ordering and indexes are maintained before the batch arrives
+            assertEquals(Arrays.asList("dap", "mof"), getValues(collection.getWordNodesList()));
+            assertEquals(2, collection.getLanguageStats().getWordCount());
+            assertTrue(collection.getLikelyWords("river", 3).isEmpty());
+            
+            List<ConWord> batch = new ArrayList<>();
+            for (String value : new String[]{"zem", "ank", "mof", "kel"}) {
+                ConWord word = new ConWord();
+                word.setValue(value);
+                word.setLocalWord(value.equals("kel") ? "river" : "");
+                batch.add(word);
+            }
+            
+            ConWord existingMof = collection.getWordNodesList().get(1);
+            collection.addWords(batch);
+            
+            List<ConWord> merged = collection.getWordNodesList();
+            assertEquals(Arrays.asList("ank", "dap", "kel", "mof", "mof", "zem"), getValues(merged));
+            // equal values keep insertion order
+            assertSame(existingMof, merged.get(3));
+            assertSame(batch.get(0), collection.getNodeById(batch.get(0).getId()));
+            assertEquals(6, collection.getWordCount());
+            assertEquals(6, collection.getLanguageStats().getWordCount());
+            assertEquals(Arrays.asList("kel"), getValues(collection.getLikelyWords("river", 3)));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+
+    private List<String> getValues(List<ConWord> words) {
+        List<String> ret = new ArrayList<>();
+        
+        for (ConWord word : words) {
+            ret.add(word.getValue());
+        }
+        
+        return ret;
+    }
 }
@@ -221,4 +221,84 @@ public class EtymologyManagerTest {
             }
         }
     }
+    
+    @Test
+    public void testChildHasParentFollowsRelationChanges() {
+        System.out.println("EtymologyManagerTest.testChildHasParentFollowsRelationChanges");
+        
+        try {
+            DictCore core = DummyCore.newCore();
+            ConWordCollection words = core.getWordCollection();
+            EtymologyManager etMan = core.getEtymologyManager();
+            int[] ids = new int[5];
+            
+            for (int i = 0; i < ids.length; i++) {
+                ConWord maker = new ConWord();
+                maker.setValue("BLAH" + i);
+                ids[i] = words.addWord(maker);
+            }
+            
+            // 0 -> 1 -> 2 -> 3, and 4 -> 2
+            etMan.addRelation(ids[0], ids[1]);
+            etMan.addRelation(ids[1], ids[2]);
+            assertTrue(etMan.childHasParent(ids[2], ids[0]));
+            assertFalse(etMan.childHasParent(ids[0], ids[2]));
+            
+            // relations added after ancestry was cached are reflected
+            etMan.addRelation(ids[2], ids[3]);
+            etMan.addRelation(ids[4], ids[2]);
+            assertTrue(etMan.childHasParent(ids[3], ids[0]));
+            assertTrue(etMan.childHasParent(ids[3], ids[4]));
+            assertFalse(etMan.childHasParent(ids[1], ids[4]));
+            
+            etMan.delRelation(ids[0], ids[1]);
+            assertFalse(etMan.childHasParent(ids[3], ids[0]));
+            assertTrue(etMan.childHasParent(ids[3], ids[1]));
+            assertTrue(etMan.childHasParent(ids[3], ids[4]));
+            
+            // adding the deepest descendant as a root of the topmost word loops
+            assertThrows(EtymologyManager.IllegalLoopException.class, () -> {
+                etMan.addRelation(ids[3], ids[4]);
+            });
+            assertEquals(0, etMan.checkAllForIllegalLoops().length);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testCheckAllForIllegalLoops_BelowRoot() {
+        System.out.println("EtymologyManagerTest.testCheckAllForIllegalLoops_BelowRoot");
+        
+        try {
+            DictCore core = DummyCore.newCore();
+            ConWordCollection words = core.getWordCollection();
+            EtymologyManager etMan = core.getEtymologyManager();
+            int[] ids = new int[4];
+            
+            for (int i = 0; i < ids.length; i++) {
+                ConWord maker = new ConWord();
+                maker.setValue("BLAH" + i);
+                ids[i] = words.addWord(maker);
+            }
+            
+            // 0 feeds into loop 1 -> 2 -> 1, and 3 is its own parent
+            etMan.addRelation(ids[0], ids[1]);
+            etMan.addRelation(ids[1], ids[2]);
+            etMan.addRelation(ids[2], ids[1], true);
+            etMan.addRelation(ids[3], ids[3], true);
+            
+            ConWord[] results = etMan.checkAllForIllegalLoops();
+            assertEquals(3, results.length);
+            
+            for (ConWord curWord : results) {
+                assertNotEquals(ids[0], curWord.getId());
+            }
+            
+            assertTrue(etMan.childHasParent(ids[1], ids[1]));
+            assertFalse(etMan.childHasParent(ids[0], ids[1]));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
 }
@@ -0,0 +1,167 @@
+/*
+ * Copyright (c) 2023, Draque Thompson
+ * All rights reserved.
+ *
+ * Licensed under: MIT Licence
+ * See LICENSE.TXT included with this code to read the full license agreement.
+
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.darisadesigns.polyglotlina.ManagersCollections;
+
+import TestResources.DummyCore;
+import java.util.Arrays;
+import org.darisadesigns.polyglotlina.DictCore;
+import org.darisadesigns.polyglotlina.Nodes.ConWord;
+import org.darisadesigns.polyglotlina.Nodes.LogoNode;
+import org.darisadesigns.polyglotlina.PTest;
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+/**
+ *
+ * @author draque
+ */
+public class LogoCollectionTest extends PTest {
+    
+    @Test
+    public void testGetFilteredListTracksEdits() {
+        System.out.println("LogoCollectionTest.testGetFilteredListTracksEdits");
+        
+        try {
+            DictCore core = DummyCore.newCore();
+            LogoCollection logos = core.getLogoCollection();
+            
+            LogoNode radical = new LogoNode(core);
+            radical.setValue("Tree");
+            radical.setStrokes(4);
+            radical = logos.getNodeById(logos.addNode(radical));
+            
+            LogoNode forest = new LogoNode(core);
+            forest.setValue("Forest");
+            forest.setStrokes(8);
+            forest.addReading("Mori");
+            forest.setNotes("Many Trees");
+            forest.addRadical(radical);
+            int forestId = logos.addNode(forest);
+            forest = logos.getNodeById(forestId);
+            
+            ConWord word = new ConWord();
+            word.setValue("woods");
+            int wordId = core.getWordCollection().addWord(word);
+            logos.addWordLogoRelation(core.getWordCollection().getNodeById(wordId), forest);
+            
+            assertArrayEquals(new LogoNode[]{forest}, logos.getFilteredList("Mori", "", "", 0, ""));
+            assertArrayEquals(new LogoNode[]{forest}, logos.getFilteredList("", "", "Tree", 8, ""));
+            assertArrayEquals(new LogoNode[]{forest}, logos.getFilteredList("", "woods", "", 0, ""));
+            assertArrayEquals(new LogoNode[]{forest}, logos.getFilteredList("", "", "", 0, "Trees"));
+            assertEquals(0, logos.getFilteredList("mori", "", "", 0, "").length);
+            assertEquals(0, logos.getFilteredList("", "", "", 4, "Trees").length);
+            
+            // in place edits must be reflected by the next search
+            forest.setStrokes(9);
+            forest.addReading("Shin");
+            radical.setValue("Wood");
+            
+            assertEquals(0, logos.getFilteredList("", "", "", 8, "").length);
+            assertArrayEquals(new LogoNode[]{forest}, logos.getFilteredList("Shin", "", "Wood", 9, ""));
+            assertEquals(0, logos.getFilteredList("", "", "Tree", 0, "").length);
+            
+            core.getPropertiesManager().setIgnoreCase(true);
+            assertArrayEquals(new LogoNode[]{forest}, logos.getFilteredList("mori", "WOODS", "wood", 0, "many"));
+            
+            logos.deleteNodeById(forestId);
+            assertEquals(0, logos.getFilteredList("Mori", "", "", 0, "").length);
+            assertEquals(Arrays.asList(radical), Arrays.asList(logos.getFilteredList("", "", "", 4, "")));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testGetFilteredListRelatedWordIndex() {
+        System.out.println("LogoCollectionTest.testGetFilteredListRelatedWordIndex");
+        
+        try {
+            DictCore core = DummyCore.newCore();
+            LogoCollection logos = core.getLogoCollection();
+            ConWordCollection words = core.getWordCollection();
+            
+            LogoNode water = new LogoNode(core);
+            water.setValue("Water");
+            water = logos.getNodeById(logos.addNode(water));
+            
+            LogoNode river = new LogoNode(core);
+            river.setValue("River");
+            river = logos.getNodeById(logos.addNode(river));
+            
+            ConWord lower = new ConWord();
+            lower.setValue("mizu");
+            lower = words.getNodeById(words.addWord(lower));
+            
+            ConWord upper = new ConWord();
+            upper.setValue("Mizu");
+            upper = words.getNodeById(words.addWord(upper));
+            
+            logos.addWordLogoRelation(lower, water);
+            logos.addWordLogoRelation(upper, river);
+            
+            assertArrayEquals(new LogoNode[]{water}, logos.getFilteredList("", "mizu", "", 0, ""));
+            assertArrayEquals(new LogoNode[]{river}, logos.getFilteredList("", "Mizu", "", 0, ""));
+            assertEquals(0, logos.getFilteredList("", "MIZU", "", 0, "").length);
+            
+            core.getPropertiesManager().setIgnoreCase(true);
+            assertEquals(2, logos.getFilteredList("", "MIZU", "", 0, "").length);
+            core.getPropertiesManager().setIgnoreCase(false);
+            
+            // renamed words are found under their new value only
+            upper.setValue("Kawa");
+            assertArrayEquals(new LogoNode[]{river}, logos.getFilteredList("", "Kawa", "", 0, ""));
+            assertEquals(0, logos.getFilteredList("", "Mizu", "", 0, "").length);
+            
+            logos.removeWordLogoRelation(lower, water);
+            assertEquals(0, logos.getFilteredList("", "mizu", "", 0, "").length);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testGetFilteredListSkipsDeletedWords() {
+        System.out.println("LogoCollectionTest.testGetFilteredListSkipsDeletedWords");
+        
+        try {
+            DictCore core = DummyCore.newCore();
+            LogoCollection logos = core.getLogoCollection();
+            ConWordCollection words = core.getWordCollection();
+            
+            LogoNode logo = new LogoNode(core);
+            logo.setValue("Zot");
+            logo = logos.getNodeById(logos.addNode(logo));
+            
+            ConWord word = new ConWord();
+            word.setValue("zot");
+            word = words.getNodeById(words.addWord(word));
+            
+            logos.addWordLogoRelation(word, logo);
+            words.deleteNodeById(word.getId());
+            
+            assertEquals(0, logos.getFilteredList("", "zot", "", 0, "").length);
+            core.getPropertiesManager().setIgnoreCase(true);
+            assertEquals(0, logos.getFilteredList("", "zot", "", 0, "").length);
+            assertEquals(0, logos.getFilteredList("", "ZOT", "", 0, "").length);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+}
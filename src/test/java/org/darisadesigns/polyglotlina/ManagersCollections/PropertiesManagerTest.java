@@ -21,6 +21,9 @@ package org.darisadesigns.polyglotlina.ManagersCollections;
 
 import TestResources.DummyCore;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.darisadesigns.polyglotlina.CustomControls.AlphabetTrie;
 import org.darisadesigns.polyglotlina.CustomControls.PAlphaMap;
 import org.darisadesigns.polyglotlina.Desktop.DesktopIOHandler;
 import org.darisadesigns.polyglotlina.DictCore;
@@ -209,4 +212,131 @@ public class PropertiesManagerTest {
             fail(e);
         }
     }
+    
+    @Test
+    public void testStringAgainstAlphabet_multigraphs() throws Exception {
+        System.out.println("PropertiesManagerTest.testStringAgainstAlphabet_multigraphs");
+        PropertiesManager instance = core.getPropertiesManager();
+        instance.setAlphaOrder("a,ab,bc,ch,sch,e,n,ng");
+        
+        assertTrue(instance.testStringAgainstAlphabet(""));
+        assertTrue(instance.testStringAgainstAlphabet("abc")); // only as a + bc
+        assertTrue(instance.testStringAgainstAlphabet("schang"));
+        assertTrue(instance.testStringAgainstAlphabet("ab ng"));
+        assertFalse(instance.testStringAgainstAlphabet("abcx"));
+        assertFalse(instance.testStringAgainstAlphabet("b"));
+        assertFalse(instance.testStringAgainstAlphabet("sc"));
+        
+        // alphabet changes are picked up
+        instance.setAlphaOrder("x");
+        assertTrue(instance.testStringAgainstAlphabet("xx"));
+        assertFalse(instance.testStringAgainstAlphabet("abc"));
+    }
+    
+    @Test
+    public void testStringAgainstAlphabet_matchesRecursiveWalk() throws Exception {
+        System.out.println("PropertiesManagerTest.testStringAgainstAlphabet_matchesRecursiveWalk");
+        PropertiesManager instance = core.getPropertiesManager();
+        String[] pieces = {"a", "ab", "bc", "c", "ch", "sch", "s", "h", "e", "ng", "n", "g", "x", "\u00e9"};
+        instance.setAlphaOrder("a,ab,bc,ch,sch,e,n,ng,\u00e9");
+        Random random = new Random(12);
+        
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 1 + random.nextInt(8);
+            
+            for (int j = 0; j < length; j++) {
+                word.append(pieces[random.nextInt(pieces.length)]);
+            }
+            
+            // spaces excluded: the recursive walk lost its place after skipping one
+            String test = word.toString();
+            assertEquals(recursiveTestString(instance.getAlphaOrder(), test), 
+                    instance.testStringAgainstAlphabet(test), test);
+        }
+    }
+    
+    @Test
+    public void testFindBadLetters_spans() throws Exception {
+        System.out.println("PropertiesManagerTest.testFindBadLetters_spans");
+        PropertiesManager instance = core.getPropertiesManager();
+        instance.setAlphaOrder("a,ab,bc,ch,sch,e,n,ng");
+        
+        assertEquals(List.of(), instance.findBadLetterSpans("abc schang"));
+        assertEquals(List.of(new AlphabetTrie.Span(2, 4)), instance.findBadLetterSpans("ab12ng"));
+        assertEquals(List.of(new AlphabetTrie.Span(0, 1), new AlphabetTrie.Span(4, 6)), 
+                instance.findBadLetterSpans("xabcyz"));
+        assertEquals(List.of(new AlphabetTrie.Span(3, 4), new AlphabetTrie.Span(5, 6)), 
+                instance.findBadLetterSpans("ena1 2"));
+        // surrogate pairs reported whole
+        String supplementary = new String(Character.toChars(0x10400));
+        assertEquals(List.of(new AlphabetTrie.Span(1, 3)), instance.findBadLetterSpans("a" + supplementary + "e"));
+        
+        assertEquals("12", instance.findBadLetters("ab12ng"));
+        assertEquals("x, yz", instance.findBadLetters("xabcyz"));
+        assertEquals("???", instance.findBadLetters("abc"));
+    }
+    
+    @Test
+    public void testFindBadLetters_matchesSegmentRemoval() throws Exception {
+        System.out.println("PropertiesManagerTest.testFindBadLetters_matchesSegmentRemoval");
+        PropertiesManager instance = core.getPropertiesManager();
+        instance.setAlphaOrder("a,ab,bc,ch,sch,e,n,ng");
+        
+        // a single bad run short of the final character is what segment removal finds
+        for (String word : new String[]{"a1e", "ab12ng", "schaXYZen", "1a", "ngQe", "bcQQQQa"}) {
+            assertEquals(segmentRemovalBadLetters(instance, word), instance.findBadLetters(word), word);
+        }
+    }
+    
+    /**
+     * Recursive walk formerly used by testStringAgainstAlphabet, for comparison
+     */
+    private static boolean recursiveTestString(PAlphaMap<String, Integer> alphaOrder, String testString) {
+        int longestChar = alphaOrder.getLongestEntry();
+        boolean ret = false;
+        
+        if (testString.isEmpty()) {
+            ret = true;
+        } else if (!alphaOrder.isEmpty()) {
+            String currentCharacter = "";
+            
+            for (char c : testString.toCharArray()) {
+                if (c == ' ') {
+                    continue;
+                }
+                
+                currentCharacter += c;
+                
+                if (currentCharacter.length() > longestChar) {
+                    ret = false;
+                    break;
+                } else if (alphaOrder.containsKey(currentCharacter) 
+                        && recursiveTestString(alphaOrder, testString.substring(currentCharacter.length()))) {
+                    ret = true;
+                    break;
+                }
+            }
+        }
+        
+        return ret;
+    }
+    
+    /**
+     * Segment removal search formerly used by findBadLetters, for comparison
+     */
+    private static String segmentRemovalBadLetters(PropertiesManager instance, String search) {
+        for (int curLength = 1; curLength < search.length(); curLength++) {
+            for (int pos = 0; pos + curLength < search.length(); pos++) {
+                String clearedString = search.substring(0, pos)
+                        + search.substring(pos + curLength, search.length() - 1);
+                
+                if (instance.testStringAgainstAlphabet(clearedString)) {
+                    return search.substring(pos, pos + curLength);
+                }
+            }
+        }
+        
+        return "???";
+    }
 }
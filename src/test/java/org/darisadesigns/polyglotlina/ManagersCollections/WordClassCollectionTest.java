@@ -21,7 +21,9 @@ package org.darisadesigns.polyglotlina.ManagersCollections;
 
 import TestResources.DummyCore;
 import java.io.IOException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.xml.parsers.ParserConfigurationException;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
@@ -63,4 +65,47 @@ public class WordClassCollectionTest {
             fail(e);
         }
     }
+    
+    /**
+     * Test of getRandomPropertyCombinations method, of class WordClassCollection.
+     * Requesting more than exist returns each combination once, never the excluded one.
+     */
+    @Test
+    public void testGetRandomPropertyCombinationsExhaustive() {
+        DictCore core = DummyCore.newCore();
+        
+        try {
+            core.readFile(PGTUtil.TESTRESOURCES + "WordClassTesto.pgd");
+
+            ConWord excludeWord = new ConWord();
+            excludeWord.setCore(core);
+            int expectedCount = 1;
+            
+            for (WordClass wClass : core.getWordClassCollection().getAllWordClasses()) {
+                expectedCount *= wClass.getValues().size();
+                excludeWord.setClassValue(wClass.getId(), wClass.getValues().iterator().next().getId());
+            }
+            
+            // the excluded word's own combination is never offered
+            expectedCount--;
+
+            List<List<PEntry<Integer, Integer>>> combos = core.getWordClassCollection().getRandomPropertyCombinations(expectedCount + 10, excludeWord);
+            Set<Set<PEntry<Integer, Integer>>> unique = new HashSet<>();
+            Set<PEntry<Integer, Integer>> excluded = new HashSet<>();
+            
+            for (var classValue : excludeWord.getClassValues()) {
+                excluded.add(new PEntry<>(classValue.getKey(), classValue.getValue()));
+            }
+            
+            for (List<PEntry<Integer, Integer>> combo : combos) {
+                unique.add(new HashSet<>(combo));
+            }
+
+            assertEquals(expectedCount, combos.size());
+            assertEquals(expectedCount, unique.size());
+            assertFalse(unique.contains(excluded));
+        } catch (IOException | IllegalStateException | ParserConfigurationException e) {
+            fail(e);
+        }
+    }
 }
@@ -259,6 +259,34 @@ public class ConWordTest {
         assertEquals(orderMe.get(0), before);
     }
 
+    @Test
+    public void testPlainDefinitionInvalidated() {
+        System.out.println("ConWordTest.testPlainDefinitionInvalidated");
+        
+        ConWord test = new ConWord();
+        test.setCore(core);
+        test.setDefinition("<html><body><p>first</p></body></html>");
+        assertEquals("\nfirst", test.getPlainDefinition());
+        
+        test.setDefinition("<html><body>second<br>line</body></html>");
+        assertEquals("second\nline", test.getPlainDefinition());
+        
+        ConWord copy = new ConWord();
+        copy.setCore(core);
+        copy.setDefinition("stale");
+        assertEquals("stale", copy.getPlainDefinition());
+        copy.setEqual(test);
+        assertEquals("second\nline", copy.getPlainDefinition());
+        
+        EtyExternalParent parent = new EtyExternalParent();
+        EtyExternalParent other = new EtyExternalParent();
+        parent.setDefinition("old");
+        assertEquals("old", parent.getPlainDefinition());
+        other.setDefinition("<b>new</b>");
+        parent.setEqual(other);
+        assertEquals("new", parent.getPlainDefinition());
+    }
+
     @Test
     public void testWriteXML() {
         System.out.println("ConWordTest.testWriteXML");
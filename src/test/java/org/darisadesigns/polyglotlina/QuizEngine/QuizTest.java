@@ -304,6 +304,38 @@ public class QuizTest {
         assertEquals(expectedMessage, resultMessage);
     }
     
+    @Test
+    public void testQuestionsAskedInIdOrder() {
+        System.out.println("QuizTest.testQuestionsAskedInIdOrder");
+        
+        try {
+            Quiz ordered = new Quiz(core);
+            int[] ids = new int[136];
+            
+            for (int i = 0; i < 96; i++) {
+                ids[i] = ordered.addNode(new QuizQuestion(core));
+            }
+            
+            for (int i = 0; i < 90; i++) {
+                ordered.deleteNodeById(ids[i]);
+            }
+            
+            // later IDs wrap into hash slots freed by the removed ones
+            for (int i = 96; i < ids.length; i++) {
+                ids[i] = ordered.addNode(new QuizQuestion(core));
+            }
+            
+            for (int i = 90; i < ids.length; i++) {
+                assertTrue(ordered.hasNext());
+                assertEquals(ids[i], ordered.next().getId());
+            }
+            
+            assertFalse(ordered.hasNext());
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
     @Test
     public void testPrevInitial() {
         System.out.println("QuizTest.testPrevInitial");
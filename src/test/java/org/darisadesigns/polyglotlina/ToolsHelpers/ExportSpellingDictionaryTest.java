@@ -21,12 +21,18 @@ package org.darisadesigns.polyglotlina.ToolsHelpers;
 
 import TestResources.DummyCore;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
 import javax.xml.parsers.ParserConfigurationException;
 import org.darisadesigns.polyglotlina.DictCore;
 import org.darisadesigns.polyglotlina.Nodes.ConWord;
 import org.darisadesigns.polyglotlina.PGTUtil;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  *
@@ -155,6 +161,47 @@ public class ExportSpellingDictionaryTest {
 
         assertEquals(expectedValue, result);
     }
+    
+    @Test
+    public void testExportWholeLexicon(@TempDir Path tempDir) {
+        Path target = tempDir.resolve("export.dic");
+        
+        try {
+            for (ConWord word : core.getWordCollection().getWordNodes()) {
+                export.populateFromWord(word);
+            }
+            
+            new ExportSpellingDictionary(core).ExportSpellingDictionary(target.toString());
+            
+            // streamed export matches forms gathered word by word
+            assertEquals(export.getCurrentStringValue(), Files.readString(target, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testExportHunspell(@TempDir Path tempDir) {
+        Path target = tempDir.resolve("export.dic");
+        
+        try {
+            for (ConWord word : core.getWordCollection().getWordNodes()) {
+                export.populateFromWord(word);
+            }
+            
+            new ExportSpellingDictionary(core).exportHunspell(target.toString());
+            
+            List<String> lines = Files.readAllLines(target, StandardCharsets.UTF_8);
+            List<String> expected = Arrays.asList(export.getCurrentStringValue().split("\n"));
+            
+            assertTrue(Integer.parseInt(lines.get(0)) >= expected.size());
+            assertEquals(expected, lines.subList(1, lines.size()));
+            assertEquals("SET UTF-8\n", Files.readString(tempDir.resolve("export.aff"), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+    
     /**
      * Sloppy way to snag my test conwords
      *
@@ -20,12 +20,22 @@
 
 package org.darisadesigns.polyglotlina;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.w3c.dom.Document;
 
 /**
  *
@@ -48,6 +58,153 @@ public class XMLRecoveryToolTest {
         }
     }
     
+    @Test
+    public void testRepairsReportLines() {
+        System.out.println("XMLRecoveryToolTest.testRepairsReportLines");
+        
+        String corrupted = """
+                <?xml version="1.0" encoding="UTF-8" standalone="no"?>
+                <dictionary>
+                    <lexicon>
+                        <word>
+                            <wordId>2</wordId>
+                            <definition>fish & chips
+                            <wordProcOverride>F</wordProcOverride>
+                        </word>
+                        <word><wordId>3</wordI
+                """;
+        
+        try {
+            XMLRecoveryTool tool = new XMLRecoveryTool(corrupted);
+            String recovered = tool.recoverXml();
+            
+            assertEquals(List.of(
+                    "Line 6, column 30: escaped bare ampersand",
+                    "Line 8, column 9: closed unclosed element <definition>",
+                    "Line 9, column 24: removed truncated tag </wordI",
+                    "Line 9, column 31: closed unclosed element <wordId>",
+                    "Line 9, column 31: closed unclosed element <word>",
+                    "Line 9, column 31: closed unclosed element <lexicon>",
+                    "Line 9, column 31: closed unclosed element <dictionary>"),
+                    tool.getRepairs());
+            assertTrue(recovered.contains("<definition>fish &amp; chips\n            </definition><wordProcOverride>"));
+            assertTrue(recovered.endsWith("<word><wordId>3</wordId></word></lexicon></dictionary>"));
+            parse(recovered);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testMismatchedCloseWrapsValue() {
+        System.out.println("XMLRecoveryToolTest.testMismatchedCloseWrapsValue");
+        
+        try {
+            XMLRecoveryTool tool = new XMLRecoveryTool("<root><a>text</b></root>");
+            String recovered = tool.recoverXml();
+            
+            assertEquals("<root><a><b>text</b></a></root>", recovered);
+            assertEquals("text", parse(recovered).getElementsByTagName("b").item(0).getTextContent());
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @ParameterizedTest
+    @ValueSource(strings = {"Lodenkur_TEST.pgd", "basic_lang.pgd", "test_equality.pgd"})
+    public void testRecoverTruncatedFixture(String fixture) {
+        System.out.println("XMLRecoveryToolTest.testRecoverTruncatedFixture (" + fixture + ")");
+        
+        try {
+            String xml = readFixture(fixture);
+            
+            for (int cut = 1; cut < 8; cut++) {
+                String truncated = xml.substring(0, xml.length() * cut / 8);
+                String recovered = new XMLRecoveryTool(truncated).recoverXml();
+                
+                // everything before the cut survives, closed off
+                assertTrue(recovered.startsWith(truncated.substring(0, truncated.lastIndexOf('<')).trim()));
+                parse(recovered);
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testRecoverGarbledFixture() {
+        System.out.println("XMLRecoveryToolTest.testRecoverGarbledFixture");
+        
+        try {
+            String xml = readFixture("Lodenkur_TEST.pgd");
+            int wordCount = parse(xml).getElementsByTagName(PGTUtil.WORD_XID).getLength();
+            String garbled = garble(xml);
+            
+            XMLRecoveryTool tool = new XMLRecoveryTool(garbled);
+            Document recovered = parse(tool.recoverXml());
+            
+            assertEquals(wordCount, recovered.getElementsByTagName(PGTUtil.WORD_XID).getLength());
+            assertTrue(tool.getRepairs().size() > 400);
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testRecoverLargeGarbledFileTime() {
+        System.out.println("XMLRecoveryToolTest.testRecoverLargeGarbledFileTime");
+        
+        try {
+            String xml = readFixture("Lodenkur_TEST.pgd");
+            int lexiconStart = xml.indexOf("<lexicon>") + "<lexicon>".length();
+            int lexiconEnd = xml.indexOf("</lexicon>");
+            String words = xml.substring(lexiconStart, lexiconEnd);
+            String large = xml.substring(0, lexiconStart) + words.repeat(20) + xml.substring(lexiconEnd);
+            String garbled = garble(large);
+            
+            long start = System.nanoTime();
+            String recovered = new XMLRecoveryTool(garbled).recoverXml();
+            long millis = (System.nanoTime() - start) / 1000000;
+            
+            System.out.println(garbled.length() + " characters recovered in " + millis + "ms");
+            parse(recovered);
+            assertTrue(millis < 5000, "Recovery took " + millis + "ms");
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    /**
+     * Drops every definition's closing tag, breaks every tenth word ID tag and
+     * adds a bare ampersand to every value
+     */
+    private static String garble(String xml) {
+        StringBuilder ret = new StringBuilder();
+        String[] wordIdTags = xml.replace("</definition>", "").split("<wordId>", -1);
+        
+        for (int i = 0; i < wordIdTags.length; i++) {
+            if (i > 0) {
+                ret.append(i % 10 == 0 ? "<wordId" : "<wordId>");
+            }
+            
+            ret.append(wordIdTags[i]);
+        }
+        
+        return ret.toString().replace("<conWord>", "<conWord>& ");
+    }
+    
+    private static String readFixture(String fixture) throws IOException {
+        try (ZipFile zip = new ZipFile(PGTUtil.TESTRESOURCES + fixture)) {
+            ZipEntry entry = zip.getEntry(PGTUtil.LANG_FILE_NAME);
+            return new String(zip.getInputStream(entry).readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+    
+    private static Document parse(String xml) throws Exception {
+        return DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+    
     static Stream<Arguments> corruptedXMLProvider() {
         return Stream.of(
             Arguments.of(
@@ -19,8 +19,14 @@
  */
 package org.darisadesigns.polyglotlina;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
 import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -79,7 +85,7 @@ public class ZompistVocabGeneratorTest {
             "QʰVN";
         
         try {
-            ZompistVocabGenerator instance = new ZompistVocabGenerator(false, false, 1, 1, categories, syllables, rewrites, illegals, null);
+            ZompistVocabGenerator instance = new ZompistVocabGenerator(false, false, 1, 1, categories, syllables, rewrites, illegals);
             String[] expResult = getTestSyllables_noCommas();
             String[] result = instance.genAllSyllables();
             
@@ -108,7 +114,7 @@ public class ZompistVocabGeneratorTest {
             "CRV\n";
         
         try {
-            ZompistVocabGenerator instance = new ZompistVocabGenerator(false, false, 1, 1, categories, syllables, rewrites, illegals, null);
+            ZompistVocabGenerator instance = new ZompistVocabGenerator(false, false, 1, 1, categories, syllables, rewrites, illegals);
             String[] expResult = getTestSyllables_withCommas();
             String[] result = instance.genAllSyllables();
             
@@ -283,6 +289,218 @@ public class ZompistVocabGeneratorTest {
         assertEquals(expResult, result);
     }
     
+    @Test
+    public void testGenWords_seedReproducible() {
+        System.out.println("ZompistVocabGeneratorTest.genWords_seedReproducible");
+        
+        try {
+            ZompistVocabGenerator instance = getWordGenerator();
+            instance.setSeed(42L);
+            instance.setParallelism(1);
+            String[] single = instance.genWords(2000);
+            instance.setParallelism(4);
+            String[] multiple = instance.genWords(2000);
+            
+            // same seed gives same words, however many threads generate them
+            assertEquals(2000, single.length);
+            assertEquals(2000, new HashSet<>(Arrays.asList(single)).size());
+            assertArrayEquals(single, multiple);
+            assertEquals(42L, instance.getLastSeed());
+            
+            instance.setSeed(43L);
+            assertFalse(Arrays.equals(single, instance.genWords(2000)));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testGenAllSyllables_resultCap() {
+        System.out.println("ZompistVocabGeneratorTest.genAllSyllables_resultCap");
+        
+        try {
+            ZompistVocabGenerator instance = getWordGenerator();
+            String[] all = instance.genAllSyllables();
+            assertFalse(instance.isCapReached());
+            
+            // the cap is shared across tasks, so which values fill it may vary
+            instance.setResultCap(100);
+            String[] capped = instance.genAllSyllables();
+            assertTrue(instance.isCapReached());
+            assertTrue(capped.length > 0 && capped.length <= 100);
+            assertTrue(Arrays.asList(all).containsAll(Arrays.asList(capped)));
+            
+            instance.setResultCap(all.length);
+            assertArrayEquals(all, instance.genAllSyllables());
+            assertFalse(instance.isCapReached());
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void benchmarkGenWordsScaling() throws Exception {
+        Assumptions.assumeTrue(Boolean.getBoolean("polyglot.benchmark"));
+        System.out.println("ZompistVocabGeneratorTest.benchmarkGenWordsScaling");
+        
+        ZompistVocabGenerator instance = getWordGenerator();
+        instance.setSeed(7L);
+        String[] expected = null;
+        
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            instance.setParallelism(threads);
+            long start = System.nanoTime();
+            String[] words = instance.genWords(200000);
+            long millis = (System.nanoTime() - start) / 1000000;
+            
+            if (expected == null) {
+                expected = words;
+            }
+            
+            assertArrayEquals(expected, words);
+            System.out.println(threads + " threads: " + millis + "ms (" + (200000000L / Math.max(1, millis)) + " words/s)");
+        }
+    }
+    
+    @Test
+    public void testGenAllSyllables_illegalsAndRewrites() {
+        System.out.println("ZompistVocabGeneratorTest.genAllSyllables_illegalsAndRewrites");
+        
+        String categories = "C=ptk\n" +
+            "V=aio";
+        String syllables = "CV\n" +
+            "CC\n" +
+            "CVC";
+        // literal, whole value regex, back reference and malformed regex clusters
+        String illegals = "ka\n" +
+            "t.\n" +
+            "(.)\\1\n" +
+            "[io\n" +
+            "ka";
+        String rewrites = "o|u\n" +
+            "^p|b\n" +
+            "(i)k|$1ŋ";
+        
+        try {
+            ZompistVocabGenerator instance = new ZompistVocabGenerator(false, false, 1, 1, categories, syllables, rewrites, illegals);
+            String[] result = instance.genAllSyllables();
+            
+            assertEquals(34, result.length);
+            assertTrue(Arrays.asList(result).contains("biŋ"));
+            
+            for (String value : result) {
+                assertFalse(value.contains("ka"), value);
+                assertFalse(value.matches("t.") || value.matches("(.)\\1"), value);
+                assertFalse(value.contains("o") || value.startsWith("p") || value.contains("ik"), value);
+            }
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testIterateAllSyllables_matchesEager() {
+        System.out.println("ZompistVocabGeneratorTest.iterateAllSyllables_matchesEager");
+        
+        String categories = "C=ptknlsmšywčhfŋ\n" +
+            "V=auieo\n" +
+            "N=nnŋmktp\n" +
+            "Q=ptkč";
+        String rewrites = "uu|wo\n" +
+            "aa|ia\n" +
+            "n$|m";
+        String syllables = "CV\n" +
+            "QʰVN\n" +
+            "VCV\n" +
+            "V";
+        
+        try {
+            ZompistVocabGenerator instance = new ZompistVocabGenerator(false, false, 1, 1, categories, syllables, rewrites, "pa\nt.");
+            List<String> streamed = new ArrayList<>();
+            instance.iterateAllSyllables().forEachRemaining(streamed::add);
+            
+            // streamed values are not deduplicated, but otherwise match in order
+            assertTrue(streamed.size() > new LinkedHashSet<>(streamed).size());
+            assertArrayEquals(instance.genAllSyllables(), new LinkedHashSet<>(streamed).toArray(new String[0]));
+            
+            instance = new ZompistVocabGenerator(false, false, 1, 1, "C=p,b,mz\nV=auie", "CV\nCVC\nV", "", "pa");
+            streamed.clear();
+            instance.iterateAllSyllables().forEachRemaining(streamed::add);
+            assertArrayEquals(instance.genAllSyllables(), streamed.toArray(new String[0]));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void testStreamAllSyllables_batches() {
+        System.out.println("ZompistVocabGeneratorTest.streamAllSyllables_batches");
+        
+        try {
+            ZompistVocabGenerator instance = getWordGenerator();
+            List<String> expected = new ArrayList<>();
+            List<String> streamed = new ArrayList<>();
+            List<Integer> batchSizes = new ArrayList<>();
+            instance.iterateAllSyllables().forEachRemaining(expected::add);
+            
+            instance.streamAllSyllables(64, batch -> {
+                batchSizes.add(batch.size());
+                streamed.addAll(batch);
+            });
+            
+            assertEquals(expected, streamed);
+            assertEquals((expected.size() + 63) / 64, batchSizes.size());
+            assertTrue(batchSizes.subList(0, batchSizes.size() - 1).stream().allMatch(size -> size == 64));
+        } catch (Exception e) {
+            fail(e);
+        }
+    }
+    
+    @Test
+    public void benchmarkIllegalsAndRewrites() throws Exception {
+        Assumptions.assumeTrue(Boolean.getBoolean("polyglot.benchmark"));
+        System.out.println("ZompistVocabGeneratorTest.benchmarkIllegalsAndRewrites");
+        
+        String consonants = "pbtdkgmnszfvlrhjwcqx";
+        String categories = "C=" + consonants + "\n" +
+            "V=aeiou";
+        String syllables = "CV\n" +
+            "CVC\n" +
+            "V";
+        StringBuilder illegals = new StringBuilder();
+        StringBuilder rewrites = new StringBuilder();
+        
+        for (int i = 0; i < 50; i++) {
+            illegals.append(consonants.charAt(i % 20)).append(consonants.charAt((i * 7 + 3) % 20)).append('\n');
+        }
+        
+        for (int i = 0; i < 30; i++) {
+            rewrites.append(consonants.charAt(i % 20)).append("aeiou".charAt(i % 5)).append("$|")
+                    .append(consonants.charAt((i + 1) % 20)).append("aeiou".charAt(i % 5)).append('\n');
+        }
+        
+        ZompistVocabGenerator instance = new ZompistVocabGenerator(false, false, 0.07f, 0, categories, syllables, rewrites.toString(), illegals.toString());
+        instance.setSeed(11L);
+        long start = System.nanoTime();
+        String[] words = instance.genWords(1000000);
+        long millis = (System.nanoTime() - start) / 1000000;
+        
+        assertEquals(1000000, words.length);
+        System.out.println("1000000 words, 50 clusters, 30 rewrite rules: " + millis + "ms");
+    }
+    
+    private ZompistVocabGenerator getWordGenerator() throws Exception {
+        String categories = "C=ptknlsmšywčhfŋ\n" +
+            "V=auieo\n" +
+            "N=nŋmktp";
+        String syllables = "CV\n" +
+            "CVN\n" +
+            "VN\n" +
+            "V";
+        
+        return new ZompistVocabGenerator(false, false, 0.2f, 15, categories, syllables, "aa|ia", "pa");
+    }
+    
     private String[] getTestSyllables_noCommas() {
         return ("pu\npi\npe\npo\nta\ntu\nti\nte\nto\nka\nku\nki\nke\nko\nna\nnu\nni\nne\nno\nla\nlu\nli\nle\nlo\nsa\nsu\nsi\nse\nso\nma\nmu\nmi\nme\nmo\nša\nšu\nši\n" +
             "še\nšo\nya\nyu\nyi\nye\nyo\nwa\nwu\nwi\nwe\nwo\nča\nču\nči\nče\nčo\nha\nhu\nhi\nhe\nho\nfa\nfu\nfi\nfe\nfo\nŋa\nŋu\nŋi\nŋe\nŋo\npʰa\npʰu\npʰi\npʰe\npʰo\n" +